@@ -0,0 +1,61 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark do mapeamento Encomenda → EncomendaResponseDTO usado nas listagens.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EncomendaResponseDTOBenchmark {
+
+  private Encomenda encomenda;
+
+  @Setup
+  public void setUp() {
+    Endereco origem =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+    Endereco destino = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+    encomenda =
+        new Encomenda(
+            new Cliente("Maria da Silva", "maria.silva@email.com", "12345678901"),
+            origem,
+            destino,
+            TipoEntrega.PADRAO,
+            "Bebê reborn colecionável",
+            new BigDecimal("2.5"),
+            new BigDecimal("45.0"),
+            new BigDecimal("350.00"));
+    encomenda.setFrete(
+        new Frete(
+            encomenda, TipoEntrega.PADRAO, new BigDecimal("161.25"), new BigDecimal("142.5"), 4));
+  }
+
+  @Benchmark
+  public EncomendaResponseDTO fromEntity() {
+    return EncomendaResponseDTO.fromEntity(encomenda);
+  }
+}
@@ -0,0 +1,41 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark da formatação de CEP da entidade Endereco.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EnderecoBenchmark {
+
+  private Endereco semHifen;
+  private Endereco comHifen;
+
+  @Setup
+  public void setUp() {
+    semHifen = new Endereco("01001000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+    comHifen = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+  }
+
+  @Benchmark
+  public String getCepFormatadoSemHifen() {
+    return semHifen.getCepFormatado();
+  }
+
+  @Benchmark
+  public String getCepFormatadoComHifen() {
+    return comHifen.getCepFormatado();
+  }
+}
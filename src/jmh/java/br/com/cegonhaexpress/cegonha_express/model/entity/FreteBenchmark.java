@@ -0,0 +1,63 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.tarifa.CalculadoraFrete;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks do cálculo de frete e dos formatadores da entidade Frete.
+ *
+ * <p>Executar com {@code ./mvnw -Pbenchmark -DskipTests test-compile exec:exec@jmh
+ * -Djmh.filtro=FreteBenchmark}. O profiler de GC ({@code -prof gc}) reporta {@code
+ * gc.alloc.rate.norm} (bytes alocados por operação), que deve ser acompanhado em revisões.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FreteBenchmark {
+
+  @Param({"EXPRESSA", "PADRAO", "ECONOMICA"})
+  private TipoEntrega tipoEntrega;
+
+  private BigDecimal distancia;
+  private BigDecimal peso;
+  private Frete frete;
+
+  @Setup
+  public void setUp() {
+    distancia = new BigDecimal("142.5");
+    peso = new BigDecimal("2.5");
+    frete = new Frete(null, tipoEntrega, new BigDecimal("161.25"), distancia, 3);
+  }
+
+  @Benchmark
+  public BigDecimal calcularFrete() {
+    return Frete.calcularFrete(tipoEntrega, distancia, peso);
+  }
+
+  @Benchmark
+  public long calcularCentavos() {
+    return CalculadoraFrete.calcularCentavos(tipoEntrega, 1425, 1, 25, 1);
+  }
+
+  @Benchmark
+  public String getValorFormatado() {
+    return frete.getValorFormatado();
+  }
+
+  @Benchmark
+  public String getPrazoFormatado() {
+    return frete.getPrazoFormatado();
+  }
+}
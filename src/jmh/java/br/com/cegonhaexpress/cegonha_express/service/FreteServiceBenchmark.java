@@ -0,0 +1,45 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark da montagem do endereço completo enviado ao Google Maps (String.format).
+ *
+ * @author Gabriel Coelho Soares
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FreteServiceBenchmark {
+
+  private FreteService freteService;
+  private Endereco endereco;
+
+  @Setup
+  public void setUp() {
+    // Apenas a montagem de strings é medida; as dependências não são usadas
+    freteService = new FreteService(null, null, null, null);
+    endereco =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+  }
+
+  @Benchmark
+  public String construirEnderecoCompleto() {
+    return freteService.construirEnderecoCompleto(endereco);
+  }
+}
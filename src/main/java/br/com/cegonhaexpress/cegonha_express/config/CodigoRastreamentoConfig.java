@@ -0,0 +1,26 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import br.com.cegonhaexpress.cegonha_express.model.codigo.GeradorCodigoRastreamento;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do gerador de códigos de rastreamento.
+ *
+ * <p>Aplica ao gerador compartilhado o número do nó desta instância ({@code encomenda.codigo.no},
+ * variável de ambiente {@code ENCOMENDA_CODIGO_NO}). Em implantações com várias instâncias, cada
+ * uma deve usar um número distinto para que os códigos nunca colidam.
+ *
+ * @author Gabriel Coelho Soares
+ * @see GeradorCodigoRastreamento
+ */
+@Slf4j
+@Configuration
+public class CodigoRastreamentoConfig {
+
+  public CodigoRastreamentoConfig(@Value("${encomenda.codigo.no:0}") int no) {
+    GeradorCodigoRastreamento.padrao().definirNo(no);
+    log.info("Gerador de códigos de rastreamento configurado para o nó {}", no);
+  }
+}
@@ -0,0 +1,98 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Gravação JFR contínua iniciada pela própria aplicação ({@code diagnostico.jfr.habilitado}).
+ *
+ * <p>Usa as configurações {@code default} do JDK acrescidas do perfil {@code jfr/cegonha.jfc}
+ * (eventos de ViaCEP, Distance Matrix, cálculo de frete e transações de encomendas). A gravação
+ * fica em disco limitada por idade e tamanho e é gravada em {@code diagnostico.jfr.arquivo} ao
+ * encerrar; durante a execução, {@code jcmd <pid> JFR.dump name=cegonha} copia o trecho mais
+ * recente, por exemplo logo após um pico de latência.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostico.jfr.habilitado", havingValue = "true")
+@Slf4j
+public class GravacaoJfr {
+
+  static final String NOME = "cegonha";
+  static final String PERFIL = "jfr/cegonha.jfc";
+
+  private final Path arquivo;
+  private final Duration retencao;
+  private final DataSize tamanhoMaximo;
+  private Recording gravacao;
+
+  public GravacaoJfr(
+      @Value("${diagnostico.jfr.arquivo:jfr/cegonha-express.jfr}") Path arquivo,
+      @Value("${diagnostico.jfr.retencao:6h}") Duration retencao,
+      @Value("${diagnostico.jfr.tamanho-maximo:250MB}") DataSize tamanhoMaximo) {
+    this.arquivo = arquivo;
+    this.retencao = retencao;
+    this.tamanhoMaximo = tamanhoMaximo;
+  }
+
+  @PostConstruct
+  public void iniciar() throws IOException, ParseException {
+    Map<String, String> configuracoes =
+        new HashMap<>(Configuration.getConfiguration("default").getSettings());
+    configuracoes.putAll(perfil().getSettings());
+
+    if (arquivo.getParent() != null) {
+      Files.createDirectories(arquivo.getParent());
+    }
+    gravacao = new Recording(configuracoes);
+    gravacao.setName(NOME);
+    gravacao.setToDisk(true);
+    gravacao.setMaxAge(retencao);
+    gravacao.setMaxSize(tamanhoMaximo.toBytes());
+    gravacao.setDestination(arquivo);
+    gravacao.setDumpOnExit(true);
+    gravacao.start();
+    log.info(
+        "Gravação JFR ativa (retenção de {}, até {} MB), gravada em {} ao encerrar",
+        retencao,
+        tamanhoMaximo.toMegabytes(),
+        arquivo.toAbsolutePath());
+  }
+
+  @PreDestroy
+  public void encerrar() {
+    if (gravacao != null) {
+      // Com destino definido, stop() grava o arquivo
+      gravacao.stop();
+      gravacao.close();
+    }
+  }
+
+  /** Perfil de eventos da aplicação, empacotado no jar. */
+  static Configuration perfil() throws IOException, ParseException {
+    try (Reader leitor =
+        new InputStreamReader(
+            new ClassPathResource(PERFIL).getInputStream(), StandardCharsets.UTF_8)) {
+      return Configuration.create(leitor);
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Interceptor das chamadas HTTP de saída (ViaCEP e demais APIs externas via RestTemplate).
+ *
+ * <p>Limita o número de requisições simultâneas por host, evitando que picos de concorrência abram
+ * conexões em excesso contra a mesma API, e registra métricas Micrometer com a tag {@code host}:
+ * requisições, falhas, requisições em andamento, latência e esperas pelo limite.
+ *
+ * <p>A vaga e a latência cobrem a leitura do corpo: a resposta devolvida só libera a vaga e
+ * registra a requisição no {@code close()}, que o RestTemplate chama depois de extrair o corpo.
+ *
+ * <p>Se uma vaga não for liberada dentro do tempo máximo de espera, a chamada falha com
+ * IOException, que o RestTemplate converte em ResourceAccessException.
+ *
+ * @author Gabriel Coelho Soares
+ * @see RestTemplateConfig
+ */
+@Slf4j
+public class HttpSaidaInterceptor implements ClientHttpRequestInterceptor, MeterBinder {
+
+  static final String REQUISICOES = "cegonha.http.saida.requisicoes";
+  static final String FALHAS = "cegonha.http.saida.falhas";
+  static final String EM_ANDAMENTO = "cegonha.http.saida.em.andamento";
+  static final String ESPERAS = "cegonha.http.saida.esperas";
+  static final String LATENCIA = "cegonha.http.saida.latencia";
+
+  private final int maxPorHost;
+  private final long esperaMaximaNanos;
+  private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+  private volatile MeterRegistry registry;
+
+  public HttpSaidaInterceptor(int maxPorHost, Duration esperaMaxima) {
+    this.maxPorHost = maxPorHost;
+    this.esperaMaximaNanos = esperaMaxima.toNanos();
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    String nomeHost = request.getURI().getHost();
+    Host host = hosts.computeIfAbsent(nomeHost, h -> new Host(maxPorHost));
+    if (host.latencia == null && registry != null) {
+      registrarMedidores(nomeHost, host, registry);
+    }
+
+    adquirirVaga(nomeHost, host);
+    host.emAndamento.increment();
+    long inicio = System.nanoTime();
+    ClientHttpResponse response = null;
+    try {
+      response = execution.execute(request, body);
+      if (response.getStatusCode().isError()) {
+        host.falhas.increment();
+      }
+      return new RespostaMedida(response, host, inicio);
+    } catch (IOException | RuntimeException e) {
+      host.falhas.increment();
+      if (response != null) {
+        response.close();
+      }
+      host.concluir(inicio);
+      throw e;
+    }
+  }
+
+  /** Registra os medidores dos hosts já conhecidos; hosts novos são registrados no primeiro uso. */
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    this.registry = registry;
+    hosts.forEach((nome, host) -> registrarMedidores(nome, host, registry));
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private void adquirirVaga(String nomeHost, Host host) throws IOException {
+    if (host.vagas.tryAcquire()) {
+      return;
+    }
+
+    host.esperasPorLimite.increment();
+    log.debug("Limite de {} requisições simultâneas atingido para {}", maxPorHost, nomeHost);
+    try {
+      if (!host.vagas.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+        host.falhas.increment();
+        throw new IOException("Limite de requisições simultâneas para " + nomeHost + " excedido");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrompido aguardando vaga para " + nomeHost);
+    }
+  }
+
+  /** Registra os medidores de um host; registrar de novo devolve os mesmos medidores. */
+  private static void registrarMedidores(String nomeHost, Host host, MeterRegistry registry) {
+    FunctionCounter.builder(REQUISICOES, host.requisicoes, LongAdder::sum)
+        .description("Requisições HTTP de saída concluídas")
+        .tag("host", nomeHost)
+        .register(registry);
+    FunctionCounter.builder(FALHAS, host.falhas, LongAdder::sum)
+        .description("Requisições HTTP de saída com erro de I/O, status 4xx/5xx ou limite excedido")
+        .tag("host", nomeHost)
+        .register(registry);
+    FunctionCounter.builder(ESPERAS, host.esperasPorLimite, LongAdder::sum)
+        .description("Requisições HTTP de saída que aguardaram vaga no limite por host")
+        .tag("host", nomeHost)
+        .register(registry);
+    Gauge.builder(EM_ANDAMENTO, host.emAndamento, LongAdder::sum)
+        .description("Requisições HTTP de saída em execução")
+        .tag("host", nomeHost)
+        .register(registry);
+    host.latencia =
+        Timer.builder(LATENCIA)
+            .description("Duração das requisições HTTP de saída, incluindo a leitura do corpo")
+            .tag("host", nomeHost)
+            .register(registry);
+  }
+
+  /** Estado mutável de um host. */
+  private static final class Host {
+    private final Semaphore vagas;
+    private final LongAdder requisicoes = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder emAndamento = new LongAdder();
+    private final LongAdder esperasPorLimite = new LongAdder();
+    private volatile Timer latencia;
+
+    private Host(int maxPorHost) {
+      this.vagas = new Semaphore(maxPorHost);
+    }
+
+    private void concluir(long inicio) {
+      requisicoes.increment();
+      Timer timer = latencia;
+      if (timer != null) {
+        timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+      }
+      emAndamento.decrement();
+      vagas.release();
+    }
+  }
+
+  /** Resposta que mantém a vaga do host até ser fechada. */
+  private static final class RespostaMedida implements ClientHttpResponse {
+    private final ClientHttpResponse response;
+    private final Host host;
+    private final long inicio;
+    private final AtomicBoolean concluida = new AtomicBoolean();
+
+    private RespostaMedida(ClientHttpResponse response, Host host, long inicio) {
+      this.response = response;
+      this.host = host;
+      this.inicio = inicio;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+      return response.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+      return response.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return response.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      return response.getBody();
+    }
+
+    @Override
+    public void close() {
+      try {
+        response.close();
+      } finally {
+        if (concluida.compareAndSet(false, true)) {
+          host.concluir(inicio);
+        }
+      }
+    }
+  }
+}
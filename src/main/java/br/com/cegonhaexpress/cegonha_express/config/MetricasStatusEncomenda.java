@@ -0,0 +1,72 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.ContagemStatusResult;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.service.ProjecaoEncomendaService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges com a quantidade de encomendas por status ({@code cegonha.encomendas}, tag {@code
+ * status}).
+ *
+ * <p>Os valores vêm da contagem do painel mantida pelo {@link ProjecaoEncomendaService}, sem {@code
+ * COUNT} sobre a tabela de encomendas. Uma coleta lê os cinco gauges em sequência; a contagem é
+ * consultada uma vez e reaproveitada por {@code encomenda.metricas.validade-contagem}.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Component
+public class MetricasStatusEncomenda implements MeterBinder {
+
+  static final String GAUGE = "cegonha.encomendas";
+
+  private final ProjecaoEncomendaService projecoes;
+  private final long validadeNanos;
+
+  private volatile Map<StatusEncomenda, Long> contagem = Map.of();
+  private volatile long lidaEm;
+
+  public MetricasStatusEncomenda(
+      ProjecaoEncomendaService projecoes,
+      @Value("${encomenda.metricas.validade-contagem:5s}") Duration validade) {
+    this.projecoes = projecoes;
+    this.validadeNanos = validade.toNanos();
+    this.lidaEm = System.nanoTime() - validadeNanos;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (StatusEncomenda status : StatusEncomenda.values()) {
+      Gauge.builder(GAUGE, this, metricas -> metricas.quantidade(status))
+          .description("Encomendas por status")
+          .tag("status", status.name())
+          .register(registry);
+    }
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private double quantidade(StatusEncomenda status) {
+    return atual().getOrDefault(status, 0L);
+  }
+
+  private Map<StatusEncomenda, Long> atual() {
+    long agora = System.nanoTime();
+    if (agora - lidaEm >= validadeNanos) {
+      Map<StatusEncomenda, Long> lida = new EnumMap<>(StatusEncomenda.class);
+      for (ContagemStatusResult linha : projecoes.buscarPainel()) {
+        lida.put(linha.status(), linha.quantidade());
+      }
+      contagem = lida;
+      lidaEm = agora;
+    }
+    return contagem;
+  }
+}
@@ -0,0 +1,151 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diagnóstico de pinning de threads virtuais via JFR.
+ *
+ * <p>Uma thread virtual fica fixada (pinned) à thread de plataforma quando bloqueia dentro de um
+ * bloco {@code synchronized} ou de código nativo, ocupando a thread portadora durante toda a
+ * espera. Com threads virtuais habilitadas ({@code spring.threads.virtual.enabled}), este monitor
+ * assina o evento {@code jdk.VirtualThreadPinned} em processo e, para cada fixação acima do limiar
+ * ({@code diagnostico.pinning.limiar}), registra um aviso com a duração e o trecho de código
+ * responsável.
+ *
+ * <p>As ocorrências são acumuladas por local (primeiro frame fora do JDK), para identificar quais
+ * bibliotecas ou trechos da aplicação precisam trocar {@code synchronized} por {@link
+ * java.util.concurrent.locks.ReentrantLock}.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class MonitorPinning {
+
+  static final String EVENTO = "jdk.VirtualThreadPinned";
+
+  private static final int FRAMES_NO_LOG = 8;
+
+  private final Duration limiar;
+  private final LongAdder ocorrencias = new LongAdder();
+  private final Map<String, LongAdder> ocorrenciasPorLocal = new ConcurrentHashMap<>();
+  private RecordingStream stream;
+
+  public MonitorPinning(@Value("${diagnostico.pinning.limiar:20ms}") Duration limiar) {
+    this.limiar = limiar;
+  }
+
+  @PostConstruct
+  public void iniciar() {
+    stream = new RecordingStream();
+    stream.enable(EVENTO).withThreshold(limiar).withStackTrace();
+    stream.onEvent(EVENTO, this::registrar);
+    stream.startAsync();
+    log.info("Monitor de pinning de threads virtuais ativo (limiar de {} ms)", limiar.toMillis());
+  }
+
+  @PreDestroy
+  public void encerrar() {
+    if (stream != null) {
+      stream.close();
+    }
+  }
+
+  /**
+   * Total de fixações acima do limiar desde a inicialização.
+   *
+   * @return Número de eventos {@code jdk.VirtualThreadPinned} recebidos
+   */
+  public long getOcorrencias() {
+    return ocorrencias.sum();
+  }
+
+  /**
+   * Fixações acima do limiar agrupadas pelo local de origem, ordenadas pelo local.
+   *
+   * @return Ocorrências por classe e método (primeiro frame fora do JDK)
+   */
+  public Map<String, Long> getOcorrenciasPorLocal() {
+    Map<String, Long> snapshot = new TreeMap<>();
+    ocorrenciasPorLocal.forEach((local, total) -> snapshot.put(local, total.sum()));
+    return snapshot;
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private void registrar(RecordedEvent evento) {
+    List<RecordedFrame> frames =
+        evento.getStackTrace() != null ? evento.getStackTrace().getFrames() : List.of();
+    String local = localizar(frames);
+
+    ocorrencias.increment();
+    ocorrenciasPorLocal.computeIfAbsent(local, l -> new LongAdder()).increment();
+
+    log.warn(
+        "Thread virtual fixada por {} ms em {} (thread {}){}",
+        evento.getDuration().toMillis(),
+        local,
+        nomeDaThread(evento),
+        formatarFrames(evento.getStackTrace()));
+  }
+
+  /** Nome da thread ou, para threads virtuais sem nome, o seu ID. */
+  private static String nomeDaThread(RecordedEvent evento) {
+    if (evento.getThread() == null) {
+      return "?";
+    }
+    String nome = evento.getThread().getJavaName();
+    return nome != null && !nome.isBlank() ? nome : "#" + evento.getThread().getJavaThreadId();
+  }
+
+  /** Primeiro frame que não pertence ao JDK, ou o topo da pilha se todos pertencerem. */
+  private static String localizar(List<RecordedFrame> frames) {
+    for (RecordedFrame frame : frames) {
+      String classe = frame.getMethod().getType().getName();
+      if (!classe.startsWith("java.") && !classe.startsWith("jdk.") && !classe.startsWith("sun.")) {
+        return classe + "." + frame.getMethod().getName();
+      }
+    }
+    if (!frames.isEmpty()) {
+      RecordedFrame topo = frames.get(0);
+      return topo.getMethod().getType().getName() + "." + topo.getMethod().getName();
+    }
+    return "desconhecido";
+  }
+
+  private static String formatarFrames(RecordedStackTrace pilha) {
+    if (pilha == null) {
+      return "";
+    }
+    StringBuilder texto = new StringBuilder();
+    pilha.getFrames().stream()
+        .limit(FRAMES_NO_LOG)
+        .forEach(
+            frame ->
+                texto
+                    .append("\n\tem ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber()));
+    return texto.toString();
+  }
+}
@@ -1,33 +1,87 @@
 package br.com.cegonhaexpress.cegonha_express.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
  * Configuração do RestTemplate para integração com APIs externas.
  *
- * <p>Configura timeouts apropriados para chamadas HTTP: - ConnectTimeout: 5 segundos - ReadTimeout:
- * 10 segundos
+ * <p>Usa o {@link HttpClient} do JDK, compartilhado entre os RestTemplates da aplicação: conexões
+ * são mantidas abertas e reutilizadas (keep-alive), evitando um novo handshake TCP+TLS a cada
+ * consulta, e HTTP/2 é negociado quando o servidor suporta (com fallback para HTTP/1.1).
+ *
+ * <p>Timeouts (propriedades {@code api.timeout.*}): - ConnectTimeout: 5 segundos - ReadTimeout: 10
+ * segundos
+ *
+ * <p>O {@link HttpSaidaInterceptor} limita as requisições simultâneas por host ({@code
+ * api.http.max-por-host}) e registra métricas Micrometer por host.
  *
  * @author Gabriel Coelho Soares
  */
 @Configuration
 public class RestTemplateConfig {
 
+  @Value("${api.timeout.connection:5000}")
+  private int connectTimeoutMs = 5000;
+
+  @Value("${api.timeout.read:10000}")
+  private int readTimeoutMs = 10000;
+
+  @Value("${api.http.max-por-host:20}")
+  private int maxPorHost = 20;
+
+  @Value("${api.http.espera-maxima:2s}")
+  private Duration esperaMaxima = Duration.ofSeconds(2);
+
+  /**
+   * Cliente HTTP compartilhado, com pool de conexões interno do JDK.
+   *
+   * @return HttpClient com HTTP/2 preferencial e timeout de conexão configurado
+   */
+  @Bean
+  public HttpClient httpClientSaida() {
+    return HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+  }
+
+  /**
+   * Limite de concorrência e métricas por host das chamadas de saída.
+   *
+   * @return Interceptor compartilhado entre os RestTemplates
+   */
+  @Bean
+  public HttpSaidaInterceptor httpSaidaInterceptor() {
+    return new HttpSaidaInterceptor(maxPorHost, esperaMaxima);
+  }
+
+  /**
+   * Cria a fábrica de requisições sobre o HttpClient compartilhado.
+   *
+   * @return JdkClientHttpRequestFactory com timeout de leitura configurado
+   */
+  public JdkClientHttpRequestFactory criarRequestFactory() {
+    JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClientSaida());
+    factory.setReadTimeout(readTimeoutMs);
+    return factory;
+  }
+
   /**
    * Cria instância configurada de RestTemplate como Bean Spring.
    *
-   * @return RestTemplate com timeouts configurados
+   * @return RestTemplate com pool de conexões, timeouts e limite por host configurados
    */
   @Bean
   public RestTemplate createRestTemplate() {
-    SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-
-    factory.setConnectTimeout(5000);
-    factory.setReadTimeout(10000);
-    RestTemplate novoRestTemplate = new RestTemplate(factory);
+    RestTemplate novoRestTemplate = new RestTemplate(criarRequestFactory());
+    novoRestTemplate.getInterceptors().add(httpSaidaInterceptor());
     return novoRestTemplate;
   }
 }
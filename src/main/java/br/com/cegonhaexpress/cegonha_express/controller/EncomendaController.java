@@ -2,14 +2,24 @@ package br.com.cegonhaexpress.cegonha_express.controller;
 
 import br.com.cegonhaexpress.cegonha_express.dto.request.CancelamentoRequestDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.request.EncomendaRequestDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.request.TransicaoLoteRequestDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.BebeResponseDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaPaginaDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaResponseDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.ErrorResponse;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EventoEncomendaDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.MetricasSaidaDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.PainelEncomendasDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoImportacaoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoTransicaoDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.ValidationErrorResponse;
 import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
 import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import br.com.cegonhaexpress.cegonha_express.service.CatalogoBebesService;
+import br.com.cegonhaexpress.cegonha_express.service.DespachoSaidaService;
 import br.com.cegonhaexpress.cegonha_express.service.EncomendaService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import br.com.cegonhaexpress.cegonha_express.service.ImportacaoEncomendaService;
+import br.com.cegonhaexpress.cegonha_express.service.NotificacaoStatusService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,18 +30,30 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controller REST para operações com encomendas do sistema CegonhaExpress.
@@ -58,12 +80,18 @@ import org.springframework.web.bind.annotation.*;
             + "Inclui criação, consulta, acompanhamento de status e cancelamento de entregas.")
 public class EncomendaController {
 
+  private static final String TEXT_CSV_VALUE = "text/csv";
+
   private final EncomendaService encomendaService;
+  private final ImportacaoEncomendaService importacaoService;
   private final EncomendaRepository encomendaRepository;
+  private final CatalogoBebesService catalogoBebesService;
+  private final NotificacaoStatusService notificacaoStatus;
+  private final DespachoSaidaService despachoSaida;
   private final ObjectMapper objectMapper;
 
-  @Value("classpath:catalogo-bebes.json")
-  private Resource catalogoResource;
+  @Value("${encomenda.catalogo.max-age:5m}")
+  private Duration catalogoMaxAge;
 
   /**
    * Lista todas as encomendas cadastradas no sistema.
@@ -123,6 +151,195 @@ public class EncomendaController {
         : ResponseEntity.ok(encomendas);
   }
 
+  /**
+   * Lista as encomendas em páginas, usando cursor em vez de número de página.
+   *
+   * @param cursor Cursor retornado na página anterior (ausente na primeira página)
+   * @param tamanho Quantidade de encomendas por página
+   * @return Página de encomendas com o cursor da próxima página
+   */
+  @GetMapping("/pagina")
+  @Operation(
+      summary = "Listar encomendas paginadas por cursor",
+      description =
+          "Retorna as encomendas ordenadas por data do pedido, em páginas de tamanho fixo. "
+              + "Para buscar a página seguinte, envie o proximoCursor recebido; ele é omitido "
+              + "na última página. O tempo de resposta não depende da posição na listagem.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Página de encomendas retornada com sucesso",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = EncomendaPaginaDTO.class),
+                    examples =
+                        @ExampleObject(
+                            name = "Página de Encomendas",
+                            value =
+                                """
+                                {
+                                  "itens": [
+                                    {
+                                      "codigo": "CE1234567890123",
+                                      "status": "Em Trânsito",
+                                      "valorFrete": "R$ 45,50",
+                                      "tempoEstimadoEntrega": "3 dias úteis"
+                                    }
+                                  ],
+                                  "proximoCursor": "MjAyNS0wNi0wNVQxNDozMDowMHw0Mg"
+                                }
+                                """))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Cursor inválido ou tamanho de página fora do intervalo 1 a 500",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<EncomendaPaginaDTO> getPaginaEncomendas(
+      @Parameter(description = "Cursor da próxima página, retornado na resposta anterior")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Quantidade de encomendas por página (1 a 500)", example = "50")
+          @RequestParam(defaultValue = "50")
+          int tamanho) {
+    return ResponseEntity.ok(encomendaService.buscarPagina(cursor, tamanho));
+  }
+
+  /**
+   * Exporta todas as encomendas como NDJSON, uma encomenda por linha.
+   *
+   * @return Corpo escrito incrementalmente à medida que as encomendas são lidas do banco
+   */
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+      summary = "Exportar encomendas em streaming (NDJSON)",
+      description =
+          "Envia todas as encomendas, ordenadas por data do pedido, em formato NDJSON "
+              + "(um objeto JSON por linha). A resposta é escrita enquanto o banco é lido, "
+              + "sem montar a lista completa em memória.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Encomendas enviadas com sucesso",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    examples =
+                        @ExampleObject(
+                            name = "Encomendas em NDJSON",
+                            value =
+                                """
+                                {"codigo":"CE1234567890123","status":"Entregue","valorFrete":"R$ 45,50","tempoEstimadoEntrega":"3 dias úteis"}
+                                {"codigo":"CE9876543210987","status":"Pendente","valorFrete":"R$ 32,75","tempoEstimadoEntrega":"1 dia útil"}
+                                """)))
+      })
+  public ResponseEntity<StreamingResponseBody> streamEncomendas() {
+    StreamingResponseBody corpo =
+        saida ->
+            encomendaService.exportarEncomendas(
+                encomenda -> {
+                  try {
+                    saida.write(objectMapper.writeValueAsBytes(encomenda));
+                    saida.write('\n');
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+  }
+
+  /**
+   * Canal de eventos com as mudanças de status de todas as encomendas (uso administrativo).
+   *
+   * @return Emissor SSE mantido aberto até o timeout ou a desconexão do cliente
+   */
+  @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Acompanhar mudanças de status de todas as encomendas (SSE)",
+      description =
+          "Mantém a conexão aberta e envia um evento 'status' a cada transição de status "
+              + "confirmada no banco, de qualquer encomenda. Comentários periódicos mantêm a "
+              + "conexão ativa. Clientes que não acompanham o ritmo dos eventos são desconectados "
+              + "e devem se reconectar.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Canal de eventos aberto",
+            content =
+                @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    examples =
+                        @ExampleObject(
+                            name = "Mudança de status",
+                            value =
+                                """
+                                event:status
+                                data:{"codigo":"CE1234567890123","statusAnterior":"CONFIRMADA","status":"EM_TRANSITO","momento":"2025-01-15 14:30:00"}
+                                """)))
+      })
+  public SseEmitter acompanharTodasEncomendas() {
+    return notificacaoStatus.assinar(null, null);
+  }
+
+  /**
+   * Canal de eventos com as mudanças de status de uma encomenda.
+   *
+   * @param codigo Código único da encomenda
+   * @return Emissor SSE que começa com o estado atual da encomenda ou 404 se não existir
+   */
+  @GetMapping(value = "/{codigo}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(
+      summary = "Acompanhar mudanças de status de uma encomenda (SSE)",
+      description =
+          "Substitui consultas periódicas ao rastreamento. O primeiro evento, 'encomenda', traz "
+              + "o estado atual; depois, cada transição confirmada no banco chega como um evento "
+              + "'status'. Comentários periódicos mantêm a conexão ativa. Ao reconectar, o estado "
+              + "atual é enviado de novo.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Canal de eventos aberto",
+            content =
+                @Content(
+                    mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    examples =
+                        @ExampleObject(
+                            name = "Estado atual e mudança de status",
+                            value =
+                                """
+                                event:encomenda
+                                data:{"codigo":"CE1234567890123","status":"Confirmada","valorFrete":"R$ 45,50","tempoEstimadoEntrega":"3 dias úteis"}
+
+                                event:status
+                                data:{"codigo":"CE1234567890123","statusAnterior":"CONFIRMADA","status":"EM_TRANSITO","momento":"2025-01-15 14:30:00"}
+                                """))),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Encomenda não encontrada (sem corpo)",
+            content = @Content)
+      })
+  public ResponseEntity<SseEmitter> acompanharEncomenda(
+      @Parameter(description = "Código único da encomenda", example = "CE1234567890123")
+          @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
+          @PathVariable
+          String codigo) {
+    try {
+      return ResponseEntity.ok(
+          notificacaoStatus.assinar(codigo, () -> encomendaService.buscarPorCodigo(codigo)));
+    } catch (EntityNotFoundException e) {
+      // Clientes SSE aceitam apenas text/event-stream: o corpo JSON de erro não seria aceito
+      return ResponseEntity.notFound().build();
+    }
+  }
+
   /**
    * Cria uma nova encomenda no sistema.
    *
@@ -233,6 +450,139 @@ public class EncomendaController {
     return ResponseEntity.status(HttpStatus.CREATED).body(encomenda);
   }
 
+  /**
+   * Cria uma nova encomenda sem aguardar o cálculo do frete.
+   *
+   * @param dto Dados da encomenda a ser criada
+   * @return 202 Accepted com o código de rastreamento e o endereço para consulta do frete
+   */
+  @PostMapping(value = "/assincrona", consumes = "application/json")
+  @Operation(
+      summary = "Criar nova encomenda (frete calculado em segundo plano)",
+      description =
+          "Grava a encomenda como pendente e responde imediatamente com o código de rastreamento. "
+              + "O frete é calculado em segundo plano; consulte GET /api/encomendas/{codigo} "
+              + "(indicado no cabeçalho Location) até que valor e prazo estejam preenchidos.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "202",
+            description = "Encomenda criada, frete em cálculo",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = EncomendaResponseDTO.class),
+                    examples =
+                        @ExampleObject(
+                            name = "Encomenda Aceita",
+                            value =
+                                """
+                                {
+                                  "codigo": "CE012345678901234567",
+                                  "status": "Pendente",
+                                  "valorFrete": null,
+                                  "tempoEstimadoEntrega": null
+                                }
+                                """))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Dados inválidos fornecidos",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ValidationErrorResponse.class))),
+        @ApiResponse(
+            responseCode = "503",
+            description = "Limite de cálculos de frete pendentes atingido, tente novamente",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<EncomendaResponseDTO> createEncomendaAssincrona(
+      @Valid @RequestBody EncomendaRequestDTO dto) {
+
+    EncomendaResponseDTO encomenda = encomendaService.criaEncomendaAssincrona(dto);
+    return ResponseEntity.accepted()
+        .location(URI.create("/api/encomendas/" + encomenda.getCodigo()))
+        .body(encomenda);
+  }
+
+  /**
+   * Importa encomendas em lote a partir de um arquivo NDJSON ou CSV.
+   *
+   * @param tipoConteudo Content-Type do envio, que define o formato e a codificação
+   * @param entrada Corpo da requisição, lido em streaming
+   * @return Resultado de cada linha em NDJSON, escrito à medida que os lotes são gravados
+   */
+  @PostMapping(
+      value = "/lote",
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+      produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @Operation(
+      summary = "Importar encomendas em lote (NDJSON ou CSV)",
+      description =
+          "Recebe várias encomendas em um único envio: NDJSON (um EncomendaRequestDTO por linha) "
+              + "ou CSV com cabeçalho (cep, logradouro, numero, complemento, bairro, cidade, uf, "
+              + "referencia, tipoEntrega, descricaoBebe, pesoKg, alturaCm, valorDeclarado). "
+              + "As linhas são validadas e gravadas em lotes; a resposta traz, em NDJSON, o "
+              + "resultado de cada linha na mesma ordem, à medida que cada lote termina. "
+              + "Linhas inválidas são rejeitadas sem interromper as demais.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Arquivo processado; o resultado de cada linha indica criação ou rejeição",
+            content =
+                @Content(
+                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ResultadoImportacaoDTO.class),
+                    examples =
+                        @ExampleObject(
+                            name = "Resultado por linha",
+                            value =
+                                """
+                                {"linha":1,"situacao":"CRIADA","encomenda":{"codigo":"CE012345678901234567","status":"Pendente","valorFrete":"R$ 45,50","tempoEstimadoEntrega":"3 dias úteis"}}
+                                {"linha":2,"situacao":"REJEITADA","erros":["pesoKg: Peso deve ser menor que 15kg"]}
+                                """))),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Tipo de mídia não suportado (use application/x-ndjson ou text/csv)",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<StreamingResponseBody> importarEncomendas(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipoConteudo, InputStream entrada) {
+    ImportacaoEncomendaService.Formato formato =
+        MediaType.APPLICATION_NDJSON.isCompatibleWith(tipoConteudo)
+            ? ImportacaoEncomendaService.Formato.NDJSON
+            : ImportacaoEncomendaService.Formato.CSV;
+    Charset codificacao =
+        tipoConteudo.getCharset() != null ? tipoConteudo.getCharset() : StandardCharsets.UTF_8;
+
+    StreamingResponseBody corpo =
+        saida ->
+            importacaoService.importar(
+                new InputStreamReader(entrada, codificacao),
+                formato,
+                resultados -> {
+                  try {
+                    for (ResultadoImportacaoDTO resultado : resultados) {
+                      saida.write(objectMapper.writeValueAsBytes(resultado));
+                      saida.write('\n');
+                    }
+                    // Entrega o lote ao cliente sem esperar o buffer encher
+                    saida.flush();
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(corpo);
+  }
+
   /**
    * Lista apenas encomendas ativas (exclui entregues e canceladas).
    *
@@ -299,8 +649,12 @@ public class EncomendaController {
   /**
    * Busca encomenda específica pelo código de rastreamento.
    *
-   * @param codigo Código único da encomenda (formato: CE + 13 dígitos)
-   * @return Encomenda encontrada ou 404 se não existir
+   * <p>A resposta traz um ETag derivado da última atualização do rastreamento. O 304 e o 200 saem
+   * da mesma leitura da projeção pela chave primária, sem consultar encomendas nem fretes.
+   *
+   * @param codigo Código único da encomenda (formato: CE + 18 dígitos)
+   * @param requisicao Requisição, para a verificação de {@code If-None-Match}
+   * @return Encomenda encontrada, 304 se não mudou ou 404 se não existir
    */
   @GetMapping("/{codigo}")
   @Operation(
@@ -308,7 +662,8 @@ public class EncomendaController {
       description =
           "Localiza uma encomenda específica usando seu código único de rastreamento. O código é"
               + " gerado automaticamente no momento da criação e segue o formato CE + timestamp +"
-              + " sufixo aleatório.")
+              + " sufixo aleatório. A resposta traz ETag; consultas periódicas devem enviá-lo em"
+              + " If-None-Match para receber 304 enquanto a encomenda não mudar.")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -330,6 +685,10 @@ public class EncomendaController {
                                   "tempoEstimadoEntrega": "3 dias úteis"
                                 }
                                 """))),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Encomenda não mudou desde a versão informada em If-None-Match",
+            content = @Content),
         @ApiResponse(
             responseCode = "400",
             description = "Formato de código inválido",
@@ -377,20 +736,141 @@ public class EncomendaController {
               example = "CE1234567890123",
               required = true,
               schema =
-                  @Schema(type = "string", pattern = "^CE\\d+$", minLength = 14, maxLength = 16))
+                  @Schema(type = "string", pattern = "^CE\\d+$", minLength = 9, maxLength = 20))
+          @Valid
+          @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
+          @PathVariable
+          String codigo,
+      WebRequest requisicao) {
+
+    EncomendaService.RastreamentoVersionado rastreamento =
+        encomendaService.buscarRastreamentoVersionado(codigo);
+    if (requisicao.checkNotModified(rastreamento.etag())) {
+      return null;
+    }
+    return ResponseEntity.ok()
+        .eTag(rastreamento.etag())
+        .cacheControl(CacheControl.noCache())
+        .body(rastreamento.encomenda());
+  }
+
+  /**
+   * Histórico de eventos da encomenda (criação, cotação do frete e mudanças de status).
+   *
+   * @param codigo Código único da encomenda (formato: CE + 18 dígitos)
+   * @return Eventos do mais antigo ao mais recente
+   */
+  @GetMapping("/{codigo}/historico")
+  @Operation(
+      summary = "Histórico da encomenda",
+      description =
+          "Retorna os eventos registrados para a encomenda, do mais antigo ao mais recente:"
+              + " criação, cotação do frete (criação assíncrona) e cada mudança de status,"
+              + " com o motivo nos cancelamentos. O histórico nunca é alterado.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Histórico da encomenda",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    array =
+                        @ArraySchema(schema = @Schema(implementation = EventoEncomendaDTO.class)),
+                    examples =
+                        @ExampleObject(
+                            name = "Histórico",
+                            value =
+                                """
+                                [
+                                  {
+                                    "tipo": "CRIADA",
+                                    "status": "PENDENTE",
+                                    "valorFrete": "R$ 45,50",
+                                    "tempoEstimadoEntrega": "3 dias úteis",
+                                    "momento": "2025-01-15 14:30:00"
+                                  },
+                                  {
+                                    "tipo": "STATUS_ALTERADO",
+                                    "statusAnterior": "PENDENTE",
+                                    "status": "CANCELADA",
+                                    "detalhe": "Cliente desistiu da compra",
+                                    "momento": "2025-01-15 16:05:12"
+                                  }
+                                ]
+                                """))),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Encomenda não encontrada",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ErrorResponse.class)))
+      })
+  public ResponseEntity<List<EventoEncomendaDTO>> getHistoricoEncomenda(
+      @Parameter(description = "Código único da encomenda", example = "CE1234567890123")
           @Valid
           @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
           @PathVariable
           String codigo) {
+    return ResponseEntity.ok(encomendaService.buscarHistorico(codigo));
+  }
+
+  /**
+   * Quantidade de encomendas por status para o painel administrativo.
+   *
+   * @return Contagem por status e total
+   */
+  @GetMapping("/painel")
+  @Operation(
+      summary = "Painel de encomendas por status",
+      description =
+          "Retorna a quantidade de encomendas em cada status e o total, lidos de uma projeção"
+              + " atualizada a cada criação e mudança de status, sem contar a tabela de"
+              + " encomendas.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Contagem por status",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = PainelEncomendasDTO.class)))
+      })
+  public ResponseEntity<PainelEncomendasDTO> getPainel() {
+    return ResponseEntity.ok(encomendaService.buscarPainel());
+  }
 
-    EncomendaResponseDTO encomenda = encomendaService.buscarPorCodigo(codigo);
-    return ResponseEntity.ok(encomenda);
+  /**
+   * Situação da entrega de notificações aos sistemas externos (caixa de saída).
+   *
+   * @return Pendências, atraso e vazão das entregas
+   */
+  @GetMapping("/saida")
+  @Operation(
+      summary = "Métricas das notificações externas",
+      description =
+          "Retorna as mensagens pendentes na caixa de saída e há quanto tempo a mais antiga"
+              + " espera (todas as instâncias), além das entregas e falhas desta instância.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Métricas da caixa de saída",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = MetricasSaidaDTO.class)))
+      })
+  public ResponseEntity<MetricasSaidaDTO> getMetricasSaida() {
+    return ResponseEntity.ok(despachoSaida.buscarMetricas());
   }
 
   /**
    * Avança o status da encomenda para o próximo estado válido.
    *
-   * @param codigo Código único da encomenda (formato: CE + 13 dígitos)
+   * @param codigo Código único da encomenda (formato: CE + 18 dígitos)
    * @return Novo status após a transição
    */
   @PutMapping("/{codigo}/status")
@@ -483,7 +963,7 @@ public class EncomendaController {
               example = "CE1234567890123",
               required = true,
               schema =
-                  @Schema(type = "string", pattern = "^CE\\d+$", minLength = 14, maxLength = 16))
+                  @Schema(type = "string", pattern = "^CE\\d+$", minLength = 9, maxLength = 20))
           @PathVariable
           @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar no formato correto")
           String codigo) {
@@ -493,6 +973,74 @@ public class EncomendaController {
     return novoStatus != null ? ResponseEntity.ok(novoStatus) : ResponseEntity.noContent().build();
   }
 
+  /**
+   * Aplica a mesma transição de status a várias encomendas (operação de armazém).
+   *
+   * @param dto Códigos das encomendas e status de destino
+   * @return Resultado de cada código, na ordem informada
+   */
+  @PutMapping(value = "/status/lote", consumes = "application/json")
+  @Operation(
+      summary = "Avançar status de várias encomendas",
+      description =
+          "Aplica uma transição (CONFIRMADA, EM_TRANSITO ou ENTREGUE) a até 500 encomendas em "
+              + "uma única transação. Cada código recebe um resultado próprio: ALTERADA, "
+              + "INALTERADA (já estava no status de destino), REJEITADA (transição inválida a "
+              + "partir do status atual) ou NAO_ENCONTRADA. Rejeições não impedem as demais "
+              + "transições.")
+  @ApiResponses(
+      value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Lote processado; veja o resultado de cada código",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    array =
+                        @ArraySchema(
+                            schema = @Schema(implementation = ResultadoTransicaoDTO.class)),
+                    examples =
+                        @ExampleObject(
+                            name = "Resultados do Lote",
+                            value =
+                                """
+                                [
+                                  {
+                                    "codigo": "CE1234567890123",
+                                    "situacao": "ALTERADA",
+                                    "statusAnterior": "CONFIRMADA",
+                                    "status": "EM_TRANSITO"
+                                  },
+                                  {
+                                    "codigo": "CE9876543210987",
+                                    "situacao": "REJEITADA",
+                                    "statusAnterior": "PENDENTE",
+                                    "status": "PENDENTE",
+                                    "erro": "Só é possível iniciar trânsito de encomendas confirmadas"
+                                  },
+                                  {
+                                    "codigo": "CE9999999999999",
+                                    "situacao": "NAO_ENCONTRADA",
+                                    "erro": "Não existe uma encomenda com este Código"
+                                  }
+                                ]
+                                """))),
+        @ApiResponse(
+            responseCode = "400",
+            description =
+                "Lista vazia ou com mais de 500 códigos, código mal formatado ou status de "
+                    + "destino inválido",
+            content =
+                @Content(
+                    mediaType = "application/json",
+                    schema = @Schema(implementation = ValidationErrorResponse.class)))
+      })
+  public ResponseEntity<List<ResultadoTransicaoDTO>> updateStatusEmLote(
+      @Valid @RequestBody TransicaoLoteRequestDTO dto) {
+    return ResponseEntity.ok(
+        encomendaService.transicionarEmLote(dto.getCodigos(), dto.getStatus()));
+  }
+
   /**
    * Cancela uma encomenda com motivo obrigatório.
    *
@@ -597,6 +1145,9 @@ public class EncomendaController {
   /**
    * Lista o catálogo de bebês reborn disponíveis.
    *
+   * <p>O catálogo é servido já serializado, com ETag forte e {@code Cache-Control}. Uma
+   * requisição com {@code If-None-Match} igual ao ETag atual recebe 304 sem corpo.
+   *
    * @return Lista de bebês disponíveis com especificações
    */
   @GetMapping("/bebes")
@@ -604,7 +1155,8 @@ public class EncomendaController {
       summary = "Listar catálogo de bebês",
       description =
           "Retorna o catálogo completo de bebês reborn disponíveis para entrega, "
-              + "incluindo especificações detalhadas como peso, altura, acessórios e descrição.")
+              + "incluindo especificações detalhadas como peso, altura, acessórios e descrição. "
+              + "A resposta traz ETag e pode ser revalidada com If-None-Match (304).")
   @ApiResponses(
       value = {
         @ApiResponse(
@@ -639,34 +1191,16 @@ public class EncomendaController {
                                 ]
                                 """))),
         @ApiResponse(
-            responseCode = "500",
-            description = "Erro ao carregar catálogo",
-            content =
-                @Content(
-                    mediaType = "application/json",
-                    schema = @Schema(implementation = ErrorResponse.class),
-                    examples =
-                        @ExampleObject(
-                            name = "Erro no Catálogo",
-                            value =
-                                """
-                                {
-                                  "timestamp": "2025-01-15 14:30:00",
-                                  "status": 500,
-                                  "error": "Erro interno do servidor",
-                                  "message": "Catálogo de bebês não encontrado",
-                                  "path": "/api/encomendas/bebes"
-                                }
-                                """)))
+            responseCode = "304",
+            description = "Catálogo não mudou desde a versão informada em If-None-Match",
+            content = @Content)
       })
-  public ResponseEntity<List<BebeResponseDTO>> getBebesDisponiveis() {
-    try {
-      InputStream inputStream = catalogoResource.getInputStream();
-      List<BebeResponseDTO> bebes =
-          objectMapper.readValue(inputStream, new TypeReference<List<BebeResponseDTO>>() {});
-      return ResponseEntity.ok(bebes);
-    } catch (IOException e) {
-      throw new RuntimeException("Catálogo de bebês não encontrado", e);
-    }
+  public ResponseEntity<byte[]> getBebesDisponiveis() {
+    CatalogoBebesService.Catalogo catalogo = catalogoBebesService.getCatalogo();
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .eTag(catalogo.etag())
+        .cacheControl(CacheControl.maxAge(catalogoMaxAge).cachePublic())
+        .body(catalogo.json());
   }
 }
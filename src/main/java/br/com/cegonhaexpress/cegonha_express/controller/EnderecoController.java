@@ -1,8 +1,9 @@
 package br.com.cegonhaexpress.cegonha_express.controller;
 
+import br.com.cegonhaexpress.cegonha_express.dto.response.CepCacheEstatisticasDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.ErrorResponse;
 import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
-import br.com.cegonhaexpress.cegonha_express.service.ViaCepService;
+import br.com.cegonhaexpress.cegonha_express.service.ViaCepCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -26,7 +27,8 @@ import org.springframework.web.bind.annotation.RestController;
  *
  * <p>Oferece serviços de consulta e validação de endereços brasileiros através da integração com a
  * API ViaCEP. Permite busca de informações completas de logradouro, bairro, cidade e UF utilizando
- * apenas o código postal.
+ * apenas o código postal. As consultas passam pelo cache de CEPs (memória + persistente), que
+ * evita chamadas repetidas à ViaCEP.
  *
  * <p>Todos os tratamentos de exceção são delegados para o GlobalExceptionHandler, mantendo este
  * controller focado apenas na lógica de negócio de endereçamento.
@@ -34,7 +36,7 @@ import org.springframework.web.bind.annotation.RestController;
  * @author Gabriel Coelho Soares
  * @version 1.0
  * @since 2025-06-05
- * @see ViaCepService
+ * @see ViaCepCacheService
  */
 @RestController
 @RequestMapping("/api/enderecos")
@@ -47,7 +49,7 @@ import org.springframework.web.bind.annotation.RestController;
             + " obtenção de dados completos de logradouro através do CEP.")
 public class EnderecoController {
 
-  private final ViaCepService viaCepService;
+  private final ViaCepCacheService viaCepCache;
 
   /**
    * Consulta informações completas de um endereço através do CEP.
@@ -166,7 +168,7 @@ public class EnderecoController {
           @PathVariable
           String cep) {
 
-    ViaCepResponseDto response = viaCepService.buscarEnderecoPorCep(cep);
+    ViaCepResponseDto response = viaCepCache.buscarEnderecoPorCep(cep);
 
     if (response != null) {
       return ResponseEntity.ok(response);
@@ -174,4 +176,26 @@ public class EnderecoController {
       return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
   }
+
+  /**
+   * Estatísticas do cache de consultas de CEP.
+   *
+   * @return Acertos por nível, chamadas à API, taxa de acerto e latência economizada
+   */
+  @GetMapping("/cep-cache/estatisticas")
+  @Operation(
+      summary = "Estatísticas do cache de CEP",
+      description =
+          "Retorna acertos do cache em memória e persistente, chamadas efetivas à API ViaCEP,"
+              + " respostas negativas em cache, taxa de acerto e latência estimada economizada.")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Estatísticas obtidas com sucesso",
+      content =
+          @Content(
+              mediaType = "application/json",
+              schema = @Schema(implementation = CepCacheEstatisticasDTO.class)))
+  public ResponseEntity<CepCacheEstatisticasDTO> getEstatisticasCache() {
+    return ResponseEntity.ok(viaCepCache.getEstatisticas());
+  }
 }
@@ -11,7 +11,11 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -145,6 +149,52 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(error);
   }
 
+  /**
+   * Trata TaskRejectedException (503 - Capacidade esgotada) Ex: limite de cotações de frete em
+   * segundo plano atingido
+   */
+  @ExceptionHandler(TaskRejectedException.class)
+  public ResponseEntity<ErrorResponse> handleTaskRejected(
+      TaskRejectedException e, WebRequest request) {
+
+    log.warn("Tarefa recusada: {}", e.getMessage());
+
+    ErrorResponse error =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+            .error("Serviço temporariamente sobrecarregado")
+            .message(e.getMessage())
+            .path(request.getDescription(false).replace("uri=", ""))
+            .build();
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(error);
+  }
+
+  /**
+   * Trata OptimisticLockingFailureException (409 - Alteração concorrente) Ex: encomenda alterada
+   * por outra requisição em todas as tentativas da transição
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<ErrorResponse> handleOptimisticLocking(
+      OptimisticLockingFailureException e, WebRequest request) {
+
+    log.warn("Alteração concorrente: {}", e.getMessage());
+
+    ErrorResponse error =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.CONFLICT.value())
+            .error("Alteração concorrente")
+            .message("A encomenda foi alterada por outra operação; tente novamente")
+            .path(request.getDescription(false).replace("uri=", ""))
+            .build();
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   /** Trata exceções genéricas não mapeadas (500 - Erro interno) */
   @ExceptionHandler(Exception.class)
   public ResponseEntity<ErrorResponse> handleGenericException(Exception e, WebRequest request) {
@@ -174,7 +224,11 @@ public class GlobalExceptionHandler {
             .timestamp(LocalDateTime.now())
             .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value())
             .error("Tipo de mídia não suportado")
-            .message("Content-Type deve ser application/json")
+            .message(
+                e.getSupportedMediaTypes().isEmpty()
+                    ? "Content-Type deve ser application/json"
+                    : "Content-Type deve ser "
+                        + MediaType.toString(e.getSupportedMediaTypes()).replace(", ", " ou "))
             .path(request.getDescription(false).replace("uri=", ""))
             .build();
 
@@ -0,0 +1,32 @@
+package br.com.cegonhaexpress.cegonha_express.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de um cálculo de frete.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.model.entity.Frete#calcularFrete
+ */
+@Name("cegonha.CalculoFrete")
+@Label("Cálculo de Frete")
+@Category({"Cegonha Express", "Frete"})
+@StackTrace(false)
+public class CalculoFreteEvento extends Event {
+
+  @Label("Tipo de entrega")
+  public String tipoEntrega;
+
+  @Label("Distância (km)")
+  public double distanciaKm;
+
+  @Label("Peso (kg)")
+  public double pesoKg;
+
+  @Label("Valor")
+  public double valor;
+}
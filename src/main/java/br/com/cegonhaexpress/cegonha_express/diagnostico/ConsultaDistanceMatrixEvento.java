@@ -0,0 +1,39 @@
+package br.com.cegonhaexpress.cegonha_express.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de uma requisição à Distance Matrix API (uma origem e até 25 destinos).
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.GoogleMapsDistanceService#consultarMatriz
+ */
+@Name("cegonha.ConsultaDistanceMatrix")
+@Label("Consulta Distance Matrix")
+@Category({"Cegonha Express", "Integrações"})
+@Description("Requisição ao Google Maps: tamanho da matriz e status dos elementos")
+@StackTrace(false)
+public class ConsultaDistanceMatrixEvento extends Event {
+
+  @Label("Origens")
+  public int origens;
+
+  @Label("Destinos")
+  public int destinos;
+
+  @Label("Elementos OK")
+  public int elementosOk;
+
+  @Label("Status dos elementos")
+  @Description("Quantidade por status, ex: OK=24 NOT_FOUND=1")
+  public String statusElementos;
+
+  @Label("Erro")
+  @Description("Falha da própria requisição; ausente quando a API respondeu")
+  public String erro;
+}
@@ -0,0 +1,52 @@
+package br.com.cegonhaexpress.cegonha_express.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de uma consulta de CEP pelo cache da ViaCEP. A duração do evento é a latência vista
+ * pelo chamador, incluindo a espera por outra thread que carrega o mesmo CEP.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.ViaCepCacheService
+ */
+@Name("cegonha.ConsultaViaCep")
+@Label("Consulta ViaCEP")
+@Category({"Cegonha Express", "Integrações"})
+@Description("Consulta de CEP: nível do cache que respondeu e, se houve chamada, o status HTTP")
+@StackTrace(false)
+public class ConsultaViaCepEvento extends Event {
+
+  /** Resposta do cache em memória. */
+  public static final String MEMORIA = "MEMORIA";
+
+  /** Resposta da tabela cep_cache, dentro da validade. */
+  public static final String PERSISTENTE = "PERSISTENTE";
+
+  /** Resposta da API ViaCEP. */
+  public static final String API = "API";
+
+  /** API indisponível; usado o registro expirado da tabela cep_cache. */
+  public static final String PERSISTENTE_EXPIRADO = "PERSISTENTE_EXPIRADO";
+
+  /** API indisponível e nenhum registro persistido. */
+  public static final String FALHA = "FALHA";
+
+  @Label("CEP")
+  public String cep;
+
+  @Label("Resultado do cache")
+  @Description("MEMORIA, PERSISTENTE, API, PERSISTENTE_EXPIRADO ou FALHA")
+  public String resultado = MEMORIA;
+
+  @Label("Status HTTP")
+  @Description("Status da resposta da ViaCEP; 0 sem chamada à API ou sem resposta")
+  public int statusHttp;
+
+  @Label("CEP inexistente")
+  public boolean negativo;
+}
@@ -0,0 +1,45 @@
+package br.com.cegonhaexpress.cegonha_express.diagnostico;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento JFR de uma transação de escrita do {@code EncomendaService}, do início ao commit ou
+ * rollback. Cada nova tentativa após um conflito de versão gera outro evento.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.EncomendaService
+ */
+@Name("cegonha.TransacaoEncomenda")
+@Label("Transação de Encomenda")
+@Category({"Cegonha Express", "Transações"})
+@StackTrace(false)
+public class TransacaoEncomendaEvento extends Event {
+
+  /** Transação confirmada. */
+  public static final String COMMIT = "COMMIT";
+
+  /** Transação desfeita por conflito de versão com outra transação. */
+  public static final String CONFLITO = "CONFLITO";
+
+  /** Transação desfeita por qualquer outra exceção. */
+  public static final String ROLLBACK = "ROLLBACK";
+
+  @Label("Operação")
+  public String operacao;
+
+  @Label("Tentativa")
+  public int tentativa;
+
+  @Label("Resultado")
+  @Description("COMMIT, CONFLITO ou ROLLBACK")
+  public String resultado;
+
+  @Label("Transação existente")
+  @Description("Executada dentro de uma transação já aberta; o commit é da transação externa")
+  public boolean participante;
+}
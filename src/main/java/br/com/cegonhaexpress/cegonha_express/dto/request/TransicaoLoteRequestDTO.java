@@ -0,0 +1,46 @@
+package br.com.cegonhaexpress.cegonha_express.dto.request;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para transição de status de várias encomendas em uma única requisição.
+ *
+ * <p>Usado pela operação de armazém: todas as encomendas informadas recebem a mesma transição
+ * (confirmar, iniciar trânsito ou finalizar entrega), indicada pelo status de destino.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Transição de status aplicada a várias encomendas")
+public class TransicaoLoteRequestDTO {
+
+  /** Máximo de códigos por requisição. */
+  public static final int MAXIMO_CODIGOS = 500;
+
+  @NotEmpty(message = "Informe ao menos um código")
+  @Size(max = MAXIMO_CODIGOS, message = "Informe no máximo 500 códigos por requisição")
+  @ArraySchema(
+      schema = @Schema(example = "CE1234567890123"),
+      arraySchema = @Schema(description = "Códigos das encomendas (até 500)"))
+  private List<
+          @NotNull(message = "Código é obrigatório")
+          @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
+          String>
+      codigos;
+
+  @NotNull(message = "Status de destino é obrigatório")
+  @Schema(
+      description = "Status de destino: CONFIRMADA, EM_TRANSITO ou ENTREGUE",
+      example = "EM_TRANSITO")
+  private StatusEncomenda status;
+}
@@ -0,0 +1,52 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estatísticas do cache de consultas de CEP (memória + persistente).
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.ViaCepCacheService
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas do cache de consultas de CEP")
+public class CepCacheEstatisticasDTO {
+
+  @Schema(description = "Total de consultas de CEP recebidas", example = "1520")
+  private long consultas;
+
+  @Schema(description = "Consultas atendidas pelo cache em memória", example = "1480")
+  private long acertosMemoria;
+
+  @Schema(description = "Consultas atendidas pelo cache persistente", example = "25")
+  private long acertosPersistente;
+
+  @Schema(description = "Consultas que precisaram chamar a API ViaCEP", example = "15")
+  private long consultasApi;
+
+  @Schema(description = "Consultas respondidas com CEP inexistente em cache", example = "3")
+  private long respostasNegativas;
+
+  @Schema(
+      description = "Proporção de consultas atendidas sem chamar a API (0 a 1)",
+      example = "0.99")
+  private double taxaAcerto;
+
+  @Schema(description = "Latência média das chamadas à API ViaCEP, em ms", example = "180.5")
+  private double latenciaMediaApiMs;
+
+  @Schema(
+      description = "Latência estimada economizada pelo cache (acertos x latência média), em ms",
+      example = "271650")
+  private long latenciaEconomizadaMs;
+
+  @Schema(description = "Número de CEPs mantidos no cache em memória", example = "412")
+  private long tamanhoMemoria;
+}
@@ -0,0 +1,31 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Página da listagem de encomendas paginada por cursor.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.dto.result.CursorEncomenda
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de encomendas ordenada por data do pedido")
+public class EncomendaPaginaDTO {
+
+  @Schema(description = "Encomendas da página, da mais antiga para a mais recente")
+  private List<EncomendaResponseDTO> itens;
+
+  @Schema(
+      description = "Cursor para buscar a próxima página; ausente na última página",
+      example = "MjAyNS0wNi0wNVQxNDozMDowMHw0Mg",
+      nullable = true)
+  private String proximoCursor;
+}
@@ -1,6 +1,9 @@
 package br.com.cegonhaexpress.cegonha_express.dto.response;
 
+import br.com.cegonhaexpress.cegonha_express.dto.result.EncomendaResumoResult;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.entity.RastreamentoEncomenda;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +21,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class EncomendaResponseDTO {
 
-  /** Código único de rastreamento da encomenda. Formato: CE + timestamp + sufixo aleatório */
+  /** Código único de rastreamento da encomenda. Formato: CE + 18 dígitos (tempo, nó e sequência) */
   private String codigo;
 
   /** Status atual da encomenda formatado para exibição. Ex: "Pendente", "Confirmada", etc. */
@@ -34,16 +37,51 @@ public class EncomendaResponseDTO {
    * Factory method para criar DTO a partir de entidade Encomenda.
    *
    * <p>IMPORTANTE: Encomenda deve ter Frete carregado (JOIN FETCH) para evitar
-   * LazyInitializationException.
+   * LazyInitializationException. Encomendas com cotação ainda pendente (criação assíncrona)
+   * retornam valor e prazo nulos.
    *
    * @param encomenda Encomenda com frete carregado
    * @return DTO formatado para resposta
    */
   public static EncomendaResponseDTO fromEntity(Encomenda encomenda) {
+    Frete frete = encomenda.getFrete();
     return new EncomendaResponseDTO(
         encomenda.getCodigo(),
         encomenda.getStatus().getDescricao(),
-        encomenda.getFrete().getValorFormatado(),
-        encomenda.getFrete().getPrazoFormatado());
+        frete != null ? frete.getValorFormatado() : null,
+        frete != null ? frete.getPrazoFormatado() : null);
+  }
+
+  /**
+   * Factory method para criar DTO a partir da projeção de listagem.
+   *
+   * <p>Não acessa entidades, portanto não dispara carregamento lazy. Encomendas sem frete calculado
+   * retornam valor e prazo nulos.
+   *
+   * @param resumo Projeção com código, status, valor e prazo do frete
+   * @return DTO formatado para resposta
+   */
+  public static EncomendaResponseDTO fromResumo(EncomendaResumoResult resumo) {
+    return new EncomendaResponseDTO(
+        resumo.codigo(),
+        resumo.status().getDescricao(),
+        Frete.formatarValor(resumo.valorFrete()),
+        Frete.formatarPrazo(resumo.prazoDias()));
+  }
+
+  /**
+   * Factory method para criar DTO a partir da projeção de rastreamento.
+   *
+   * <p>A linha já traz status e frete desnormalizados: nenhuma consulta a encomendas ou fretes.
+   *
+   * @param rastreamento Linha da projeção de rastreamento
+   * @return DTO formatado para resposta
+   */
+  public static EncomendaResponseDTO fromRastreamento(RastreamentoEncomenda rastreamento) {
+    return new EncomendaResponseDTO(
+        rastreamento.getCodigo(),
+        rastreamento.getStatus().getDescricao(),
+        Frete.formatarValor(rastreamento.getValorFrete()),
+        Frete.formatarPrazo(rastreamento.getPrazoDias()));
   }
 }
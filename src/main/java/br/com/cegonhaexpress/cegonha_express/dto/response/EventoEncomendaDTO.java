@@ -0,0 +1,64 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento do histórico de uma encomenda formatado para exibição.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Evento do histórico de uma encomenda")
+public class EventoEncomendaDTO {
+
+  @Schema(description = "Tipo do evento", example = "STATUS_ALTERADO")
+  private TipoEventoEncomenda tipo;
+
+  @Schema(
+      description = "Status antes do evento (apenas em mudanças de status)",
+      example = "PENDENTE")
+  private StatusEncomenda statusAnterior;
+
+  @Schema(description = "Status após o evento", example = "CONFIRMADA")
+  private StatusEncomenda status;
+
+  @Schema(description = "Valor do frete (criação com frete e cotação)", example = "R$ 45,50")
+  private String valorFrete;
+
+  @Schema(description = "Prazo do frete (criação com frete e cotação)", example = "3 dias úteis")
+  private String tempoEstimadoEntrega;
+
+  @Schema(description = "Informação adicional, como o motivo do cancelamento")
+  private String detalhe;
+
+  @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+  @Schema(description = "Momento do evento", example = "2025-01-15 14:30:00")
+  private LocalDateTime momento;
+
+  public static EventoEncomendaDTO fromEntity(EventoEncomenda evento) {
+    return EventoEncomendaDTO.builder()
+        .tipo(evento.getTipo())
+        .statusAnterior(evento.getStatusAnterior())
+        .status(evento.getStatus())
+        .valorFrete(Frete.formatarValor(evento.getValorFrete()))
+        .tempoEstimadoEntrega(Frete.formatarPrazo(evento.getPrazoDias()))
+        .detalhe(evento.getDetalhe())
+        .momento(evento.getOcorridoEm())
+        .build();
+  }
+}
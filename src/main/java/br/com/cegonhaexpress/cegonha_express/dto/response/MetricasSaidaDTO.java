@@ -0,0 +1,53 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Situação da entrega de notificações pela caixa de saída.
+ *
+ * <p>Pendências, atraso e descartadas vêm do banco e valem para todas as instâncias; os contadores
+ * de entregas e falhas são desta instância, desde a inicialização.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.DespachoSaidaService
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação da entrega de notificações aos sistemas externos")
+public class MetricasSaidaDTO {
+
+  @Schema(description = "Destino configurado: nenhum, arquivo ou http", example = "http")
+  private String destino;
+
+  @Schema(description = "Mensagens aguardando entrega (todas as instâncias)", example = "3")
+  private long pendentes;
+
+  @Schema(
+      description = "Há quantos milissegundos a mensagem pendente mais antiga espera",
+      example = "850")
+  private long atrasoMs;
+
+  @Schema(description = "Mensagens entregues por esta instância", example = "15230")
+  private long entregues;
+
+  @Schema(description = "Entregas desta instância no último minuto", example = "412")
+  private long entreguesUltimoMinuto;
+
+  @Schema(
+      description = "Falhas de entrega desta instância (cada uma adia a mensagem)",
+      example = "7")
+  private long falhas;
+
+  @Schema(
+      description =
+          "Mensagens descartadas após o máximo de tentativas (todas as instâncias); ficam na"
+              + " tabela mensagens_saida para análise",
+      example = "0")
+  private long descartadas;
+}
@@ -0,0 +1,41 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Transição de status de uma encomenda.
+ *
+ * <p>Publicada como evento da aplicação pelo {@link
+ * br.com.cegonhaexpress.cegonha_express.service.EncomendaService} e enviada aos assinantes do canal
+ * de eventos depois do commit da transação.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.NotificacaoStatusService
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Mudança de status de uma encomenda")
+public class MudancaStatusDTO {
+
+  @Schema(description = "Código de rastreamento da encomenda", example = "CE1234567890123")
+  private String codigo;
+
+  @Schema(description = "Status antes da transição", example = "CONFIRMADA")
+  private StatusEncomenda statusAnterior;
+
+  @Schema(description = "Status após a transição", example = "EM_TRANSITO")
+  private StatusEncomenda status;
+
+  @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+  @Schema(description = "Momento da transição", example = "2025-01-15 14:30:00")
+  private LocalDateTime momento;
+}
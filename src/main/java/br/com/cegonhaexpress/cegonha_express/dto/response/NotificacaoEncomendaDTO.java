@@ -0,0 +1,57 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Notificação de um evento de encomenda enviada aos sistemas externos (ERP, aviso ao cliente) pela
+ * caixa de saída.
+ *
+ * <p>Valores sem formatação de exibição, para integração. O {@code id} é o do evento e se repete em
+ * um eventual reenvio: o destino deve usá-lo para descartar duplicatas.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.CaixaSaidaService
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificacaoEncomendaDTO {
+
+  private Long id;
+  private String codigo;
+  private TipoEventoEncomenda tipo;
+  private StatusEncomenda statusAnterior;
+  private StatusEncomenda status;
+  private BigDecimal valorFrete;
+  private Integer prazoDias;
+  private String detalhe;
+
+  @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+  private LocalDateTime momento;
+
+  public static NotificacaoEncomendaDTO fromEntity(EventoEncomenda evento) {
+    return NotificacaoEncomendaDTO.builder()
+        .id(evento.getId())
+        .codigo(evento.getCodigo())
+        .tipo(evento.getTipo())
+        .statusAnterior(evento.getStatusAnterior())
+        .status(evento.getStatus())
+        .valorFrete(evento.getValorFrete())
+        .prazoDias(evento.getPrazoDias())
+        .detalhe(evento.getDetalhe())
+        .momento(evento.getOcorridoEm())
+        .build();
+  }
+}
@@ -0,0 +1,42 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.ContagemStatusResult;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contagem de encomendas por status do painel administrativo.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Quantidade de encomendas por status")
+public class PainelEncomendasDTO {
+
+  @Schema(
+      description = "Quantidade de encomendas em cada status",
+      example =
+          "{\"PENDENTE\":12,\"CONFIRMADA\":30,\"EM_TRANSITO\":8,\"ENTREGUE\":140,\"CANCELADA\":5}")
+  private Map<StatusEncomenda, Long> quantidadePorStatus;
+
+  @Schema(description = "Total de encomendas", example = "195")
+  private long total;
+
+  public static PainelEncomendasDTO fromContagens(List<ContagemStatusResult> contagens) {
+    Map<StatusEncomenda, Long> quantidades = new LinkedHashMap<>();
+    long total = 0;
+    for (ContagemStatusResult contagem : contagens) {
+      quantidades.put(contagem.status(), contagem.quantidade());
+      total += contagem.quantidade();
+    }
+    return new PainelEncomendasDTO(quantidades, total);
+  }
+}
@@ -0,0 +1,60 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de uma linha da importação de encomendas em lote.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.ImportacaoEncomendaService
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado da importação de uma linha do arquivo")
+public class ResultadoImportacaoDTO {
+
+  /** Situação da linha após a importação. */
+  public enum Situacao {
+    CRIADA,
+    REJEITADA
+  }
+
+  @Schema(description = "Número da linha no arquivo enviado (começa em 1)", example = "2")
+  private long linha;
+
+  @Schema(description = "Situação da linha", example = "CRIADA")
+  private Situacao situacao;
+
+  @Schema(description = "Encomenda criada; ausente se a linha foi rejeitada")
+  private EncomendaResponseDTO encomenda;
+
+  @Schema(
+      description = "Motivos da rejeição; ausente se a encomenda foi criada",
+      example = "[\"pesoKg: Peso deve ser menor que 15kg\"]")
+  private List<String> erros;
+
+  public static ResultadoImportacaoDTO criada(long linha, EncomendaResponseDTO encomenda) {
+    return ResultadoImportacaoDTO.builder()
+        .linha(linha)
+        .situacao(Situacao.CRIADA)
+        .encomenda(encomenda)
+        .build();
+  }
+
+  public static ResultadoImportacaoDTO rejeitada(long linha, List<String> erros) {
+    return ResultadoImportacaoDTO.builder()
+        .linha(linha)
+        .situacao(Situacao.REJEITADA)
+        .erros(erros)
+        .build();
+  }
+}
@@ -0,0 +1,91 @@
+package br.com.cegonhaexpress.cegonha_express.dto.response;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da transição de status de uma encomenda do lote.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.EncomendaService#transicionarEmLote
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Resultado da transição de uma encomenda do lote")
+public class ResultadoTransicaoDTO {
+
+  /** Situação da encomenda após a transição em lote. */
+  public enum Situacao {
+    /** Status alterado para o destino. */
+    ALTERADA,
+    /** A encomenda já estava no status de destino. */
+    INALTERADA,
+    /** A transição não é válida a partir do status atual. */
+    REJEITADA,
+    /** Não existe encomenda com o código. */
+    NAO_ENCONTRADA
+  }
+
+  @Schema(description = "Código da encomenda", example = "CE1234567890123")
+  private String codigo;
+
+  @Schema(description = "Situação da encomenda", example = "ALTERADA")
+  private Situacao situacao;
+
+  @Schema(description = "Status antes da transição", example = "CONFIRMADA")
+  private StatusEncomenda statusAnterior;
+
+  @Schema(description = "Status após a transição", example = "EM_TRANSITO")
+  private StatusEncomenda status;
+
+  @Schema(
+      description = "Motivo da rejeição; ausente nas demais situações",
+      example = "Só é possível iniciar trânsito de encomendas confirmadas")
+  private String erro;
+
+  public static ResultadoTransicaoDTO alterada(
+      String codigo, StatusEncomenda anterior, StatusEncomenda status) {
+    return ResultadoTransicaoDTO.builder()
+        .codigo(codigo)
+        .situacao(Situacao.ALTERADA)
+        .statusAnterior(anterior)
+        .status(status)
+        .build();
+  }
+
+  public static ResultadoTransicaoDTO inalterada(String codigo, StatusEncomenda status) {
+    return ResultadoTransicaoDTO.builder()
+        .codigo(codigo)
+        .situacao(Situacao.INALTERADA)
+        .statusAnterior(status)
+        .status(status)
+        .build();
+  }
+
+  public static ResultadoTransicaoDTO rejeitada(
+      String codigo, StatusEncomenda status, String erro) {
+    return ResultadoTransicaoDTO.builder()
+        .codigo(codigo)
+        .situacao(Situacao.REJEITADA)
+        .statusAnterior(status)
+        .status(status)
+        .erro(erro)
+        .build();
+  }
+
+  public static ResultadoTransicaoDTO naoEncontrada(String codigo) {
+    return ResultadoTransicaoDTO.builder()
+        .codigo(codigo)
+        .situacao(Situacao.NAO_ENCONTRADA)
+        .erro("Não existe uma encomenda com este Código")
+        .build();
+  }
+}
@@ -0,0 +1,13 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+
+/**
+ * Quantidade de encomendas de um status: soma das fatias da contagem do painel.
+ *
+ * @param status Status das encomendas
+ * @param quantidade Soma das fatias do status
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.repository.ContagemStatusRepository#somarPorStatus()
+ */
+public record ContagemStatusResult(StatusEncomenda status, long quantidade) {}
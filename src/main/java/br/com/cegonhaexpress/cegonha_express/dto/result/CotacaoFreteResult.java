@@ -0,0 +1,33 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import java.math.BigDecimal;
+
+/**
+ * Cotação de frete calculada a partir de origem, destino, modalidade e peso.
+ *
+ * <p>Não depende de uma encomenda persistida: a cotação é feita antes de qualquer escrita no banco
+ * e só vira um {@link Frete} quando associada à encomenda que será gravada.
+ *
+ * @param tipoEntrega Modalidade de entrega cotada
+ * @param valor Valor do frete com 2 casas decimais
+ * @param distanciaKm Distância da rota em km
+ * @param prazoDias Prazo estimado em dias úteis
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.FreteService#cotarFrete
+ */
+public record CotacaoFreteResult(
+    TipoEntrega tipoEntrega, BigDecimal valor, BigDecimal distanciaKm, int prazoDias) {
+
+  /**
+   * Cria o frete desta cotação para a encomenda informada.
+   *
+   * @param encomenda Encomenda com origem e destino definidos
+   * @return Frete associado à encomenda
+   */
+  public Frete paraEncomenda(Encomenda encomenda) {
+    return new Frete(encomenda, tipoEntrega, valor, distanciaKm, prazoDias);
+  }
+}
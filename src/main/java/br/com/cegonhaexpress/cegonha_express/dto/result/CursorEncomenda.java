@@ -0,0 +1,55 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor da paginação por chave (keyset) das encomendas.
+ *
+ * <p>Identifica a última encomenda entregue ao cliente pela chave de ordenação {@code (dataPedido,
+ * id)}. A página seguinte começa na primeira encomenda posterior a essa chave, usando o índice de
+ * data do pedido em vez de OFFSET: o custo de cada página não cresce com a posição na listagem.
+ *
+ * <p>Para o cliente o cursor é opaco: data e ID são codificados em Base64 URL-safe.
+ *
+ * @param dataPedido Data do pedido da última encomenda retornada
+ * @param id ID da última encomenda retornada
+ * @author Gabriel Coelho Soares
+ */
+public record CursorEncomenda(LocalDateTime dataPedido, Long id) {
+
+  private static final char SEPARADOR = '|';
+
+  /**
+   * Codifica o cursor para uso como parâmetro de requisição.
+   *
+   * @return Cursor opaco em Base64 URL-safe
+   */
+  public String codificar() {
+    String valor = dataPedido.toString() + SEPARADOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodifica um cursor recebido do cliente.
+   *
+   * @param cursor Cursor opaco gerado por {@link #codificar()}
+   * @return Cursor decodificado
+   * @throws IllegalArgumentException se o cursor estiver malformado
+   */
+  public static CursorEncomenda decodificar(String cursor) {
+    try {
+      String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separador = valor.lastIndexOf(SEPARADOR);
+      return new CursorEncomenda(
+          LocalDateTime.parse(valor.substring(0, separador)),
+          Long.valueOf(valor.substring(separador + 1)));
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+      throw new IllegalArgumentException("Cursor de paginação inválido", e);
+    }
+  }
+}
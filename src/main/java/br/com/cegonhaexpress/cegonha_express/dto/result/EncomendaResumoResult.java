@@ -0,0 +1,39 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de leitura das listagens de encomendas.
+ *
+ * <p>Preenchida por expressão de construtor JPQL com LEFT JOIN no frete, trazendo em uma única
+ * consulta apenas as colunas exibidas na listagem. Evita carregar a entidade Encomenda e disparar
+ * um SELECT adicional por encomenda para o relacionamento com Frete.
+ *
+ * @param id ID da encomenda (desempate do cursor de paginação)
+ * @param dataPedido Data do pedido (chave do cursor de paginação)
+ * @param codigo Código de rastreamento
+ * @param status Status atual da encomenda
+ * @param valorFrete Valor do frete ou null se o frete ainda não foi calculado
+ * @param prazoDias Prazo do frete em dias úteis ou null se o frete ainda não foi calculado
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository#findResumos()
+ */
+public record EncomendaResumoResult(
+    Long id,
+    LocalDateTime dataPedido,
+    String codigo,
+    StatusEncomenda status,
+    BigDecimal valorFrete,
+    Integer prazoDias) {
+
+  /**
+   * Cursor que aponta para esta encomenda, usado para buscar a página seguinte.
+   *
+   * @return Cursor com data do pedido e ID
+   */
+  public CursorEncomenda cursor() {
+    return new CursorEncomenda(dataPedido, id);
+  }
+}
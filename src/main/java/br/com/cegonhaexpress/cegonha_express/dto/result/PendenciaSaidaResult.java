@@ -0,0 +1,29 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Mensagens pendentes e descartadas na caixa de saída, lidas em uma única consulta agregada.
+ *
+ * @param pendentes Quantidade de mensagens não entregues e não descartadas
+ * @param maisAntiga Gravação da mensagem pendente mais antiga ou null se não houver
+ * @param descartadas Quantidade de mensagens descartadas por excesso de falhas
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.repository.MensagemSaidaRepository#buscarPendencia()
+ */
+public record PendenciaSaidaResult(long pendentes, LocalDateTime maisAntiga, long descartadas) {
+
+  /**
+   * Atraso da entrega: há quanto tempo a mensagem pendente mais antiga espera.
+   *
+   * @param agora Momento de referência
+   * @return Atraso ou zero se não houver pendências
+   */
+  public Duration atraso(LocalDateTime agora) {
+    if (maisAntiga == null || maisAntiga.isAfter(agora)) {
+      return Duration.ZERO;
+    }
+    return Duration.between(maisAntiga, agora);
+  }
+}
@@ -1,16 +1,30 @@
 package br.com.cegonhaexpress.cegonha_express.exception;
 
+import com.google.maps.model.DistanceMatrixElementStatus;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
 public class GoogleMapsIntegrationException extends RuntimeException {
 
+  /** Status do elemento da matriz sem rota; null quando a própria requisição falhou. */
+  private final DistanceMatrixElementStatus status;
+
   public GoogleMapsIntegrationException(String message) {
+    this(message, (DistanceMatrixElementStatus) null);
+  }
+
+  public GoogleMapsIntegrationException(String message, DistanceMatrixElementStatus status) {
     super(message);
+    this.status = status;
   }
 
   public GoogleMapsIntegrationException(String message, Throwable cause) {
     super(message, cause);
+    this.status = null;
+  }
+
+  public DistanceMatrixElementStatus getStatus() {
+    return status;
   }
 }
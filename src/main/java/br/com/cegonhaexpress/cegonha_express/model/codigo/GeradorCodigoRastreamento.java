@@ -0,0 +1,125 @@
+package br.com.cegonhaexpress.cegonha_express.model.codigo;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Gerador de códigos de rastreamento de encomendas, ordenados no tempo e únicos entre instâncias.
+ *
+ * <p>O código é {@code CE} seguido de 18 dígitos (com zeros à esquerda) de um número de 59 bits:
+ *
+ * <pre>
+ *   | 41 bits: ms desde 2025-01-01 | 6 bits: nó | 12 bits: sequência |
+ * </pre>
+ *
+ * <p>O par (milissegundo, sequência) avança em um único {@link AtomicLong} por CAS, sem locks: cada
+ * chamada recebe o maior valor entre "anterior + 1" e "agora com sequência zero". Mais de 4096
+ * códigos no mesmo milissegundo avançam para o milissegundo seguinte, e um relógio que volta no
+ * tempo não repete valores. O número do nó ({@code encomenda.codigo.no}, 0 a {@value #MAX_NO})
+ * separa as instâncias da aplicação: cada instância deve receber um valor distinto.
+ *
+ * <p>Os códigos cabem nos 20 caracteres da coluna {@code codigo}, atendem ao padrão {@code ^CE\d+$}
+ * e têm tamanho fixo, de modo que a ordem alfabética coincide com a ordem de criação.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda
+ */
+public final class GeradorCodigoRastreamento {
+
+  /** Prefixo de todos os códigos de rastreamento. */
+  public static final String PREFIXO = "CE";
+
+  /** Maior número de nó aceito. */
+  public static final int MAX_NO = 63;
+
+  /** Tamanho fixo do código: prefixo + 18 dígitos. */
+  public static final int TAMANHO = 20;
+
+  /** Início da contagem de tempo dos códigos. */
+  static final long EPOCA_MS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+  private static final int BITS_SEQUENCIA = 12;
+  private static final int BITS_NO = 6;
+
+  private static final GeradorCodigoRastreamento PADRAO =
+      new GeradorCodigoRastreamento(0, System::currentTimeMillis);
+
+  private final LongSupplier relogio;
+
+  /** Último valor emitido: ms desde a época deslocado de BITS_SEQUENCIA, mais a sequência. */
+  private final AtomicLong ultimo = new AtomicLong();
+
+  private volatile long noDeslocado;
+
+  /**
+   * Cria um gerador independente.
+   *
+   * @param no Número do nó (0 a {@value #MAX_NO})
+   * @param relogio Fonte de tempo em milissegundos desde 1970
+   */
+  public GeradorCodigoRastreamento(int no, LongSupplier relogio) {
+    this.relogio = relogio;
+    definirNo(no);
+  }
+
+  /**
+   * Gerador compartilhado da aplicação, usado pela entidade Encomenda.
+   *
+   * @return Instância única do gerador
+   */
+  public static GeradorCodigoRastreamento padrao() {
+    return PADRAO;
+  }
+
+  /**
+   * Gera um novo código com o gerador compartilhado.
+   *
+   * @return Código de rastreamento único
+   */
+  public static String gerar() {
+    return PADRAO.proximo();
+  }
+
+  /**
+   * Define o número do nó desta instância da aplicação.
+   *
+   * @param no Número do nó (0 a {@value #MAX_NO})
+   * @throws IllegalArgumentException se o número estiver fora do intervalo
+   */
+  public void definirNo(int no) {
+    if (no < 0 || no > MAX_NO) {
+      throw new IllegalArgumentException("Número do nó deve estar entre 0 e " + MAX_NO);
+    }
+    this.noDeslocado = (long) no << BITS_SEQUENCIA;
+  }
+
+  /**
+   * Gera o próximo código de rastreamento.
+   *
+   * @return Código no formato {@code CE} + 18 dígitos
+   */
+  public String proximo() {
+    long agora = Math.max(0, relogio.getAsLong() - EPOCA_MS) << BITS_SEQUENCIA;
+    long atual = ultimo.updateAndGet(anterior -> Math.max(anterior + 1, agora));
+
+    long milissegundo = atual >>> BITS_SEQUENCIA;
+    long sequencia = atual & ((1L << BITS_SEQUENCIA) - 1);
+    long valor = (milissegundo << (BITS_NO + BITS_SEQUENCIA)) | noDeslocado | sequencia;
+    return formatar(valor);
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** Escreve o prefixo e o valor com zeros à esquerda, sem String.format. */
+  private static String formatar(long valor) {
+    char[] codigo = new char[TAMANHO];
+    codigo[0] = 'C';
+    codigo[1] = 'E';
+    for (int i = TAMANHO - 1; i >= PREFIXO.length(); i--) {
+      codigo[i] = (char) ('0' + valor % 10);
+      valor /= 10;
+    }
+    return new String(codigo);
+  }
+}
@@ -0,0 +1,132 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
+import br.com.cegonhaexpress.cegonha_express.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Resultado de uma consulta à API ViaCEP persistido como segundo nível do cache de CEPs.
+ *
+ * <p>Guarda tanto respostas encontradas quanto respostas negativas ({@code erro=true}), cada uma
+ * com seu próprio tempo de validade, para que o cache sobreviva a reinicializações da aplicação.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.ViaCepCacheService
+ */
+@Entity
+@Data
+@Table(
+    name = "cep_cache",
+    indexes = {@Index(name = "idx_cep_cache_cep", columnList = "cep", unique = true)})
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class CepConsultado extends BaseEntity {
+
+  /** CEP apenas com dígitos. */
+  @Column(name = "cep", nullable = false, unique = true, length = 8)
+  private String cep;
+
+  @Column(name = "logradouro", length = 200)
+  private String logradouro;
+
+  @Column(name = "complemento", length = 100)
+  private String complemento;
+
+  @Column(name = "bairro", length = 100)
+  private String bairro;
+
+  @Column(name = "localidade", length = 100)
+  private String localidade;
+
+  @Column(name = "uf", length = 2)
+  private String uf;
+
+  @Column(name = "ibge", length = 10)
+  private String ibge;
+
+  @Column(name = "gia", length = 10)
+  private String gia;
+
+  @Column(name = "ddd", length = 3)
+  private String ddd;
+
+  @Column(name = "siafi", length = 10)
+  private String siafi;
+
+  /** Indica que a ViaCEP respondeu que o CEP não existe. */
+  @Column(name = "erro", nullable = false)
+  private boolean erro;
+
+  @Column(name = "consultado_em", nullable = false)
+  private LocalDateTime consultadoEm;
+
+  public CepConsultado(String cep) {
+    this.cep = cep;
+  }
+
+  /**
+   * Atualiza os dados com uma nova resposta da ViaCEP.
+   *
+   * @param resposta Resposta da API (com {@code erro=true} para CEP inexistente)
+   * @param agora Momento da consulta
+   */
+  public void atualizar(ViaCepResponseDto resposta, LocalDateTime agora) {
+    this.erro = resposta.isErro();
+    this.logradouro = resposta.getLogradouro();
+    this.complemento = resposta.getComplemento();
+    this.bairro = resposta.getBairro();
+    this.localidade = resposta.getLocalidade();
+    this.uf = resposta.getUf();
+    this.ibge = resposta.getIbge();
+    this.gia = resposta.getGia();
+    this.ddd = resposta.getDdd();
+    this.siafi = resposta.getSiafi();
+    this.consultadoEm = agora;
+  }
+
+  /**
+   * Reconstrói a resposta da ViaCEP a partir dos dados persistidos.
+   *
+   * @return DTO equivalente ao retornado pela API
+   */
+  public ViaCepResponseDto toDto() {
+    ViaCepResponseDto dto = new ViaCepResponseDto();
+    if (erro) {
+      dto.setErro(true);
+      return dto;
+    }
+    dto.setCep(cep.substring(0, 5) + "-" + cep.substring(5));
+    dto.setLogradouro(logradouro);
+    dto.setComplemento(complemento);
+    dto.setBairro(bairro);
+    dto.setLocalidade(localidade);
+    dto.setUf(uf);
+    dto.setIbge(ibge);
+    dto.setGia(gia);
+    dto.setDdd(ddd);
+    dto.setSiafi(siafi);
+    return dto;
+  }
+
+  /**
+   * Verifica se o registro ainda é válido.
+   *
+   * @param ttl Validade de respostas encontradas
+   * @param ttlNegativo Validade de respostas negativas
+   * @param agora Momento de referência
+   * @return true se a consulta ainda não expirou
+   */
+  public boolean isValido(Duration ttl, Duration ttlNegativo, LocalDateTime agora) {
+    return consultadoEm != null && consultadoEm.plus(erro ? ttlNegativo : ttl).isAfter(agora);
+  }
+}
@@ -0,0 +1,56 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Projeção de leitura do painel administrativo: quantidade de encomendas em cada status.
+ *
+ * <p>Cada {@link StatusEncomenda} tem várias linhas (fatias), atualizadas por incremento atômico no
+ * banco ({@code quantidade = quantidade + delta}) na transação de cada evento. Cada transação
+ * incrementa uma fatia sorteada, e criações simultâneas não esperam pela trava de uma única linha.
+ * A quantidade de um status é a soma das suas fatias; uma fatia isolada pode ficar negativa quando
+ * a encomenda entra no status por uma fatia e sai por outra.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.ProjecaoEncomendaService
+ */
+@Entity
+@Table(name = "painel_status_encomendas")
+@IdClass(ContagemStatus.Chave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContagemStatus {
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", length = 20)
+  private StatusEncomenda status;
+
+  @Id
+  @Column(name = "fatia")
+  private int fatia;
+
+  @Column(name = "quantidade", nullable = false)
+  private long quantidade;
+
+  /** Chave composta: status e fatia. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Chave implements Serializable {
+    private StatusEncomenda status;
+    private int fatia;
+  }
+}
@@ -1,6 +1,7 @@
 package br.com.cegonhaexpress.cegonha_express.model.entity;
 
 import br.com.cegonhaexpress.cegonha_express.model.base.BaseEntity;
+import br.com.cegonhaexpress.cegonha_express.model.codigo.GeradorCodigoRastreamento;
 import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
 import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
 import jakarta.persistence.CascadeType;
@@ -13,13 +14,16 @@ import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import lombok.Data;
@@ -53,12 +57,12 @@ public class Encomenda extends BaseEntity {
   private Cliente cliente;
 
   @NotNull(message = "Endereco de Origem é obrigatório")
-  @ManyToOne(fetch = FetchType.LAZY)
+  @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
   @JoinColumn(name = "endereco_origem_id", nullable = false)
   private Endereco enderecoOrigem;
 
   @NotNull(message = "Endereco de Destino é obrigatório")
-  @ManyToOne(fetch = FetchType.LAZY)
+  @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
   @JoinColumn(name = "endereco_destino_id", nullable = false)
   private Endereco enderecoDestino;
 
@@ -108,6 +112,22 @@ public class Encomenda extends BaseEntity {
   @OneToOne(mappedBy = "encomenda", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
   private Frete frete;
 
+  /** Cotações de frete em segundo plano que falharam; no limite a recuperação desiste. */
+  @Column(name = "tentativas_cotacao", nullable = false)
+  private int tentativasCotacao;
+
+  /** Momento a partir do qual a recuperação pode recotar o frete; null antes da primeira falha. */
+  @Column(name = "proxima_cotacao")
+  private LocalDateTime proximaCotacao;
+
+  /**
+   * Versão para controle de concorrência otimista: o UPDATE só é aplicado se a encomenda não foi
+   * alterada desde a leitura, impedindo que uma transição concorrente seja sobrescrita.
+   */
+  @Version
+  @Column(name = "versao", nullable = false)
+  private Long versao;
+
   /**
    * Construtor para criação de encomenda com dados essenciais.
    *
@@ -131,7 +151,7 @@ public class Encomenda extends BaseEntity {
     this.descricaoBebe = descricaoBebe;
     this.dataPedido = LocalDateTime.now();
     this.status = StatusEncomenda.PENDENTE;
-    this.codigo = gerarCodigoUnico();
+    this.codigo = GeradorCodigoRastreamento.gerar();
   }
 
   /**
@@ -164,13 +184,14 @@ public class Encomenda extends BaseEntity {
   /**
    * Construtor sem argumentos
    *
-   * <p>Inicializa a classe com as timestamps corretas mas sem informações
+   * <p>Inicializa a classe com as timestamps corretas mas sem informações. Também é usado pelo JPA
+   * ao carregar encomendas do banco, por isso não gera código de rastreamento: encomendas novas
+   * recebem o código ao serem persistidas.
    */
   public Encomenda() {
     super(); // Garante que BaseEntity seja inicializada
     this.dataPedido = LocalDateTime.now();
     this.status = StatusEncomenda.PENDENTE;
-    this.codigo = gerarCodigoUnico();
   }
 
   // ==================== MÉTODOS DE NEGÓCIO ====================
@@ -224,6 +245,22 @@ public class Encomenda extends BaseEntity {
     }
   }
 
+  /**
+   * Registra uma falha da cotação do frete em segundo plano e adia a próxima tentativa com espera
+   * exponencial: a espera inicial dobra a cada falha, até a espera máxima.
+   *
+   * @param esperaInicial Espera após a primeira falha
+   * @param esperaMaxima Limite da espera
+   */
+  public void registrarFalhaCotacao(Duration esperaInicial, Duration esperaMaxima) {
+    tentativasCotacao++;
+    Duration espera = esperaInicial.multipliedBy(1L << Math.min(tentativasCotacao - 1, 20));
+    if (espera.compareTo(esperaMaxima) > 0) {
+      espera = esperaMaxima;
+    }
+    proximaCotacao = LocalDateTime.now().plus(espera);
+  }
+
   // ==================== MÉTODOS UTILITÁRIOS ====================
 
   /**
@@ -306,19 +343,19 @@ public class Encomenda extends BaseEntity {
         status.getDescricao());
   }
 
-  // ==================== MÉTODOS PRIVADOS ====================
+  // ==================== CALLBACKS JPA ====================
 
-  /**
-   * Gera código único para a encomenda. Formato: CE + timestamp + sufixo aleatório
-   *
-   * @return código único
-   */
-  private String gerarCodigoUnico() {
-    long timestamp = System.currentTimeMillis();
-    int sufixo = (int) (Math.random() * 1000000);
-    return String.format("CE%d%06d", timestamp % 1000000, sufixo);
+  /** Callback executado antes da persistência. Gera o código de encomendas criadas sem ele. */
+  @PrePersist
+  public void onCreate() {
+    super.onCreate();
+    if (codigo == null) {
+      codigo = GeradorCodigoRastreamento.gerar();
+    }
   }
 
+  // ==================== MÉTODOS PRIVADOS ====================
+
   /**
    * Calcula data estimada de entrega baseada no tipo.
    *
@@ -0,0 +1,131 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.base.BaseEntity;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Evento do histórico de uma encomenda: criação, cotação do frete ou mudança de status.
+ *
+ * <p>O histórico é somente de inclusão: cada evento é gravado na mesma transação da alteração que
+ * descreve e nunca é atualizado. Os eventos guardam os dados necessários para as projeções de
+ * leitura ({@link RastreamentoEncomenda}, {@link ContagemStatus}), sem consultar a encomenda.
+ *
+ * <p>O ID da encomenda não é chave estrangeira: o histórico independe do ciclo de vida da linha em
+ * {@code encomendas}.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.HistoricoEncomendaService
+ */
+@Entity
+@Immutable
+@Table(
+    name = "encomenda_eventos",
+    indexes = {@Index(name = "idx_encomenda_evento_codigo", columnList = "codigo")})
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class EventoEncomenda extends BaseEntity {
+
+  @Column(name = "encomenda_id", nullable = false, updatable = false)
+  private Long encomendaId;
+
+  @Column(name = "codigo", nullable = false, updatable = false, length = 20)
+  private String codigo;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "tipo", nullable = false, updatable = false, length = 20)
+  private TipoEventoEncomenda tipo;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status_anterior", updatable = false, length = 20)
+  private StatusEncomenda statusAnterior;
+
+  /** Status da encomenda após o evento. */
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, updatable = false, length = 20)
+  private StatusEncomenda status;
+
+  /** Valor do frete, na criação com frete calculado e na cotação. */
+  @Column(name = "valor_frete", updatable = false, precision = 10, scale = 2)
+  private BigDecimal valorFrete;
+
+  /** Prazo do frete em dias úteis, na criação com frete calculado e na cotação. */
+  @Column(name = "prazo_dias", updatable = false)
+  private Integer prazoDias;
+
+  /** Informação adicional, como o motivo de um cancelamento. */
+  @Column(name = "detalhe", updatable = false, length = 1000)
+  private String detalhe;
+
+  @Column(name = "ocorrido_em", nullable = false, updatable = false)
+  private LocalDateTime ocorridoEm;
+
+  private EventoEncomenda(Encomenda encomenda, TipoEventoEncomenda tipo) {
+    this.encomendaId = encomenda.getId();
+    this.codigo = encomenda.getCodigo();
+    this.tipo = tipo;
+    this.status = encomenda.getStatus();
+    this.ocorridoEm = LocalDateTime.now();
+  }
+
+  /**
+   * Evento de criação, com o frete se já foi calculado.
+   *
+   * @param encomenda Encomenda recém-gravada (com ID)
+   * @return Evento de criação
+   */
+  public static EventoEncomenda criacao(Encomenda encomenda) {
+    EventoEncomenda evento = new EventoEncomenda(encomenda, TipoEventoEncomenda.CRIADA);
+    Frete frete = encomenda.getFrete();
+    if (frete != null) {
+      evento.valorFrete = frete.getValor();
+      evento.prazoDias = frete.getPrazoDias();
+    }
+    return evento;
+  }
+
+  /**
+   * Evento de cotação do frete de uma encomenda criada sem frete.
+   *
+   * @param encomenda Encomenda
+   * @param frete Frete cotado
+   * @return Evento de cotação
+   */
+  public static EventoEncomenda freteCotado(Encomenda encomenda, Frete frete) {
+    EventoEncomenda evento = new EventoEncomenda(encomenda, TipoEventoEncomenda.FRETE_COTADO);
+    evento.valorFrete = frete.getValor();
+    evento.prazoDias = frete.getPrazoDias();
+    return evento;
+  }
+
+  /**
+   * Evento de mudança de status.
+   *
+   * @param encomenda Encomenda já com o novo status
+   * @param anterior Status antes da transição
+   * @param detalhe Informação adicional (ex: motivo do cancelamento) ou null
+   * @return Evento de mudança de status
+   */
+  public static EventoEncomenda mudancaStatus(
+      Encomenda encomenda, StatusEncomenda anterior, String detalhe) {
+    EventoEncomenda evento = new EventoEncomenda(encomenda, TipoEventoEncomenda.STATUS_ALTERADO);
+    evento.statusAnterior = anterior;
+    evento.detalhe = detalhe;
+    return evento;
+  }
+}
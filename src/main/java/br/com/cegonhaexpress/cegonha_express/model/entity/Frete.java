@@ -1,7 +1,9 @@
 package br.com.cegonhaexpress.cegonha_express.model.entity;
 
+import br.com.cegonhaexpress.cegonha_express.diagnostico.CalculoFreteEvento;
 import br.com.cegonhaexpress.cegonha_express.model.base.BaseEntity;
 import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.tarifa.CalculadoraFrete;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -164,8 +166,9 @@ public class Frete extends BaseEntity {
   // ==================== MÉTODOS DE NEGÓCIO ====================
 
   /**
-   * Calcula o valor do frete baseado no tipo de entrega e parâmetros. Implementa Strategy Pattern
-   * para diferentes modalidades.
+   * Calcula o valor do frete baseado no tipo de entrega e parâmetros. As tarifas de cada modalidade
+   * e o cálculo em ponto fixo ficam no {@link CalculadoraFrete}. Cada cálculo gera um evento JFR
+   * {@link CalculoFreteEvento} quando habilitado na gravação.
    *
    * @param distancia Distância em km
    * @param peso Peso em kg (opcional)
@@ -178,11 +181,17 @@ public class Frete extends BaseEntity {
 
     BigDecimal pesoConsiderado = peso != null ? peso : BigDecimal.ONE;
 
-    return switch (tipo) {
-      case EXPRESSA -> calcularFreteExpressa(distancia, pesoConsiderado);
-      case PADRAO -> calcularFreteStandard(distancia, pesoConsiderado);
-      case ECONOMICA -> calcularFreteEconomica(distancia, pesoConsiderado);
-    };
+    CalculoFreteEvento evento = new CalculoFreteEvento();
+    evento.begin();
+    BigDecimal valor = CalculadoraFrete.calcular(tipo, distancia, pesoConsiderado);
+    if (evento.shouldCommit()) {
+      evento.tipoEntrega = tipo.name();
+      evento.distanciaKm = distancia.doubleValue();
+      evento.pesoKg = pesoConsiderado.doubleValue();
+      evento.valor = valor.doubleValue();
+      evento.commit();
+    }
+    return valor;
   }
 
   /**
@@ -248,44 +257,6 @@ public class Frete extends BaseEntity {
         tipoEntrega.getDescricao(), valor, prazoDias, distanciaKm);
   }
 
-  // ==================== MÉTODOS PRIVADOS (Strategy Pattern) ====================
-
-  /** Cálculo específico para entrega expressa. Mais cara, mais rápida. */
-  private static BigDecimal calcularFreteExpressa(BigDecimal distancia, BigDecimal peso) {
-    BigDecimal valorBase = new BigDecimal("25.00");
-    BigDecimal taxaKm = new BigDecimal("1.50");
-    BigDecimal taxaPeso = new BigDecimal("2.00");
-
-    BigDecimal valorDistancia = distancia.multiply(taxaKm);
-    BigDecimal valorPeso = peso.multiply(taxaPeso);
-
-    return valorBase.add(valorDistancia).add(valorPeso).setScale(2, RoundingMode.HALF_UP);
-  }
-
-  /** Cálculo específico para entrega standard. Preço médio, prazo médio. */
-  private static BigDecimal calcularFreteStandard(BigDecimal distancia, BigDecimal peso) {
-    BigDecimal valorBase = new BigDecimal("15.00");
-    BigDecimal taxaKm = new BigDecimal("1.00");
-    BigDecimal taxaPeso = new BigDecimal("1.50");
-
-    BigDecimal valorDistancia = distancia.multiply(taxaKm);
-    BigDecimal valorPeso = peso.multiply(taxaPeso);
-
-    return valorBase.add(valorDistancia).add(valorPeso).setScale(2, RoundingMode.HALF_UP);
-  }
-
-  /** Cálculo específico para entrega econômica. Mais barata, mais demorada. */
-  private static BigDecimal calcularFreteEconomica(BigDecimal distancia, BigDecimal peso) {
-    BigDecimal valorBase = new BigDecimal("10.00");
-    BigDecimal taxaKm = new BigDecimal("0.75");
-    BigDecimal taxaPeso = new BigDecimal("1.00");
-
-    BigDecimal valorDistancia = distancia.multiply(taxaKm);
-    BigDecimal valorPeso = peso.multiply(taxaPeso);
-
-    return valorBase.add(valorDistancia).add(valorPeso).setScale(2, RoundingMode.HALF_UP);
-  }
-
   // ==================== MÉTODOS UTILITÁRIOS ====================
 
   /**
@@ -294,7 +265,7 @@ public class Frete extends BaseEntity {
    * @return valor formatado (R$ 99,99)
    */
   public String getValorFormatado() {
-    return String.format("R$ %.2f", valor);
+    return formatarValor(valor);
   }
 
   /**
@@ -312,6 +283,29 @@ public class Frete extends BaseEntity {
    * @return prazo formatado (5 dias úteis)
    */
   public String getPrazoFormatado() {
+    return formatarPrazo(prazoDias);
+  }
+
+  /**
+   * Formata um valor de frete como moeda brasileira, sem exigir a entidade carregada.
+   *
+   * @param valor Valor do frete
+   * @return valor formatado (R$ 99,99) ou null se o valor for nulo
+   */
+  public static String formatarValor(BigDecimal valor) {
+    return valor == null ? null : String.format("R$ %.2f", valor);
+  }
+
+  /**
+   * Formata um prazo em dias úteis, sem exigir a entidade carregada.
+   *
+   * @param prazoDias Prazo em dias
+   * @return prazo formatado (5 dias úteis) ou null se o prazo for nulo
+   */
+  public static String formatarPrazo(Integer prazoDias) {
+    if (prazoDias == null) {
+      return null;
+    }
     return prazoDias == 1 ? "1 dia útil" : prazoDias + " dias úteis";
   }
 
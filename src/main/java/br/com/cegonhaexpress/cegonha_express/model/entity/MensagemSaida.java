@@ -0,0 +1,114 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.base.BaseEntity;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Mensagem da caixa de saída: notificação de um evento de encomenda ainda não entregue aos sistemas
+ * externos (ERP, aviso ao cliente).
+ *
+ * <p>Gravada na mesma transação do evento que descreve: a notificação só existe se a alteração foi
+ * confirmada, e não se perde se a aplicação parar antes do envio. Depois de entregue, a linha é
+ * apagada. Depois de {@code encomenda.saida.tentativas-maximas} falhas, a mensagem é descartada:
+ * fica na tabela para análise, mas deixa de ser enviada e de reter as seguintes da encomenda.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.service.CaixaSaidaService
+ * @see br.com.cegonhaexpress.cegonha_express.service.DespachoSaidaService
+ */
+@Entity
+@Table(
+    name = "mensagens_saida",
+    indexes = {
+      @Index(name = "idx_mensagem_saida_proxima", columnList = "proxima_tentativa"),
+      @Index(name = "idx_mensagem_saida_codigo", columnList = "codigo, id")
+    })
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = "payload")
+public class MensagemSaida extends BaseEntity {
+
+  /** Evento notificado; identifica a mensagem para o destino descartar reenvios. */
+  @Column(name = "evento_id", nullable = false, updatable = false, unique = true)
+  private Long eventoId;
+
+  @Column(name = "codigo", nullable = false, updatable = false, length = 20)
+  private String codigo;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "tipo", nullable = false, updatable = false, length = 20)
+  private TipoEventoEncomenda tipo;
+
+  /** Corpo JSON entregue ao destino. */
+  @Column(name = "payload", nullable = false, updatable = false, length = 2000)
+  private String payload;
+
+  @Column(name = "tentativas", nullable = false)
+  private int tentativas;
+
+  /** Momento a partir do qual a mensagem pode ser enviada (adiado após cada falha). */
+  @Column(name = "proxima_tentativa", nullable = false)
+  private LocalDateTime proximaTentativa;
+
+  @Column(name = "ultimo_erro", length = 500)
+  private String ultimoErro;
+
+  /** Momento em que a mensagem foi descartada por excesso de falhas; null enquanto pendente. */
+  @Column(name = "descartada_em")
+  private LocalDateTime descartadaEm;
+
+  /**
+   * Cria a mensagem de um evento já gravado (com ID).
+   *
+   * @param evento Evento notificado
+   * @param payload Corpo JSON da notificação
+   */
+  public MensagemSaida(EventoEncomenda evento, String payload) {
+    this.eventoId = evento.getId();
+    this.codigo = evento.getCodigo();
+    this.tipo = evento.getTipo();
+    this.payload = payload;
+    this.proximaTentativa = evento.getOcorridoEm();
+  }
+
+  /**
+   * Registra uma falha de entrega e adia a próxima tentativa com espera exponencial: a espera
+   * inicial dobra a cada falha, até a espera máxima.
+   *
+   * @param erro Causa da falha
+   * @param esperaInicial Espera após a primeira falha
+   * @param esperaMaxima Limite da espera
+   */
+  public void registrarFalha(Exception erro, Duration esperaInicial, Duration esperaMaxima) {
+    tentativas++;
+    Duration espera = esperaInicial.multipliedBy(1L << Math.min(tentativas - 1, 20));
+    if (espera.compareTo(esperaMaxima) > 0) {
+      espera = esperaMaxima;
+    }
+    proximaTentativa = LocalDateTime.now().plus(espera);
+    String mensagem = erro.getClass().getSimpleName() + ": " + erro.getMessage();
+    ultimoErro = mensagem.length() > 500 ? mensagem.substring(0, 500) : mensagem;
+  }
+
+  /** Descarta a mensagem: ela não será mais enviada nem reterá as seguintes da encomenda. */
+  public void descartar() {
+    descartadaEm = LocalDateTime.now();
+  }
+
+  public boolean isDescartada() {
+    return descartadaEm != null;
+  }
+}
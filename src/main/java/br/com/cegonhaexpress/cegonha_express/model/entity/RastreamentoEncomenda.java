@@ -0,0 +1,63 @@
+package br.com.cegonhaexpress.cegonha_express.model.entity;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+/**
+ * Projeção de leitura do rastreamento: uma linha por encomenda, com as colunas da consulta por
+ * código já desnormalizadas (status e frete), lida pela chave primária sem JOIN.
+ *
+ * <p>Mantida pelo {@link br.com.cegonhaexpress.cegonha_express.service.ProjecaoEncomendaService} a
+ * partir dos eventos do histórico. Não estende {@code BaseEntity}: a chave é o próprio código de
+ * rastreamento. {@link DynamicUpdate} faz cada evento gravar só as colunas que alterou, para que a
+ * cotação do frete e uma mudança de status concorrentes não se sobrescrevam.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Entity
+@DynamicUpdate
+@Table(name = "rastreamento_encomendas")
+@Data
+@NoArgsConstructor
+public class RastreamentoEncomenda {
+
+  @Id
+  @Column(name = "codigo", length = 20)
+  private String codigo;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private StatusEncomenda status;
+
+  @Column(name = "valor_frete", precision = 10, scale = 2)
+  private BigDecimal valorFrete;
+
+  @Column(name = "prazo_dias")
+  private Integer prazoDias;
+
+  @Column(name = "atualizado_em", nullable = false)
+  private LocalDateTime atualizadoEm;
+
+  /**
+   * Cria a linha de rastreamento a partir do evento de criação.
+   *
+   * @param criacao Evento de criação da encomenda
+   */
+  public RastreamentoEncomenda(EventoEncomenda criacao) {
+    this.codigo = criacao.getCodigo();
+    this.status = criacao.getStatus();
+    this.valorFrete = criacao.getValorFrete();
+    this.prazoDias = criacao.getPrazoDias();
+    this.atualizadoEm = criacao.getOcorridoEm();
+  }
+}
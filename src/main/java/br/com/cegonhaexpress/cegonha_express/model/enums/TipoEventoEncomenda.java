@@ -0,0 +1,17 @@
+package br.com.cegonhaexpress.cegonha_express.model.enums;
+
+public enum TipoEventoEncomenda {
+  CRIADA("Encomenda criada"),
+  FRETE_COTADO("Frete cotado"),
+  STATUS_ALTERADO("Status alterado");
+
+  private final String descricao;
+
+  TipoEventoEncomenda(String descricao) {
+    this.descricao = descricao;
+  }
+
+  public String getDescricao() {
+    return descricao;
+  }
+}
@@ -0,0 +1,171 @@
+package br.com.cegonhaexpress.cegonha_express.model.tarifa;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Motor tarifário do frete em ponto fixo.
+ *
+ * <p>O valor do frete é {@code base + distância × taxaKm + peso × taxaKg}, arredondado para
+ * centavos com HALF_UP. As tarifas de cada TipoEntrega são pré-calculadas em centavos e o cálculo é
+ * feito em {@code long}, na menor escala comum das entradas (até milésimos), sem criar objetos. A
+ * conversão de/para BigDecimal acontece apenas na borda, em {@link #calcular(TipoEntrega,
+ * BigDecimal, BigDecimal)}.
+ *
+ * <p>Entradas com mais de {@value #ESCALA_MAXIMA} casas decimais, escala negativa ou magnitude que
+ * estoure {@code long} seguem pelo cálculo em BigDecimal, com as mesmas tarifas e o mesmo
+ * arredondamento. Os dois caminhos produzem exatamente o mesmo resultado.
+ *
+ * @author Gabriel Coelho Soares
+ * @see br.com.cegonhaexpress.cegonha_express.model.entity.Frete#calcularFrete(TipoEntrega,
+ *     BigDecimal, BigDecimal)
+ */
+public final class CalculadoraFrete {
+
+  /** Maior número de casas decimais de distância/peso atendido pelo cálculo em ponto fixo. */
+  public static final int ESCALA_MAXIMA = 3;
+
+  private static final long[] POTENCIAS_DE_DEZ = {1L, 10L, 100L, 1_000L};
+
+  /** Tarifas indexadas pelo ordinal do TipoEntrega. */
+  private static final Tarifa[] TARIFAS = new Tarifa[TipoEntrega.values().length];
+
+  static {
+    for (TipoEntrega tipo : TipoEntrega.values()) {
+      TARIFAS[tipo.ordinal()] =
+          switch (tipo) {
+            case EXPRESSA -> Tarifa.de("25.00", "1.50", "2.00");
+            case PADRAO -> Tarifa.de("15.00", "1.00", "1.50");
+            case ECONOMICA -> Tarifa.de("10.00", "0.75", "1.00");
+          };
+    }
+  }
+
+  private CalculadoraFrete() {}
+
+  /**
+   * Calcula o valor do frete a partir de valores em BigDecimal.
+   *
+   * @param tipo Tipo de entrega
+   * @param distancia Distância em km
+   * @param peso Peso em kg
+   * @return Valor do frete com 2 casas decimais
+   */
+  public static BigDecimal calcular(TipoEntrega tipo, BigDecimal distancia, BigDecimal peso) {
+    if (cabeEmPontoFixo(distancia) && cabeEmPontoFixo(peso)) {
+      try {
+        long centavos =
+            calcularCentavos(
+                tipo,
+                distancia.unscaledValue().longValue(),
+                distancia.scale(),
+                peso.unscaledValue().longValue(),
+                peso.scale());
+        return BigDecimal.valueOf(centavos, 2);
+      } catch (ArithmeticException e) {
+        // Estouro de long: segue pelo cálculo em BigDecimal
+      }
+    }
+    return calcularEmBigDecimal(tipo, distancia, peso);
+  }
+
+  /**
+   * Calcula o valor do frete em centavos, sem alocação.
+   *
+   * <p>Distância e peso são informados como valor sem escala e número de casas decimais (ex: 142,5
+   * km = {@code 1425} com escala {@code 1}).
+   *
+   * @param tipo Tipo de entrega
+   * @param distancia Distância sem escala
+   * @param escalaDistancia Casas decimais da distância (0 a {@value #ESCALA_MAXIMA})
+   * @param peso Peso sem escala
+   * @param escalaPeso Casas decimais do peso (0 a {@value #ESCALA_MAXIMA})
+   * @return Valor do frete em centavos, arredondado com HALF_UP
+   * @throws ArithmeticException se o cálculo estourar {@code long}
+   */
+  public static long calcularCentavos(
+      TipoEntrega tipo, long distancia, int escalaDistancia, long peso, int escalaPeso) {
+    if (escalaDistancia < 0
+        || escalaDistancia > ESCALA_MAXIMA
+        || escalaPeso < 0
+        || escalaPeso > ESCALA_MAXIMA) {
+      throw new IllegalArgumentException(
+          "Escala deve estar entre 0 e " + ESCALA_MAXIMA + " casas decimais");
+    }
+
+    Tarifa tarifa = TARIFAS[tipo.ordinal()];
+    int escala = Math.max(escalaDistancia, escalaPeso);
+
+    // Soma exata em centavos × 10^escala
+    long valorDistancia =
+        Math.multiplyExact(
+            Math.multiplyExact(distancia, tarifa.taxaKmCentavos()),
+            POTENCIAS_DE_DEZ[escala - escalaDistancia]);
+    long valorPeso =
+        Math.multiplyExact(
+            Math.multiplyExact(peso, tarifa.taxaKgCentavos()),
+            POTENCIAS_DE_DEZ[escala - escalaPeso]);
+    long total =
+        Math.addExact(
+            Math.addExact(tarifa.baseCentavos() * POTENCIAS_DE_DEZ[escala], valorDistancia),
+            valorPeso);
+
+    return arredondarHalfUp(total, POTENCIAS_DE_DEZ[escala]);
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** Cálculo de referência em BigDecimal, usado quando as entradas não cabem em ponto fixo. */
+  private static BigDecimal calcularEmBigDecimal(
+      TipoEntrega tipo, BigDecimal distancia, BigDecimal peso) {
+    Tarifa tarifa = TARIFAS[tipo.ordinal()];
+    return tarifa
+        .base()
+        .add(distancia.multiply(tarifa.taxaKm()))
+        .add(peso.multiply(tarifa.taxaKg()))
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+
+  /** Verifica se o valor tem escala suportada e valor sem escala representável em long. */
+  private static boolean cabeEmPontoFixo(BigDecimal valor) {
+    int escala = valor.scale();
+    return escala >= 0 && escala <= ESCALA_MAXIMA && valor.precision() <= 18;
+  }
+
+  /** Divide por {@code divisor} arredondando com HALF_UP (empate se afasta do zero). */
+  private static long arredondarHalfUp(long valor, long divisor) {
+    if (divisor == 1) {
+      return valor;
+    }
+    long quociente = valor / divisor;
+    long resto = valor % divisor;
+    if (Math.abs(resto) * 2 >= divisor) {
+      quociente += Long.signum(valor);
+    }
+    return quociente;
+  }
+
+  /** Tarifa de uma modalidade, em centavos e em BigDecimal (para o cálculo de referência). */
+  private record Tarifa(
+      long baseCentavos,
+      long taxaKmCentavos,
+      long taxaKgCentavos,
+      BigDecimal base,
+      BigDecimal taxaKm,
+      BigDecimal taxaKg) {
+
+    static Tarifa de(String base, String taxaKm, String taxaKg) {
+      BigDecimal valorBase = new BigDecimal(base);
+      BigDecimal valorKm = new BigDecimal(taxaKm);
+      BigDecimal valorKg = new BigDecimal(taxaKg);
+      return new Tarifa(
+          valorBase.movePointRight(2).longValueExact(),
+          valorKm.movePointRight(2).longValueExact(),
+          valorKg.movePointRight(2).longValueExact(),
+          valorBase,
+          valorKm,
+          valorKg);
+    }
+  }
+}
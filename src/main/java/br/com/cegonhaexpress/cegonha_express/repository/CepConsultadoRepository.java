@@ -0,0 +1,24 @@
+package br.com.cegonhaexpress.cegonha_express.repository;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.CepConsultado;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository do cache persistente de consultas à ViaCEP.
+ *
+ * @author Gabriel Coelho Soares
+ * @see CepConsultado
+ */
+@Repository
+public interface CepConsultadoRepository extends JpaRepository<CepConsultado, Long> {
+
+  /**
+   * Busca a última consulta registrada para o CEP.
+   *
+   * @param cep CEP apenas com dígitos
+   * @return Consulta encontrada ou Optional.empty()
+   */
+  Optional<CepConsultado> findByCep(String cep);
+}
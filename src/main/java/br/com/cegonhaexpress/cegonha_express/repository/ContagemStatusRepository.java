@@ -0,0 +1,54 @@
+package br.com.cegonhaexpress.cegonha_express.repository;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.ContagemStatusResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.ContagemStatus;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository da projeção do painel (quantidade de encomendas por status, em fatias).
+ *
+ * @author Gabriel Coelho Soares
+ * @see ContagemStatus
+ */
+@Repository
+public interface ContagemStatusRepository
+    extends JpaRepository<ContagemStatus, ContagemStatus.Chave> {
+
+  /**
+   * Soma um valor à quantidade de uma fatia diretamente no banco, sem ler a linha: transações
+   * concorrentes não perdem incrementos.
+   *
+   * @param status Status da linha
+   * @param fatia Fatia da linha
+   * @param delta Valor somado (negativo para subtrair)
+   * @return Linhas atualizadas (0 se a fatia ainda não tem linha)
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Modifying
+  @Query(
+      "UPDATE ContagemStatus c SET c.quantidade = c.quantidade + :delta "
+          + "WHERE c.status = :status AND c.fatia = :fatia")
+  int somar(
+      @Param("status") StatusEncomenda status,
+      @Param("fatia") int fatia,
+      @Param("delta") long delta);
+
+  /**
+   * Quantidade de cada status, somando as fatias.
+   *
+   * @return Uma linha por status com fatias gravadas
+   */
+  @Query(
+      "SELECT new br.com.cegonhaexpress.cegonha_express.dto.result.ContagemStatusResult("
+          + "c.status, SUM(c.quantidade)) "
+          + "FROM ContagemStatus c GROUP BY c.status")
+  List<ContagemStatusResult> somarPorStatus();
+}
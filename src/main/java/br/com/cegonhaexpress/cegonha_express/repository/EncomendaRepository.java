@@ -1,14 +1,22 @@
 package br.com.cegonhaexpress.cegonha_express.repository;
 
+import br.com.cegonhaexpress.cegonha_express.dto.result.EncomendaResumoResult;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
 import br.com.cegonhaexpress.cegonha_express.model.enums.*;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -27,11 +35,47 @@ public interface EncomendaRepository extends JpaRepository<Encomenda, Long> {
   /**
    * Busca encomenda pelo código único de rastreamento.
    *
-   * @param codigo Código único da encomenda (formato: CE + timestamp + sufixo)
+   * @param codigo Código único da encomenda (formato: CE + 18 dígitos)
    * @return Encomenda encontrada ou Optional.empty()
    */
   Optional<Encomenda> findByCodigo(String codigo);
 
+  /**
+   * Busca várias encomendas pelo código, com o frete, em uma única consulta.
+   *
+   * <p>O frete fica do lado inverso de um relacionamento um-para-um e não pode ser carregado sob
+   * demanda: sem o JOIN FETCH, o Hibernate faria uma consulta de frete por encomenda.
+   *
+   * @param codigos Códigos das encomendas
+   * @return Encomendas encontradas, em qualquer ordem
+   */
+  @Query("SELECT e FROM Encomenda e LEFT JOIN FETCH e.frete WHERE e.codigo IN :codigos")
+  List<Encomenda> findComFreteByCodigoIn(@Param("codigos") Collection<String> codigos);
+
+  /**
+   * Busca encomendas PENDENTE ainda sem frete gravadas antes do limite, com os endereços, para a
+   * recuperação das cotações em segundo plano que não chegaram a terminar. Encomendas cuja cotação
+   * já falhou só voltam depois da espera registrada, e as que atingiram o máximo de tentativas não
+   * voltam mais.
+   *
+   * @param gravadasAntes Só encomendas gravadas antes deste momento
+   * @param agora Momento atual, comparado à próxima tentativa
+   * @param tentativasMaximas Falhas de cotação a partir das quais a encomenda é ignorada
+   * @param limite Máximo de encomendas
+   * @return Encomendas sem frete, da tentativa devida há mais tempo para a mais recente
+   */
+  @Query(
+      "SELECT e FROM Encomenda e JOIN FETCH e.enderecoOrigem JOIN FETCH e.enderecoDestino "
+          + "LEFT JOIN e.frete f WHERE e.status = 'PENDENTE' AND f.id IS NULL "
+          + "AND e.createdAt < :gravadasAntes AND e.tentativasCotacao < :tentativasMaximas "
+          + "AND (e.proximaCotacao IS NULL OR e.proximaCotacao <= :agora) "
+          + "ORDER BY COALESCE(e.proximaCotacao, e.createdAt), e.id")
+  List<Encomenda> findPendentesSemFrete(
+      @Param("gravadasAntes") LocalDateTime gravadasAntes,
+      @Param("agora") LocalDateTime agora,
+      @Param("tentativasMaximas") int tentativasMaximas,
+      Limit limite);
+
   /**
    * Busca encomendas excluindo status específicos.
    *
@@ -130,4 +174,78 @@ public interface EncomendaRepository extends JpaRepository<Encomenda, Long> {
    * @return Número de encomendas do tipo especificado
    */
   long countByTipoEntrega(TipoEntrega tipoEntrega);
+
+  /** Projeção das listagens: encomenda com valor e prazo do frete, sem carregar entidades. */
+  String SELECT_RESUMO =
+      "SELECT new br.com.cegonhaexpress.cegonha_express.dto.result.EncomendaResumoResult("
+          + "e.id, e.dataPedido, e.codigo, e.status, f.valor, f.prazoDias) "
+          + "FROM Encomenda e LEFT JOIN e.frete f ";
+
+  /**
+   * Ordenação da paginação por cursor. Atendida pelo índice idx_encomenda_data_criacao: no InnoDB o
+   * índice secundário em data_pedido já carrega o id como sufixo.
+   */
+  String ORDEM_CURSOR = " ORDER BY e.dataPedido, e.id";
+
+  /**
+   * Lista o resumo de todas as encomendas em uma única consulta.
+   *
+   * <p>Projeção com LEFT JOIN no frete: não carrega a entidade Encomenda nem dispara um SELECT por
+   * encomenda para o relacionamento (1) → (1) Frete.
+   *
+   * @return Resumos ordenados pelo ID da encomenda
+   */
+  @Query(SELECT_RESUMO + "ORDER BY e.id")
+  List<EncomendaResumoResult> findResumos();
+
+  /**
+   * Lista o resumo das encomendas excluindo status específicos, em uma única consulta.
+   *
+   * @param status Lista de status a serem excluídos da consulta
+   * @return Resumos ordenados pelo ID da encomenda
+   * @see #findResumos()
+   */
+  @Query(SELECT_RESUMO + "WHERE e.status NOT IN :status ORDER BY e.id")
+  List<EncomendaResumoResult> findResumosByStatusNotIn(
+      @Param("status") List<StatusEncomenda> status);
+
+  /**
+   * Primeira página da listagem paginada por cursor.
+   *
+   * @param limite Quantidade máxima de resumos
+   * @return Resumos ordenados por data do pedido e ID
+   */
+  @Query(SELECT_RESUMO + ORDEM_CURSOR)
+  List<EncomendaResumoResult> findPrimeirosResumos(Limit limite);
+
+  /**
+   * Página seguinte da listagem paginada por cursor (keyset).
+   *
+   * <p>Retorna as encomendas posteriores à chave {@code (dataPedido, id)} da última encomenda da
+   * página anterior. A busca parte direto da posição no índice de data do pedido, sem percorrer e
+   * descartar as linhas anteriores como faria um OFFSET.
+   *
+   * @param dataPedido Data do pedido da última encomenda da página anterior
+   * @param id ID da última encomenda da página anterior
+   * @param limite Quantidade máxima de resumos
+   * @return Resumos ordenados por data do pedido e ID
+   */
+  @Query(
+      SELECT_RESUMO
+          + "WHERE e.dataPedido > :dataPedido OR (e.dataPedido = :dataPedido AND e.id > :id)"
+          + ORDEM_CURSOR)
+  List<EncomendaResumoResult> findResumosApos(
+      @Param("dataPedido") LocalDateTime dataPedido, @Param("id") Long id, Limit limite);
+
+  /**
+   * Percorre o resumo de todas as encomendas sem materializar a lista.
+   *
+   * <p>As linhas são lidas do banco em blocos ({@code fetch size}) à medida que o stream é
+   * consumido. Deve ser usado dentro de uma transação e fechado ao final (try-with-resources).
+   *
+   * @return Stream de resumos ordenados por data do pedido e ID
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query(SELECT_RESUMO + ORDEM_CURSOR)
+  Stream<EncomendaResumoResult> streamResumos();
 }
@@ -3,9 +3,12 @@ package br.com.cegonhaexpress.cegonha_express.repository;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
 import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -87,4 +90,36 @@ public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
    * @return Número de endereços cadastrados no estado
    */
   long countByUf(UF uf);
+
+  /**
+   * Busca endereços sem cliente (origens e destinos de encomendas) pela chave normalizada: CEP,
+   * número e complemento, sem diferenciar maiúsculas e espaços nas bordas.
+   *
+   * <p>O mais antigo vem primeiro, para que todas as encomendas convirjam para o mesmo registro.
+   *
+   * @param ceps CEP nas formas com e sem hífen
+   * @param numero Número em maiúsculas, sem espaços nas bordas
+   * @param complemento Complemento em maiúsculas, sem espaços nas bordas, ou vazio se ausente
+   * @param limite Quantidade máxima de endereços retornados
+   * @return Endereços equivalentes, do mais antigo para o mais recente
+   */
+  @Query(
+      "SELECT e FROM Endereco e WHERE e.cep IN :ceps AND UPPER(TRIM(e.numero)) = :numero"
+          + " AND COALESCE(UPPER(TRIM(e.complemento)), '') = :complemento AND e.cliente IS NULL"
+          + " ORDER BY e.id")
+  List<Endereco> findSemClientePorChave(
+      @Param("ceps") Collection<String> ceps,
+      @Param("numero") String numero,
+      @Param("complemento") String complemento,
+      Limit limite);
+
+  /**
+   * Busca todos os endereços sem cliente com qualquer um dos CEPs informados, do mais antigo para o
+   * mais recente. Usado para deduplicar vários destinos com uma única consulta.
+   *
+   * @param ceps CEPs nas formas com e sem hífen
+   * @return Endereços sem cliente dos CEPs informados
+   */
+  @Query("SELECT e FROM Endereco e WHERE e.cep IN :ceps AND e.cliente IS NULL ORDER BY e.id")
+  List<Endereco> findSemClientePorCeps(@Param("ceps") Collection<String> ceps);
 }
@@ -0,0 +1,24 @@
+package br.com.cegonhaexpress.cegonha_express.repository;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository do histórico de eventos das encomendas (somente inclusão).
+ *
+ * @author Gabriel Coelho Soares
+ * @see EventoEncomenda
+ */
+@Repository
+public interface EventoEncomendaRepository extends JpaRepository<EventoEncomenda, Long> {
+
+  /**
+   * Busca o histórico de uma encomenda na ordem em que os eventos foram gravados.
+   *
+   * @param codigo Código da encomenda
+   * @return Eventos da encomenda, do mais antigo ao mais recente
+   */
+  List<EventoEncomenda> findByCodigoOrderByOcorridoEmAscIdAsc(String codigo);
+}
@@ -0,0 +1,60 @@
+package br.com.cegonhaexpress.cegonha_express.repository;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.PendenciaSaidaResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository da caixa de saída de notificações.
+ *
+ * @author Gabriel Coelho Soares
+ * @see MensagemSaida
+ */
+@Repository
+public interface MensagemSaidaRepository extends JpaRepository<MensagemSaida, Long> {
+
+  /**
+   * Trava um lote de mensagens prontas para envio, pulando as já travadas por outra instância.
+   *
+   * <p>{@code FOR UPDATE SKIP LOCKED} permite que várias instâncias esvaziem a caixa ao mesmo tempo
+   * sem pegar a mesma mensagem. Só a mensagem mais antiga de cada encomenda é elegível: as
+   * notificações de uma encomenda saem na ordem em que ocorreram, mesmo com uma delas aguardando
+   * nova tentativa ou travada por outra instância. Mensagens descartadas ficam de fora e não retêm
+   * as seguintes.
+   *
+   * @param agora Momento atual (mensagens adiadas para depois dele ficam de fora)
+   * @param lote Máximo de mensagens
+   * @return Mensagens travadas até o fim da transação corrente, em ordem de gravação
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Query(
+      value =
+          "SELECT m.* FROM mensagens_saida m"
+              + " WHERE m.proxima_tentativa <= :agora AND m.descartada_em IS NULL"
+              + " AND NOT EXISTS (SELECT 1 FROM mensagens_saida a"
+              + " WHERE a.codigo = m.codigo AND a.id < m.id AND a.descartada_em IS NULL)"
+              + " ORDER BY m.id LIMIT :lote FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<MensagemSaida> travarProntas(@Param("agora") LocalDateTime agora, @Param("lote") int lote);
+
+  /**
+   * Quantidade de mensagens pendentes e data da mais antiga, para medir o atraso da entrega, e
+   * quantidade de descartadas, em uma única consulta.
+   *
+   * @return Pendências da caixa de saída
+   */
+  @Query(
+      "SELECT new br.com.cegonhaexpress.cegonha_express.dto.result.PendenciaSaidaResult("
+          + "COALESCE(SUM(CASE WHEN m.descartadaEm IS NULL THEN 1 ELSE 0 END), 0), "
+          + "MIN(CASE WHEN m.descartadaEm IS NULL THEN m.createdAt END), "
+          + "COALESCE(SUM(CASE WHEN m.descartadaEm IS NOT NULL THEN 1 ELSE 0 END), 0)) "
+          + "FROM MensagemSaida m")
+  PendenciaSaidaResult buscarPendencia();
+}
@@ -0,0 +1,15 @@
+package br.com.cegonhaexpress.cegonha_express.repository;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.RastreamentoEncomenda;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository da projeção de rastreamento, consultada pelo código (chave primária).
+ *
+ * @author Gabriel Coelho Soares
+ * @see RastreamentoEncomenda
+ */
+@Repository
+public interface RastreamentoEncomendaRepository
+    extends JpaRepository<RastreamentoEncomenda, String> {}
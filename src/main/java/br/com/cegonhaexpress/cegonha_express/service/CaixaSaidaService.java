@@ -0,0 +1,79 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.NotificacaoEncomendaDTO;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import br.com.cegonhaexpress.cegonha_express.repository.MensagemSaidaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Caixa de saída transacional das notificações de encomendas (ERP, aviso ao cliente).
+ *
+ * <p>Cada evento do histórico vira uma mensagem gravada na mesma transação da alteração: não há
+ * notificação de alteração desfeita nem alteração confirmada sem notificação, e nenhuma chamada
+ * externa acontece dentro da transação de negócio. A entrega fica com o {@link
+ * DespachoSaidaService}. Com {@code encomenda.saida.destino: nenhum} nada é gravado.
+ *
+ * @author Gabriel Coelho Soares
+ * @see MensagemSaida
+ */
+@Service
+public class CaixaSaidaService {
+
+  private final MensagemSaidaRepository mensagemRepository;
+  private final ObjectMapper objectMapper;
+  private final boolean habilitada;
+
+  public CaixaSaidaService(
+      MensagemSaidaRepository mensagemRepository,
+      ObjectMapper objectMapper,
+      @Value("${encomenda.saida.destino:nenhum}") String destino) {
+    this.mensagemRepository = mensagemRepository;
+    this.objectMapper = objectMapper;
+    this.habilitada = !"nenhum".equalsIgnoreCase(destino);
+  }
+
+  /**
+   * Grava as notificações dos eventos na transação corrente. Os eventos já devem estar gravados
+   * (com ID).
+   *
+   * @param eventos Eventos na ordem em que ocorreram
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enfileirar(List<EventoEncomenda> eventos) {
+    if (!habilitada || eventos.isEmpty()) {
+      return;
+    }
+    List<MensagemSaida> mensagens = new ArrayList<>(eventos.size());
+    for (EventoEncomenda evento : eventos) {
+      mensagens.add(new MensagemSaida(evento, serializar(evento)));
+    }
+    mensagemRepository.saveAll(mensagens);
+  }
+
+  /**
+   * Indica se as notificações estão sendo gravadas.
+   *
+   * @return false com {@code encomenda.saida.destino: nenhum}
+   */
+  public boolean isHabilitada() {
+    return habilitada;
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private String serializar(EventoEncomenda evento) {
+    try {
+      return objectMapper.writeValueAsString(NotificacaoEncomendaDTO.fromEntity(evento));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao serializar notificação da encomenda", e);
+    }
+  }
+}
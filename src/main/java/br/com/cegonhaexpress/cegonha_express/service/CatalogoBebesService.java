@@ -0,0 +1,193 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.BebeResponseDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Catálogo de bebês reborn carregado em memória.
+ *
+ * <p>O arquivo é lido e validado uma única vez na inicialização (a aplicação não sobe com um
+ * catálogo inválido) e mantido como um snapshot imutável: o JSON já serializado e o seu ETag. As
+ * requisições apenas devolvem esses bytes, sem ler o arquivo nem passar pelo ObjectMapper.
+ *
+ * <p>Com {@code encomenda.catalogo.recarregar=true} e o catálogo em um arquivo do sistema de
+ * arquivos, alterações no arquivo são detectadas e carregadas sem reiniciar a aplicação. Um arquivo
+ * inválido é ignorado e o snapshot anterior continua em uso.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Service
+@Slf4j
+public class CatalogoBebesService {
+
+  /**
+   * Snapshot imutável do catálogo.
+   *
+   * @param json Catálogo serializado, pronto para a resposta
+   * @param etag ETag forte, derivado do conteúdo (entre aspas)
+   * @param quantidade Número de bebês no catálogo
+   */
+  public record Catalogo(byte[] json, String etag, int quantidade) {}
+
+  private final ObjectMapper objectMapper;
+  private final Resource arquivo;
+  private final boolean recarregar;
+
+  private volatile Catalogo catalogo;
+  private WatchService observador;
+
+  public CatalogoBebesService(
+      ObjectMapper objectMapper,
+      @Value("${encomenda.catalogo.arquivo:classpath:catalogo-bebes.json}") Resource arquivo,
+      @Value("${encomenda.catalogo.recarregar:false}") boolean recarregar) {
+    this.objectMapper = objectMapper;
+    this.arquivo = arquivo;
+    this.recarregar = recarregar;
+  }
+
+  @PostConstruct
+  public void iniciar() throws IOException {
+    catalogo = carregar();
+    log.info(
+        "Catálogo de bebês carregado: {} bebês, ETag {}", catalogo.quantidade(), catalogo.etag());
+    if (recarregar && arquivo.isFile()) {
+      observar(arquivo.getFile().toPath().toAbsolutePath());
+    }
+  }
+
+  @PreDestroy
+  public void encerrar() throws IOException {
+    if (observador != null) {
+      observador.close();
+    }
+  }
+
+  /**
+   * Snapshot atual do catálogo.
+   *
+   * @return Catálogo serializado com ETag
+   */
+  public Catalogo getCatalogo() {
+    return catalogo;
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** Lê, valida e serializa o catálogo. */
+  private Catalogo carregar() throws IOException {
+    List<BebeResponseDTO> bebes;
+    try (InputStream entrada = arquivo.getInputStream()) {
+      bebes = objectMapper.readValue(entrada, new TypeReference<List<BebeResponseDTO>>() {});
+    }
+    validar(bebes);
+
+    byte[] json = objectMapper.writeValueAsBytes(bebes);
+    return new Catalogo(json, calcularEtag(json), bebes.size());
+  }
+
+  private static void validar(List<BebeResponseDTO> bebes) {
+    if (bebes == null || bebes.isEmpty()) {
+      throw new IllegalStateException("Catálogo de bebês vazio");
+    }
+    Set<String> ids = new HashSet<>();
+    for (BebeResponseDTO bebe : bebes) {
+      if (bebe.getId() == null || bebe.getId().isBlank()) {
+        throw new IllegalStateException("Bebê sem id no catálogo: " + bebe.getNome());
+      }
+      if (!ids.add(bebe.getId())) {
+        throw new IllegalStateException("Id repetido no catálogo de bebês: " + bebe.getId());
+      }
+      if (bebe.getNome() == null || bebe.getNome().isBlank()) {
+        throw new IllegalStateException("Bebê sem nome no catálogo: " + bebe.getId());
+      }
+      if (!positivo(bebe.getPeso_kg()) || !positivo(bebe.getAltura_cm())) {
+        throw new IllegalStateException("Peso e altura devem ser positivos: " + bebe.getId());
+      }
+    }
+  }
+
+  private static boolean positivo(BigDecimal valor) {
+    return valor != null && valor.signum() > 0;
+  }
+
+  /** ETag forte: primeiros 128 bits do SHA-256 do conteúdo, em hexadecimal. */
+  private static String calcularEtag(byte[] json) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+      return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 indisponível", e);
+    }
+  }
+
+  /** Recarrega o catálogo quando o arquivo for alterado. */
+  private void observar(Path caminho) throws IOException {
+    observador = FileSystems.getDefault().newWatchService();
+    caminho
+        .getParent()
+        .register(
+            observador, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+    Thread.ofPlatform()
+        .daemon()
+        .name("catalogo-bebes-observador")
+        .start(
+            () -> {
+              try {
+                while (true) {
+                  WatchKey chave = observador.take();
+                  boolean alterado = false;
+                  for (WatchEvent<?> evento : chave.pollEvents()) {
+                    alterado |= caminho.getFileName().equals(evento.context());
+                  }
+                  chave.reset();
+                  if (alterado) {
+                    recarregar();
+                  }
+                }
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              } catch (ClosedWatchServiceException e) {
+                // Encerramento da aplicação
+              }
+            });
+    log.info("Observando alterações no catálogo de bebês em {}", caminho);
+  }
+
+  private void recarregar() {
+    try {
+      Catalogo novo = carregar();
+      if (!novo.etag().equals(catalogo.etag())) {
+        catalogo = novo;
+        log.info(
+            "Catálogo de bebês recarregado: {} bebês, ETag {}", novo.quantidade(), novo.etag());
+      }
+    } catch (IOException | RuntimeException e) {
+      log.error(
+          "Catálogo de bebês alterado é inválido, mantendo a versão anterior: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import br.com.cegonhaexpress.cegonha_express.repository.FreteRepository;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cotação de frete em segundo plano para encomendas criadas no modo assíncrono.
+ *
+ * <p>A encomenda é gravada como PENDENTE sem frete e a cotação (ViaCEP/Google Maps) roda em um pool
+ * fixo de threads (ou em threads virtuais, com {@code spring.threads.virtual.enabled}), fora de
+ * qualquer transação. Só a gravação do frete, ao final, abre uma transação curta.
+ *
+ * <p>O número de cotações aceitas e ainda não concluídas é limitado ({@code
+ * encomenda.cotacao.capacidade}): sem vaga, a criação é recusada antes de gravar a encomenda, em
+ * vez de acumular trabalho sem limite.
+ *
+ * <p>Uma varredura periódica ({@code encomenda.cotacao.recuperacao.intervalo}) reagenda a cotação
+ * das encomendas PENDENTE sem frete gravadas há mais de {@code
+ * encomenda.cotacao.recuperacao.idade}: as que não chegaram a ser agendadas, as que falharam e as
+ * que ficaram para trás ao encerrar a aplicação. Usa só as vagas livres e ignora as cotações em
+ * andamento nesta instância.
+ *
+ * <p>Cada falha da cotação fica gravada na encomenda e adia a próxima tentativa com espera
+ * exponencial ({@code encomenda.cotacao.recuperacao.espera-inicial} dobrando até {@code
+ * espera-maxima}). Depois de {@code encomenda.cotacao.recuperacao.tentativas-maximas} falhas a
+ * varredura desiste da encomenda, para que as que sempre falham (ex: endereço que o Google Maps não
+ * encontra) não ocupem as vagas das demais.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Service
+@Slf4j
+public class CotacaoAssincronaService {
+
+  private final FreteService freteService;
+  private final EncomendaRepository encomendaRepository;
+  private final FreteRepository freteRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final HistoricoEncomendaService historico;
+  private final Semaphore vagas;
+  private final ExecutorService executor;
+  private final Duration idadeRecuperacao;
+  private final Duration esperaInicial;
+  private final Duration esperaMaxima;
+  private final int tentativasMaximas;
+  private final ScheduledExecutorService recuperacao;
+
+  /** Encomendas com cotação agendada e não concluída nesta instância. */
+  private final Set<Long> emAndamento = ConcurrentHashMap.newKeySet();
+
+  public CotacaoAssincronaService(
+      FreteService freteService,
+      EncomendaRepository encomendaRepository,
+      FreteRepository freteRepository,
+      TransactionTemplate transactionTemplate,
+      HistoricoEncomendaService historico,
+      @Value("${encomenda.cotacao.threads:8}") int threads,
+      @Value("${encomenda.cotacao.capacidade:500}") int capacidade,
+      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais,
+      @Value("${encomenda.cotacao.recuperacao.intervalo:5m}") Duration intervaloRecuperacao,
+      @Value("${encomenda.cotacao.recuperacao.idade:5m}") Duration idadeRecuperacao,
+      @Value("${encomenda.cotacao.recuperacao.espera-inicial:5m}") Duration esperaInicial,
+      @Value("${encomenda.cotacao.recuperacao.espera-maxima:6h}") Duration esperaMaxima,
+      @Value("${encomenda.cotacao.recuperacao.tentativas-maximas:5}") int tentativasMaximas) {
+    this.freteService = freteService;
+    this.encomendaRepository = encomendaRepository;
+    this.freteRepository = freteRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.historico = historico;
+    this.vagas = new Semaphore(capacidade);
+    // Com threads virtuais, cada cotação ganha a sua; a concorrência segue limitada pelas vagas
+    this.executor =
+        threadsVirtuais
+            ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("cotacao-frete-", 0).factory())
+            : Executors.newFixedThreadPool(
+                threads, Thread.ofPlatform().daemon().name("cotacao-frete-", 0).factory());
+    this.idadeRecuperacao = idadeRecuperacao;
+    this.esperaInicial = esperaInicial;
+    this.esperaMaxima = esperaMaxima;
+    this.tentativasMaximas = tentativasMaximas;
+    this.recuperacao =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("cotacao-recuperacao").factory());
+    long espera = Math.max(1, intervaloRecuperacao.toMillis());
+    recuperacao.scheduleWithFixedDelay(this::recuperar, espera, espera, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Reserva uma vaga para uma cotação. Deve ser chamada antes de gravar a encomenda.
+   *
+   * @throws TaskRejectedException se a capacidade de cotações pendentes estiver esgotada
+   */
+  public void reservarVaga() {
+    if (!vagas.tryAcquire()) {
+      throw new TaskRejectedException(
+          "Capacidade de cotações de frete pendentes esgotada, tente novamente em instantes");
+    }
+  }
+
+  /** Devolve uma vaga reservada cuja cotação não chegou a ser agendada. */
+  public void liberarVaga() {
+    vagas.release();
+  }
+
+  /**
+   * Agenda a cotação do frete de uma encomenda já gravada, usando uma vaga reservada.
+   *
+   * <p>Os endereços são usados apenas para leitura e não precisam estar anexados a uma sessão.
+   *
+   * @param encomendaId ID da encomenda gravada sem frete
+   * @param origem Endereço de coleta
+   * @param destino Endereço de entrega
+   * @param tipoEntrega Modalidade de entrega
+   * @param pesoKg Peso do pacote em kg
+   * @throws TaskRejectedException se o pool já estiver encerrado
+   */
+  public void agendar(
+      Long encomendaId,
+      Endereco origem,
+      Endereco destino,
+      TipoEntrega tipoEntrega,
+      BigDecimal pesoKg) {
+    emAndamento.add(encomendaId);
+    try {
+      executor.execute(
+          () -> {
+            try {
+              cotar(encomendaId, origem, destino, tipoEntrega, pesoKg);
+            } finally {
+              emAndamento.remove(encomendaId);
+              vagas.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      emAndamento.remove(encomendaId);
+      throw new TaskRejectedException("Cotação de frete indisponível", e);
+    }
+  }
+
+  /**
+   * Reagenda a cotação das encomendas PENDENTE sem frete gravadas há mais de {@code
+   * encomenda.cotacao.recuperacao.idade}, até o número de vagas livres. Encomendas cuja cotação
+   * falhou só voltam após a espera e até o máximo de tentativas.
+   *
+   * @return Cotações reagendadas
+   */
+  public int recuperarPendentes() {
+    int livres = vagas.availablePermits();
+    if (livres == 0) {
+      return 0;
+    }
+    LocalDateTime agora = LocalDateTime.now();
+    List<Encomenda> pendentes =
+        encomendaRepository.findPendentesSemFrete(
+            agora.minus(idadeRecuperacao), agora, tentativasMaximas, Limit.of(livres));
+
+    int reagendadas = 0;
+    for (Encomenda encomenda : pendentes) {
+      if (emAndamento.contains(encomenda.getId())) {
+        continue;
+      }
+      if (!vagas.tryAcquire()) {
+        break;
+      }
+      try {
+        agendar(
+            encomenda.getId(),
+            encomenda.getEnderecoOrigem(),
+            encomenda.getEnderecoDestino(),
+            encomenda.getTipoEntrega(),
+            encomenda.getPesoKg());
+        reagendadas++;
+      } catch (TaskRejectedException e) {
+        vagas.release();
+        break;
+      }
+    }
+    if (reagendadas > 0) {
+      log.info("Cotação de frete reagendada para {} encomendas pendentes", reagendadas);
+    }
+    return reagendadas;
+  }
+
+  @PreDestroy
+  void encerrar() {
+    recuperacao.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** Rodada da varredura; uma falha (ex: banco indisponível) fica para a próxima. */
+  private void recuperar() {
+    try {
+      recuperarPendentes();
+    } catch (RuntimeException e) {
+      log.warn("Falha na recuperação das cotações pendentes: {}", e.getMessage());
+    }
+  }
+
+  /** Cota o frete e o grava na encomenda, se ela ainda existir e não tiver frete. */
+  void cotar(
+      Long encomendaId,
+      Endereco origem,
+      Endereco destino,
+      TipoEntrega tipoEntrega,
+      BigDecimal pesoKg) {
+    try {
+      CotacaoFreteResult cotacao = freteService.cotarFrete(origem, destino, tipoEntrega, pesoKg);
+      transactionTemplate.execute(
+          status ->
+              encomendaRepository
+                  .findById(encomendaId)
+                  .filter(encomenda -> encomenda.getFrete() == null)
+                  .map(
+                      encomenda -> {
+                        Frete frete = cotacao.paraEncomenda(encomenda);
+                        freteRepository.save(frete);
+                        historico.registrar(List.of(EventoEncomenda.freteCotado(encomenda, frete)));
+                        return frete;
+                      })
+                  .orElse(null));
+      log.debug("Frete da encomenda {} cotado: {}", encomendaId, cotacao.valor());
+    } catch (RuntimeException e) {
+      // A encomenda segue PENDENTE sem frete até a varredura de recuperação tentar de novo
+      log.error("Falha na cotação do frete da encomenda {}: {}", encomendaId, e.getMessage());
+      registrarFalha(encomendaId);
+    }
+  }
+
+  /** Conta a falha na encomenda e adia a próxima tentativa da varredura. */
+  private void registrarFalha(Long encomendaId) {
+    try {
+      Integer tentativas =
+          transactionTemplate.execute(
+              status ->
+                  encomendaRepository
+                      .findById(encomendaId)
+                      .filter(encomenda -> encomenda.getFrete() == null)
+                      .map(
+                          encomenda -> {
+                            encomenda.registrarFalhaCotacao(esperaInicial, esperaMaxima);
+                            return encomenda.getTentativasCotacao();
+                          })
+                      .orElse(null));
+      if (tentativas != null && tentativas >= tentativasMaximas) {
+        log.error(
+            "Cotação do frete da encomenda {} abandonada após {} tentativas",
+            encomendaId,
+            tentativas);
+      }
+    } catch (RuntimeException e) {
+      // Sem o registro, a varredura tenta de novo sem espera; a próxima falha é contada
+      log.warn(
+          "Falha ao registrar a tentativa de cotação da encomenda {}: {}",
+          encomendaId,
+          e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import br.com.cegonhaexpress.cegonha_express.repository.ClienteRepository;
+import br.com.cegonhaexpress.cegonha_express.repository.EnderecoRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Dados de referência usados na criação de encomendas: endereço de coleta (depósito) e cliente
+ * padrão.
+ *
+ * <p>Ambos são resolvidos uma única vez por instância: na primeira encomenda o registro é buscado
+ * (ou cadastrado, em transação própria) e apenas o ID fica guardado. Nas encomendas seguintes a
+ * associação é feita com {@link EntityManager#getReference}, sem consulta ao banco.
+ *
+ * <p>Destinos também são reaproveitados: um endereço sem cliente com o mesmo CEP, número e
+ * complemento já cadastrado é associado no lugar de uma nova cópia.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Service
+@Slf4j
+public class DadosReferenciaService {
+
+  static final String CEP_ORIGEM = "13801-005";
+  static final String NUMERO_ORIGEM = "567";
+  static final String CPF_CLIENTE_PADRAO = "123.123.128-09";
+
+  private final EnderecoRepository enderecoRepository;
+  private final ClienteRepository clienteRepository;
+  private final ViaCepCacheService viaCepCache;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transacaoPropria;
+
+  // ReentrantLock em vez de synchronized: a resolução faz I/O e não deve fixar threads virtuais
+  private final ReentrantLock lock = new ReentrantLock();
+  private volatile Endereco enderecoOrigem;
+  private volatile Long idClientePadrao;
+
+  public DadosReferenciaService(
+      EnderecoRepository enderecoRepository,
+      ClienteRepository clienteRepository,
+      ViaCepCacheService viaCepCache,
+      EntityManager entityManager,
+      PlatformTransactionManager transactionManager) {
+    this.enderecoRepository = enderecoRepository;
+    this.clienteRepository = clienteRepository;
+    this.viaCepCache = viaCepCache;
+    this.entityManager = entityManager;
+    // Dados de referência são gravados independentemente da encomenda que os solicitou
+    this.transacaoPropria = new TransactionTemplate(transactionManager);
+    this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Endereço de coleta padrão, já cadastrado.
+   *
+   * <p>A instância retornada é compartilhada e desanexada: serve para leitura (ex: cotação do
+   * frete). Para associar a uma encomenda use {@link #referenciaEnderecoOrigem()}.
+   *
+   * <p>A primeira chamada também resolve o cliente padrão. Como é feita antes da transação da
+   * encomenda, a resolução (em transação própria) não precisa de uma segunda conexão enquanto a
+   * primeira está presa: com muitas requisições simultâneas isso esgotaria o pool.
+   *
+   * @return Endereço de coleta com ID
+   */
+  public Endereco enderecoOrigem() {
+    Endereco origem = enderecoOrigem;
+    if (origem == null) {
+      lock.lock();
+      try {
+        if (enderecoOrigem == null) {
+          enderecoOrigem = resolverEnderecoOrigem();
+        }
+        if (idClientePadrao == null) {
+          idClientePadrao = resolverClientePadrao();
+        }
+        origem = enderecoOrigem;
+      } finally {
+        lock.unlock();
+      }
+    }
+    return origem;
+  }
+
+  /**
+   * Referência gerenciada ao endereço de coleta padrão, sem consulta ao banco.
+   *
+   * @return Proxy do endereço de coleta no contexto de persistência atual
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Endereco referenciaEnderecoOrigem() {
+    return entityManager.getReference(Endereco.class, enderecoOrigem().getId());
+  }
+
+  /**
+   * Referência gerenciada ao cliente padrão, sem consulta ao banco após a primeira chamada.
+   *
+   * @return Proxy do cliente padrão no contexto de persistência atual
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Cliente referenciaClientePadrao() {
+    Long id = idClientePadrao;
+    if (id == null) {
+      lock.lock();
+      try {
+        if (idClientePadrao == null) {
+          idClientePadrao = resolverClientePadrao();
+        }
+        id = idClientePadrao;
+      } finally {
+        lock.unlock();
+      }
+    }
+    return entityManager.getReference(Cliente.class, id);
+  }
+
+  /**
+   * Troca o destino informado por um endereço equivalente já cadastrado, se existir.
+   *
+   * @param destino Endereço de destino ainda não persistido
+   * @return Endereço equivalente gerenciado ou o próprio destino, se for inédito
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public Endereco deduplicarDestino(Endereco destino) {
+    return buscarEquivalente(destino.getCep(), destino.getNumero(), destino.getComplemento())
+        .orElse(destino);
+  }
+
+  /**
+   * Deduplica vários destinos com uma única consulta ao banco.
+   *
+   * <p>Cada destino é trocado pelo endereço equivalente já cadastrado, se existir; destinos
+   * inéditos com a mesma chave passam a compartilhar a primeira instância da lista, para que sejam
+   * gravados uma única vez.
+   *
+   * @param destinos Endereços de destino ainda não persistidos
+   * @return Endereço a associar a cada destino, na mesma ordem
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public List<Endereco> deduplicarDestinos(List<Endereco> destinos) {
+    Set<String> ceps = new HashSet<>();
+    for (Endereco destino : destinos) {
+      if (destino.getCep() != null) {
+        ceps.addAll(variantesCep(destino.getCep()));
+      }
+    }
+    Map<String, Endereco> porChave = new HashMap<>();
+    if (!ceps.isEmpty()) {
+      for (Endereco existente : enderecoRepository.findSemClientePorCeps(ceps)) {
+        porChave.putIfAbsent(chave(existente), existente);
+      }
+    }
+    List<Endereco> resultado = new ArrayList<>(destinos.size());
+    for (Endereco destino : destinos) {
+      resultado.add(
+          destino.getCep() != null && destino.getNumero() != null
+              ? porChave.computeIfAbsent(chave(destino), c -> destino)
+              : destino);
+    }
+    return resultado;
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private Endereco resolverEnderecoOrigem() {
+    Endereco origem =
+        transacaoPropria.execute(
+            status -> buscarEquivalente(CEP_ORIGEM, NUMERO_ORIGEM, null).orElse(null));
+    if (origem == null) {
+      Endereco novaOrigem = montarEnderecoOrigem();
+      origem = transacaoPropria.execute(status -> enderecoRepository.save(novaOrigem));
+      log.info("Endereço de coleta padrão cadastrado com ID {}", origem.getId());
+    }
+    return origem;
+  }
+
+  /** Endereço de coleta padrão, completado pela ViaCEP quando disponível. */
+  private Endereco montarEnderecoOrigem() {
+    ViaCepResponseDto buscaCep = viaCepCache.buscarEnderecoPorCep(CEP_ORIGEM);
+    if (buscaCep != null) {
+      return new Endereco(
+          buscaCep.getCep(),
+          buscaCep.getLogradouro(),
+          NUMERO_ORIGEM,
+          buscaCep.getBairro(),
+          buscaCep.getLocalidade(),
+          UF.valueOf(buscaCep.getUf()));
+    }
+    return new Endereco(
+        CEP_ORIGEM,
+        "Rua Ariovaldo Silveira Franco",
+        NUMERO_ORIGEM,
+        "Jardim 31 de Março",
+        "Mogi Mirim",
+        UF.SP);
+  }
+
+  private Long resolverClientePadrao() {
+    return transacaoPropria.execute(
+        status ->
+            clienteRepository
+                .findByCpf(CPF_CLIENTE_PADRAO)
+                .orElseGet(
+                    () -> {
+                      Cliente cliente =
+                          clienteRepository.save(
+                              new Cliente(
+                                  "Jailson Mendes",
+                                  "jailsonmmm@gmail.com",
+                                  "11976543211",
+                                  CPF_CLIENTE_PADRAO));
+                      log.info("Cliente padrão cadastrado com ID {}", cliente.getId());
+                      return cliente;
+                    })
+                .getId());
+  }
+
+  /** Busca o endereço sem cliente mais antigo com a mesma chave normalizada. */
+  private Optional<Endereco> buscarEquivalente(String cep, String numero, String complemento) {
+    if (cep == null || numero == null) {
+      return Optional.empty();
+    }
+    List<Endereco> equivalentes =
+        enderecoRepository.findSemClientePorChave(
+            variantesCep(cep),
+            normalizar(numero),
+            complemento != null ? normalizar(complemento) : "",
+            Limit.of(1));
+    return equivalentes.stream().findFirst();
+  }
+
+  /** CEP nas formas com e sem hífen, como pode ter sido gravado. */
+  private static List<String> variantesCep(String cep) {
+    String cepLimpo = cep.replaceAll("\\D", "");
+    return cepLimpo.length() == 8
+        ? List.of(cepLimpo, cepLimpo.substring(0, 5) + "-" + cepLimpo.substring(5))
+        : List.of(cep.trim());
+  }
+
+  /** Chave de equivalência: CEP sem hífen, número e complemento normalizados. */
+  private static String chave(Endereco endereco) {
+    String complemento = endereco.getComplemento();
+    return endereco.getCep().replaceAll("\\D", "")
+        + '|'
+        + normalizar(endereco.getNumero())
+        + '|'
+        + (complemento != null ? normalizar(complemento) : "");
+  }
+
+  private static String normalizar(String valor) {
+    return valor.trim().toUpperCase(Locale.ROOT);
+  }
+}
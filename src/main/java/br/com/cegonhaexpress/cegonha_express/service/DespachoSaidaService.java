@@ -0,0 +1,277 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.MetricasSaidaDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.result.PendenciaSaidaResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import br.com.cegonhaexpress.cegonha_express.repository.MensagemSaidaRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Entrega as mensagens da caixa de saída ao {@link DestinoSaida} configurado.
+ *
+ * <p>Uma thread por instância consulta a caixa a cada {@code encomenda.saida.intervalo} e, enquanto
+ * encontrar lotes cheios, continua sem esperar. Cada lote ({@code encomenda.saida.lote}) passa por
+ * três etapas, e nenhuma transação fica aberta durante a entrega:
+ *
+ * <ol>
+ *   <li>Reserva: uma transação curta trava as mensagens com {@code FOR UPDATE SKIP LOCKED}, adia a
+ *       próxima tentativa para o fim da reserva ({@code encomenda.saida.reserva}) e confirma. Até
+ *       lá, outra instância não pega as mensagens reservadas
+ *   <li>Entrega: fora de transação, mensagem a mensagem
+ *   <li>Conclusão: outra transação curta apaga as entregues e adia as que falharam
+ * </ol>
+ *
+ * <p>A mensagem que falha é adiada com espera exponencial ({@code encomenda.saida.espera-inicial}
+ * dobrando até {@code encomenda.saida.espera-maxima}); as seguintes da mesma encomenda esperam por
+ * ela. Depois de {@code encomenda.saida.tentativas-maximas} falhas, a mensagem é descartada: deixa
+ * de ser enviada e libera as seguintes da encomenda. Se a instância parar depois de entregar e
+ * antes da conclusão, a reserva vence e o lote volta a ser entregue: o destino descarta duplicatas
+ * pelo ID do evento. A reserva deve ser maior que o tempo de entrega de um lote.
+ *
+ * @author Gabriel Coelho Soares
+ * @see CaixaSaidaService
+ */
+@Service
+@Slf4j
+public class DespachoSaidaService {
+
+  private static final Duration JANELA_VAZAO = Duration.ofMinutes(1);
+
+  private final MensagemSaidaRepository mensagemRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final DestinoSaida destino;
+  private final String nomeDestino;
+  private final int lote;
+  private final Duration reserva;
+  private final Duration esperaInicial;
+  private final Duration esperaMaxima;
+  private final int tentativasMaximas;
+  private final ScheduledExecutorService agendador;
+
+  private final AtomicLong entregues = new AtomicLong();
+  private final AtomicLong falhas = new AtomicLong();
+
+  /** Entregas recentes: pares (instante em nanos, quantidade), para a vazão do último minuto. */
+  private final Deque<long[]> entregasRecentes = new ConcurrentLinkedDeque<>();
+
+  public DespachoSaidaService(
+      MensagemSaidaRepository mensagemRepository,
+      TransactionTemplate transactionTemplate,
+      ObjectProvider<DestinoSaida> destinos,
+      @Value("${encomenda.saida.destino:nenhum}") String nomeDestino,
+      @Value("${encomenda.saida.lote:100}") int lote,
+      @Value("${encomenda.saida.intervalo:1s}") Duration intervalo,
+      @Value("${encomenda.saida.reserva:1m}") Duration reserva,
+      @Value("${encomenda.saida.espera-inicial:1s}") Duration esperaInicial,
+      @Value("${encomenda.saida.espera-maxima:5m}") Duration esperaMaxima,
+      @Value("${encomenda.saida.tentativas-maximas:20}") int tentativasMaximas) {
+    this.mensagemRepository = mensagemRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.destino = destinos.getIfAvailable();
+    this.nomeDestino = nomeDestino;
+    this.lote = lote;
+    this.reserva = reserva;
+    this.esperaInicial = esperaInicial;
+    this.esperaMaxima = esperaMaxima;
+    this.tentativasMaximas = tentativasMaximas;
+
+    if (destino == null) {
+      this.agendador = null;
+      log.info("Notificações externas desativadas (encomenda.saida.destino: {})", nomeDestino);
+      return;
+    }
+    this.agendador =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("despacho-saida").factory());
+    long espera = Math.max(1, intervalo.toMillis());
+    agendador.scheduleWithFixedDelay(this::esvaziar, espera, espera, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Reserva um lote de mensagens prontas, entrega fora de transação e conclui o lote.
+   *
+   * @return Mensagens reservadas no lote (entregues ou adiadas)
+   * @throws IllegalStateException se nenhum destino estiver configurado
+   */
+  public int despachar() {
+    if (destino == null) {
+      throw new IllegalStateException("Nenhum destino de notificações configurado");
+    }
+    List<MensagemSaida> mensagens = reservar();
+    if (mensagens.isEmpty()) {
+      return 0;
+    }
+
+    List<Long> entreguesLote = new ArrayList<>(mensagens.size());
+    Map<Long, Exception> falhasLote = new HashMap<>();
+    for (MensagemSaida mensagem : mensagens) {
+      try {
+        destino.entregar(mensagem);
+        entreguesLote.add(mensagem.getId());
+      } catch (IOException | RuntimeException e) {
+        falhasLote.put(mensagem.getId(), e);
+      }
+    }
+
+    concluir(entreguesLote, falhasLote);
+    registrarEntregas(entreguesLote.size());
+    return mensagens.size();
+  }
+
+  /**
+   * Situação da entrega: pendências e atraso (todas as instâncias) e contadores desta instância.
+   *
+   * @return Métricas da caixa de saída
+   */
+  public MetricasSaidaDTO buscarMetricas() {
+    PendenciaSaidaResult pendencia = mensagemRepository.buscarPendencia();
+    return MetricasSaidaDTO.builder()
+        .destino(nomeDestino)
+        .pendentes(pendencia.pendentes())
+        .atrasoMs(pendencia.atraso(LocalDateTime.now()).toMillis())
+        .entregues(entregues.get())
+        .entreguesUltimoMinuto(getEntreguesUltimoMinuto())
+        .falhas(falhas.get())
+        .descartadas(pendencia.descartadas())
+        .build();
+  }
+
+  /**
+   * Mensagens entregues por esta instância desde a inicialização.
+   *
+   * @return Total de entregas
+   */
+  public long getEntregues() {
+    return entregues.get();
+  }
+
+  /**
+   * Falhas de entrega desta instância desde a inicialização.
+   *
+   * @return Total de falhas
+   */
+  public long getFalhas() {
+    return falhas.get();
+  }
+
+  /**
+   * Entregas desta instância no último minuto.
+   *
+   * @return Vazão em mensagens por minuto
+   */
+  public long getEntreguesUltimoMinuto() {
+    descartarEntregasAntigas();
+    long total = 0;
+    for (long[] entrega : entregasRecentes) {
+      total += entrega[1];
+    }
+    return total;
+  }
+
+  @PreDestroy
+  void encerrar() {
+    if (agendador != null) {
+      agendador.shutdownNow();
+    }
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /**
+   * Trava as mensagens prontas e adia a próxima tentativa para o fim da reserva, em uma transação.
+   */
+  private List<MensagemSaida> reservar() {
+    LocalDateTime agora = LocalDateTime.now();
+    List<MensagemSaida> mensagens =
+        transactionTemplate.execute(
+            status -> {
+              List<MensagemSaida> prontas = mensagemRepository.travarProntas(agora, lote);
+              // UPDATEs agrupados no commit
+              prontas.forEach(mensagem -> mensagem.setProximaTentativa(agora.plus(reserva)));
+              return prontas;
+            });
+    return mensagens != null ? mensagens : List.of();
+  }
+
+  /**
+   * Apaga as entregues em um único DELETE e adia as que falharam, ou as descarta ao atingir o
+   * máximo de tentativas, em uma transação.
+   */
+  private void concluir(List<Long> entreguesLote, Map<Long, Exception> falhasLote) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          mensagemRepository.deleteAllByIdInBatch(entreguesLote);
+          if (falhasLote.isEmpty()) {
+            return;
+          }
+          for (MensagemSaida mensagem : mensagemRepository.findAllById(falhasLote.keySet())) {
+            mensagem.registrarFalha(falhasLote.get(mensagem.getId()), esperaInicial, esperaMaxima);
+            falhas.incrementAndGet();
+            if (mensagem.getTentativas() >= tentativasMaximas) {
+              mensagem.descartar();
+              log.error(
+                  "Notificação {} da encomenda {} descartada após {} tentativas: {}",
+                  mensagem.getEventoId(),
+                  mensagem.getCodigo(),
+                  mensagem.getTentativas(),
+                  mensagem.getUltimoErro());
+              continue;
+            }
+            log.warn(
+                "Falha ao entregar notificação {} da encomenda {} (tentativa {}): {}",
+                mensagem.getEventoId(),
+                mensagem.getCodigo(),
+                mensagem.getTentativas(),
+                mensagem.getUltimoErro());
+          }
+        });
+  }
+
+  /** Entrega lotes enquanto vierem cheios; a próxima rodada espera o intervalo. */
+  private void esvaziar() {
+    try {
+      int processadas;
+      do {
+        processadas = despachar();
+      } while (processadas == lote && !Thread.currentThread().isInterrupted());
+    } catch (RuntimeException e) {
+      // Banco indisponível ou aplicação encerrando: tenta de novo na próxima rodada
+      log.warn("Falha ao consultar a caixa de saída: {}", e.getMessage());
+    }
+  }
+
+  private void registrarEntregas(int quantidade) {
+    if (quantidade == 0) {
+      return;
+    }
+    entregues.addAndGet(quantidade);
+    entregasRecentes.addLast(new long[] {System.nanoTime(), quantidade});
+    descartarEntregasAntigas();
+  }
+
+  private void descartarEntregasAntigas() {
+    long limite = System.nanoTime() - JANELA_VAZAO.toNanos();
+    long[] maisAntiga;
+    while ((maisAntiga = entregasRecentes.peekFirst()) != null && maisAntiga[0] < limite) {
+      entregasRecentes.pollFirst();
+    }
+  }
+}
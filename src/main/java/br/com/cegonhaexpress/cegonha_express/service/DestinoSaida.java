@@ -0,0 +1,24 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import java.io.IOException;
+
+/**
+ * Destino das notificações da caixa de saída, escolhido por {@code encomenda.saida.destino}.
+ *
+ * <p>Uma entrega que retorna normalmente é considerada concluída e a mensagem é apagada; qualquer
+ * exceção adia a mensagem para nova tentativa.
+ *
+ * @author Gabriel Coelho Soares
+ * @see DespachoSaidaService
+ */
+public interface DestinoSaida {
+
+  /**
+   * Entrega uma notificação.
+   *
+   * @param mensagem Mensagem com o corpo JSON e o ID do evento
+   * @throws IOException se a entrega falhar
+   */
+  void entregar(MensagemSaida mensagem) throws IOException;
+}
@@ -0,0 +1,43 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Destino que acrescenta cada notificação como uma linha JSON em um arquivo local ({@code
+ * encomenda.saida.arquivo}). Usado em desenvolvimento e testes, sem ERP disponível.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Component
+@ConditionalOnProperty(name = "encomenda.saida.destino", havingValue = "arquivo")
+public class DestinoSaidaArquivo implements DestinoSaida {
+
+  private final Path arquivo;
+
+  public DestinoSaidaArquivo(
+      @Value("${encomenda.saida.arquivo:saida/notificacoes.jsonl}") Path arquivo) {
+    this.arquivo = arquivo;
+  }
+
+  @Override
+  public synchronized void entregar(MensagemSaida mensagem) throws IOException {
+    Path pasta = arquivo.toAbsolutePath().getParent();
+    if (pasta != null) {
+      Files.createDirectories(pasta);
+    }
+    Files.writeString(
+        arquivo,
+        mensagem.getPayload() + System.lineSeparator(),
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+}
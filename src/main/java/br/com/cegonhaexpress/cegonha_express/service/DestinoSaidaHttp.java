@@ -0,0 +1,46 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import java.net.URI;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Destino que envia cada notificação por POST JSON para {@code encomenda.saida.url} (ERP ou serviço
+ * de avisos ao cliente).
+ *
+ * <p>Usa o RestTemplate compartilhado (timeouts e limite por host de {@code api.*}). Uma resposta
+ * fora da faixa 2xx ou um erro de conexão lançam {@code RestClientException}, e a mensagem é
+ * adiada. O cabeçalho {@value #CABECALHO_ID} leva o ID do evento, repetido em reenvios.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Component
+@ConditionalOnProperty(name = "encomenda.saida.destino", havingValue = "http")
+public class DestinoSaidaHttp implements DestinoSaida {
+
+  /** Cabeçalho com o ID do evento, para o destino descartar reenvios. */
+  public static final String CABECALHO_ID = "X-Evento-Id";
+
+  private final RestTemplate restTemplate;
+  private final URI url;
+
+  public DestinoSaidaHttp(RestTemplate restTemplate, @Value("${encomenda.saida.url}") URI url) {
+    this.restTemplate = restTemplate;
+    this.url = url;
+  }
+
+  @Override
+  public void entregar(MensagemSaida mensagem) {
+    HttpHeaders cabecalhos = new HttpHeaders();
+    cabecalhos.setContentType(MediaType.APPLICATION_JSON);
+    cabecalhos.set(CABECALHO_ID, String.valueOf(mensagem.getEventoId()));
+    restTemplate.postForEntity(
+        url, new HttpEntity<>(mensagem.getPayload(), cabecalhos), Void.class);
+  }
+}
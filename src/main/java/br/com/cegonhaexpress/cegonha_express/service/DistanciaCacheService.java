@@ -0,0 +1,153 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cache de distâncias entre rotas já consultadas no Google Maps.
+ *
+ * <p>Quase todas as encomendas partem da mesma origem para um conjunto limitado de CEPs de destino,
+ * então a mesma rota é consultada repetidas vezes na Distance Matrix API. Este cache guarda o
+ * resultado por rota normalizada (CEP + número de origem e destino), com tamanho máximo, expiração
+ * por tempo e política de despejo W-TinyLFU (padrão do Caffeine). A API real só é chamada em caso
+ * de falta no cache.
+ *
+ * <p>Consultas concorrentes para a mesma rota ausente são agrupadas: apenas uma chamada externa é
+ * feita e as demais aguardam o resultado. O cache guarda futures ({@link AsyncCache}); a consulta
+ * roda na thread que a instalou, fora do {@code compute} do Caffeine, e as demais aguardam o future
+ * sem prender a thread portadora quando são threads virtuais. Exceções não são armazenadas.
+ *
+ * @author Gabriel Coelho Soares
+ * @see GoogleMapsDistanceService
+ * @see FreteService
+ */
+@Service
+@Slf4j
+public class DistanciaCacheService {
+
+  private final AsyncCache<RotaChave, CalculoDeDistanciaResult> cache;
+
+  public DistanciaCacheService(
+      @Value("${google.maps.distance.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+      @Value("${google.maps.distance.cache.ttl:24h}") Duration ttl) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(tamanhoMaximo)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+    log.info("Cache de distâncias configurado: tamanho máximo={}, ttl={}", tamanhoMaximo, ttl);
+  }
+
+  /**
+   * Retorna a distância da rota a partir do cache ou executa a consulta informada em caso de falta.
+   *
+   * @param origem Endereço de origem
+   * @param destino Endereço de destino
+   * @param consulta Consulta real (Google Maps), executada apenas em caso de falta
+   * @return Resultado do cálculo de distância
+   */
+  public CalculoDeDistanciaResult obterOuCalcular(
+      Endereco origem, Endereco destino, Supplier<CalculoDeDistanciaResult> consulta) {
+    CompletableFuture<CalculoDeDistanciaResult> novo = new CompletableFuture<>();
+    CompletableFuture<CalculoDeDistanciaResult> atual =
+        cache.get(chave(origem, destino), (rota, executor) -> novo);
+    if (atual != novo) {
+      return aguardar(atual);
+    }
+
+    // Falta: esta thread instalou o future e faz a consulta, fora do compute do Caffeine
+    try {
+      CalculoDeDistanciaResult resultado = consulta.get();
+      novo.complete(resultado);
+      return resultado;
+    } catch (Throwable e) {
+      // Qualquer falha, inclusive Error, completa o future: senão ele fica no cache e quem
+      // consultar a mesma rota espera para sempre
+      novo.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Busca a distância da rota apenas no cache, sem consultar a API nem aguardar uma consulta em
+   * andamento.
+   *
+   * @return Resultado em cache ou Optional.empty()
+   */
+  public Optional<CalculoDeDistanciaResult> buscar(Endereco origem, Endereco destino) {
+    CompletableFuture<CalculoDeDistanciaResult> futuro = cache.getIfPresent(chave(origem, destino));
+    if (futuro == null || !futuro.isDone() || futuro.isCompletedExceptionally()) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(futuro.join());
+  }
+
+  /** Registra no cache uma distância obtida por outro caminho (ex: consultas em lote). */
+  public void registrar(Endereco origem, Endereco destino, CalculoDeDistanciaResult resultado) {
+    cache.put(chave(origem, destino), CompletableFuture.completedFuture(resultado));
+  }
+
+  /** Remove todas as rotas do cache. */
+  public void limpar() {
+    cache.synchronous().invalidateAll();
+  }
+
+  /**
+   * Estatísticas de acerto/falta do cache.
+   *
+   * @return Snapshot das estatísticas (hits, misses, despejos, tempo de carga)
+   */
+  public CacheStats getEstatisticas() {
+    return cache.synchronous().stats();
+  }
+
+  /** Número aproximado de rotas armazenadas. */
+  public long getTamanho() {
+    return cache.synchronous().estimatedSize();
+  }
+
+  // ==================== MÉTODOS UTILITÁRIOS ====================
+
+  /** Aguarda a consulta em andamento de outra thread, relançando a falha original. */
+  private static CalculoDeDistanciaResult aguardar(
+      CompletableFuture<CalculoDeDistanciaResult> futuro) {
+    try {
+      return futuro.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException causa) {
+        throw causa;
+      }
+      if (e.getCause() instanceof Error erro) {
+        throw erro;
+      }
+      throw e;
+    }
+  }
+
+  /** Monta a chave normalizada da rota a partir dos endereços. */
+  static RotaChave chave(Endereco origem, Endereco destino) {
+    return new RotaChave(normalizar(origem), normalizar(destino));
+  }
+
+  /** Normaliza o endereço para CEP (apenas dígitos) + número em maiúsculas. */
+  private static String normalizar(Endereco endereco) {
+    String cep = endereco.getCepLimpo();
+    String numero = endereco.getNumero() != null ? endereco.getNumero().trim() : "";
+    return (cep != null ? cep : "") + "|" + (numero.isEmpty() ? "S/N" : numero.toUpperCase());
+  }
+
+  /** Chave de rota normalizada (origem → destino). */
+  record RotaChave(String origem, String destino) {}
+}
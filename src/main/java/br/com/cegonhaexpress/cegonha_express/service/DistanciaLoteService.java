@@ -0,0 +1,240 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import com.google.maps.model.DistanceMatrix;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Agrupa consultas concorrentes de distância em uma única requisição à Distance Matrix API.
+ *
+ * <p>Pedidos que chegam dentro de uma janela curta (poucos milissegundos) para a mesma origem são
+ * acumulados e enviados juntos como uma matriz 1xN (até {@value
+ * GoogleMapsDistanceService#MAX_DESTINOS_POR_REQUISICAO} destinos). Ao atingir o limite, o lote é
+ * enviado imediatamente. O resultado é distribuído de volta para cada chamador; falhas de um par
+ * não afetam os demais.
+ *
+ * <p>Com o agrupamento desabilitado, cada pedido é repassado diretamente ao
+ * GoogleMapsDistanceService.
+ *
+ * @author Gabriel Coelho Soares
+ * @see GoogleMapsDistanceService
+ */
+@Service
+@Slf4j
+public class DistanciaLoteService {
+
+  private final GoogleMapsDistanceService distanceService;
+  private final boolean habilitado;
+  private final long janelaMillis;
+  private final ScheduledExecutorService agendador;
+  private final ExecutorService executorLotes;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<String, Lote> pendentes = new HashMap<>();
+
+  private final AtomicLong requisicoesEnviadas = new AtomicLong();
+  private final AtomicLong paresAtendidos = new AtomicLong();
+
+  public DistanciaLoteService(
+      GoogleMapsDistanceService distanceService,
+      @Value("${google.maps.distance.lote.habilitado:true}") boolean habilitado,
+      @Value("${google.maps.distance.lote.janela:5ms}") Duration janela,
+      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+    this.distanceService = distanceService;
+    this.habilitado = habilitado;
+    this.janelaMillis = Math.max(1, janela.toMillis());
+    this.agendador =
+        Executors.newScheduledThreadPool(
+            threadsVirtuais ? 1 : 4,
+            Thread.ofPlatform().daemon().name("distancia-lote-", 0).factory());
+    // Com threads virtuais o agendador só marca o fim da janela; a consulta (bloqueante) de cada
+    // lote roda em uma thread virtual própria
+    this.executorLotes =
+        threadsVirtuais
+            ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("distancia-lote-v-", 0).factory())
+            : agendador;
+  }
+
+  /**
+   * Calcula a distância entre origem e destino, aguardando o lote em que o pedido foi agrupado.
+   *
+   * @param enderecoOrigem Endereço de origem
+   * @param enderecoDestino Endereço de destino
+   * @return Resultado do cálculo de distância
+   */
+  public CalculoDeDistanciaResult calcular(String enderecoOrigem, String enderecoDestino) {
+    if (!habilitado) {
+      requisicoesEnviadas.incrementAndGet();
+      paresAtendidos.incrementAndGet();
+      return distanceService.calcularDistancia(enderecoOrigem, enderecoDestino);
+    }
+
+    try {
+      return calcularAsync(enderecoOrigem, enderecoDestino).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException causa) {
+        throw causa;
+      }
+      if (e.getCause() instanceof Error erro) {
+        throw erro;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Enfileira o par origem/destino no lote da origem e retorna sem bloquear.
+   *
+   * @return Future completado quando o lote for processado
+   */
+  public CompletableFuture<CalculoDeDistanciaResult> calcularAsync(
+      String enderecoOrigem, String enderecoDestino) {
+    Pedido pedido = new Pedido(enderecoDestino, new CompletableFuture<>());
+    Lote loteCheio = null;
+
+    lock.lock();
+    try {
+      Lote lote = pendentes.get(enderecoOrigem);
+      if (lote == null) {
+        Lote novo = new Lote();
+        novo.agendamento =
+            agendador.schedule(
+                () -> despachar(enderecoOrigem, novo), janelaMillis, TimeUnit.MILLISECONDS);
+        pendentes.put(enderecoOrigem, novo);
+        lote = novo;
+      }
+      lote.pedidos.add(pedido);
+      if (lote.pedidos.size() >= GoogleMapsDistanceService.MAX_DESTINOS_POR_REQUISICAO) {
+        pendentes.remove(enderecoOrigem);
+        lote.agendamento.cancel(false);
+        loteCheio = lote;
+      }
+    } finally {
+      lock.unlock();
+    }
+
+    if (loteCheio != null) {
+      List<Pedido> pedidos = loteCheio.pedidos;
+      executorLotes.execute(() -> executarLote(enderecoOrigem, pedidos));
+    }
+
+    return pedido.resultado();
+  }
+
+  /** Número de requisições efetivamente enviadas à Distance Matrix API. */
+  public long getRequisicoesEnviadas() {
+    return requisicoesEnviadas.get();
+  }
+
+  /** Número de pares origem/destino atendidos (com sucesso ou falha). */
+  public long getParesAtendidos() {
+    return paresAtendidos.get();
+  }
+
+  @PreDestroy
+  void encerrar() {
+    agendador.shutdownNow();
+    executorLotes.shutdownNow();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /**
+   * Retira o lote da origem e o executa, se ainda for o lote pendente. Um lote enviado por ter
+   * enchido já saiu de {@code pendentes}, e o lote seguinte da mesma origem tem a própria janela.
+   */
+  private void despachar(String enderecoOrigem, Lote lote) {
+    lock.lock();
+    try {
+      if (pendentes.get(enderecoOrigem) != lote) {
+        return;
+      }
+      pendentes.remove(enderecoOrigem);
+    } finally {
+      lock.unlock();
+    }
+
+    if (executorLotes == agendador) {
+      executarLote(enderecoOrigem, lote.pedidos);
+    } else {
+      executorLotes.execute(() -> executarLote(enderecoOrigem, lote.pedidos));
+    }
+  }
+
+  /**
+   * Executa o lote e garante que nenhum pedido fique sem resposta: um {@link Error} na consulta
+   * também completa os futures ainda pendentes, que de outro modo deixariam os chamadores (e o
+   * cache de distâncias) esperando para sempre.
+   */
+  private void executarLote(String enderecoOrigem, List<Pedido> lote) {
+    try {
+      enviarLote(enderecoOrigem, lote);
+    } catch (Throwable e) {
+      lote.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+      throw e;
+    }
+  }
+
+  /**
+   * Envia uma matriz 1xN com os destinos distintos do lote e distribui cada elemento para os
+   * pedidos correspondentes.
+   */
+  private void enviarLote(String enderecoOrigem, List<Pedido> lote) {
+    Map<String, List<Pedido>> porDestino = new LinkedHashMap<>();
+    for (Pedido pedido : lote) {
+      porDestino.computeIfAbsent(pedido.destino(), d -> new ArrayList<>()).add(pedido);
+    }
+    String[] destinos = porDestino.keySet().toArray(String[]::new);
+
+    requisicoesEnviadas.incrementAndGet();
+    paresAtendidos.addAndGet(lote.size());
+    log.debug("Enviando lote de {} destino(s) para a origem {}", destinos.length, enderecoOrigem);
+
+    DistanceMatrix matrix;
+    try {
+      matrix = distanceService.consultarMatriz(enderecoOrigem, destinos);
+    } catch (RuntimeException e) {
+      lote.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+      return;
+    }
+
+    for (int coluna = 0; coluna < destinos.length; coluna++) {
+      List<Pedido> pedidos = porDestino.get(destinos[coluna]);
+      try {
+        CalculoDeDistanciaResult resultado =
+            GoogleMapsDistanceService.processarElemento(matrix, 0, coluna);
+        pedidos.forEach(pedido -> pedido.resultado().complete(resultado));
+      } catch (RuntimeException e) {
+        pedidos.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+      }
+    }
+  }
+
+  /** Pedidos acumulados para uma origem e o envio agendado para o fim da janela. */
+  private static final class Lote {
+    private final List<Pedido> pedidos = new ArrayList<>();
+    private ScheduledFuture<?> agendamento;
+  }
+
+  /** Pedido pendente de um destino aguardando o lote. */
+  private record Pedido(String destino, CompletableFuture<CalculoDeDistanciaResult> resultado) {}
+}
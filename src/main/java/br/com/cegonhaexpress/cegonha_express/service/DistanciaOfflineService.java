@@ -0,0 +1,246 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Motor local de estimativa de distâncias, independente do Google Maps.
+ *
+ * <p>Usa uma tabela de centróides por faixa de CEP (3 primeiros dígitos) carregada do classpath em
+ * vetores primitivos ordenados, consultados por busca binária. A distância é a de grande círculo
+ * (haversine) entre os centróides, multiplicada por um fator rodoviário que depende do par de UFs.
+ * A duração é estimada por uma velocidade média de estrada.
+ *
+ * <p>O modo de uso é configurável em {@code google.maps.distance.offline.modo}:
+ *
+ * <ul>
+ *   <li>{@link Modo#DESATIVADO}: apenas o Google Maps é usado;
+ *   <li>{@link Modo#FALLBACK}: a estimativa é usada somente quando a requisição ao Google Maps
+ *       falha; endereço não encontrado ou rota inexistente continuam rejeitando a cotação;
+ *   <li>{@link Modo#PRIMARIO}: a estimativa responde na hora e a rota real é reconciliada em
+ *       segundo plano (ver FreteService).
+ * </ul>
+ *
+ * @author Gabriel Coelho Soares
+ * @see FreteService
+ */
+@Service
+@Slf4j
+public class DistanciaOfflineService {
+
+  /** Modo de uso do motor offline. */
+  public enum Modo {
+    DESATIVADO,
+    FALLBACK,
+    PRIMARIO
+  }
+
+  private static final double RAIO_TERRA_KM = 6371.0;
+  private static final double VELOCIDADE_MEDIA_KMH = 60.0;
+  private static final double DISTANCIA_MINIMA_KM = 5.0;
+
+  private final Modo modo;
+
+  // Tabela de faixas ordenada por prefixo inicial
+  private final short[] prefixoInicial;
+  private final short[] prefixoFinal;
+  private final byte[] ufPorFaixa;
+  private final float[] latitude;
+  private final float[] longitude;
+
+  // Centróide padrão por UF (índice = ordinal), usado quando o prefixo não está na tabela
+  private final int[] faixaPadraoPorUf = new int[UF.values().length];
+
+  public DistanciaOfflineService(
+      @Value("${google.maps.distance.offline.modo:FALLBACK}") Modo modo,
+      @Value("${google.maps.distance.offline.tabela:distancia/cep-centroides.csv}") String tabela) {
+    this.modo = modo;
+
+    List<String[]> linhas = lerTabela(tabela);
+    List<String[]> faixas = new ArrayList<>(linhas);
+    faixas.sort(Comparator.comparingInt(faixa -> Integer.parseInt(faixa[0])));
+
+    int total = faixas.size();
+    prefixoInicial = new short[total];
+    prefixoFinal = new short[total];
+    ufPorFaixa = new byte[total];
+    latitude = new float[total];
+    longitude = new float[total];
+
+    for (int i = 0; i < total; i++) {
+      String[] faixa = faixas.get(i);
+      prefixoInicial[i] = Short.parseShort(faixa[0]);
+      prefixoFinal[i] = Short.parseShort(faixa[1]);
+      ufPorFaixa[i] = (byte) UF.valueOf(faixa[2]).ordinal();
+      latitude[i] = Float.parseFloat(faixa[3]);
+      longitude[i] = Float.parseFloat(faixa[4]);
+    }
+
+    // A primeira faixa de cada UF no arquivo é o centróide padrão da UF
+    Arrays.fill(faixaPadraoPorUf, -1);
+    for (String[] faixa : linhas) {
+      int uf = UF.valueOf(faixa[2]).ordinal();
+      if (faixaPadraoPorUf[uf] < 0) {
+        faixaPadraoPorUf[uf] = indiceDaFaixa(Integer.parseInt(faixa[0]));
+      }
+    }
+
+    log.info("Motor de distância offline carregado: {} faixas de CEP, modo={}", total, modo);
+  }
+
+  public Modo getModo() {
+    return modo;
+  }
+
+  /**
+   * Estima a distância rodoviária entre dois endereços a partir dos centróides dos CEPs.
+   *
+   * @param origem Endereço de origem
+   * @param destino Endereço de destino
+   * @return Resultado estimado, no mesmo formato da consulta ao Google Maps
+   */
+  public CalculoDeDistanciaResult estimar(Endereco origem, Endereco destino) {
+    int faixaOrigem = localizar(origem);
+    int faixaDestino = localizar(destino);
+
+    double km =
+        haversine(
+                latitude[faixaOrigem],
+                longitude[faixaOrigem],
+                latitude[faixaDestino],
+                longitude[faixaDestino])
+            * fatorRodoviario(origem.getUf(), destino.getUf());
+    km = Math.max(km, DISTANCIA_MINIMA_KM);
+
+    return CalculoDeDistanciaResult.builder()
+        .distanciaKm(BigDecimal.valueOf(km).setScale(1, RoundingMode.HALF_UP))
+        .duracaoMinutos((long) Math.ceil(km / VELOCIDADE_MEDIA_KMH * 60))
+        .enderecoOrigemFormatado(origem.getEnderecoCompleto())
+        .enderecoDestinoFormatado(destino.getEnderecoCompleto())
+        .build();
+  }
+
+  // ==================== MÉTODOS UTILITÁRIOS ====================
+
+  /**
+   * Fator de correção entre a distância em linha reta e a distância por estrada. Rotas dentro da
+   * mesma UF são mais diretas; rotas que envolvem a região Norte têm malha viária mais esparsa.
+   */
+  static double fatorRodoviario(UF origem, UF destino) {
+    if (origem == destino) {
+      return 1.20;
+    }
+    Regiao regiaoOrigem = Regiao.de(origem);
+    Regiao regiaoDestino = Regiao.de(destino);
+    if (regiaoOrigem == Regiao.NORTE || regiaoDestino == Regiao.NORTE) {
+      return 1.50;
+    }
+    return regiaoOrigem == regiaoDestino ? 1.25 : 1.35;
+  }
+
+  /** Distância de grande círculo entre duas coordenadas, em quilômetros. */
+  static double haversine(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2)
+                * Math.sin(dLon / 2);
+    return 2 * RAIO_TERRA_KM * Math.asin(Math.sqrt(a));
+  }
+
+  /** Localiza a faixa do CEP do endereço, recorrendo ao centróide padrão da UF. */
+  private int localizar(Endereco endereco) {
+    String cep = endereco.getCepLimpo();
+    if (cep != null && cep.length() == 8) {
+      int indice = indiceDaFaixa(Integer.parseInt(cep.substring(0, 3)));
+      if (indice >= 0 && ufPorFaixa[indice] == endereco.getUf().ordinal()) {
+        return indice;
+      }
+    }
+
+    int padrao = faixaPadraoPorUf[endereco.getUf().ordinal()];
+    if (padrao < 0) {
+      throw new IllegalStateException(
+          "Tabela de centróides não possui faixas para a UF " + endereco.getUf());
+    }
+    return padrao;
+  }
+
+  /** Busca binária da faixa que contém o prefixo. Retorna -1 se nenhuma faixa o contiver. */
+  private int indiceDaFaixa(int prefixo) {
+    int baixo = 0;
+    int alto = prefixoInicial.length - 1;
+    int candidato = -1;
+    while (baixo <= alto) {
+      int meio = (baixo + alto) >>> 1;
+      if (prefixoInicial[meio] <= prefixo) {
+        candidato = meio;
+        baixo = meio + 1;
+      } else {
+        alto = meio - 1;
+      }
+    }
+    return candidato >= 0 && prefixo <= prefixoFinal[candidato] ? candidato : -1;
+  }
+
+  /**
+   * Lê as linhas de dados da tabela de centróides na ordem do arquivo, ignorando comentários e
+   * linhas em branco.
+   */
+  private List<String[]> lerTabela(String caminho) {
+    List<String[]> faixas = new ArrayList<>();
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                new ClassPathResource(caminho).getInputStream(), StandardCharsets.UTF_8))) {
+      String linha;
+      while ((linha = reader.readLine()) != null) {
+        linha = linha.trim();
+        if (linha.isEmpty() || linha.startsWith("#")) {
+          continue;
+        }
+        faixas.add(linha.split(";"));
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Erro ao carregar tabela de centróides: " + caminho, e);
+    }
+    return faixas;
+  }
+
+  /** Regiões geográficas usadas no fator rodoviário. */
+  private enum Regiao {
+    NORTE,
+    NORDESTE,
+    CENTRO_OESTE,
+    SUDESTE,
+    SUL;
+
+    static Regiao de(UF uf) {
+      return switch (uf) {
+        case AC, AM, AP, PA, RO, RR, TO -> NORTE;
+        case AL, BA, CE, MA, PB, PE, PI, RN, SE -> NORDESTE;
+        case DF, GO, MS, MT -> CENTRO_OESTE;
+        case ES, MG, RJ, SP -> SUDESTE;
+        case PR, RS, SC -> SUL;
+      };
+    }
+  }
+}
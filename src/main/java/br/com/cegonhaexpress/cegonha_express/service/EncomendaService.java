@@ -1,155 +1,555 @@
 package br.com.cegonhaexpress.cegonha_express.service;
 
+import br.com.cegonhaexpress.cegonha_express.diagnostico.TransacaoEncomendaEvento;
 import br.com.cegonhaexpress.cegonha_express.dto.request.EncomendaRequestDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaPaginaDTO;
 import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaResponseDTO;
-import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
-import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EventoEncomendaDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.MudancaStatusDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.PainelEncomendasDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoTransicaoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CursorEncomenda;
+import br.com.cegonhaexpress.cegonha_express.dto.result.EncomendaResumoResult;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
-import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.RastreamentoEncomenda;
 import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
-import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
-import br.com.cegonhaexpress.cegonha_express.repository.ClienteRepository;
 import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
-import br.com.cegonhaexpress.cegonha_express.repository.EnderecoRepository;
 import br.com.cegonhaexpress.cegonha_express.repository.FreteRepository;
+import br.com.cegonhaexpress.cegonha_express.service.MetricasEncomendaService.Etapa;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
 @RequiredArgsConstructor
 @Service
+@Slf4j
 @Validated
 public class EncomendaService {
 
+  /** Tentativas de uma transição de status quando outra transação altera a mesma encomenda. */
+  static final int MAXIMO_TENTATIVAS = 3;
+
+  /**
+   * Rastreamento e ETag da mesma leitura da projeção.
+   *
+   * @param encomenda Status e frete da encomenda
+   * @param etag ETag forte, derivado da última atualização do rastreamento (entre aspas)
+   */
+  public record RastreamentoVersionado(EncomendaResponseDTO encomenda, String etag) {}
+
   private final EncomendaRepository encomendaRepository;
   private final FreteRepository freteRepository;
-  private final EnderecoRepository enderecoRepository;
-  private final ClienteRepository clienteRepository;
   private final FreteService freteService;
-  private final ViaCepService viaCepService;
-  private static final Cliente clientePadrao =
-      new Cliente("Jailson Mendes", "jailsonmmm@gmail.com", "11976543211", "123.123.128-09");
+  private final DadosReferenciaService dadosReferencia;
+  private final CotacaoAssincronaService cotacaoAssincrona;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventos;
+  private final HistoricoEncomendaService historico;
+  private final ProjecaoEncomendaService projecoes;
+  private final MetricasEncomendaService metricas;
 
-  @Transactional
+  /**
+   * Cria uma encomenda em um pipeline com uma única escrita no banco.
+   *
+   * <ol>
+   *   <li>Validação: o DTO chega validado pelo controller (@Valid)
+   *   <li>Endereços: origem padrão (dado de referência, resolvido uma vez) e destino informado
+   *   <li>Cotação do frete: depende apenas de endereços, modalidade e peso, sem ID da encomenda, e
+   *       roda fora da transação para não reter conexão durante a consulta de distância
+   *   <li>Persistência: origem e cliente associados por referência, destino reaproveitado se já
+   *       cadastrado; encomenda, destino novo e frete gravados por cascata em uma transação curta,
+   *       com um único flush e sem UPDATE posterior
+   * </ol>
+   *
+   * <p>O tempo total e o de cada etapa são registrados no {@link MetricasEncomendaService}; a
+   * distância e o cálculo do frete são medidos dentro do {@link FreteService}.
+   *
+   * @param dto Dados da encomenda
+   * @return Encomenda criada com frete calculado
+   */
   public EncomendaResponseDTO criaEncomenda(EncomendaRequestDTO dto) {
-    ViaCepResponseDto buscaCep = viaCepService.buscarEnderecoPorCep("13801-005");
-    Endereco enderecoOrigemPadrao;
-    if (buscaCep != null) {
-      enderecoOrigemPadrao =
-          new Endereco(
-              buscaCep.getCep(),
-              buscaCep.getLogradouro(),
-              "567",
-              buscaCep.getBairro(),
-              buscaCep.getLocalidade(),
-              UF.valueOf(buscaCep.getUf()));
-    } else {
-      enderecoOrigemPadrao =
-          new Endereco(
-              "13801-005",
-              "Rua Ariovaldo Silveira Franco",
-              "567",
-              "Jardim 31 de Março",
-              "Mogi Mirim",
-              UF.valueOf("SP"));
+    Timer.Sample inicio = metricas.iniciar();
+    boolean sucesso = false;
+    try {
+      Encomenda encomenda = dto.toEntity();
+      encomenda.setEnderecoOrigem(metricas.medir(Etapa.VIACEP, dadosReferencia::enderecoOrigem));
+
+      CotacaoFreteResult cotacao =
+          freteService.cotarFrete(
+              encomenda.getEnderecoOrigem(),
+              encomenda.getEnderecoDestino(),
+              encomenda.getTipoEntrega(),
+              encomenda.getPesoKg());
+      encomenda.setFrete(cotacao.paraEncomenda(encomenda));
+
+      // A gravação termina depois do commit, fora do callback
+      AtomicReference<Timer.Sample> gravacao = new AtomicReference<>();
+      EncomendaResponseDTO resposta =
+          emTransacao(
+              "criaEncomenda",
+              1,
+              status -> {
+                metricas.medir(
+                    Etapa.ENDERECOS,
+                    () -> {
+                      encomenda.setEnderecoOrigem(dadosReferencia.referenciaEnderecoOrigem());
+                      encomenda.setEnderecoDestino(
+                          dadosReferencia.deduplicarDestino(encomenda.getEnderecoDestino()));
+                      encomenda.setCliente(dadosReferencia.referenciaClientePadrao());
+                      return encomenda;
+                    });
+                gravacao.set(metricas.iniciar());
+                encomendaRepository.save(encomenda);
+                historico.registrar(List.of(EventoEncomenda.criacao(encomenda)));
+                return EncomendaResponseDTO.fromEntity(encomenda);
+              });
+      metricas.registrar(Etapa.GRAVACAO, gravacao.get());
+      sucesso = true;
+      return resposta;
+    } finally {
+      metricas.registrarCriacao(inicio, sucesso);
     }
-    enderecoOrigemPadrao = enderecoRepository.save(enderecoOrigemPadrao);
-    Endereco enderecoDestino = dto.getEnderecoDestino().toEntity();
-    enderecoDestino = enderecoRepository.save(enderecoDestino);
-    Cliente cliente =
-        clienteRepository
-            .findByCpf("123.123.128-09")
-            .orElseGet(
-                () -> {
-                  return clienteRepository.save(clientePadrao);
-                });
+  }
+
+  /**
+   * Cria uma encomenda sem aguardar a cotação do frete.
+   *
+   * <p>A encomenda é gravada como PENDENTE, sem frete, e a cotação é agendada no pool de {@link
+   * CotacaoAssincronaService}. Nenhuma chamada externa acontece durante a requisição nem com
+   * transação aberta; o frete aparece na consulta por código quando a cotação terminar.
+   *
+   * <p>Se o agendamento falhar depois do commit, a encomenda já existe: a criação é respondida
+   * normalmente e a varredura de recuperação da {@link CotacaoAssincronaService} cota o frete.
+   *
+   * @param dto Dados da encomenda
+   * @return Encomenda criada, com valor e prazo do frete ainda nulos
+   * @throws TaskRejectedException se não houver vaga para a cotação
+   */
+  public EncomendaResponseDTO criaEncomendaAssincrona(EncomendaRequestDTO dto) {
     Encomenda encomenda = dto.toEntity();
-    encomenda.setCliente(cliente);
-    encomenda.setEnderecoOrigem(enderecoOrigemPadrao);
-    encomenda.setEnderecoDestino(enderecoDestino);
-    encomenda = encomendaRepository.save(encomenda); // cria ID
-    Frete frete = freteService.calcularFreteComDistanciaReal(encomenda);
-    encomenda.setFrete(frete);
-    encomenda = encomendaRepository.save(encomenda); // atualiza garantindo o frete com ID correto
-    return EncomendaResponseDTO.fromEntity(encomenda);
+    Endereco origem = dadosReferencia.enderecoOrigem();
+    Endereco destino = encomenda.getEnderecoDestino();
+
+    cotacaoAssincrona.reservarVaga();
+    EncomendaResponseDTO resposta;
+    try {
+      resposta =
+          emTransacao(
+              "criaEncomendaAssincrona",
+              1,
+              status -> {
+                encomenda.setEnderecoOrigem(dadosReferencia.referenciaEnderecoOrigem());
+                encomenda.setEnderecoDestino(dadosReferencia.deduplicarDestino(destino));
+                encomenda.setCliente(dadosReferencia.referenciaClientePadrao());
+                encomendaRepository.save(encomenda);
+                historico.registrar(List.of(EventoEncomenda.criacao(encomenda)));
+                return EncomendaResponseDTO.fromEntity(encomenda);
+              });
+    } catch (RuntimeException e) {
+      cotacaoAssincrona.liberarVaga();
+      throw e;
+    }
+
+    try {
+      cotacaoAssincrona.agendar(
+          encomenda.getId(), origem, destino, encomenda.getTipoEntrega(), encomenda.getPesoKg());
+    } catch (TaskRejectedException e) {
+      cotacaoAssincrona.liberarVaga();
+      log.warn(
+          "Cotação da encomenda {} não agendada ({}); fica para a varredura de recuperação",
+          encomenda.getCodigo(),
+          e.getMessage());
+    }
+    return resposta;
   }
 
-  @Transactional
+  /**
+   * Avança a encomenda para o próximo status da sequência.
+   *
+   * <p>Se outra transação alterar a encomenda antes do commit, a transição é repetida (até {@link
+   * #MAXIMO_TENTATIVAS} vezes). A nova tentativa só avança se o status ainda for o lido na
+   * primeira; caso contrário a alteração concorrente já respondeu por esta requisição, e a
+   * encomenda não avança duas vezes.
+   *
+   * @param codigo Código da encomenda
+   * @return Status após a transição
+   */
   public StatusEncomenda avancarStatus(
       @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar na formatação correta")
           String codigo) {
-    Encomenda encomenda =
-        encomendaRepository
-            .findByCodigo(codigo)
-            .orElseThrow(() -> new EntityNotFoundException("Não existe uma Encomenda com este ID"));
-    if (encomenda.isAtiva()) {
-      switch (encomenda.getStatus()) {
-        case PENDENTE -> encomenda.confirmar();
-        case CONFIRMADA -> encomenda.iniciarTransito();
-        case EM_TRANSITO -> encomenda.finalizarEntrega();
-      }
-      ;
-    }
+    AtomicReference<StatusEncomenda> lido = new AtomicReference<>();
+    return comRetentativa(
+        "avancarStatus",
+        transacao -> {
+          Encomenda encomenda =
+              encomendaRepository
+                  .findByCodigo(codigo)
+                  .orElseThrow(
+                      () -> new EntityNotFoundException("Não existe uma Encomenda com este ID"));
+          StatusEncomenda anterior = encomenda.getStatus();
+          if (!lido.compareAndSet(null, anterior) && lido.get() != anterior) {
+            return anterior;
+          }
+          if (encomenda.isAtiva()) {
+            switch (encomenda.getStatus()) {
+              case PENDENTE -> encomenda.confirmar();
+              case CONFIRMADA -> encomenda.iniciarTransito();
+              case EM_TRANSITO -> encomenda.finalizarEntrega();
+            }
+            ;
+          }
 
-    return encomenda.getStatus();
+          publicarMudanca(encomenda, anterior, null);
+          return encomenda.getStatus();
+        });
   }
 
+  /**
+   * Consulta de rastreamento por código, lida da projeção de rastreamento: uma linha pela chave
+   * primária, sem JOIN entre encomendas e fretes.
+   *
+   * @param codigo Código da encomenda
+   * @return Status e frete da encomenda
+   */
   @Transactional(readOnly = true)
   public EncomendaResponseDTO buscarPorCodigo(
       @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
           String codigo) {
-    Encomenda encomenda =
-        encomendaRepository
-            .findByCodigo(codigo)
-            .orElseThrow(
-                () -> new EntityNotFoundException("Não existe uma encomenda com este Código"));
-    return EncomendaResponseDTO.fromEntity(encomenda);
+    return projecoes
+        .buscarRastreamento(codigo)
+        .map(EncomendaResponseDTO::fromRastreamento)
+        .orElseThrow(() -> new EntityNotFoundException("Não existe uma encomenda com este Código"));
+  }
+
+  /**
+   * Histórico de eventos de uma encomenda.
+   *
+   * @param codigo Código da encomenda
+   * @return Eventos do mais antigo ao mais recente
+   */
+  @Transactional(readOnly = true)
+  public List<EventoEncomendaDTO> buscarHistorico(
+      @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
+          String codigo) {
+    List<EventoEncomenda> eventosEncomenda = historico.buscarHistorico(codigo);
+    if (eventosEncomenda.isEmpty() && projecoes.buscarRastreamento(codigo).isEmpty()) {
+      throw new EntityNotFoundException("Não existe uma encomenda com este Código");
+    }
+    return eventosEncomenda.stream().map(EventoEncomendaDTO::fromEntity).toList();
+  }
+
+  /**
+   * Quantidade de encomendas por status, lida da projeção do painel.
+   *
+   * @return Contagem por status e total
+   */
+  @Transactional(readOnly = true)
+  public PainelEncomendasDTO buscarPainel() {
+    return PainelEncomendasDTO.fromContagens(projecoes.buscarPainel());
+  }
+
+  /**
+   * Consulta de rastreamento com o ETag, ambos da mesma linha da projeção lida pela chave primária.
+   *
+   * <p>O ETag deriva de {@code atualizado_em}, que a projeção avança a cada evento (cotação do
+   * frete e mudanças de status). A mesma leitura responde o 304 e o 200, sem consultar encomendas
+   * nem fretes.
+   *
+   * @param codigo Código da encomenda
+   * @return Rastreamento e ETag da versão lida
+   */
+  @Transactional(readOnly = true)
+  public RastreamentoVersionado buscarRastreamentoVersionado(
+      @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
+          String codigo) {
+    return projecoes
+        .buscarRastreamento(codigo)
+        .map(
+            rastreamento ->
+                new RastreamentoVersionado(
+                    EncomendaResponseDTO.fromRastreamento(rastreamento), etag(rastreamento)))
+        .orElseThrow(() -> new EntityNotFoundException("Não existe uma encomenda com este Código"));
+  }
+
+  /**
+   * Aplica a mesma transição de status a várias encomendas em uma única transação.
+   *
+   * <p>As encomendas são carregadas, com o frete, em uma consulta {@code IN}. A máquina de estados
+   * da encomenda ({@code confirmar}, {@code iniciarTransito}, {@code finalizarEntrega}) roda em
+   * memória, e os UPDATEs são enviados juntos no commit, em lotes JDBC ({@code
+   * hibernate.jdbc.batch_size}). Uma transição inválida rejeita só a encomenda afetada.
+   *
+   * <p>Uma alteração concorrente em qualquer encomenda do lote desfaz o lote inteiro, que é
+   * repetido: as encomendas já no status de destino passam a {@code INALTERADA}.
+   *
+   * @param codigos Códigos das encomendas; repetições são consideradas uma vez
+   * @param destino Status de destino (CONFIRMADA, EM_TRANSITO ou ENTREGUE)
+   * @return Resultado de cada código, na ordem em que foram informados
+   * @throws IllegalArgumentException se o destino não for alcançável por uma transição de avanço
+   */
+  public List<ResultadoTransicaoDTO> transicionarEmLote(
+      List<String> codigos, StatusEncomenda destino) {
+    Consumer<Encomenda> transicao =
+        switch (destino) {
+          case CONFIRMADA -> Encomenda::confirmar;
+          case EM_TRANSITO -> Encomenda::iniciarTransito;
+          case ENTREGUE -> Encomenda::finalizarEntrega;
+          default ->
+              throw new IllegalArgumentException(
+                  "Status de destino deve ser CONFIRMADA, EM_TRANSITO ou ENTREGUE");
+        };
+
+    Set<String> distintos = new LinkedHashSet<>(codigos);
+    return comRetentativa(
+        "transicionarEmLote", transacao -> aplicarEmLote(distintos, destino, transicao));
   }
 
-  @Transactional
   public StatusEncomenda cancelarEncomenda(
       Long id, @NotBlank(message = "Motivo é obrigatório") String motivo) {
-    Encomenda encomenda =
-        encomendaRepository
-            .findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Encomenda não encontrada"));
-    if (encomenda.isAtiva()) encomenda.cancelar(motivo);
-    return encomenda.getStatus();
+    return comRetentativa(
+        "cancelarEncomenda",
+        transacao -> {
+          Encomenda encomenda =
+              encomendaRepository
+                  .findById(id)
+                  .orElseThrow(() -> new EntityNotFoundException("Encomenda não encontrada"));
+          StatusEncomenda anterior = encomenda.getStatus();
+          if (encomenda.isAtiva()) encomenda.cancelar(motivo);
+          publicarMudanca(encomenda, anterior, motivo);
+          return encomenda.getStatus();
+        });
   }
 
-  @Transactional
   public StatusEncomenda cancelarEncomendaPorCodigo(
       @Pattern(regexp = "^CE\\d+$", message = "Código precisa estar com formatação correta")
           String codigo,
       @NotBlank(message = "Motivo é obrigatório") String motivo) {
 
-    Encomenda encomenda =
-        encomendaRepository
-            .findByCodigo(codigo)
-            .orElseThrow(() -> new EntityNotFoundException("Encomenda não encontrada"));
+    return comRetentativa(
+        "cancelarEncomendaPorCodigo",
+        transacao -> {
+          Encomenda encomenda =
+              encomendaRepository
+                  .findByCodigo(codigo)
+                  .orElseThrow(() -> new EntityNotFoundException("Encomenda não encontrada"));
 
-    if (encomenda.isAtiva()) {
-      encomenda.cancelar(motivo);
-    }
+          StatusEncomenda anterior = encomenda.getStatus();
+          if (encomenda.isAtiva()) {
+            encomenda.cancelar(motivo);
+          }
 
-    return encomenda.getStatus();
+          publicarMudanca(encomenda, anterior, motivo);
+          return encomenda.getStatus();
+        });
   }
 
   @Transactional(readOnly = true)
   public List<EncomendaResponseDTO> buscarPorStatusDiferentesDe(List<StatusEncomenda> status) {
-    List<Encomenda> encomendas = encomendaRepository.findByStatusNotIn(status);
-    return encomendas.stream().map(EncomendaResponseDTO::fromEntity).toList();
+    return encomendaRepository.findResumosByStatusNotIn(status).stream()
+        .map(EncomendaResponseDTO::fromResumo)
+        .toList();
   }
 
   @Transactional(readOnly = true)
   public List<EncomendaResponseDTO> buscarTodasAsEncomendas() {
-    List<Encomenda> encomendas = encomendaRepository.findAll();
-    return encomendas.stream().map(EncomendaResponseDTO::fromEntity).toList();
+    return encomendaRepository.findResumos().stream()
+        .map(EncomendaResponseDTO::fromResumo)
+        .toList();
+  }
+
+  /**
+   * Busca uma página da listagem de encomendas por cursor, ordenada por data do pedido.
+   *
+   * @param cursor Cursor da página anterior ou null para a primeira página
+   * @param tamanho Quantidade de encomendas por página
+   * @return Página com as encomendas e o cursor da próxima página (null na última)
+   */
+  @Transactional(readOnly = true)
+  public EncomendaPaginaDTO buscarPagina(
+      String cursor,
+      @Min(value = 1, message = "Tamanho da página deve ser no mínimo 1")
+          @Max(value = 500, message = "Tamanho da página deve ser no máximo 500")
+          int tamanho) {
+    // Busca um item a mais para saber se existe próxima página sem uma consulta de contagem
+    Limit limite = Limit.of(tamanho + 1);
+    List<EncomendaResumoResult> resumos;
+    if (cursor == null || cursor.isBlank()) {
+      resumos = encomendaRepository.findPrimeirosResumos(limite);
+    } else {
+      CursorEncomenda anterior = CursorEncomenda.decodificar(cursor);
+      resumos = encomendaRepository.findResumosApos(anterior.dataPedido(), anterior.id(), limite);
+    }
+
+    boolean haProxima = resumos.size() > tamanho;
+    List<EncomendaResumoResult> pagina = haProxima ? resumos.subList(0, tamanho) : resumos;
+    return EncomendaPaginaDTO.builder()
+        .itens(pagina.stream().map(EncomendaResponseDTO::fromResumo).toList())
+        .proximoCursor(haProxima ? pagina.get(tamanho - 1).cursor().codificar() : null)
+        .build();
+  }
+
+  /**
+   * Percorre todas as encomendas, ordenadas por data do pedido, entregando uma a uma ao consumidor.
+   *
+   * <p>Nenhuma lista é materializada: as linhas são lidas do banco em blocos enquanto o consumidor
+   * as escreve na resposta, mantendo o uso de memória constante independentemente do volume.
+   *
+   * @param consumidor Recebe cada encomenda na ordem da listagem
+   */
+  @Transactional(readOnly = true)
+  public void exportarEncomendas(Consumer<EncomendaResponseDTO> consumidor) {
+    try (Stream<EncomendaResumoResult> resumos = encomendaRepository.streamResumos()) {
+      resumos.map(EncomendaResponseDTO::fromResumo).forEach(consumidor);
+    }
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** ETag forte: última atualização do rastreamento em microssegundos, em hexadecimal. */
+  private static String etag(RastreamentoEncomenda rastreamento) {
+    LocalDateTime data = rastreamento.getAtualizadoEm();
+    long micros = data.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + data.getNano() / 1_000;
+    return "\"" + Long.toHexString(micros) + "\"";
+  }
+
+  /**
+   * Executa uma transição de status em uma transação própria, repetindo-a quando outra transação
+   * alterou a mesma encomenda antes do commit ({@link Encomenda#getVersao() versão}). Cada
+   * tentativa relê a encomenda, e as transições repetidas são idempotentes: a que já foi aplicada
+   * não se aplica de novo. Esgotadas as tentativas, o conflito é propagado.
+   *
+   * <p>Dentro de uma transação existente a transição roda uma única vez: o conflito só aparece no
+   * commit da transação externa, que não pode ser repetida aqui.
+   */
+  private <T> T comRetentativa(String operacao, TransactionCallback<T> transicao) {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return emTransacao(operacao, 1, transicao);
+    }
+    for (int tentativa = 1; ; tentativa++) {
+      try {
+        return emTransacao(operacao, tentativa, transicao);
+      } catch (OptimisticLockingFailureException e) {
+        if (tentativa == MAXIMO_TENTATIVAS) {
+          throw e;
+        }
+        // Espera curta e aleatória para as transações concorrentes não colidirem de novo
+        try {
+          Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * tentativa + 1));
+        } catch (InterruptedException interrompida) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Executa o callback em uma transação do {@code transactionTemplate}, registrando o evento JFR
+   * {@link TransacaoEncomendaEvento} do início ao commit ou rollback.
+   */
+  private <T> T emTransacao(String operacao, int tentativa, TransactionCallback<T> callback) {
+    TransacaoEncomendaEvento evento = new TransacaoEncomendaEvento();
+    evento.participante = TransactionSynchronizationManager.isActualTransactionActive();
+    evento.resultado = TransacaoEncomendaEvento.ROLLBACK;
+    evento.begin();
+    try {
+      T resultado = transactionTemplate.execute(callback);
+      evento.resultado = TransacaoEncomendaEvento.COMMIT;
+      return resultado;
+    } catch (OptimisticLockingFailureException e) {
+      evento.resultado = TransacaoEncomendaEvento.CONFLITO;
+      throw e;
+    } finally {
+      evento.operacao = operacao;
+      evento.tentativa = tentativa;
+      evento.commit();
+    }
+  }
+
+  private List<ResultadoTransicaoDTO> aplicarEmLote(
+      Set<String> distintos, StatusEncomenda destino, Consumer<Encomenda> transicao) {
+    Map<String, Encomenda> encomendas =
+        encomendaRepository.findComFreteByCodigoIn(distintos).stream()
+            .collect(Collectors.toMap(Encomenda::getCodigo, Function.identity()));
+
+    List<ResultadoTransicaoDTO> resultados = new ArrayList<>(distintos.size());
+    List<EventoEncomenda> mudancas = new ArrayList<>();
+    for (String codigo : distintos) {
+      Encomenda encomenda = encomendas.get(codigo);
+      if (encomenda == null) {
+        resultados.add(ResultadoTransicaoDTO.naoEncontrada(codigo));
+        continue;
+      }
+
+      StatusEncomenda anterior = encomenda.getStatus();
+      if (anterior == destino) {
+        resultados.add(ResultadoTransicaoDTO.inalterada(codigo, anterior));
+        continue;
+      }
+      try {
+        transicao.accept(encomenda);
+        mudancas.add(EventoEncomenda.mudancaStatus(encomenda, anterior, null));
+        resultados.add(ResultadoTransicaoDTO.alterada(codigo, anterior, destino));
+      } catch (IllegalStateException e) {
+        resultados.add(ResultadoTransicaoDTO.rejeitada(codigo, anterior, e.getMessage()));
+      }
+    }
+    publicarMudancas(mudancas);
+    return resultados;
+  }
+
+  /** Registra e publica a transição de status, se houve uma. */
+  private void publicarMudanca(Encomenda encomenda, StatusEncomenda anterior, String detalhe) {
+    if (encomenda.getStatus() != anterior) {
+      publicarMudancas(List.of(EventoEncomenda.mudancaStatus(encomenda, anterior, detalhe)));
+    }
+  }
+
+  /**
+   * Grava as transições no histórico e nas projeções, na transação corrente, e as publica. Os
+   * assinantes do canal de eventos só as recebem depois do commit.
+   */
+  private void publicarMudancas(List<EventoEncomenda> mudancas) {
+    historico.registrar(mudancas);
+    for (EventoEncomenda mudanca : mudancas) {
+      eventos.publishEvent(
+          MudancaStatusDTO.builder()
+              .codigo(mudanca.getCodigo())
+              .statusAnterior(mudanca.getStatusAnterior())
+              .status(mudanca.getStatus())
+              .momento(mudanca.getOcorridoEm())
+              .build());
+    }
   }
 }
@@ -1,10 +1,15 @@
 package br.com.cegonhaexpress.cegonha_express.service;
 
 import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.service.MetricasEncomendaService.Etapa;
 import java.math.BigDecimal;
+import java.util.concurrent.CompletionException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -13,19 +18,37 @@ import org.springframework.stereotype.Service;
  *
  * <p>Integra GoogleMapsDistanceService com a lógica de negócio da entidade Frete, substituindo
  * estimativas por dados precisos de rota. Constrói endereços completos para maior precisão nas
- * consultas de distância.
+ * consultas de distância. Rotas repetidas são atendidas pelo DistanciaCacheService, sem nova
+ * chamada à API; as demais passam pelo DistanciaLoteService, que agrupa consultas concorrentes.
+ *
+ * <p>Conforme o modo do DistanciaOfflineService, a estimativa local por centróides de CEP substitui
+ * o Google Maps quando ele falha (FALLBACK) ou responde na hora enquanto a rota real é consultada
+ * em segundo plano e gravada no cache (PRIMARIO).
  *
  * @author Gabriel Coelho Soares
  * @see Frete @See GoogleMapsDistanceService
+ * @see DistanciaCacheService
+ * @see DistanciaLoteService
+ * @see DistanciaOfflineService
  */
 @Service
 @Slf4j
 public class FreteService {
 
-  private final GoogleMapsDistanceService distanceService;
+  private final DistanciaLoteService distanciaLote;
+  private final DistanciaCacheService distanciaCache;
+  private final DistanciaOfflineService distanciaOffline;
+  private final MetricasEncomendaService metricas;
 
-  public FreteService(GoogleMapsDistanceService distanceService) {
-    this.distanceService = distanceService;
+  public FreteService(
+      DistanciaLoteService distanciaLote,
+      DistanciaCacheService distanciaCache,
+      DistanciaOfflineService distanciaOffline,
+      MetricasEncomendaService metricas) {
+    this.distanciaLote = distanciaLote;
+    this.distanciaCache = distanciaCache;
+    this.distanciaOffline = distanciaOffline;
+    this.metricas = metricas;
   }
 
   /**
@@ -33,38 +56,132 @@ public class FreteService {
    * por dados reais de rota.
    */
   public Frete calcularFreteComDistanciaReal(Encomenda encomenda) {
+    return cotarFrete(
+            encomenda.getEnderecoOrigem(),
+            encomenda.getEnderecoDestino(),
+            encomenda.getTipoEntrega(),
+            encomenda.getPesoKg())
+        .paraEncomenda(encomenda);
+  }
 
-    // Constrói endereços completos para maior precisão
-    String enderecoOrigem = construirEnderecoCompleto(encomenda.getEnderecoOrigem());
-    String enderecoDestino = construirEnderecoCompleto(encomenda.getEnderecoDestino());
-
-    // Obtém distância real via Google Maps
+  /**
+   * Cota o frete entre dois endereços, sem exigir uma encomenda persistida.
+   *
+   * @param origem Endereço de coleta
+   * @param destino Endereço de entrega
+   * @param tipoEntrega Modalidade de entrega
+   * @param pesoKg Peso do pacote em kg
+   * @return Cotação com valor, distância e prazo
+   */
+  public CotacaoFreteResult cotarFrete(
+      Endereco origem, Endereco destino, TipoEntrega tipoEntrega, BigDecimal pesoKg) {
     CalculoDeDistanciaResult distanceResult =
-        distanceService.calcularDistancia(enderecoOrigem, enderecoDestino);
+        metricas.medir(Etapa.DISTANCIA, () -> obterDistancia(origem, destino));
+
+    return metricas.medir(
+        Etapa.CALCULO_FRETE,
+        () -> {
+          // Usa a distância real para calcular o frete (método estático da entidade Frete)
+          BigDecimal valorFrete =
+              Frete.calcularFrete(tipoEntrega, distanceResult.getDistanciaKm(), pesoKg);
 
-    // Usa a distância real para calcular o frete (método estático da entidade Frete)
-    BigDecimal valorFrete =
-        Frete.calcularFrete(
-            encomenda.getTipoEntrega(), distanceResult.getDistanciaKm(), encomenda.getPesoKg());
+          int duracaoTotal =
+              tipoEntrega.getDiasMinimosEntrega()
+                  + (int) ((distanceResult.getDuracaoMinutos() + (24 * 60) - 1) / (24 * 60));
 
-    int duracaoTotal =
-        encomenda.getTipoEntrega().getDiasMinimosEntrega()
-            + (int) ((distanceResult.getDuracaoMinutos() + (24 * 60) - 1) / (24 * 60));
+          return new CotacaoFreteResult(
+              tipoEntrega, valorFrete, distanceResult.getDistanciaKm(), duracaoTotal);
+        });
+  }
 
-    // Cria o frete com dados precisos
-    return new Frete(
-        encomenda,
-        encomenda.getTipoEntrega(),
-        valorFrete,
-        distanceResult.getDistanciaKm(),
-        duracaoTotal);
+  /** Obtém a distância da rota conforme o modo do motor offline. */
+  private CalculoDeDistanciaResult obterDistancia(Endereco origem, Endereco destino) {
+    return switch (distanciaOffline.getModo()) {
+      case DESATIVADO -> consultarRotaReal(origem, destino);
+      case FALLBACK -> {
+        try {
+          yield consultarRotaReal(origem, destino);
+        } catch (GoogleMapsIntegrationException e) {
+          // Endereço não encontrado ou rota inexistente: a estimativa não deve aceitar o pedido
+          if (e.getStatus() != null) {
+            throw e;
+          }
+          log.warn(
+              "Google Maps indisponível ({}), usando estimativa offline para {} -> {}",
+              e.getMessage(),
+              origem.getCepFormatado(),
+              destino.getCepFormatado());
+          yield distanciaOffline.estimar(origem, destino);
+        }
+      }
+      case PRIMARIO ->
+          distanciaCache
+              .buscar(origem, destino)
+              .orElseGet(
+                  () -> {
+                    CalculoDeDistanciaResult estimativa = distanciaOffline.estimar(origem, destino);
+                    reconciliarRotaReal(origem, destino, estimativa);
+                    return estimativa;
+                  });
+    };
+  }
+
+  /**
+   * Obtém a distância real via cache de rotas ou, em caso de falta, via Google Maps. Falhas do
+   * Google Maps são contadas por status antes de seguir para o chamador.
+   */
+  private CalculoDeDistanciaResult consultarRotaReal(Endereco origem, Endereco destino) {
+    try {
+      return distanciaCache.obterOuCalcular(
+          origem,
+          destino,
+          () ->
+              // Constrói endereços completos para maior precisão
+              distanciaLote.calcular(
+                  construirEnderecoCompleto(origem), construirEnderecoCompleto(destino)));
+    } catch (GoogleMapsIntegrationException e) {
+      metricas.registrarFalhaGoogleMaps(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Consulta a rota real em segundo plano e a grava no cache, registrando a divergência em relação
+   * à estimativa offline usada na cotação.
+   */
+  private void reconciliarRotaReal(
+      Endereco origem, Endereco destino, CalculoDeDistanciaResult estimativa) {
+    distanciaLote
+        .calcularAsync(construirEnderecoCompleto(origem), construirEnderecoCompleto(destino))
+        .whenComplete(
+            (real, erro) -> {
+              if (erro != null) {
+                Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                if (causa instanceof GoogleMapsIntegrationException falha) {
+                  metricas.registrarFalhaGoogleMaps(falha);
+                }
+                log.warn(
+                    "Falha ao reconciliar rota {} -> {}: {}",
+                    origem.getCepFormatado(),
+                    destino.getCepFormatado(),
+                    erro.getMessage());
+                return;
+              }
+              distanciaCache.registrar(origem, destino, real);
+              log.info(
+                  "Rota {} -> {} reconciliada: estimativa {} km, real {} km",
+                  origem.getCepFormatado(),
+                  destino.getCepFormatado(),
+                  estimativa.getDistanciaKm(),
+                  real.getDistanciaKm());
+            });
   }
 
   /**
    * Constrói endereço completo para melhor precisão na consulta. O Google Maps funciona melhor com
    * endereços detalhados.
    */
-  private String construirEnderecoCompleto(Endereco endereco) {
+  String construirEnderecoCompleto(Endereco endereco) {
     return String.format(
         "%s, %s, %s, %s - %s, %s",
         endereco.getLogradouro(),
@@ -1,5 +1,6 @@
 package br.com.cegonhaexpress.cegonha_express.service;
 
+import br.com.cegonhaexpress.cegonha_express.diagnostico.ConsultaDistanceMatrixEvento;
 import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
 import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
 import com.google.maps.DistanceMatrixApi;
@@ -16,6 +17,11 @@ import com.google.maps.model.TravelMode;
 import com.google.maps.model.Unit;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -29,6 +35,12 @@ public class GoogleMapsDistanceService {
     this.geoApiContext = geoApiContext;
   }
 
+  /**
+   * Limite de elementos (origens x destinos) por requisição aceito pela Distance Matrix API para
+   * uma única origem.
+   */
+  public static final int MAX_DESTINOS_POR_REQUISICAO = 25;
+
   /**
    * Calcula a distância entre dois endereços usando a API Distance Matrix.
    *
@@ -36,29 +48,89 @@ public class GoogleMapsDistanceService {
    * reta) - Condições de trânsito - Restrições de trânsito (pedágios, estradas fechadas)
    */
   public CalculoDeDistanciaResult calcularDistancia(String enderecoOrigem, String enderecoDestino) {
+    DistanceMatrix result = consultarMatriz(enderecoOrigem, enderecoDestino);
+    return processarResposta(result);
+  }
+
+  /**
+   * Calcula as distâncias de uma origem para vários destinos, agrupando até {@value
+   * #MAX_DESTINOS_POR_REQUISICAO} destinos por requisição.
+   *
+   * <p>O resultado mantém a ordem dos destinos informados. Se qualquer par não tiver rota, é
+   * lançada GoogleMapsIntegrationException; para tratar falhas por par individualmente, use {@link
+   * #consultarMatriz} com {@link #processarElemento}.
+   *
+   * @param enderecoOrigem Endereço de origem comum
+   * @param enderecosDestino Destinos a serem consultados
+   * @return Lista de resultados, um por destino, na mesma ordem
+   */
+  public List<CalculoDeDistanciaResult> calcularDistancias(
+      String enderecoOrigem, List<String> enderecosDestino) {
+    List<CalculoDeDistanciaResult> resultados = new ArrayList<>(enderecosDestino.size());
+
+    for (int inicio = 0; inicio < enderecosDestino.size(); inicio += MAX_DESTINOS_POR_REQUISICAO) {
+      int fim = Math.min(inicio + MAX_DESTINOS_POR_REQUISICAO, enderecosDestino.size());
+      String[] lote = enderecosDestino.subList(inicio, fim).toArray(String[]::new);
+
+      DistanceMatrix matrix = consultarMatriz(enderecoOrigem, lote);
+      for (int coluna = 0; coluna < lote.length; coluna++) {
+        resultados.add(processarElemento(matrix, 0, coluna));
+      }
+    }
+
+    return resultados;
+  }
+
+  /**
+   * Executa uma única requisição à Distance Matrix API para uma origem e N destinos.
+   *
+   * @param enderecoOrigem Endereço de origem
+   * @param enderecosDestino Destinos (máximo {@value #MAX_DESTINOS_POR_REQUISICAO})
+   * @return Matriz bruta retornada pela API
+   */
+  public DistanceMatrix consultarMatriz(String enderecoOrigem, String... enderecosDestino) {
+    if (enderecosDestino.length > MAX_DESTINOS_POR_REQUISICAO) {
+      throw new IllegalArgumentException(
+          "Máximo de " + MAX_DESTINOS_POR_REQUISICAO + " destinos por requisição");
+    }
+
+    ConsultaDistanceMatrixEvento evento = new ConsultaDistanceMatrixEvento();
+    evento.begin();
+    evento.origens = 1;
+    evento.destinos = enderecosDestino.length;
     try {
       DistanceMatrixApiRequest request =
           DistanceMatrixApi.newRequest(geoApiContext)
               .origins(enderecoOrigem)
-              .destinations(enderecoDestino)
+              .destinations(enderecosDestino)
               .units(Unit.METRIC)
               .mode(TravelMode.DRIVING)
               .language("pt-BR");
 
-      DistanceMatrix result = request.await();
-
-      return processarResposta(result, enderecoOrigem, enderecoDestino);
+      DistanceMatrix matrix = request.await();
+      if (evento.shouldCommit()) {
+        registrarElementos(evento, matrix);
+      }
+      return matrix;
 
     } catch (ApiException e) {
       log.error("Erro na API do Google Maps: {}", e.getMessage());
+      evento.erro = e.getClass().getSimpleName() + ": " + e.getMessage();
       throw new GoogleMapsIntegrationException(
           "Erro ao consultar a distância: " + e.getMessage(), e);
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
+      evento.erro = e.getClass().getSimpleName();
       throw new GoogleMapsIntegrationException("A consulta foi interrompida: ", e);
     } catch (IOException e) {
       log.error("Erro de conectividade com a API do Google Maps: {}", e.getMessage());
+      evento.erro = e.getClass().getSimpleName() + ": " + e.getMessage();
       throw new GoogleMapsIntegrationException("Falha na comunicação com o Google Maps", e);
+    } catch (RuntimeException e) {
+      evento.erro = e.getClass().getSimpleName() + ": " + e.getMessage();
+      throw e;
+    } finally {
+      evento.commit();
     }
   }
 
@@ -66,19 +138,32 @@ public class GoogleMapsDistanceService {
    * Processa a resposta da API de forma inteligente. A API pode retornar múltiplas rotas, então
    * precisamos extrair a informação mais relevante.
    */
-  public CalculoDeDistanciaResult processarResposta(
-      DistanceMatrix matrix, String origem, String destino) {
-    if (matrix.rows == null || matrix.rows.length == 0) {
+  public CalculoDeDistanciaResult processarResposta(DistanceMatrix matrix) {
+    return processarElemento(matrix, 0, 0);
+  }
+
+  /**
+   * Extrai o resultado de um par origem/destino da matriz retornada pela API.
+   *
+   * @param matrix Matriz retornada pela API
+   * @param linha Índice da origem
+   * @param coluna Índice do destino
+   * @return Resultado do par
+   * @throws GoogleMapsIntegrationException se o par não tiver rota válida
+   */
+  public static CalculoDeDistanciaResult processarElemento(
+      DistanceMatrix matrix, int linha, int coluna) {
+    if (matrix.rows == null || matrix.rows.length <= linha) {
       throw new GoogleMapsIntegrationException("Nenhuma rota encontrada entre os endereços");
     }
 
-    DistanceMatrixRow row = matrix.rows[0];
+    DistanceMatrixRow row = matrix.rows[linha];
 
-    if (row.elements == null || row.elements.length == 0) {
+    if (row.elements == null || row.elements.length <= coluna) {
       throw new GoogleMapsIntegrationException("Nenhum elemento de distância foi encontrado");
     }
 
-    DistanceMatrixElement element = row.elements[0];
+    DistanceMatrixElement element = row.elements[coluna];
 
     if (element.status != DistanceMatrixElementStatus.OK) {
       String mensagemErro =
@@ -87,7 +172,7 @@ public class GoogleMapsDistanceService {
             case ZERO_RESULTS -> "Não há rota disponível entre os endereços";
             default -> "Erro desconhecido: " + element.status;
           };
-      throw new GoogleMapsIntegrationException(mensagemErro);
+      throw new GoogleMapsIntegrationException(mensagemErro, element.status);
     }
 
     Distance distance = element.distance;
@@ -96,8 +181,29 @@ public class GoogleMapsDistanceService {
     return CalculoDeDistanciaResult.builder()
         .distanciaKm(BigDecimal.valueOf(distance.inMeters / 1000.0))
         .duracaoMinutos(duration.inSeconds / 60)
-        .enderecoOrigemFormatado(matrix.originAddresses[0])
-        .enderecoDestinoFormatado(matrix.destinationAddresses[0])
+        .enderecoOrigemFormatado(matrix.originAddresses[linha])
+        .enderecoDestinoFormatado(matrix.destinationAddresses[coluna])
         .build();
   }
+
+  /** Conta os elementos da matriz por status para o evento JFR da requisição. */
+  private static void registrarElementos(
+      ConsultaDistanceMatrixEvento evento, DistanceMatrix matrix) {
+    Map<DistanceMatrixElementStatus, Integer> porStatus =
+        new EnumMap<>(DistanceMatrixElementStatus.class);
+    if (matrix.rows != null) {
+      for (DistanceMatrixRow row : matrix.rows) {
+        if (row.elements != null) {
+          for (DistanceMatrixElement element : row.elements) {
+            porStatus.merge(element.status, 1, Integer::sum);
+          }
+        }
+      }
+    }
+    evento.elementosOk = porStatus.getOrDefault(DistanceMatrixElementStatus.OK, 0);
+    evento.statusElementos =
+        porStatus.entrySet().stream()
+            .map(status -> status.getKey() + "=" + status.getValue())
+            .collect(Collectors.joining(" "));
+  }
 }
@@ -0,0 +1,59 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.repository.EventoEncomendaRepository;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Histórico das encomendas: registro somente de inclusão de criações, cotações e mudanças de
+ * status.
+ *
+ * <p>Os eventos são gravados na transação da alteração que descrevem: o histórico nunca registra
+ * uma alteração desfeita nem deixa de registrar uma confirmada. Os IDs vêm da sequence em blocos, e
+ * os INSERTs de uma transação são enviados juntos em lotes JDBC ({@code
+ * hibernate.jdbc.batch_size}).
+ *
+ * @author Gabriel Coelho Soares
+ * @see EventoEncomenda
+ * @see ProjecaoEncomendaService
+ * @see CaixaSaidaService
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoricoEncomendaService {
+
+  private final EventoEncomendaRepository eventoRepository;
+  private final ProjecaoEncomendaService projecoes;
+  private final CaixaSaidaService caixaSaida;
+
+  /**
+   * Grava os eventos, atualiza as projeções de leitura e enfileira as notificações externas, na
+   * transação corrente.
+   *
+   * @param eventos Eventos na ordem em que ocorreram
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void registrar(List<EventoEncomenda> eventos) {
+    if (eventos.isEmpty()) {
+      return;
+    }
+    eventoRepository.saveAll(eventos);
+    projecoes.aplicar(eventos);
+    caixaSaida.enfileirar(eventos);
+  }
+
+  /**
+   * Histórico de uma encomenda.
+   *
+   * @param codigo Código da encomenda
+   * @return Eventos do mais antigo ao mais recente (vazio para encomendas anteriores ao histórico)
+   */
+  @Transactional(readOnly = true)
+  public List<EventoEncomenda> buscarHistorico(String codigo) {
+    return eventoRepository.findByCodigoOrderByOcorridoEmAscIdAsc(codigo);
+  }
+}
@@ -0,0 +1,456 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.request.EncomendaRequestDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaResponseDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoImportacaoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Importação de encomendas em lote a partir de um fluxo NDJSON ou CSV.
+ *
+ * <p>O arquivo é lido linha a linha e processado em lotes de tamanho fixo ({@code
+ * encomenda.importacao.lote}), de modo que a memória usada não depende do tamanho do envio:
+ *
+ * <ol>
+ *   <li>Leitura e validação: cada linha vira um {@link EncomendaRequestDTO} validado com as mesmas
+ *       regras da criação individual; linhas inválidas são rejeitadas sem interromper as demais
+ *   <li>Cotação: os fretes do lote são cotados em paralelo (até {@code
+ *       encomenda.importacao.cotacoes-simultaneas}, também com threads virtuais), para que o
+ *       DistanciaLoteService agrupe as distâncias em matrizes da Distance Matrix API
+ *   <li>Persistência: uma transação por lote; os destinos são deduplicados com uma única consulta
+ *       por CEP e as inserções seguem em lotes JDBC
+ * </ol>
+ *
+ * <p>Os resultados de cada lote são entregues na ordem das linhas assim que o lote termina.
+ *
+ * @author Gabriel Coelho Soares
+ * @see DadosReferenciaService#deduplicarDestinos
+ * @see DistanciaLoteService
+ */
+@Service
+@Slf4j
+public class ImportacaoEncomendaService {
+
+  /** Formato do arquivo de importação. */
+  public enum Formato {
+    /** Um objeto JSON de {@link EncomendaRequestDTO} por linha. */
+    NDJSON,
+    /**
+     * Cabeçalho com os nomes das colunas e uma encomenda por linha, separada por vírgula ou ";".
+     */
+    CSV
+  }
+
+  static final int TAMANHO_MAXIMO_LINHA = 16 * 1024;
+
+  private static final List<String> COLUNAS_ENDERECO =
+      List.of("cep", "logradouro", "numero", "complemento", "bairro", "cidade", "uf", "referencia");
+  private static final List<String> COLUNAS_ENCOMENDA =
+      List.of("tipoEntrega", "descricaoBebe", "pesoKg", "alturaCm", "valorDeclarado");
+  private static final List<String> COLUNAS_DECIMAIS =
+      List.of("pesoKg", "alturaCm", "valorDeclarado");
+
+  private final ObjectMapper objectMapper;
+  private final Validator validator;
+  private final FreteService freteService;
+  private final EncomendaRepository encomendaRepository;
+  private final DadosReferenciaService dadosReferencia;
+  private final TransactionTemplate transactionTemplate;
+  private final HistoricoEncomendaService historico;
+  private final int tamanhoLote;
+  private final ExecutorService executorCotacoes;
+  private final Semaphore vagasCotacao;
+
+  public ImportacaoEncomendaService(
+      ObjectMapper objectMapper,
+      Validator validator,
+      FreteService freteService,
+      EncomendaRepository encomendaRepository,
+      DadosReferenciaService dadosReferencia,
+      TransactionTemplate transactionTemplate,
+      HistoricoEncomendaService historico,
+      @Value("${encomenda.importacao.lote:100}") int tamanhoLote,
+      @Value("${encomenda.importacao.cotacoes-simultaneas:25}") int cotacoesSimultaneas,
+      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+    this.objectMapper = objectMapper;
+    this.validator = validator;
+    this.freteService = freteService;
+    this.encomendaRepository = encomendaRepository;
+    this.dadosReferencia = dadosReferencia;
+    this.transactionTemplate = transactionTemplate;
+    this.historico = historico;
+    this.tamanhoLote = tamanhoLote;
+    // Com threads virtuais o executor não limita a concorrência; o semáforo vale nos dois modos
+    this.vagasCotacao = new Semaphore(cotacoesSimultaneas);
+    this.executorCotacoes =
+        threadsVirtuais
+            ? Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("importacao-cotacao-", 0).factory())
+            : Executors.newFixedThreadPool(
+                cotacoesSimultaneas,
+                Thread.ofPlatform().daemon().name("importacao-cotacao-", 0).factory());
+  }
+
+  /**
+   * Importa as encomendas do fluxo informado.
+   *
+   * @param entrada Conteúdo do arquivo
+   * @param formato Formato do conteúdo
+   * @param saida Recebe os resultados de cada lote, na ordem das linhas
+   * @throws IOException se a leitura da entrada falhar
+   */
+  public void importar(
+      Reader entrada, Formato formato, Consumer<List<ResultadoImportacaoDTO>> saida)
+      throws IOException {
+    BufferedReader leitor = new BufferedReader(entrada);
+    List<Item> lote = new ArrayList<>(tamanhoLote);
+    List<String> colunas = null;
+    char delimitador = ',';
+    long numeroLinha = 0;
+    long processadas = 0;
+    long criadas = 0;
+
+    Linha linha;
+    while ((linha = lerLinha(leitor)) != null) {
+      numeroLinha++;
+      String texto = numeroLinha == 1 ? removerBom(linha.texto()) : linha.texto();
+      if (texto.isBlank()) {
+        continue;
+      }
+      if (linha.excedida()) {
+        lote.add(
+            Item.rejeitado(numeroLinha, "Linha excede " + TAMANHO_MAXIMO_LINHA + " caracteres"));
+      } else if (formato == Formato.CSV && colunas == null) {
+        delimitador = texto.indexOf(';') >= 0 && texto.indexOf(',') < 0 ? ';' : ',';
+        List<String> erros = new ArrayList<>();
+        colunas = lerCabecalho(dividirCsv(texto, delimitador), erros);
+        if (!erros.isEmpty()) {
+          saida.accept(List.of(ResultadoImportacaoDTO.rejeitada(numeroLinha, erros)));
+          log.warn("Importação interrompida: cabeçalho CSV inválido {}", erros);
+          return;
+        }
+      } else {
+        lote.add(
+            formato == Formato.CSV
+                ? lerCsv(numeroLinha, texto, colunas, delimitador)
+                : lerNdjson(numeroLinha, texto));
+      }
+
+      if (lote.size() >= tamanhoLote) {
+        processadas += lote.size();
+        criadas += processarLote(lote, saida);
+        lote.clear();
+      }
+    }
+
+    if (!lote.isEmpty()) {
+      processadas += lote.size();
+      criadas += processarLote(lote, saida);
+    }
+    log.info(
+        "Importação concluída: {} encomendas criadas, {} rejeitadas",
+        criadas,
+        processadas - criadas);
+  }
+
+  @PreDestroy
+  void encerrar() {
+    executorCotacoes.shutdownNow();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /**
+   * Cota e grava as encomendas válidas do lote e envia os resultados de todas as linhas.
+   *
+   * @return Quantidade de encomendas criadas
+   */
+  private long processarLote(List<Item> lote, Consumer<List<ResultadoImportacaoDTO>> saida) {
+    List<Item> validos = lote.stream().filter(Item::isValido).toList();
+    if (!validos.isEmpty()) {
+      cotar(validos);
+      gravar(validos.stream().filter(Item::isValido).toList());
+    }
+    saida.accept(lote.stream().map(Item::resultado).toList());
+    return lote.stream().filter(Item::isValido).count();
+  }
+
+  /**
+   * Cota os fretes em paralelo, no máximo {@code encomenda.importacao.cotacoes-simultaneas} de cada
+   * vez; itens cuja cotação falha são rejeitados.
+   */
+  private void cotar(List<Item> itens) {
+    Endereco origem = dadosReferencia.enderecoOrigem();
+    List<Future<CotacaoFreteResult>> cotacoes = new ArrayList<>(itens.size());
+    for (Item item : itens) {
+      Encomenda encomenda = item.encomenda;
+      encomenda.setEnderecoOrigem(origem);
+      try {
+        vagasCotacao.acquire();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      cotacoes.add(
+          executorCotacoes.submit(
+              () -> {
+                try {
+                  return freteService.cotarFrete(
+                      origem,
+                      encomenda.getEnderecoDestino(),
+                      encomenda.getTipoEntrega(),
+                      encomenda.getPesoKg());
+                } finally {
+                  vagasCotacao.release();
+                }
+              }));
+    }
+
+    for (int i = 0; i < itens.size(); i++) {
+      Item item = itens.get(i);
+      if (i >= cotacoes.size()) {
+        item.rejeitar("Importação interrompida antes da cotação do frete");
+        continue;
+      }
+      try {
+        item.encomenda.setFrete(cotacoes.get(i).get().paraEncomenda(item.encomenda));
+      } catch (ExecutionException e) {
+        log.warn("Falha ao cotar o frete da linha {} importada", item.linha, e.getCause());
+        item.rejeitar("Falha ao cotar o frete");
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        item.rejeitar("Importação interrompida antes da cotação do frete");
+      }
+    }
+  }
+
+  /** Grava as encomendas do lote em uma única transação. */
+  private void gravar(List<Item> itens) {
+    if (itens.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            Endereco origem = dadosReferencia.referenciaEnderecoOrigem();
+            Cliente cliente = dadosReferencia.referenciaClientePadrao();
+            List<Endereco> destinos =
+                dadosReferencia.deduplicarDestinos(
+                    itens.stream().map(item -> item.encomenda.getEnderecoDestino()).toList());
+            List<Encomenda> encomendas = new ArrayList<>(itens.size());
+            for (int i = 0; i < itens.size(); i++) {
+              Encomenda encomenda = itens.get(i).encomenda;
+              encomenda.setEnderecoOrigem(origem);
+              encomenda.setEnderecoDestino(destinos.get(i));
+              encomenda.setCliente(cliente);
+              encomendas.add(encomenda);
+            }
+            encomendaRepository.saveAll(encomendas);
+            historico.registrar(encomendas.stream().map(EventoEncomenda::criacao).toList());
+            itens.forEach(item -> item.resposta = EncomendaResponseDTO.fromEntity(item.encomenda));
+          });
+    } catch (RuntimeException e) {
+      log.error("Falha ao gravar lote de {} encomendas importadas", itens.size(), e);
+      itens.forEach(item -> item.rejeitar("Falha ao gravar o lote"));
+    }
+  }
+
+  private Item lerNdjson(long numeroLinha, String texto) {
+    try {
+      return validar(numeroLinha, objectMapper.readValue(texto, EncomendaRequestDTO.class));
+    } catch (JsonProcessingException e) {
+      return Item.rejeitado(numeroLinha, "JSON inválido: " + e.getOriginalMessage());
+    }
+  }
+
+  private Item lerCsv(long numeroLinha, String texto, List<String> colunas, char delimitador) {
+    List<String> valores = dividirCsv(texto, delimitador);
+    if (valores.size() != colunas.size()) {
+      return Item.rejeitado(
+          numeroLinha, "Esperadas " + colunas.size() + " colunas, encontradas " + valores.size());
+    }
+
+    ObjectNode encomenda = objectMapper.createObjectNode();
+    ObjectNode endereco = encomenda.putObject("enderecoDestino");
+    for (int i = 0; i < colunas.size(); i++) {
+      String coluna = colunas.get(i);
+      String valor = valores.get(i).trim();
+      if (valor.isEmpty()) {
+        continue;
+      }
+      if (COLUNAS_DECIMAIS.contains(coluna)) {
+        // Aceita vírgula decimal (ex: 2,5), comum em planilhas em português
+        valor = valor.replace(',', '.');
+      }
+      (COLUNAS_ENDERECO.contains(coluna) ? endereco : encomenda).put(coluna, valor);
+    }
+
+    try {
+      return validar(numeroLinha, objectMapper.treeToValue(encomenda, EncomendaRequestDTO.class));
+    } catch (JsonProcessingException e) {
+      return Item.rejeitado(numeroLinha, "Valor inválido: " + e.getOriginalMessage());
+    }
+  }
+
+  /** Valida o DTO com as mesmas regras da criação individual. */
+  private Item validar(long numeroLinha, EncomendaRequestDTO dto) {
+    if (dto == null) {
+      return Item.rejeitado(numeroLinha, "Linha sem encomenda");
+    }
+    List<String> erros =
+        validator.validate(dto).stream()
+            .map(violacao -> violacao.getPropertyPath() + ": " + violacao.getMessage())
+            .sorted()
+            .toList();
+    return erros.isEmpty()
+        ? new Item(numeroLinha, dto.toEntity(), null)
+        : new Item(numeroLinha, null, erros);
+  }
+
+  /** Mapeia o cabeçalho CSV para os nomes dos campos, sem diferenciar maiúsculas. */
+  private static List<String> lerCabecalho(List<String> cabecalho, List<String> erros) {
+    Map<String, String> conhecidas = new HashMap<>();
+    for (String coluna : COLUNAS_ENDERECO) {
+      conhecidas.put(coluna.toLowerCase(Locale.ROOT), coluna);
+    }
+    for (String coluna : COLUNAS_ENCOMENDA) {
+      conhecidas.put(coluna.toLowerCase(Locale.ROOT), coluna);
+    }
+
+    List<String> colunas = new ArrayList<>(cabecalho.size());
+    for (String nome : cabecalho) {
+      String coluna = conhecidas.get(nome.trim().toLowerCase(Locale.ROOT));
+      if (coluna == null) {
+        erros.add("Coluna desconhecida: " + nome.trim());
+      } else if (colunas.contains(coluna)) {
+        erros.add("Coluna repetida: " + coluna);
+      }
+      colunas.add(coluna);
+    }
+    return colunas;
+  }
+
+  /** Divide uma linha CSV, com suporte a campos entre aspas e aspas duplicadas ("") no valor. */
+  static List<String> dividirCsv(String linha, char delimitador) {
+    List<String> campos = new ArrayList<>();
+    StringBuilder campo = new StringBuilder();
+    boolean entreAspas = false;
+    for (int i = 0; i < linha.length(); i++) {
+      char c = linha.charAt(i);
+      if (entreAspas) {
+        if (c != '"') {
+          campo.append(c);
+        } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+          campo.append('"');
+          i++;
+        } else {
+          entreAspas = false;
+        }
+      } else if (c == '"') {
+        entreAspas = true;
+      } else if (c == delimitador) {
+        campos.add(campo.toString());
+        campo.setLength(0);
+      } else {
+        campo.append(c);
+      }
+    }
+    campos.add(campo.toString());
+    return campos;
+  }
+
+  /**
+   * Lê a próxima linha sem guardar mais que {@link #TAMANHO_MAXIMO_LINHA} caracteres; o excedente é
+   * descartado e a linha marcada como excedida.
+   *
+   * @return Linha lida ou null no fim da entrada
+   */
+  private static Linha lerLinha(BufferedReader leitor) throws IOException {
+    StringBuilder texto = new StringBuilder();
+    boolean excedida = false;
+    int c;
+    while ((c = leitor.read()) != -1 && c != '\n') {
+      if (texto.length() < TAMANHO_MAXIMO_LINHA) {
+        texto.append((char) c);
+      } else {
+        excedida = true;
+      }
+    }
+    if (c == -1 && texto.isEmpty() && !excedida) {
+      return null;
+    }
+    if (!texto.isEmpty() && texto.charAt(texto.length() - 1) == '\r') {
+      texto.setLength(texto.length() - 1);
+    }
+    return new Linha(texto.toString(), excedida);
+  }
+
+  /** Remove a marca de ordem de bytes que planilhas costumam gravar no início do arquivo. */
+  private static String removerBom(String texto) {
+    return !texto.isEmpty() && texto.charAt(0) == '\uFEFF' ? texto.substring(1) : texto;
+  }
+
+  private record Linha(String texto, boolean excedida) {}
+
+  /** Linha do arquivo em processamento: encomenda a criar ou motivos da rejeição. */
+  private static final class Item {
+
+    private final long linha;
+    private final Encomenda encomenda;
+    private List<String> erros;
+    private EncomendaResponseDTO resposta;
+
+    private Item(long linha, Encomenda encomenda, List<String> erros) {
+      this.linha = linha;
+      this.encomenda = encomenda;
+      this.erros = erros;
+    }
+
+    static Item rejeitado(long linha, String erro) {
+      return new Item(linha, null, List.of(erro));
+    }
+
+    boolean isValido() {
+      return erros == null;
+    }
+
+    void rejeitar(String erro) {
+      erros = List.of(erro);
+      resposta = null;
+    }
+
+    ResultadoImportacaoDTO resultado() {
+      return isValido()
+          ? ResultadoImportacaoDTO.criada(linha, resposta)
+          : ResultadoImportacaoDTO.rejeitada(linha, erros);
+    }
+  }
+}
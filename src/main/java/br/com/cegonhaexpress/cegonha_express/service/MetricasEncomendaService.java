@@ -0,0 +1,157 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Métricas do fluxo de criação de encomendas (Micrometer, expostas em {@code
+ * /actuator/prometheus}).
+ *
+ * <p>Além do tempo total da criação, cada etapa tem seu timer com histograma, para localizar o p99
+ * com {@code histogram_quantile} sobre {@code cegonha_encomenda_criacao_etapa_seconds_bucket}. As
+ * etapas de distância e cálculo do frete ficam no {@link FreteService} e também medem as cotações
+ * em segundo plano e da importação.
+ *
+ * <p>Os timers e contadores são registrados na inicialização, para que as séries existam (com zero)
+ * antes da primeira ocorrência.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Service
+public class MetricasEncomendaService {
+
+  public static final String CRIACAO = "cegonha.encomenda.criacao";
+  public static final String ETAPA = "cegonha.encomenda.criacao.etapa";
+  public static final String FALHAS_GOOGLE_MAPS = "cegonha.google.maps.falhas";
+
+  /** Valor da tag {@code status} para falhas da requisição, sem elemento da matriz. */
+  public static final String FALHA_REQUISICAO = "REQUISICAO";
+
+  /** Etapas medidas na criação de uma encomenda. */
+  public enum Etapa {
+    /** Endereço de coleta (ViaCEP com cache, consultado só na primeira resolução). */
+    VIACEP("viacep"),
+    /** Referências de origem e cliente e deduplicação do destino, já na transação. */
+    ENDERECOS("enderecos"),
+    /** Distância da rota: cache, Google Maps (em lote) ou estimativa offline. */
+    DISTANCIA("distancia"),
+    /** Valor e prazo do frete a partir da distância. */
+    CALCULO_FRETE("calculo_frete"),
+    /** Encomenda, histórico e projeções até o commit. */
+    GRAVACAO("gravacao");
+
+    private final String tag;
+
+    Etapa(String tag) {
+      this.tag = tag;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+  }
+
+  private final MeterRegistry registry;
+  private final Map<Etapa, Timer> etapas = new EnumMap<>(Etapa.class);
+  private final Map<DistanceMatrixElementStatus, Counter> falhasPorStatus =
+      new EnumMap<>(DistanceMatrixElementStatus.class);
+  private final Counter falhasRequisicao;
+  private final Timer criacaoSucesso;
+  private final Timer criacaoErro;
+
+  public MetricasEncomendaService(MeterRegistry registry) {
+    this.registry = registry;
+    for (Etapa etapa : Etapa.values()) {
+      etapas.put(
+          etapa,
+          Timer.builder(ETAPA)
+              .description("Duração de cada etapa da criação de encomendas")
+              .tag("etapa", etapa.getTag())
+              .publishPercentileHistogram()
+              .register(registry));
+    }
+    for (DistanceMatrixElementStatus status : DistanceMatrixElementStatus.values()) {
+      if (status != DistanceMatrixElementStatus.OK) {
+        falhasPorStatus.put(status, contadorFalhas(status.name()));
+      }
+    }
+    this.falhasRequisicao = contadorFalhas(FALHA_REQUISICAO);
+    this.criacaoSucesso = timerCriacao("sucesso");
+    this.criacaoErro = timerCriacao("erro");
+  }
+
+  /**
+   * Executa e mede uma etapa.
+   *
+   * @param etapa Etapa medida
+   * @param trecho Código da etapa
+   * @return Resultado do trecho
+   */
+  public <T> T medir(Etapa etapa, Supplier<T> trecho) {
+    return etapas.get(etapa).record(trecho);
+  }
+
+  /**
+   * Inicia a medição de um trecho que não cabe em um único bloco (ex: termina após o commit).
+   *
+   * @return Amostra a ser encerrada com {@link #registrar} ou {@link #registrarCriacao}
+   */
+  public Timer.Sample iniciar() {
+    return Timer.start(registry);
+  }
+
+  /**
+   * Encerra a medição de uma etapa.
+   *
+   * @param etapa Etapa medida
+   * @param inicio Amostra obtida em {@link #iniciar()}
+   */
+  public void registrar(Etapa etapa, Timer.Sample inicio) {
+    inicio.stop(etapas.get(etapa));
+  }
+
+  /**
+   * Encerra a medição do tempo total de uma criação.
+   *
+   * @param inicio Amostra obtida em {@link #iniciar()} no início da criação
+   * @param sucesso false se a criação terminou com exceção
+   */
+  public void registrarCriacao(Timer.Sample inicio, boolean sucesso) {
+    inicio.stop(sucesso ? criacaoSucesso : criacaoErro);
+  }
+
+  /**
+   * Conta uma falha do Google Maps pelo status do elemento da matriz.
+   *
+   * @param falha Exceção da consulta de distância
+   */
+  public void registrarFalhaGoogleMaps(GoogleMapsIntegrationException falha) {
+    Counter contador =
+        falha.getStatus() != null ? falhasPorStatus.get(falha.getStatus()) : falhasRequisicao;
+    (contador != null ? contador : falhasRequisicao).increment();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private Counter contadorFalhas(String status) {
+    return Counter.builder(FALHAS_GOOGLE_MAPS)
+        .description("Falhas na consulta de distância ao Google Maps")
+        .tag("status", status)
+        .register(registry);
+  }
+
+  private Timer timerCriacao(String resultado) {
+    return Timer.builder(CRIACAO)
+        .description("Duração total da criação de encomendas com frete calculado")
+        .tag("resultado", resultado)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+}
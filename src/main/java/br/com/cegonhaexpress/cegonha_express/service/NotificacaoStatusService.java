@@ -0,0 +1,336 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.MudancaStatusDTO;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Canal de eventos (Server-Sent Events) das mudanças de status das encomendas.
+ *
+ * <p>Cada transição publicada pelo {@link EncomendaService} é recebida aqui somente depois do
+ * commit e repassada aos assinantes da encomenda e aos assinantes de todas as encomendas. O envio
+ * não acontece na thread que fez o commit: cada assinante tem uma fila limitada ({@code
+ * encomenda.eventos.buffer}) esvaziada por uma tarefa própria em um pool de envio ({@code
+ * encomenda.eventos.threads}). O pool é de threads de plataforma mesmo com threads virtuais: o
+ * {@link SseEmitter} escreve na resposta dentro de um bloco {@code synchronized}, o que fixaria a
+ * thread virtual à portadora enquanto o cliente não lê.
+ *
+ * <p>Um assinante lento cuja fila enche é desconectado, sem atrasar os demais; o cliente pode se
+ * reconectar e recebe de novo o estado atual da encomenda. Comentários de batimento ({@code
+ * encomenda.eventos.heartbeat}) mantêm a conexão aberta em proxies e detectam clientes que já
+ * saíram.
+ *
+ * <p>Um cliente que para de ler sem fechar a conexão deixa a escrita bloqueada até o timeout de
+ * escrita do servidor. Uma escrita que passa de {@code encomenda.eventos.timeout-envio} desconecta
+ * o assinante e empresta uma thread extra ao pool enquanto ela não volta, de modo que clientes
+ * travados não esgotam o envio dos demais.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Service
+@Slf4j
+public class NotificacaoStatusService {
+
+  /** Nome do evento SSE com o estado atual da encomenda, enviado ao assinar. */
+  public static final String EVENTO_ENCOMENDA = "encomenda";
+
+  /** Nome do evento SSE de uma transição de status. */
+  public static final String EVENTO_STATUS = "status";
+
+  private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+  private final AtomicLong desconectadosPorLentidao = new AtomicLong();
+
+  private final int capacidadeFila;
+  private final long timeoutMillis;
+  private final Duration timeoutEnvio;
+  private final ThreadPoolExecutor envio;
+  private final ScheduledExecutorService batimentos;
+
+  public NotificacaoStatusService(
+      @Value("${encomenda.eventos.buffer:32}") int capacidadeFila,
+      @Value("${encomenda.eventos.heartbeat:15s}") Duration heartbeat,
+      @Value("${encomenda.eventos.timeout:30m}") Duration timeout,
+      @Value("${encomenda.eventos.threads:8}") int threads,
+      @Value("${encomenda.eventos.timeout-envio:10s}") Duration timeoutEnvio) {
+    this.capacidadeFila = capacidadeFila;
+    this.timeoutMillis = timeout.toMillis();
+    this.timeoutEnvio = timeoutEnvio;
+    this.envio =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            Thread.ofPlatform().daemon().name("eventos-status-", 0).factory());
+    this.batimentos =
+        Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("eventos-status-batimento").factory());
+    long intervalo = Math.max(1, heartbeat.toMillis());
+    batimentos.scheduleAtFixedRate(
+        this::enviarBatimentos, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    long verificacao = Math.max(1, timeoutEnvio.toMillis() / 2);
+    batimentos.scheduleWithFixedDelay(
+        this::verificarEnvios, verificacao, verificacao, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Registra um assinante das mudanças de status.
+   *
+   * <p>O registro acontece antes da leitura do estado inicial: uma transição concorrente é entregue
+   * depois do estado inicial ou já está refletida nele, nunca perdida.
+   *
+   * @param codigo Código da encomenda acompanhada ou null para todas as encomendas
+   * @param estadoInicial Estado atual enviado como primeiro evento ou null para nenhum
+   * @return Emissor SSE a ser retornado pelo controller
+   */
+  public SseEmitter assinar(String codigo, Supplier<?> estadoInicial) {
+    Assinante assinante = new Assinante(novoEmissor(timeoutMillis), codigo);
+    assinantes.add(assinante);
+    assinante.emissor.onCompletion(() -> assinantes.remove(assinante));
+    assinante.emissor.onTimeout(() -> assinantes.remove(assinante));
+    assinante.emissor.onError(erro -> assinantes.remove(assinante));
+
+    if (estadoInicial != null) {
+      try {
+        assinante.enfileirar(
+            SseEmitter.event()
+                .name(EVENTO_ENCOMENDA)
+                .data(estadoInicial.get(), MediaType.APPLICATION_JSON));
+      } catch (RuntimeException e) {
+        assinantes.remove(assinante);
+        throw e;
+      }
+    }
+    log.debug("Assinante de eventos registrado ({}): {} ativos", codigo, assinantes.size());
+    return assinante.emissor;
+  }
+
+  /**
+   * Repassa uma mudança de status aos assinantes interessados, após o commit da transação.
+   *
+   * @param mudanca Transição de status
+   */
+  @TransactionalEventListener
+  public void publicar(MudancaStatusDTO mudanca) {
+    for (Assinante assinante : assinantes) {
+      if (assinante.codigo == null || assinante.codigo.equals(mudanca.getCodigo())) {
+        assinante.enfileirar(
+            SseEmitter.event().name(EVENTO_STATUS).data(mudanca, MediaType.APPLICATION_JSON));
+      }
+    }
+  }
+
+  /**
+   * Quantidade de assinantes conectados.
+   *
+   * @return Assinantes ativos
+   */
+  public int getAssinantes() {
+    return assinantes.size();
+  }
+
+  /**
+   * Assinantes desconectados porque não acompanharam os eventos.
+   *
+   * @return Total desde a inicialização
+   */
+  public long getDesconectadosPorLentidao() {
+    return desconectadosPorLentidao.get();
+  }
+
+  /**
+   * Encerra as conexões no início do desligamento. O desligamento gracioso do servidor espera as
+   * requisições em andamento, e uma conexão SSE só termina no timeout.
+   */
+  @EventListener(ContextClosedEvent.class)
+  void desconectarTodos() {
+    for (Assinante assinante : assinantes) {
+      assinante.emissor.complete();
+    }
+    assinantes.clear();
+  }
+
+  @PreDestroy
+  void encerrar() {
+    batimentos.shutdownNow();
+    envio.shutdownNow();
+    desconectarTodos();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /** Cria o emissor de um assinante; sobrescrito nos testes para capturar os envios. */
+  SseEmitter novoEmissor(long timeoutMillis) {
+    return new SseEmitter(timeoutMillis);
+  }
+
+  private void enviarBatimentos() {
+    for (Assinante assinante : assinantes) {
+      assinante.enfileirar(SseEmitter.event().comment("batimento"));
+    }
+  }
+
+  private void verificarEnvios() {
+    long agora = System.nanoTime();
+    for (Assinante assinante : assinantes) {
+      assinante.verificarEnvio(agora);
+    }
+  }
+
+  /**
+   * Ajusta o tamanho do pool de envio: cresce enquanto uma thread está presa em um envio travado e
+   * volta ao tamanho configurado quando o envio termina.
+   */
+  private synchronized void ajustarEnvio(int delta) {
+    int tamanho = envio.getCorePoolSize() + delta;
+    if (delta > 0) {
+      envio.setMaximumPoolSize(tamanho);
+      envio.setCorePoolSize(tamanho);
+    } else {
+      envio.setCorePoolSize(tamanho);
+      envio.setMaximumPoolSize(tamanho);
+    }
+  }
+
+  /** Assinante com fila própria; no máximo uma tarefa de envio por assinante de cada vez. */
+  private final class Assinante {
+
+    private final SseEmitter emissor;
+    private final String codigo;
+    private final BlockingQueue<SseEventBuilder> fila = new ArrayBlockingQueue<>(capacidadeFila);
+    private final AtomicBoolean enviando = new AtomicBoolean();
+    private volatile boolean desconectado;
+
+    /** Início do envio em andamento ({@link System#nanoTime()}); protegido pelo monitor. */
+    private long envioIniciadoEm;
+
+    /** Envio em andamento que passou do limite e ganhou uma thread extra no pool. */
+    private boolean travado;
+
+    private Assinante(SseEmitter emissor, String codigo) {
+      this.emissor = emissor;
+      this.codigo = codigo;
+    }
+
+    private void enfileirar(SseEventBuilder evento) {
+      if (desconectado) {
+        return;
+      }
+      if (!fila.offer(evento)) {
+        desconectarPorLentidao(capacidadeFila + " eventos sem leitura");
+        return;
+      }
+      agendarEnvio();
+    }
+
+    private void agendarEnvio() {
+      if ((desconectado || !fila.isEmpty()) && enviando.compareAndSet(false, true)) {
+        try {
+          envio.execute(this::esvaziar);
+        } catch (RejectedExecutionException e) {
+          // Aplicação encerrando
+          enviando.set(false);
+        }
+      }
+    }
+
+    /**
+     * Envia os eventos da fila. Ao desconectar, {@code enviando} fica marcado e nenhuma outra
+     * tarefa é agendada para este assinante.
+     */
+    private void esvaziar() {
+      try {
+        SseEventBuilder evento;
+        while (!desconectado && (evento = fila.poll()) != null) {
+          iniciarEnvio();
+          try {
+            emissor.send(evento);
+          } finally {
+            terminarEnvio();
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        // Cliente desconectado ou emissor já encerrado
+        assinantes.remove(this);
+        fila.clear();
+        return;
+      }
+      if (desconectado) {
+        emissor.complete();
+        return;
+      }
+      enviando.set(false);
+      agendarEnvio();
+    }
+
+    private synchronized void iniciarEnvio() {
+      envioIniciadoEm = System.nanoTime();
+    }
+
+    private void terminarEnvio() {
+      boolean devolver;
+      synchronized (this) {
+        envioIniciadoEm = 0;
+        devolver = travado;
+        travado = false;
+      }
+      if (devolver) {
+        ajustarEnvio(-1);
+      }
+    }
+
+    /** Desconecta o assinante se o envio em andamento passou do limite. */
+    private void verificarEnvio(long agora) {
+      synchronized (this) {
+        if (travado || envioIniciadoEm == 0 || agora - envioIniciadoEm < timeoutEnvio.toNanos()) {
+          return;
+        }
+        travado = true;
+      }
+      ajustarEnvio(1);
+      desconectarPorLentidao("envio bloqueado há mais de " + timeoutEnvio.toMillis() + " ms");
+    }
+
+    /**
+     * Descarta os eventos pendentes e encerra a conexão. O encerramento fica com a tarefa de envio:
+     * o emissor pode estar bloqueado escrevendo para este cliente, e a thread que publicou o evento
+     * não deve esperar por ele.
+     */
+    private void desconectarPorLentidao(String motivo) {
+      if (assinantes.remove(this)) {
+        desconectado = true;
+        fila.clear();
+        desconectadosPorLentidao.incrementAndGet();
+        log.warn(
+            "Assinante de eventos ({}) desconectado: {}",
+            codigo != null ? codigo : "todas",
+            motivo);
+        agendarEnvio();
+      }
+    }
+  }
+}
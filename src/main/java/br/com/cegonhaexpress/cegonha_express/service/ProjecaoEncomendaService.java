@@ -0,0 +1,179 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.ContagemStatusResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.ContagemStatus;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.RastreamentoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.repository.ContagemStatusRepository;
+import br.com.cegonhaexpress.cegonha_express.repository.RastreamentoEncomendaRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Construtor das projeções de leitura a partir dos eventos do histórico das encomendas.
+ *
+ * <p>Mantém duas tabelas desnormalizadas, atualizadas na mesma transação do evento:
+ *
+ * <ul>
+ *   <li>{@link RastreamentoEncomenda}: status e frete de cada encomenda, lidos pela consulta por
+ *       código sem JOIN entre encomendas e fretes
+ *   <li>{@link ContagemStatus}: quantidade de encomendas por status, lida pelo painel sem contar a
+ *       tabela de encomendas
+ * </ul>
+ *
+ * <p>Os eventos de uma transação são aplicados juntos: as linhas de rastreamento existentes são
+ * carregadas em uma consulta {@code IN}, e a contagem recebe um único incremento por status, na
+ * ordem dos status, para que transações concorrentes travem as linhas do painel sempre na mesma
+ * ordem. A contagem é dividida em fatias ({@code encomenda.painel.fatias}): cada transação sorteia
+ * uma fatia e trava só as linhas dela até o commit, e as criações simultâneas se distribuem entre
+ * as fatias em vez de esperarem pela mesma linha de PENDENTE. A leitura soma as fatias.
+ *
+ * @author Gabriel Coelho Soares
+ * @see HistoricoEncomendaService
+ */
+@Service
+@Slf4j
+public class ProjecaoEncomendaService {
+
+  private final RastreamentoEncomendaRepository rastreamentoRepository;
+  private final ContagemStatusRepository contagemRepository;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final int fatias;
+
+  public ProjecaoEncomendaService(
+      RastreamentoEncomendaRepository rastreamentoRepository,
+      ContagemStatusRepository contagemRepository,
+      EntityManager entityManager,
+      TransactionTemplate transactionTemplate,
+      @Value("${encomenda.painel.fatias:16}") int fatias) {
+    this.rastreamentoRepository = rastreamentoRepository;
+    this.contagemRepository = contagemRepository;
+    this.entityManager = entityManager;
+    this.transactionTemplate = transactionTemplate;
+    this.fatias = Math.max(1, fatias);
+  }
+
+  /** Cria as linhas do painel que ainda não existem: os incrementos só atualizam linhas. */
+  @PostConstruct
+  void iniciar() {
+    try {
+      transactionTemplate.executeWithoutResult(
+          transacao -> {
+            Set<ContagemStatus.Chave> existentes =
+                contagemRepository.findAll().stream()
+                    .map(linha -> new ContagemStatus.Chave(linha.getStatus(), linha.getFatia()))
+                    .collect(Collectors.toSet());
+            for (StatusEncomenda status : StatusEncomenda.values()) {
+              for (int fatia = 0; fatia < fatias; fatia++) {
+                if (!existentes.contains(new ContagemStatus.Chave(status, fatia))) {
+                  entityManager.persist(new ContagemStatus(status, fatia, 0));
+                }
+              }
+            }
+          });
+    } catch (DataIntegrityViolationException e) {
+      // Outra instância da aplicação criou as linhas ao mesmo tempo
+      log.debug("Linhas do painel já criadas por outra instância: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Aplica os eventos às projeções, na transação corrente.
+   *
+   * @param eventos Eventos na ordem em que ocorreram
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void aplicar(List<EventoEncomenda> eventos) {
+    Set<String> codigos =
+        eventos.stream()
+            .filter(evento -> evento.getTipo() != TipoEventoEncomenda.CRIADA)
+            .map(EventoEncomenda::getCodigo)
+            .collect(Collectors.toSet());
+    Map<String, RastreamentoEncomenda> linhas = new HashMap<>();
+    if (!codigos.isEmpty()) {
+      rastreamentoRepository
+          .findAllById(codigos)
+          .forEach(linha -> linhas.put(linha.getCodigo(), linha));
+    }
+
+    Map<StatusEncomenda, Long> deltas = new EnumMap<>(StatusEncomenda.class);
+    for (EventoEncomenda evento : eventos) {
+      if (evento.getTipo() == TipoEventoEncomenda.CRIADA) {
+        RastreamentoEncomenda linha = new RastreamentoEncomenda(evento);
+        entityManager.persist(linha);
+        linhas.put(linha.getCodigo(), linha);
+        deltas.merge(evento.getStatus(), 1L, Long::sum);
+        continue;
+      }
+
+      RastreamentoEncomenda linha = linhas.get(evento.getCodigo());
+      if (linha == null) {
+        log.warn(
+            "Encomenda {} sem linha de rastreamento; evento {} ignorado",
+            evento.getCodigo(),
+            evento.getTipo());
+      } else if (evento.getTipo() == TipoEventoEncomenda.FRETE_COTADO) {
+        linha.setValorFrete(evento.getValorFrete());
+        linha.setPrazoDias(evento.getPrazoDias());
+        linha.setAtualizadoEm(evento.getOcorridoEm());
+      } else {
+        linha.setStatus(evento.getStatus());
+        linha.setAtualizadoEm(evento.getOcorridoEm());
+      }
+      if (evento.getTipo() == TipoEventoEncomenda.STATUS_ALTERADO) {
+        deltas.merge(evento.getStatusAnterior(), -1L, Long::sum);
+        deltas.merge(evento.getStatus(), 1L, Long::sum);
+      }
+    }
+
+    int fatia = ThreadLocalRandom.current().nextInt(fatias);
+    deltas.forEach(
+        (status, delta) -> {
+          if (delta != 0) {
+            contagemRepository.somar(status, fatia, delta);
+          }
+        });
+  }
+
+  /**
+   * Linha de rastreamento de uma encomenda.
+   *
+   * @param codigo Código da encomenda
+   * @return Linha da projeção ou Optional.empty() se a encomenda não existe
+   */
+  @Transactional(readOnly = true)
+  public Optional<RastreamentoEncomenda> buscarRastreamento(String codigo) {
+    return rastreamentoRepository.findById(codigo);
+  }
+
+  /**
+   * Quantidade de encomendas por status, somando as fatias.
+   *
+   * @return Uma linha por status, na ordem dos status
+   */
+  @Transactional(readOnly = true)
+  public List<ContagemStatusResult> buscarPainel() {
+    return contagemRepository.somarPorStatus().stream()
+        .sorted(Comparator.comparing(ContagemStatusResult::status))
+        .toList();
+  }
+}
@@ -0,0 +1,277 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import br.com.cegonhaexpress.cegonha_express.diagnostico.ConsultaViaCepEvento;
+import br.com.cegonhaexpress.cegonha_express.dto.response.CepCacheEstatisticasDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
+import br.com.cegonhaexpress.cegonha_express.model.entity.CepConsultado;
+import br.com.cegonhaexpress.cegonha_express.repository.CepConsultadoRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Cache em dois níveis para consultas de CEP na API ViaCEP.
+ *
+ * <p>O primeiro nível é um cache em memória limitado (Caffeine); o segundo é a tabela {@code
+ * cep_cache}, que sobrevive a reinicializações. A API só é chamada quando o CEP não está em nenhum
+ * dos níveis ou quando o registro persistido expirou.
+ *
+ * <p>Respostas com {@code erro=true} (CEP inexistente) são guardadas com validade curta (cache
+ * negativo). Falhas de comunicação não são armazenadas; se houver um registro persistido expirado,
+ * ele é usado enquanto a API estiver indisponível e fica em memória só pela validade curta, para
+ * que a API seja consultada de novo assim que voltar.
+ *
+ * <p>A gravação no cache persistente ocorre em transação própria, sem depender da transação do
+ * chamador.
+ *
+ * <p>O nível em memória guarda futures ({@link AsyncCache}): a primeira consulta de um CEP ausente
+ * carrega o valor na própria thread, fora do {@code compute} do Caffeine, e consultas concorrentes
+ * do mesmo CEP aguardam o future. Assim a chamada HTTP à ViaCEP não prende a thread portadora
+ * quando o chamador é uma thread virtual.
+ *
+ * @author Gabriel Coelho Soares
+ * @see ViaCepService
+ * @see CepConsultado
+ */
+@Service
+@Slf4j
+public class ViaCepCacheService {
+
+  private final ViaCepService viaCepService;
+  private final CepConsultadoRepository cepConsultadoRepository;
+  private final TransactionTemplate novaTransacao;
+  private final Duration ttl;
+  private final Duration ttlNegativo;
+  private final AsyncCache<String, Entrada> cache;
+
+  private final AtomicLong consultas = new AtomicLong();
+  private final AtomicLong acertosPersistente = new AtomicLong();
+  private final AtomicLong consultasApi = new AtomicLong();
+  private final AtomicLong respostasNegativas = new AtomicLong();
+  private final AtomicLong tempoApiNanos = new AtomicLong();
+
+  public ViaCepCacheService(
+      ViaCepService viaCepService,
+      CepConsultadoRepository cepConsultadoRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${viacep.cache.tamanho-maximo:5000}") long tamanhoMaximo,
+      @Value("${viacep.cache.ttl:30d}") Duration ttl,
+      @Value("${viacep.cache.ttl-negativo:10m}") Duration ttlNegativo) {
+    this.viaCepService = viaCepService;
+    this.cepConsultadoRepository = cepConsultadoRepository;
+    this.novaTransacao = new TransactionTemplate(transactionManager);
+    this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.ttl = ttl;
+    this.ttlNegativo = ttlNegativo;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(tamanhoMaximo)
+            .expireAfter(
+                Expiry.<String, Entrada>writing(
+                    (cep, entrada) ->
+                        entrada.isNegativa() || entrada.expirada() ? ttlNegativo : ttl))
+            .recordStats()
+            .buildAsync();
+    log.info(
+        "Cache de CEPs configurado: tamanho máximo={}, ttl={}, ttl negativo={}",
+        tamanhoMaximo,
+        ttl,
+        ttlNegativo);
+  }
+
+  /**
+   * Busca informações de endereço pelo CEP, consultando a ViaCEP apenas em caso de falta no cache.
+   *
+   * @param cep CEP a ser consultado (formato: 00000000 ou 00000-000)
+   * @return ViaCepResponseDto com dados do endereço ou null se não encontrado/indisponível
+   */
+  public ViaCepResponseDto buscarEnderecoPorCep(String cep) {
+    if (!viaCepService.validarCep(cep)) {
+      log.warn("CEP inválido fornecido: {}", cep);
+      return null;
+    }
+
+    consultas.incrementAndGet();
+    String cepLimpo = cep.replaceAll("\\D", "");
+    ConsultaViaCepEvento evento = new ConsultaViaCepEvento();
+    evento.begin();
+    Entrada entrada = obter(cepLimpo, evento);
+    evento.cep = cepLimpo;
+    evento.negativo = entrada != null && entrada.isNegativa();
+    evento.commit();
+
+    if (entrada == null) {
+      return null;
+    }
+    if (entrada.isNegativa()) {
+      respostasNegativas.incrementAndGet();
+      return null;
+    }
+    return entrada.resposta();
+  }
+
+  /**
+   * Estatísticas de acerto do cache e latência economizada.
+   *
+   * @return Snapshot das estatísticas
+   */
+  public CepCacheEstatisticasDTO getEstatisticas() {
+    long total = consultas.get();
+    long acertosMemoria = cache.synchronous().stats().hitCount();
+    long acertosBanco = acertosPersistente.get();
+    long chamadasApi = consultasApi.get();
+    double latenciaMediaMs = chamadasApi > 0 ? tempoApiNanos.get() / 1_000_000.0 / chamadasApi : 0;
+
+    return CepCacheEstatisticasDTO.builder()
+        .consultas(total)
+        .acertosMemoria(acertosMemoria)
+        .acertosPersistente(acertosBanco)
+        .consultasApi(chamadasApi)
+        .respostasNegativas(respostasNegativas.get())
+        .taxaAcerto(total > 0 ? (double) (acertosMemoria + acertosBanco) / total : 0)
+        .latenciaMediaApiMs(latenciaMediaMs)
+        .latenciaEconomizadaMs(Math.round((acertosMemoria + acertosBanco) * latenciaMediaMs))
+        .tamanhoMemoria(cache.synchronous().estimatedSize())
+        .build();
+  }
+
+  /** Remove todos os CEPs do cache em memória (o cache persistente é mantido). */
+  public void limparMemoria() {
+    cache.synchronous().invalidateAll();
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  /**
+   * Lê o CEP do cache em memória. Em caso de falta, esta thread instala um future e carrega o valor
+   * fora do {@code compute} do Caffeine; quem chega durante a carga aguarda o mesmo future. Um
+   * resultado null não fica no cache.
+   */
+  private Entrada obter(String cepLimpo, ConsultaViaCepEvento evento) {
+    CompletableFuture<Entrada> novo = new CompletableFuture<>();
+    CompletableFuture<Entrada> atual = cache.get(cepLimpo, (c, executor) -> novo);
+    if (atual != novo) {
+      try {
+        return atual.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException causa) {
+          throw causa;
+        }
+        if (e.getCause() instanceof Error erro) {
+          throw erro;
+        }
+        throw e;
+      }
+    }
+
+    try {
+      Entrada entrada = carregar(cepLimpo, evento);
+      novo.complete(entrada);
+      return entrada;
+    } catch (Throwable e) {
+      // Inclusive Error: um future incompleto no cache travaria as próximas leituras do CEP
+      novo.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Carrega o CEP do cache persistente ou, se ausente/expirado, da API ViaCEP. Retorna null em caso
+   * de falha sem registro persistido, para que nada seja armazenado em memória. O nível que
+   * respondeu e o status HTTP ficam no evento JFR da consulta.
+   */
+  private Entrada carregar(String cepLimpo, ConsultaViaCepEvento evento) {
+    LocalDateTime agora = LocalDateTime.now();
+    Optional<CepConsultado> persistido = buscarPersistido(cepLimpo);
+
+    if (persistido.isPresent() && persistido.get().isValido(ttl, ttlNegativo, agora)) {
+      acertosPersistente.incrementAndGet();
+      evento.resultado = ConsultaViaCepEvento.PERSISTENTE;
+      return new Entrada(persistido.get().toDto(), false);
+    }
+
+    ViaCepResponseDto resposta;
+    long inicio = System.nanoTime();
+    try {
+      consultasApi.incrementAndGet();
+      resposta = viaCepService.consultarViaCep(cepLimpo);
+      evento.resultado = ConsultaViaCepEvento.API;
+      evento.statusHttp = HttpStatus.OK.value();
+    } catch (RestClientException e) {
+      log.error("Erro ao consultar ViaCEP para CEP {}: {}", cepLimpo, e.getMessage());
+      if (e instanceof RestClientResponseException respostaErro) {
+        evento.statusHttp = respostaErro.getStatusCode().value();
+      }
+      if (persistido.isPresent()) {
+        log.warn("Usando registro expirado do cache persistente para CEP {}", cepLimpo);
+        evento.resultado = ConsultaViaCepEvento.PERSISTENTE_EXPIRADO;
+        return new Entrada(persistido.get().toDto(), true);
+      }
+      evento.resultado = ConsultaViaCepEvento.FALHA;
+      return null;
+    } finally {
+      tempoApiNanos.addAndGet(System.nanoTime() - inicio);
+    }
+
+    if (resposta == null) {
+      return null;
+    }
+
+    persistir(cepLimpo, persistido, resposta, agora);
+    return new Entrada(resposta, false);
+  }
+
+  private Optional<CepConsultado> buscarPersistido(String cepLimpo) {
+    try {
+      return cepConsultadoRepository.findByCep(cepLimpo);
+    } catch (DataAccessException e) {
+      log.warn("Cache persistente de CEPs indisponível: {}", e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /** Grava a resposta no cache persistente em transação própria; falhas são apenas registradas. */
+  private void persistir(
+      String cepLimpo,
+      Optional<CepConsultado> persistido,
+      ViaCepResponseDto resposta,
+      LocalDateTime agora) {
+    try {
+      novaTransacao.executeWithoutResult(
+          status -> {
+            CepConsultado registro = persistido.orElseGet(() -> new CepConsultado(cepLimpo));
+            registro.atualizar(resposta, agora);
+            cepConsultadoRepository.save(registro);
+          });
+    } catch (DataAccessException e) {
+      log.warn("Falha ao gravar CEP {} no cache persistente: {}", cepLimpo, e.getMessage());
+    }
+  }
+
+  /**
+   * Entrada do cache em memória; respostas negativas e registros expirados usados durante uma falha
+   * da API têm validade curta.
+   */
+  private record Entrada(ViaCepResponseDto resposta, boolean expirada) {
+
+    boolean isNegativa() {
+      return resposta.isErro();
+    }
+  }
+}
@@ -43,12 +43,7 @@ public class ViaCepService {
         return null;
       }
 
-      // Monta URL da API
-      String url = String.format(VIA_CEP_API_URL, cepLimpo);
-      logger.info("Consultando ViaCEP para CEP: {}", cepLimpo);
-
-      // Faz a requisição - ✅ USA O RESTTEMPLATE INJETADO
-      ViaCepResponseDto response = restTemplate.getForObject(url, ViaCepResponseDto.class);
+      ViaCepResponseDto response = consultarViaCep(cepLimpo);
 
       // Verifica se houve erro na resposta
       if (response != null && response.isErro()) {
@@ -74,6 +69,24 @@ public class ViaCepService {
     }
   }
 
+  /**
+   * Consulta a API ViaCEP sem tratamento da resposta. Respostas com {@code erro=true} são
+   * retornadas como vieram e falhas de comunicação são propagadas, permitindo ao chamador
+   * diferenciar CEP inexistente de indisponibilidade da API.
+   *
+   * @param cepLimpo CEP com 8 dígitos
+   * @return Resposta da API (pode ser null se a API não retornar corpo)
+   * @throws RestClientException em caso de falha na comunicação
+   */
+  public ViaCepResponseDto consultarViaCep(String cepLimpo) {
+    // Monta URL da API
+    String url = String.format(VIA_CEP_API_URL, cepLimpo);
+    logger.info("Consultando ViaCEP para CEP: {}", cepLimpo);
+
+    // Faz a requisição - ✅ USA O RESTTEMPLATE INJETADO
+    return restTemplate.getForObject(url, ViaCepResponseDto.class);
+  }
+
   /**
    * Converte ViaCepResponseDto para entidade Endereco do sistema.
    *
@@ -0,0 +1,32 @@
+-- =============================================================================
+-- 001 - Sequences para geração de IDs (MariaDB 10.3+)
+-- =============================================================================
+-- As entidades passaram de GenerationType.IDENTITY para SEQUENCE com otimizador
+-- pooled (blocos de 50 IDs), o que permite ao Hibernate agrupar inserts em lotes
+-- JDBC. Em bancos novos o ddl-auto cria as sequences; em bancos existentes, rode
+-- este script ANTES de subir a nova versão, para que as sequences comecem acima
+-- dos IDs já gravados.
+--
+-- O otimizador pooled trata o valor lido da sequence como o fim do bloco
+-- (valor - 49 até valor), por isso cada sequence começa em MAX(id) + 50.
+-- =============================================================================
+
+SET @inicio = (SELECT COALESCE(MAX(id), 0) + 50 FROM cliente);
+SET @ddl = CONCAT('CREATE SEQUENCE IF NOT EXISTS cliente_seq START WITH ', @inicio, ' INCREMENT BY 50');
+PREPARE criar FROM @ddl; EXECUTE criar; DEALLOCATE PREPARE criar;
+
+SET @inicio = (SELECT COALESCE(MAX(id), 0) + 50 FROM enderecos);
+SET @ddl = CONCAT('CREATE SEQUENCE IF NOT EXISTS enderecos_seq START WITH ', @inicio, ' INCREMENT BY 50');
+PREPARE criar FROM @ddl; EXECUTE criar; DEALLOCATE PREPARE criar;
+
+SET @inicio = (SELECT COALESCE(MAX(id), 0) + 50 FROM encomendas);
+SET @ddl = CONCAT('CREATE SEQUENCE IF NOT EXISTS encomendas_seq START WITH ', @inicio, ' INCREMENT BY 50');
+PREPARE criar FROM @ddl; EXECUTE criar; DEALLOCATE PREPARE criar;
+
+SET @inicio = (SELECT COALESCE(MAX(id), 0) + 50 FROM fretes);
+SET @ddl = CONCAT('CREATE SEQUENCE IF NOT EXISTS fretes_seq START WITH ', @inicio, ' INCREMENT BY 50');
+PREPARE criar FROM @ddl; EXECUTE criar; DEALLOCATE PREPARE criar;
+
+SET @inicio = (SELECT COALESCE(MAX(id), 0) + 50 FROM cep_cache);
+SET @ddl = CONCAT('CREATE SEQUENCE IF NOT EXISTS cep_cache_seq START WITH ', @inicio, ' INCREMENT BY 50');
+PREPARE criar FROM @ddl; EXECUTE criar; DEALLOCATE PREPARE criar;
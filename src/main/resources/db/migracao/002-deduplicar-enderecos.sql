@@ -0,0 +1,57 @@
+-- =============================================================================
+-- 002 - Remoção de endereços duplicados de encomendas (MariaDB 10.3+)
+-- =============================================================================
+-- Até esta versão cada encomenda gravava uma cópia nova do endereço de coleta e
+-- do destino. Agora origem e destinos sem cliente são reaproveitados pela chave
+-- normalizada: CEP (sem hífen), número e complemento (sem espaços nas bordas e
+-- em maiúsculas, complemento vazio = ausente).
+--
+-- Este script aponta as encomendas para o endereço mais antigo de cada chave e
+-- apaga as cópias. Endereços vinculados a um cliente não são alterados.
+-- =============================================================================
+
+START TRANSACTION;
+
+CREATE TEMPORARY TABLE endereco_chave AS
+SELECT id,
+       CONCAT_WS('|',
+                 REPLACE(TRIM(cep), '-', ''),
+                 UPPER(TRIM(numero)),
+                 COALESCE(UPPER(TRIM(complemento)), '')) AS chave
+FROM enderecos
+WHERE cliente_id IS NULL;
+
+CREATE TEMPORARY TABLE endereco_canonico AS
+SELECT chave, MIN(id) AS canonico
+FROM endereco_chave
+GROUP BY chave
+HAVING COUNT(*) > 1;
+
+CREATE TEMPORARY TABLE endereco_duplicado (
+  id BIGINT PRIMARY KEY,
+  canonico BIGINT NOT NULL
+);
+
+INSERT INTO endereco_duplicado (id, canonico)
+SELECT k.id, c.canonico
+FROM endereco_chave k
+JOIN endereco_canonico c ON c.chave = k.chave
+WHERE k.id <> c.canonico;
+
+UPDATE encomendas e
+JOIN endereco_duplicado d ON d.id = e.endereco_origem_id
+SET e.endereco_origem_id = d.canonico;
+
+UPDATE encomendas e
+JOIN endereco_duplicado d ON d.id = e.endereco_destino_id
+SET e.endereco_destino_id = d.canonico;
+
+DELETE e
+FROM enderecos e
+JOIN endereco_duplicado d ON d.id = e.id;
+
+COMMIT;
+
+DROP TEMPORARY TABLE endereco_duplicado;
+DROP TEMPORARY TABLE endereco_canonico;
+DROP TEMPORARY TABLE endereco_chave;
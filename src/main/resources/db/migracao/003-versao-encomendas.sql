@@ -0,0 +1,13 @@
+-- =============================================================================
+-- 003 - Coluna de versão das encomendas (MariaDB 10.3+)
+-- =============================================================================
+-- A encomenda passou a usar controle de concorrência otimista (@Version): cada
+-- UPDATE confere e incrementa a coluna versao, e uma transição concorrente que
+-- leu a versão anterior é recusada em vez de sobrescrever a outra.
+--
+-- O ddl-auto cria a coluna sem valor nas linhas existentes, e o Hibernate não
+-- aceita versão nula em uma entidade já gravada. Rode este script ANTES de subir
+-- a nova versão, para que as encomendas existentes comecem na versão 0.
+-- =============================================================================
+
+ALTER TABLE encomendas ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
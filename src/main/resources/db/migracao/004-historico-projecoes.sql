@@ -0,0 +1,39 @@
+-- =============================================================================
+-- 004 - Projeções de rastreamento e painel por status (MariaDB 10.3+)
+-- =============================================================================
+-- Cada criação, cotação de frete e mudança de status passou a gravar um evento
+-- em encomenda_eventos e a atualizar, na mesma transação, duas projeções de
+-- leitura: rastreamento_encomendas (consulta por código sem JOIN) e
+-- painel_status_encomendas (quantidade por status em fatias somadas na leitura,
+-- sem COUNT nas encomendas).
+--
+-- O ddl-auto cria as tabelas vazias, mas só as novas encomendas apareceriam
+-- nelas. Rode este script ANTES de subir a nova versão: ele cria as tabelas e as
+-- preenche a partir das encomendas existentes. O histórico de eventos começa
+-- vazio para as encomendas antigas.
+-- =============================================================================
+
+CREATE TABLE IF NOT EXISTS rastreamento_encomendas (
+    codigo VARCHAR(20) NOT NULL PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    valor_frete DECIMAL(10, 2),
+    prazo_dias INT,
+    atualizado_em DATETIME(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS painel_status_encomendas (
+    status VARCHAR(20) NOT NULL,
+    fatia INT NOT NULL,
+    quantidade BIGINT NOT NULL,
+    PRIMARY KEY (status, fatia)
+);
+
+INSERT IGNORE INTO rastreamento_encomendas (codigo, status, valor_frete, prazo_dias, atualizado_em)
+SELECT e.codigo, e.status, f.valor, f.prazo_dias, COALESCE(e.updated_at, e.created_at)
+FROM encomendas e
+LEFT JOIN fretes f ON f.encomenda_id = e.id;
+
+-- Recalcula as contagens na fatia 0; a aplicação cria as demais fatias zeradas
+DELETE FROM painel_status_encomendas;
+INSERT INTO painel_status_encomendas (status, fatia, quantidade)
+SELECT status, 0, COUNT(*) FROM encomendas GROUP BY status;
@@ -0,0 +1,16 @@
+-- =============================================================================
+-- 005 - Tentativas de cotação das encomendas (MariaDB 10.3+)
+-- =============================================================================
+-- A recuperação de cotações pendentes passou a contar as falhas de cada
+-- encomenda: após cada falha a próxima tentativa é adiada com espera
+-- exponencial (proxima_cotacao) e, esgotadas as tentativas (tentativas_cotacao),
+-- a encomenda deixa de ser recotada automaticamente.
+--
+-- O ddl-auto cria tentativas_cotacao sem valor nas linhas existentes, e a
+-- entidade não aceita contagem nula. Rode este script ANTES de subir a nova
+-- versão, para que as encomendas existentes comecem sem tentativas.
+-- =============================================================================
+
+ALTER TABLE encomendas
+    ADD COLUMN IF NOT EXISTS tentativas_cotacao INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS proxima_cotacao DATETIME(6) NULL;
@@ -0,0 +1,250 @@
+package br.com.cegonhaexpress.cegonha_express.carga;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.cegonhaexpress.cegonha_express.CegonhaExpressApplication;
+import br.com.cegonhaexpress.cegonha_express.config.MonitorPinning;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
+import br.com.cegonhaexpress.cegonha_express.service.GoogleMapsDistanceService;
+import br.com.cegonhaexpress.cegonha_express.service.ViaCepService;
+import com.google.maps.model.Distance;
+import com.google.maps.model.DistanceMatrix;
+import com.google.maps.model.DistanceMatrixElement;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import com.google.maps.model.DistanceMatrixRow;
+import com.google.maps.model.Duration;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Teste de carga da criação de encomendas: 1000 requisições simultâneas em {@code POST
+ * /api/encomendas}, com threads de plataforma e com threads virtuais.
+ *
+ * <p>Só as chamadas HTTP são simuladas, abaixo dos caches: cada requisição à Distance Matrix e à
+ * ViaCEP espera {@value #LATENCIA_EXTERNA_MS} ms e responde valores fixos. Lotes de distância,
+ * caches de rotas e de CEPs e cálculo do frete rodam como em produção. Banco H2 em memória, uma
+ * aplicação nova por modo. Mede vazão e latências (p50/p99) e, com threads virtuais, as fixações
+ * registradas pelo {@link MonitorPinning}.
+ *
+ * <p>Fica fora da suíte padrão (tag {@code carga}). Execução:
+ *
+ * <pre>./mvnw -Pcarga test</pre>
+ *
+ * @author Gabriel Coelho Soares
+ */
+@Tag("carga")
+@DisplayName("Carga - Criação de encomendas com threads de plataforma x virtuais")
+class CriacaoEncomendaCargaTest {
+
+  private static final int CONCORRENCIA = 1000;
+  private static final int AQUECIMENTO = 300;
+  private static final long LATENCIA_EXTERNA_MS = 100;
+
+  /** Corpo da requisição; cada encomenda tem um CEP de destino diferente. */
+  private static final String CORPO =
+      """
+      {
+        "enderecoDestino": {
+          "cep": "%05d-000",
+          "logradouro": "Praça da Sé",
+          "numero": "100",
+          "bairro": "Sé",
+          "cidade": "São Paulo",
+          "uf": "SP"
+        },
+        "tipoEntrega": "PADRAO",
+        "descricaoBebe": "Bebê reborn Alice, 50cm",
+        "pesoKg": 2.5,
+        "alturaCm": 50.0,
+        "valorDeclarado": 300.00
+      }
+      """;
+
+  /** Resultado de uma rodada de carga. */
+  private record Resultado(
+      String modo,
+      int sucessos,
+      double vazao,
+      double p50Ms,
+      double p99Ms,
+      long fixacoes,
+      Map<String, Long> fixacoesPorLocal) {}
+
+  /** Chamadas HTTP externas simuladas; registradas explicitamente, fora da varredura. */
+  static class ExternosSimulados {
+
+    @Bean
+    @Primary
+    GoogleMapsDistanceService googleMapsSimulado() {
+      return new GoogleMapsDistanceService(null) {
+        @Override
+        public DistanceMatrix consultarMatriz(String enderecoOrigem, String... enderecosDestino) {
+          esperarLatencia();
+          DistanceMatrixElement elemento = new DistanceMatrixElement();
+          elemento.status = DistanceMatrixElementStatus.OK;
+          elemento.distance = new Distance();
+          elemento.distance.inMeters = 150_000;
+          elemento.duration = new Duration();
+          elemento.duration.inSeconds = 3 * 60 * 60;
+          DistanceMatrixElement[] elementos = new DistanceMatrixElement[enderecosDestino.length];
+          Arrays.fill(elementos, elemento);
+          DistanceMatrixRow linha = new DistanceMatrixRow();
+          linha.elements = elementos;
+          return new DistanceMatrix(
+              new String[] {enderecoOrigem}, enderecosDestino, new DistanceMatrixRow[] {linha});
+        }
+      };
+    }
+
+    @Bean
+    @Primary
+    ViaCepService viaCepSimulado() {
+      return new ViaCepService(null) {
+        @Override
+        public ViaCepResponseDto consultarViaCep(String cepLimpo) {
+          esperarLatencia();
+          ViaCepResponseDto resposta = new ViaCepResponseDto();
+          resposta.setCep(cepLimpo.substring(0, 5) + "-" + cepLimpo.substring(5));
+          resposta.setLogradouro("Rua Ariovaldo Silveira Franco");
+          resposta.setBairro("Jardim 31 de Março");
+          resposta.setLocalidade("Mogi Mirim");
+          resposta.setUf("SP");
+          return resposta;
+        }
+      };
+    }
+
+    private static void esperarLatencia() {
+      try {
+        Thread.sleep(LATENCIA_EXTERNA_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Deve criar 1000 encomendas simultâneas nos dois modos e comparar a vazão")
+  void deveCompararVazaoEntreModos() throws Exception {
+    Resultado plataforma = executar(false);
+    Resultado virtual = executar(true);
+
+    System.out.println("\n=== CARGA: " + CONCORRENCIA + " criações simultâneas ===");
+    for (Resultado resultado : List.of(plataforma, virtual)) {
+      System.out.printf(
+          "%-10s sucessos=%d vazao=%.0f/s p50=%.1fms p99=%.1fms fixacoes=%d %s%n",
+          resultado.modo(),
+          resultado.sucessos(),
+          resultado.vazao(),
+          resultado.p50Ms(),
+          resultado.p99Ms(),
+          resultado.fixacoes(),
+          resultado.fixacoesPorLocal());
+    }
+
+    assertThat(plataforma.sucessos()).isEqualTo(CONCORRENCIA);
+    assertThat(virtual.sucessos()).isEqualTo(CONCORRENCIA);
+  }
+
+  // ==================== MÉTODOS PRIVADOS ====================
+
+  private Resultado executar(boolean threadsVirtuais) throws Exception {
+    try (ConfigurableApplicationContext contexto =
+        new SpringApplicationBuilder(CegonhaExpressApplication.class, ExternosSimulados.class)
+            .properties(
+                "spring.profiles.active=test",
+                "server.port=0",
+                "spring.threads.virtual.enabled=" + threadsVirtuais,
+                "spring.datasource.url=jdbc:h2:mem:carga-" + threadsVirtuais,
+                "spring.main.allow-bean-definition-overriding=true",
+                "google.maps.api.key=carga",
+                "logging.level.br.com.cegonhaexpress=WARN")
+            .run()) {
+      URI uri =
+          URI.create(
+              "http://localhost:"
+                  + contexto.getEnvironment().getProperty("local.server.port")
+                  + "/api/encomendas");
+
+      try (HttpClient cliente =
+              HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+          ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+        disparar(cliente, clientes, uri, AQUECIMENTO, 0);
+
+        MonitorPinning monitor = contexto.getBeanProvider(MonitorPinning.class).getIfAvailable();
+        long fixacoesAntes = monitor != null ? monitor.getOcorrencias() : 0;
+
+        long inicio = System.nanoTime();
+        List<long[]> medicoes = disparar(cliente, clientes, uri, CONCORRENCIA, AQUECIMENTO);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long[] latencias =
+            medicoes.stream().filter(m -> m[0] == 201).mapToLong(m -> m[1]).sorted().toArray();
+        return new Resultado(
+            threadsVirtuais ? "virtual" : "plataforma",
+            latencias.length,
+            latencias.length / segundos,
+            percentil(latencias, 0.50),
+            percentil(latencias, 0.99),
+            monitor != null ? monitor.getOcorrencias() - fixacoesAntes : 0,
+            monitor != null ? monitor.getOcorrenciasPorLocal() : Map.of());
+      }
+    }
+  }
+
+  /** Dispara as requisições todas juntas e retorna [status, latência em ns] de cada uma. */
+  private List<long[]> disparar(
+      HttpClient cliente, ExecutorService clientes, URI uri, int quantidade, int deslocamento)
+      throws Exception {
+    CountDownLatch largada = new CountDownLatch(1);
+    List<Future<long[]>> futuros = new ArrayList<>(quantidade);
+    for (int i = 0; i < quantidade; i++) {
+      HttpRequest requisicao =
+          HttpRequest.newBuilder(uri)
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString(CORPO.formatted(10000 + deslocamento + i)))
+              .build();
+      futuros.add(
+          clientes.submit(
+              () -> {
+                largada.await();
+                long inicio = System.nanoTime();
+                HttpResponse<Void> resposta =
+                    cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                return new long[] {resposta.statusCode(), System.nanoTime() - inicio};
+              }));
+    }
+    largada.countDown();
+
+    List<long[]> medicoes = new ArrayList<>(quantidade);
+    for (Future<long[]> futuro : futuros) {
+      medicoes.add(futuro.get());
+    }
+    return medicoes;
+  }
+
+  private static double percentil(long[] ordenadas, double fracao) {
+    if (ordenadas.length == 0) {
+      return Double.NaN;
+    }
+    int indice = (int) Math.ceil(fracao * ordenadas.length) - 1;
+    return ordenadas[Math.max(0, indice)] / 1e6;
+  }
+}
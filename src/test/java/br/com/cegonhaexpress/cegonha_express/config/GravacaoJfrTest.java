@@ -0,0 +1,64 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Testes da gravação JFR contínua e do perfil de eventos empacotado.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("GravacaoJfr - Gravação contínua com o perfil da aplicação")
+class GravacaoJfrTest {
+
+  @Test
+  @DisplayName("Perfil empacotado deve habilitar todos os eventos da aplicação")
+  void perfilDeveHabilitarEventosDaAplicacao() throws Exception {
+    assertThat(GravacaoJfr.perfil().getSettings())
+        .containsEntry("cegonha.ConsultaViaCep#enabled", "true")
+        .containsEntry("cegonha.ConsultaDistanceMatrix#enabled", "true")
+        .containsEntry("cegonha.CalculoFrete#enabled", "true")
+        .containsEntry("cegonha.TransacaoEncomenda#enabled", "true");
+  }
+
+  @Test
+  @DisplayName("Deve gravar o arquivo ao encerrar com os cálculos de frete")
+  void deveGravarArquivoAoEncerrar(@TempDir Path diretorio) throws Exception {
+    Path arquivo = diretorio.resolve("gravacao/cegonha.jfr");
+    GravacaoJfr gravacao =
+        new GravacaoJfr(arquivo, Duration.ofMinutes(5), DataSize.ofMegabytes(50));
+    gravacao.iniciar();
+    BigDecimal valor;
+    try {
+      valor =
+          Frete.calcularFrete(TipoEntrega.PADRAO, new BigDecimal("150.0"), new BigDecimal("2.5"));
+    } finally {
+      gravacao.encerrar();
+    }
+
+    List<RecordedEvent> calculos =
+        RecordingFile.readAllEvents(arquivo).stream()
+            .filter(evento -> evento.getEventType().getName().equals("cegonha.CalculoFrete"))
+            .toList();
+    assertThat(calculos)
+        .anySatisfy(
+            evento -> {
+              assertThat(evento.getString("tipoEntrega")).isEqualTo("PADRAO");
+              assertThat(evento.getDouble("distanciaKm")).isEqualTo(150.0);
+              assertThat(evento.getDouble("pesoKg")).isEqualTo(2.5);
+              assertThat(evento.getDouble("valor")).isEqualTo(valor.doubleValue());
+            });
+  }
+}
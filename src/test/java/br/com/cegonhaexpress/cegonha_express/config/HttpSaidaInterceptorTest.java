@@ -0,0 +1,176 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+/**
+ * Testes do limite de requisições simultâneas e das métricas por host do cliente HTTP de saída.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("HttpSaidaInterceptor - Limite e Métricas por Host")
+class HttpSaidaInterceptorTest {
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private static MockClientHttpRequest requisicao(String url) {
+    return new MockClientHttpRequest(HttpMethod.GET, URI.create(url));
+  }
+
+  private static ClientHttpRequestExecution responderCom(HttpStatus status) {
+    return (request, body) -> new MockClientHttpResponse(new byte[0], status);
+  }
+
+  private HttpSaidaInterceptor criar(int maxPorHost, Duration esperaMaxima) {
+    HttpSaidaInterceptor interceptor = new HttpSaidaInterceptor(maxPorHost, esperaMaxima);
+    interceptor.bindTo(registry);
+    return interceptor;
+  }
+
+  private static void chamar(HttpSaidaInterceptor interceptor, String url, HttpStatus status)
+      throws IOException {
+    interceptor.intercept(requisicao(url), new byte[0], responderCom(status)).close();
+  }
+
+  private double contador(String nome, String host) {
+    return registry.get(nome).tag("host", host).functionCounter().count();
+  }
+
+  private static void aguardar(CountDownLatch latch) throws IOException {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve registrar requisições e falhas separadamente por host")
+  void deveRegistrarMetricasPorHost() throws IOException {
+    HttpSaidaInterceptor interceptor = criar(5, Duration.ofMillis(100));
+
+    chamar(interceptor, "https://viacep.com.br/ws/01001000/json/", HttpStatus.OK);
+    chamar(interceptor, "https://viacep.com.br/ws/99999999/json/", HttpStatus.BAD_REQUEST);
+    chamar(interceptor, "https://httpbin.org/status/200", HttpStatus.OK);
+
+    assertThat(contador(HttpSaidaInterceptor.REQUISICOES, "viacep.com.br")).isEqualTo(2);
+    assertThat(contador(HttpSaidaInterceptor.FALHAS, "viacep.com.br")).isEqualTo(1);
+    assertThat(
+            registry
+                .get(HttpSaidaInterceptor.EM_ANDAMENTO)
+                .tag("host", "viacep.com.br")
+                .gauge()
+                .value())
+        .isZero();
+    assertThat(
+            registry
+                .get(HttpSaidaInterceptor.LATENCIA)
+                .tag("host", "viacep.com.br")
+                .timer()
+                .count())
+        .isEqualTo(2);
+    assertThat(contador(HttpSaidaInterceptor.FALHAS, "httpbin.org")).isZero();
+  }
+
+  @Test
+  @DisplayName("Deve manter a vaga e medir a latência até o fechamento da resposta")
+  void deveManterVagaAteFecharResposta() throws IOException {
+    HttpSaidaInterceptor interceptor = criar(1, Duration.ofMillis(50));
+
+    ClientHttpResponse resposta =
+        interceptor.intercept(
+            requisicao("https://viacep.com.br/ws/01001000/json/"),
+            new byte[0],
+            responderCom(HttpStatus.OK));
+
+    // O corpo ainda não foi lido: a vaga continua ocupada
+    assertThat(
+            registry
+                .get(HttpSaidaInterceptor.EM_ANDAMENTO)
+                .tag("host", "viacep.com.br")
+                .gauge()
+                .value())
+        .isEqualTo(1);
+    assertThatThrownBy(
+            () -> chamar(interceptor, "https://viacep.com.br/ws/13801005/json/", HttpStatus.OK))
+        .isInstanceOf(IOException.class);
+    assertThat(
+            registry
+                .get(HttpSaidaInterceptor.LATENCIA)
+                .tag("host", "viacep.com.br")
+                .timer()
+                .count())
+        .isZero();
+
+    resposta.close();
+    resposta.close();
+
+    assertThat(contador(HttpSaidaInterceptor.REQUISICOES, "viacep.com.br")).isEqualTo(1);
+    assertThat(
+            registry
+                .get(HttpSaidaInterceptor.LATENCIA)
+                .tag("host", "viacep.com.br")
+                .timer()
+                .count())
+        .isEqualTo(1);
+    chamar(interceptor, "https://viacep.com.br/ws/13801005/json/", HttpStatus.OK);
+    assertThat(contador(HttpSaidaInterceptor.REQUISICOES, "viacep.com.br")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve falhar quando o limite por host não libera vaga a tempo")
+  void deveLimitarRequisicoesSimultaneasPorHost() throws Exception {
+    HttpSaidaInterceptor interceptor = criar(1, Duration.ofMillis(50));
+    CountDownLatch emExecucao = new CountDownLatch(1);
+    CountDownLatch liberar = new CountDownLatch(1);
+
+    CompletableFuture<Void> primeira =
+        CompletableFuture.runAsync(
+            () -> {
+              try {
+                interceptor
+                    .intercept(
+                        requisicao("https://viacep.com.br/ws/01001000/json/"),
+                        new byte[0],
+                        (request, body) -> {
+                          emExecucao.countDown();
+                          aguardar(liberar);
+                          return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+                        })
+                    .close();
+              } catch (IOException e) {
+                throw new RuntimeException(e);
+              }
+            });
+    emExecucao.await();
+
+    assertThatThrownBy(
+            () -> chamar(interceptor, "https://viacep.com.br/ws/13801005/json/", HttpStatus.OK))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("viacep.com.br");
+
+    // Outro host não é afetado pelo limite
+    chamar(interceptor, "https://httpbin.org/status/200", HttpStatus.OK);
+
+    liberar.countDown();
+    primeira.join();
+
+    assertThat(contador(HttpSaidaInterceptor.ESPERAS, "viacep.com.br")).isEqualTo(1);
+    assertThat(contador(HttpSaidaInterceptor.REQUISICOES, "viacep.com.br")).isEqualTo(1);
+  }
+}
@@ -0,0 +1,85 @@
+package br.com.cegonhaexpress.cegonha_express.config;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do diagnóstico de pinning de threads virtuais via JFR.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("MonitorPinning - Diagnóstico de threads virtuais fixadas")
+class MonitorPinningTest {
+
+  private final Object monitor = new Object();
+  private MonitorPinning monitorPinning;
+
+  @BeforeEach
+  void setUp() {
+    monitorPinning = new MonitorPinning(Duration.ofMillis(20));
+    monitorPinning.iniciar();
+  }
+
+  @AfterEach
+  void tearDown() {
+    monitorPinning.encerrar();
+  }
+
+  /** Bloqueia dentro de synchronized, o que fixa a thread virtual à portadora. */
+  private void bloquearDentroDeSynchronized() {
+    synchronized (monitor) {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Aguarda o fluxo JFR entregar os eventos (são publicados em blocos de até 1 segundo). */
+  private void aguardarOcorrencias(long esperadas) throws InterruptedException {
+    long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+    while (monitorPinning.getOcorrencias() < esperadas && System.nanoTime() < limite) {
+      Thread.sleep(100);
+    }
+  }
+
+  @Test
+  @DisplayName("Deve registrar fixação acima do limiar com o local de origem")
+  void deveRegistrarFixacaoAcimaDoLimiar() throws InterruptedException {
+    Thread.ofVirtual().start(this::bloquearDentroDeSynchronized).join();
+
+    aguardarOcorrencias(1);
+
+    assertThat(monitorPinning.getOcorrencias()).isGreaterThanOrEqualTo(1);
+    assertThat(monitorPinning.getOcorrenciasPorLocal())
+        .containsKey(MonitorPinningTest.class.getName() + ".bloquearDentroDeSynchronized");
+  }
+
+  @Test
+  @DisplayName("Não deve registrar bloqueio de thread virtual fora de synchronized")
+  void naoDeveRegistrarBloqueioSemFixacao() throws InterruptedException {
+    Thread.ofVirtual()
+        .start(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            })
+        .join();
+    // Uma fixação real serve de marcador de que o fluxo já entregou os eventos anteriores
+    Thread.ofVirtual().start(this::bloquearDentroDeSynchronized).join();
+
+    aguardarOcorrencias(1);
+
+    assertThat(monitorPinning.getOcorrencias()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,39 @@
+package br.com.cegonhaexpress.cegonha_express.dto.result;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Testes do cursor da paginação por chave das encomendas.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("CursorEncomenda - Codificação do cursor de paginação")
+class CursorEncomendaTest {
+
+  @Test
+  @DisplayName("Deve decodificar exatamente o cursor codificado")
+  void deveFazerIdaEVolta() {
+    CursorEncomenda cursor =
+        new CursorEncomenda(LocalDateTime.of(2025, 6, 5, 14, 30, 0, 123_456_000), 42L);
+
+    String codificado = cursor.codificar();
+
+    assertThat(codificado).matches("[A-Za-z0-9_-]+");
+    assertThat(CursorEncomenda.decodificar(codificado)).isEqualTo(cursor);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"???", "bWFsZm9ybWFkbw", "MjAyNS0wNi0wNVQxNDozMDowMA", "fDQy"})
+  @DisplayName("Deve rejeitar cursor malformado com IllegalArgumentException")
+  void deveRejeitarCursorMalformado(String cursor) {
+    assertThatThrownBy(() -> CursorEncomenda.decodificar(cursor))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Cursor de paginação inválido");
+  }
+}
@@ -0,0 +1,119 @@
+package br.com.cegonhaexpress.cegonha_express.model.codigo;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do gerador de códigos de rastreamento.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("GeradorCodigoRastreamento - Códigos únicos e ordenados")
+class GeradorCodigoRastreamentoTest {
+
+  private static final long AGORA = GeradorCodigoRastreamento.EPOCA_MS + 500L * 24 * 3600 * 1000;
+
+  @Test
+  @DisplayName("Deve gerar códigos únicos entre threads e nós simulados")
+  void deveGerarCodigosUnicosEntreThreadsENos() throws Exception {
+    // Relógio parado: pior caso, todos os códigos disputam o mesmo milissegundo
+    int nos = 4;
+    int threadsPorNo = 8;
+    int codigosPorThread = 5_000;
+    List<GeradorCodigoRastreamento> geradores = new ArrayList<>();
+    for (int no = 0; no < nos; no++) {
+      geradores.add(new GeradorCodigoRastreamento(no, () -> AGORA));
+    }
+
+    Set<String> codigos = ConcurrentHashMap.newKeySet();
+    CountDownLatch largada = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(nos * threadsPorNo);
+    try {
+      List<Future<?>> tarefas = new ArrayList<>();
+      for (GeradorCodigoRastreamento gerador : geradores) {
+        for (int t = 0; t < threadsPorNo; t++) {
+          tarefas.add(
+              executor.submit(
+                  () -> {
+                    largada.await();
+                    for (int i = 0; i < codigosPorThread; i++) {
+                      codigos.add(gerador.proximo());
+                    }
+                    return null;
+                  }));
+        }
+      }
+      largada.countDown();
+      for (Future<?> tarefa : tarefas) {
+        tarefa.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(codigos).hasSize(nos * threadsPorNo * codigosPorThread);
+    assertThat(codigos)
+        .allSatisfy(
+            codigo ->
+                assertThat(codigo).matches("^CE\\d+$").hasSize(GeradorCodigoRastreamento.TAMANHO));
+  }
+
+  @Test
+  @DisplayName("Deve gerar códigos crescentes mesmo com relógio voltando no tempo")
+  void deveGerarCodigosCrescentes() {
+    AtomicLong relogio = new AtomicLong(AGORA);
+    GeradorCodigoRastreamento gerador = new GeradorCodigoRastreamento(7, relogio::get);
+
+    String anterior = gerador.proximo();
+    for (int i = 0; i < 10_000; i++) {
+      // Avança, repete e retrocede o relógio
+      relogio.addAndGet(i % 3 == 0 ? 1 : i % 3 == 1 ? 0 : -2);
+      String atual = gerador.proximo();
+      assertThat(atual).isGreaterThan(anterior);
+      anterior = atual;
+    }
+  }
+
+  @Test
+  @DisplayName("Deve distinguir nós diferentes no mesmo instante")
+  void deveDistinguirNos() {
+    String noZero = new GeradorCodigoRastreamento(0, () -> AGORA).proximo();
+    String noMaximo =
+        new GeradorCodigoRastreamento(GeradorCodigoRastreamento.MAX_NO, () -> AGORA).proximo();
+
+    assertThat(noZero).isNotEqualTo(noMaximo);
+    // Mesmo milissegundo: apenas os dígitos finais (nó e sequência) diferem
+    assertThat(noZero.substring(0, 12)).isEqualTo(noMaximo.substring(0, 12));
+  }
+
+  @Test
+  @DisplayName("Deve caber na coluna no limite da faixa de tempo")
+  void deveCaberNaColunaNoLimiteDoTempo() {
+    long limite = GeradorCodigoRastreamento.EPOCA_MS + (1L << 41) - 1;
+    String codigo =
+        new GeradorCodigoRastreamento(GeradorCodigoRastreamento.MAX_NO, () -> limite).proximo();
+
+    assertThat(codigo).matches("^CE\\d{18}$");
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar número de nó fora do intervalo")
+  void deveRejeitarNoInvalido() {
+    assertThatThrownBy(() -> new GeradorCodigoRastreamento(-1, () -> AGORA))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(
+            () -> new GeradorCodigoRastreamento(GeradorCodigoRastreamento.MAX_NO + 1, () -> AGORA))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -175,6 +175,10 @@ class EncomendaTest {
 
       assertNotNull(encomenda.getDataPedido());
       assertEquals(StatusEncomenda.PENDENTE, encomenda.getStatus());
+      // Construtor padrão também é usado pelo JPA: o código só é gerado ao persistir
+      assertNull(encomenda.getCodigo());
+
+      encomenda.onCreate();
       assertNotNull(encomenda.getCodigo());
       assertTrue(encomenda.getCodigo().startsWith("CE"));
 
@@ -666,6 +670,9 @@ class EncomendaTest {
 
       assertNotNull(encomenda.getDataPedido());
       assertEquals(StatusEncomenda.PENDENTE, encomenda.getStatus());
+      assertNull(encomenda.getCodigo());
+
+      encomenda.onCreate();
       assertNotNull(encomenda.getCodigo());
       assertFalse(encomenda.getCodigo().trim().isEmpty());
       assertTrue(encomenda.getCodigo().startsWith("CE"));
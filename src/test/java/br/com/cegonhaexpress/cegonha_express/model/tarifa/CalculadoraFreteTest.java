@@ -0,0 +1,131 @@
+package br.com.cegonhaexpress.cegonha_express.model.tarifa;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Testes de equivalência do motor tarifário em ponto fixo com o cálculo original em BigDecimal.
+ *
+ * <p>O cálculo de referência reproduz exatamente a implementação anterior de {@code
+ * Frete.calcularFrete} (constantes em BigDecimal, multiplicação, soma e setScale HALF_UP). Entradas
+ * aleatórias são geradas com semente fixa para que falhas sejam reproduzíveis.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("CalculadoraFrete - Equivalência com o cálculo em BigDecimal")
+class CalculadoraFreteTest {
+
+  private static final long SEMENTE = 20250605L;
+  private static final int AMOSTRAS = 20_000;
+
+  /** Implementação original do cálculo do frete, usada como oráculo. */
+  private static BigDecimal referencia(TipoEntrega tipo, BigDecimal distancia, BigDecimal peso) {
+    BigDecimal valorBase;
+    BigDecimal taxaKm;
+    BigDecimal taxaPeso;
+    switch (tipo) {
+      case EXPRESSA -> {
+        valorBase = new BigDecimal("25.00");
+        taxaKm = new BigDecimal("1.50");
+        taxaPeso = new BigDecimal("2.00");
+      }
+      case PADRAO -> {
+        valorBase = new BigDecimal("15.00");
+        taxaKm = new BigDecimal("1.00");
+        taxaPeso = new BigDecimal("1.50");
+      }
+      default -> {
+        valorBase = new BigDecimal("10.00");
+        taxaKm = new BigDecimal("0.75");
+        taxaPeso = new BigDecimal("1.00");
+      }
+    }
+    return valorBase
+        .add(distancia.multiply(taxaKm))
+        .add(peso.multiply(taxaPeso))
+        .setScale(2, RoundingMode.HALF_UP);
+  }
+
+  /** Gera um decimal aleatório com escala entre 0 e 5 (acima da escala máxima do ponto fixo). */
+  private static BigDecimal decimalAleatorio(Random random, long limiteSemEscala) {
+    int escala = random.nextInt(6);
+    long semEscala = Math.floorMod(random.nextLong(), limiteSemEscala);
+    return BigDecimal.valueOf(semEscala, escala);
+  }
+
+  @ParameterizedTest
+  @EnumSource(TipoEntrega.class)
+  @DisplayName("Deve produzir exatamente o mesmo valor que o cálculo em BigDecimal")
+  void deveSerEquivalenteAoCalculoEmBigDecimal(TipoEntrega tipo) {
+    Random random = new Random(SEMENTE + tipo.ordinal());
+
+    for (int i = 0; i < AMOSTRAS; i++) {
+      BigDecimal distancia = decimalAleatorio(random, 100_000_000L);
+      BigDecimal peso = decimalAleatorio(random, 1_000_000L);
+
+      BigDecimal esperado = referencia(tipo, distancia, peso);
+      BigDecimal obtido = CalculadoraFrete.calcular(tipo, distancia, peso);
+
+      assertThat(obtido)
+          .as("tipo=%s distancia=%s peso=%s", tipo, distancia, peso)
+          .isEqualTo(esperado);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(TipoEntrega.class)
+  @DisplayName("Deve arredondar empates para cima (HALF_UP), inclusive com valores negativos")
+  void deveArredondarEmpatesComoHalfUp(TipoEntrega tipo) {
+    String[] casos = {"0.005", "0.015", "0.125", "1.995", "-0.005", "-20.335", "142.5", "0"};
+
+    for (String distancia : casos) {
+      for (String peso : casos) {
+        BigDecimal d = new BigDecimal(distancia);
+        BigDecimal p = new BigDecimal(peso);
+        assertThat(CalculadoraFrete.calcular(tipo, d, p))
+            .as("tipo=%s distancia=%s peso=%s", tipo, d, p)
+            .isEqualTo(referencia(tipo, d, p));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Deve recorrer ao BigDecimal para escala negativa ou valores que estouram long")
+  void deveRecorrerAoBigDecimalForaDoPontoFixo() {
+    BigDecimal escalaNegativa = new BigDecimal("1E+3");
+    BigDecimal enorme = new BigDecimal("999999999999999999.999");
+
+    assertThat(CalculadoraFrete.calcular(TipoEntrega.EXPRESSA, escalaNegativa, BigDecimal.ONE))
+        .isEqualTo(referencia(TipoEntrega.EXPRESSA, escalaNegativa, BigDecimal.ONE));
+    assertThat(CalculadoraFrete.calcular(TipoEntrega.PADRAO, enorme, enorme))
+        .isEqualTo(referencia(TipoEntrega.PADRAO, enorme, enorme));
+  }
+
+  @Test
+  @DisplayName("Deve calcular em centavos a partir de valores sem escala")
+  void deveCalcularEmCentavos() {
+    // 142,5 km e 2,5 kg na entrega padrão: 15,00 + 142,50 + 3,75 = 161,25
+    assertThat(CalculadoraFrete.calcularCentavos(TipoEntrega.PADRAO, 1425, 1, 25, 1))
+        .isEqualTo(16125L);
+    // 10,333 km e 1 kg na econômica: 10,00 + 7,74975 + 1,00 = 18,74975 -> 18,75
+    assertThat(CalculadoraFrete.calcularCentavos(TipoEntrega.ECONOMICA, 10333, 3, 1, 0))
+        .isEqualTo(1875L);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar escala fora do intervalo do ponto fixo")
+  void deveRejeitarEscalaInvalida() {
+    assertThatThrownBy(() -> CalculadoraFrete.calcularCentavos(TipoEntrega.PADRAO, 1, 4, 1, 0))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> CalculadoraFrete.calcularCentavos(TipoEntrega.PADRAO, 1, 0, 1, -1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
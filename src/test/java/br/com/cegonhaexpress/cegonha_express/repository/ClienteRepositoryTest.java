@@ -736,8 +736,7 @@ class ClienteRepositoryTest {
       assertThrows(
           DataIntegrityViolationException.class,
           () -> {
-            clienteRepository.save(clienteComCpfDuplicado);
-            entityManager.flush(); // Força execução
+            clienteRepository.saveAndFlush(clienteComCpfDuplicado); // Força execução
           });
 
       System.out.println("✅ Exceção lançada corretamente para CPF duplicado");
@@ -801,6 +800,7 @@ class ClienteRepositoryTest {
       Cliente clienteSalvo = clienteRepository.save(clienteTeste2);
 
       // Clear do EntityManager para forçar nova busca
+      entityManager.flush();
       entityManager.clear();
 
       // When
@@ -2,16 +2,25 @@ package br.com.cegonhaexpress.cegonha_express.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import br.com.cegonhaexpress.cegonha_express.dto.result.EncomendaResumoResult;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
 import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
 import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
 import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
 import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 @DataJpaTest
 @DisplayName("EncomendaRepository - Testes de Persistência e Consultas")
@@ -301,6 +311,82 @@ class EncomendaRepositoryTest {
 
       System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
     }
+
+    @Test
+    @DisplayName("Deve encontrar pendentes sem frete gravadas antes do limite, com os endereços")
+    void deveEncontrarPendentesSemFrete() {
+      System.out.println("\n🧪 TESTE: Buscar pendentes sem frete para recuperar a cotação");
+
+      // Given - uma pendente sem frete, uma pendente com frete e uma confirmada sem frete
+      encomendaRepository.save(encomendaTeste1);
+      encomendaRepository.save(encomendaTeste2);
+      entityManager.persist(
+          new Frete(
+              encomendaTeste2,
+              TipoEntrega.PADRAO,
+              new BigDecimal("45.50"),
+              new BigDecimal("12.0"),
+              3));
+      encomendaTeste3.confirmar();
+      encomendaRepository.save(encomendaTeste3);
+      entityManager.flush();
+      entityManager.clear();
+
+      // When
+      List<Encomenda> pendentes =
+          encomendaRepository.findPendentesSemFrete(
+              LocalDateTime.now().plusSeconds(1), LocalDateTime.now(), 5, Limit.of(10));
+      List<Encomenda> recentes =
+          encomendaRepository.findPendentesSemFrete(
+              LocalDateTime.now().minusMinutes(5), LocalDateTime.now(), 5, Limit.of(10));
+
+      // Then
+      assertEquals(1, pendentes.size());
+      assertEquals(encomendaTeste1.getCodigo(), pendentes.get(0).getCodigo());
+      assertEquals("01001000", pendentes.get(0).getEnderecoDestino().getCepLimpo());
+      assertTrue(recentes.isEmpty());
+      System.out.println("✅ Só a pendente sem frete encontrada, com endereços carregados");
+
+      System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
+    }
+
+    @Test
+    @DisplayName(
+        "Deve adiar pendentes cuja cotação falhou e ignorar as que esgotaram as tentativas")
+    void deveRespeitarEsperaETentativasDaCotacao() {
+      System.out.println("\n🧪 TESTE: Espera e limite de tentativas da recuperação de cotações");
+
+      // Given - uma pendente nova, uma em espera após falha e uma que esgotou as tentativas
+      encomendaTeste2.registrarFalhaCotacao(Duration.ofMinutes(5), Duration.ofHours(6));
+      for (int i = 0; i < 3; i++) {
+        encomendaTeste3.registrarFalhaCotacao(Duration.ofSeconds(1), Duration.ofSeconds(1));
+      }
+      encomendaTeste3.setProximaCotacao(LocalDateTime.now().minusMinutes(1));
+      encomendaRepository.save(encomendaTeste1);
+      encomendaRepository.save(encomendaTeste2);
+      encomendaRepository.save(encomendaTeste3);
+      entityManager.flush();
+      entityManager.clear();
+
+      // When
+      LocalDateTime gravadasAntes = LocalDateTime.now().plusSeconds(1);
+      List<Encomenda> agora =
+          encomendaRepository.findPendentesSemFrete(
+              gravadasAntes, LocalDateTime.now(), 3, Limit.of(10));
+      List<Encomenda> depoisDaEspera =
+          encomendaRepository.findPendentesSemFrete(
+              gravadasAntes, LocalDateTime.now().plusMinutes(6), 3, Limit.of(10));
+
+      // Then
+      assertEquals(
+          List.of(encomendaTeste1.getCodigo()), agora.stream().map(Encomenda::getCodigo).toList());
+      assertEquals(
+          List.of(encomendaTeste1.getCodigo(), encomendaTeste2.getCodigo()),
+          depoisDaEspera.stream().map(Encomenda::getCodigo).toList());
+      System.out.println("✅ Em espera só após o prazo; tentativas esgotadas ignoradas");
+
+      System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
+    }
   }
 
   @Nested
@@ -535,6 +621,141 @@ class EncomendaRepositoryTest {
     }
   }
 
+  @Nested
+  @DisplayName("Testes de Projeção de Listagem")
+  class TestesProjecaoListagem {
+
+    @Test
+    @DisplayName("Deve listar resumos com frete em uma única consulta")
+    void deveListarResumosEmUmaUnicaConsulta() {
+      System.out.println("\n🧪 TESTE: Projeção de listagem sem N+1");
+
+      // Given
+      encomendaRepository.save(encomendaTeste1);
+      encomendaRepository.save(encomendaTeste2);
+      encomendaTeste3.confirmar();
+      encomendaTeste3.iniciarTransito();
+      encomendaTeste3.finalizarEntrega();
+      encomendaRepository.save(encomendaTeste3);
+      entityManager.persist(
+          new Frete(
+              encomendaTeste1,
+              TipoEntrega.EXPRESSA,
+              new BigDecimal("45.50"),
+              new BigDecimal("12.0"),
+              1));
+      entityManager.persist(
+          new Frete(
+              encomendaTeste2,
+              TipoEntrega.PADRAO,
+              new BigDecimal("32.75"),
+              new BigDecimal("430.0"),
+              5));
+      entityManager.flush();
+      entityManager.clear();
+
+      Statistics estatisticas =
+          entityManager
+              .getEntityManager()
+              .getEntityManagerFactory()
+              .unwrap(SessionFactory.class)
+              .getStatistics();
+      estatisticas.setStatisticsEnabled(true);
+      estatisticas.clear();
+
+      // When
+      List<EncomendaResumoResult> todas = encomendaRepository.findResumos();
+      List<EncomendaResumoResult> ativas =
+          encomendaRepository.findResumosByStatusNotIn(
+              List.of(StatusEncomenda.ENTREGUE, StatusEncomenda.CANCELADA));
+
+      // Then
+      assertEquals(2, estatisticas.getPrepareStatementCount());
+      estatisticas.setStatisticsEnabled(false);
+
+      assertEquals(3, todas.size());
+      assertEquals(encomendaTeste1.getCodigo(), todas.get(0).codigo());
+      assertEquals(new BigDecimal("45.50"), todas.get(0).valorFrete());
+      assertEquals(1, todas.get(0).prazoDias());
+      assertEquals(StatusEncomenda.ENTREGUE, todas.get(2).status());
+      assertNull(todas.get(2).valorFrete());
+      assertNull(todas.get(2).prazoDias());
+
+      assertEquals(2, ativas.size());
+      assertTrue(ativas.stream().noneMatch(r -> r.status() == StatusEncomenda.ENTREGUE));
+      System.out.println("✅ Resumos: " + todas.size() + " | Ativas: " + ativas.size());
+
+      System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor sem repetir nem pular encomendas")
+    void devePaginarPorCursor() {
+      System.out.println("\n🧪 TESTE: Paginação por cursor (data do pedido, id)");
+
+      // Given - metade das encomendas com a mesma data, para exercitar o desempate pelo id
+      LocalDateTime mesmaData = LocalDateTime.of(2025, 6, 5, 14, 30);
+      for (int i = 0; i < 7; i++) {
+        Encomenda encomenda =
+            new Encomenda(
+                clienteTeste1,
+                enderecoOrigemTeste,
+                enderecoDestinoTeste1,
+                TipoEntrega.PADRAO,
+                "Bebê paginado " + i);
+        encomenda.setDataPedido(i % 2 == 0 ? mesmaData : mesmaData.plusMinutes(i));
+        encomendaRepository.save(encomenda);
+      }
+      entityManager.flush();
+
+      // When
+      List<EncomendaResumoResult> percorridas = new ArrayList<>();
+      List<EncomendaResumoResult> pagina = encomendaRepository.findPrimeirosResumos(Limit.of(3));
+      while (!pagina.isEmpty()) {
+        percorridas.addAll(pagina);
+        EncomendaResumoResult ultima = pagina.get(pagina.size() - 1);
+        pagina = encomendaRepository.findResumosApos(ultima.dataPedido(), ultima.id(), Limit.of(3));
+      }
+
+      // Then
+      List<EncomendaResumoResult> esperadas =
+          encomendaRepository.findResumos().stream()
+              .sorted(
+                  Comparator.comparing(EncomendaResumoResult::dataPedido)
+                      .thenComparing(EncomendaResumoResult::id))
+              .toList();
+      assertEquals(7, percorridas.size());
+      assertEquals(esperadas, percorridas);
+      System.out.println("✅ Encomendas percorridas em páginas de 3: " + percorridas.size());
+
+      System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
+    }
+
+    @Test
+    @DisplayName("Deve percorrer resumos via stream na ordem do cursor")
+    void devePercorrerResumosViaStream() {
+      System.out.println("\n🧪 TESTE: Stream de resumos");
+
+      // Given
+      encomendaTeste2.setDataPedido(LocalDateTime.of(2025, 1, 1, 8, 0));
+      encomendaRepository.save(encomendaTeste1);
+      encomendaRepository.save(encomendaTeste2);
+      entityManager.flush();
+
+      // When
+      List<String> codigos;
+      try (Stream<EncomendaResumoResult> resumos = encomendaRepository.streamResumos()) {
+        codigos = resumos.map(EncomendaResumoResult::codigo).toList();
+      }
+
+      // Then
+      assertEquals(List.of(encomendaTeste2.getCodigo(), encomendaTeste1.getCodigo()), codigos);
+      System.out.println("✅ Ordem do stream: " + codigos);
+
+      System.out.println("🎉 TESTE CONCLUÍDO COM SUCESSO!");
+    }
+  }
+
   @Nested
   @DisplayName("Testes de Performance")
   class TestesPerformance {
@@ -297,6 +297,7 @@ class EnderecoRepositoryTest {
       System.out.println("📋 Endereço: " + enderecoSalvo.getEnderecoCompleto());
 
       // When
+      entityManager.flush();
       entityManager.clear(); // Força nova busca
       Optional<Endereco> enderecoEncontrado = enderecoRepository.findById(enderecoSalvo.getId());
 
@@ -349,6 +349,7 @@ class FreteRepositoryTest {
       System.out.println("📋 Encomenda: " + freteSalvo.getEncomenda().getCodigo());
 
       // When
+      entityManager.flush();
       entityManager.clear(); // Força nova busca
       Optional<Frete> freteEncontrado = freteRepository.findById(freteSalvo.getId());
 
@@ -712,6 +713,7 @@ class FreteRepositoryTest {
 
       // When
       Frete freteSalvo = freteRepository.save(freteTeste1);
+      entityManager.flush();
       entityManager.clear(); // Força nova consulta
 
       Optional<Frete> freteRecuperado = freteRepository.findById(freteSalvo.getId());
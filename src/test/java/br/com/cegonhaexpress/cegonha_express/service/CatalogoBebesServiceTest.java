@@ -0,0 +1,129 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Testes do catálogo de bebês pré-serializado.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("CatalogoBebesService - Catálogo de bebês em memória")
+class CatalogoBebesServiceTest {
+
+  private static final String BEBE =
+      """
+      {"id":"%s","nome":"%s","peso_kg":2.5,"altura_cm":50.0}""";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private CatalogoBebesService servico;
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (servico != null) {
+      servico.encerrar();
+    }
+  }
+
+  private CatalogoBebesService iniciar(Resource arquivo, boolean recarregar) throws IOException {
+    servico = new CatalogoBebesService(objectMapper, arquivo, recarregar);
+    servico.iniciar();
+    return servico;
+  }
+
+  /** Aguarda o observador de arquivos detectar a alteração (pode levar alguns segundos). */
+  private void aguardarQuantidade(int esperada) throws InterruptedException {
+    long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+    while (servico.getCatalogo().quantidade() != esperada && System.nanoTime() < limite) {
+      Thread.sleep(100);
+    }
+  }
+
+  private static Resource json(String conteudo) {
+    return new ByteArrayResource(conteudo.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Deve carregar o catálogo do classpath com ETag forte")
+  void deveCarregarCatalogoDoClasspath() throws IOException {
+    CatalogoBebesService.Catalogo catalogo =
+        iniciar(new ClassPathResource("catalogo-bebes.json"), false).getCatalogo();
+
+    assertThat(catalogo.quantidade()).isEqualTo(6);
+    assertThat(catalogo.etag()).matches("\"[0-9a-f]{32}\"");
+    assertThat(objectMapper.readTree(catalogo.json()).get(0).get("id").asText())
+        .isEqualTo("bebe_001");
+  }
+
+  @Test
+  @DisplayName("Deve gerar o mesmo ETag para o mesmo conteúdo e outro para conteúdo diferente")
+  void deveDerivarEtagDoConteudo() throws IOException {
+    String alice = "[" + BEBE.formatted("BB001", "Alice") + "]";
+    String etag = iniciar(json(alice), false).getCatalogo().etag();
+
+    assertThat(iniciar(json(alice), false).getCatalogo().etag()).isEqualTo(etag);
+    assertThat(
+            iniciar(json("[" + BEBE.formatted("BB001", "Miguel") + "]"), false)
+                .getCatalogo()
+                .etag())
+        .isNotEqualTo(etag);
+  }
+
+  @Test
+  @DisplayName("Deve impedir a inicialização com catálogo vazio, id repetido ou peso inválido")
+  void deveRejeitarCatalogoInvalido() {
+    assertThatThrownBy(() -> iniciar(json("[]"), false))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Catálogo de bebês vazio");
+    assertThatThrownBy(
+            () ->
+                iniciar(
+                    json(
+                        "["
+                            + BEBE.formatted("BB001", "Alice")
+                            + ","
+                            + BEBE.formatted("BB001", "Miguel")
+                            + "]"),
+                    false))
+        .hasMessage("Id repetido no catálogo de bebês: BB001");
+    assertThatThrownBy(
+            () -> iniciar(json("[{\"id\":\"BB001\",\"nome\":\"Alice\",\"peso_kg\":0}]"), false))
+        .hasMessage("Peso e altura devem ser positivos: BB001");
+  }
+
+  @Test
+  @DisplayName("Deve recarregar o arquivo alterado e manter a versão anterior se for inválido")
+  void deveRecarregarArquivoAlterado(@TempDir Path diretorio)
+      throws IOException, InterruptedException {
+    Path arquivo = diretorio.resolve("catalogo.json");
+    Files.writeString(arquivo, "[" + BEBE.formatted("BB001", "Alice") + "]");
+    iniciar(new FileSystemResource(arquivo), true);
+    String etagInicial = servico.getCatalogo().etag();
+
+    Files.writeString(
+        arquivo,
+        "[" + BEBE.formatted("BB001", "Alice") + "," + BEBE.formatted("BB002", "Miguel") + "]");
+    aguardarQuantidade(2);
+    String etagRecarregado = servico.getCatalogo().etag();
+    assertThat(etagRecarregado).isNotEqualTo(etagInicial);
+
+    Files.writeString(arquivo, "[]");
+    Thread.sleep(1000);
+    assertThat(servico.getCatalogo().quantidade()).isEqualTo(2);
+    assertThat(servico.getCatalogo().etag()).isEqualTo(etagRecarregado);
+  }
+}
@@ -0,0 +1,247 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import br.com.cegonhaexpress.cegonha_express.repository.FreteRepository;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Testes da cotação de frete em segundo plano da criação assíncrona de encomendas.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CotacaoAssincronaService - Cotação de frete em segundo plano")
+class CotacaoAssincronaServiceTest {
+
+  private static final CotacaoFreteResult COTACAO =
+      new CotacaoFreteResult(
+          TipoEntrega.PADRAO, new BigDecimal("45.50"), new BigDecimal("150.0"), 3);
+
+  @Mock private FreteService freteService;
+  @Mock private EncomendaRepository encomendaRepository;
+  @Mock private FreteRepository freteRepository;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private HistoricoEncomendaService historico;
+
+  private CotacaoAssincronaService cotacaoAssincrona;
+  private Endereco origem;
+  private Endereco destino;
+
+  @BeforeEach
+  void setUp() {
+    cotacaoAssincrona =
+        new CotacaoAssincronaService(
+            freteService,
+            encomendaRepository,
+            freteRepository,
+            transactionTemplate,
+            historico,
+            2,
+            2,
+            false,
+            Duration.ofHours(1),
+            Duration.ofMinutes(5),
+            Duration.ofMinutes(5),
+            Duration.ofHours(6),
+            3);
+    origem =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+    destino = new Endereco("01001-000", "Praça da Sé", "100", "Sé", "São Paulo", UF.SP);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cotacaoAssincrona.encerrar();
+  }
+
+  private void executarTransacoes() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocacao -> invocacao.getArgument(0, TransactionCallback.class).doInTransaction(null));
+  }
+
+  private Encomenda encomendaSemFrete() {
+    Encomenda encomenda =
+        new Encomenda(null, origem, destino, TipoEntrega.PADRAO, "Bebê reborn Alice");
+    encomenda.setId(1L);
+    return encomenda;
+  }
+
+  @Test
+  @DisplayName("Deve gravar o frete cotado na encomenda pendente")
+  void deveGravarFreteCotado() {
+    executarTransacoes();
+    when(freteService.cotarFrete(origem, destino, TipoEntrega.PADRAO, new BigDecimal("2.5")))
+        .thenReturn(COTACAO);
+    when(encomendaRepository.findById(1L)).thenReturn(Optional.of(encomendaSemFrete()));
+
+    cotacaoAssincrona.cotar(1L, origem, destino, TipoEntrega.PADRAO, new BigDecimal("2.5"));
+
+    ArgumentCaptor<Frete> frete = ArgumentCaptor.forClass(Frete.class);
+    verify(freteRepository).save(frete.capture());
+    assertThat(frete.getValue().getValor()).isEqualByComparingTo("45.50");
+    assertThat(frete.getValue().getPrazoDias()).isEqualTo(3);
+    assertThat(frete.getValue().getEncomenda().getId()).isEqualTo(1L);
+
+    ArgumentCaptor<List<EventoEncomenda>> eventos = ArgumentCaptor.captor();
+    verify(historico).registrar(eventos.capture());
+    assertThat(eventos.getValue())
+        .singleElement()
+        .satisfies(
+            evento -> {
+              assertThat(evento.getTipo()).isEqualTo(TipoEventoEncomenda.FRETE_COTADO);
+              assertThat(evento.getValorFrete()).isEqualByComparingTo("45.50");
+            });
+  }
+
+  @Test
+  @DisplayName("Não deve sobrescrever frete já calculado")
+  void naoDeveSobrescreverFrete() {
+    executarTransacoes();
+    Encomenda encomenda = encomendaSemFrete();
+    encomenda.setFrete(COTACAO.paraEncomenda(encomenda));
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+    when(encomendaRepository.findById(1L)).thenReturn(Optional.of(encomenda));
+
+    cotacaoAssincrona.cotar(1L, origem, destino, TipoEntrega.PADRAO, BigDecimal.ONE);
+
+    verify(freteRepository, never()).save(any());
+    verify(historico, never()).registrar(any());
+  }
+
+  @Test
+  @DisplayName(
+      "Deve manter a encomenda sem frete e adiar a próxima tentativa quando a cotação falha")
+  void deveRegistrarFalhaNaCotacao() {
+    executarTransacoes();
+    Encomenda encomenda = encomendaSemFrete();
+    when(encomendaRepository.findById(1L)).thenReturn(Optional.of(encomenda));
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenThrow(new IllegalStateException("Google Maps indisponível"));
+
+    assertThatCode(
+            () -> cotacaoAssincrona.cotar(1L, origem, destino, TipoEntrega.PADRAO, BigDecimal.ONE))
+        .doesNotThrowAnyException();
+    assertThatCode(
+            () -> cotacaoAssincrona.cotar(1L, origem, destino, TipoEntrega.PADRAO, BigDecimal.ONE))
+        .doesNotThrowAnyException();
+
+    // A espera inicial (5 min) dobra a cada falha
+    assertThat(encomenda.getFrete()).isNull();
+    assertThat(encomenda.getTentativasCotacao()).isEqualTo(2);
+    assertThat(encomenda.getProximaCotacao())
+        .isBetween(LocalDateTime.now().plusMinutes(9), LocalDateTime.now().plusMinutes(10));
+    verifyNoInteractions(freteRepository, historico);
+  }
+
+  @Test
+  @DisplayName("Deve recusar novas cotações quando a capacidade estiver esgotada")
+  void deveRecusarAcimaDaCapacidade() {
+    cotacaoAssincrona.reservarVaga();
+    cotacaoAssincrona.reservarVaga();
+
+    assertThatThrownBy(() -> cotacaoAssincrona.reservarVaga())
+        .isInstanceOf(TaskRejectedException.class);
+
+    cotacaoAssincrona.liberarVaga();
+    assertThatCode(() -> cotacaoAssincrona.reservarVaga()).doesNotThrowAnyException();
+  }
+
+  @Test
+  @DisplayName("Deve devolver a vaga ao concluir a cotação agendada")
+  void deveDevolverVagaAoConcluir() throws InterruptedException {
+    CountDownLatch concluidas = new CountDownLatch(2);
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenAnswer(
+            invocacao -> {
+              concluidas.countDown();
+              throw new IllegalStateException("sem rota");
+            });
+
+    for (int i = 0; i < 2; i++) {
+      cotacaoAssincrona.reservarVaga();
+      cotacaoAssincrona.agendar((long) i, origem, destino, TipoEntrega.PADRAO, BigDecimal.ONE);
+    }
+    assertThat(concluidas.await(5, TimeUnit.SECONDS)).isTrue();
+
+    // As vagas são devolvidas logo após o término de cada cotação
+    long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    int reservadas = 0;
+    while (reservadas < 2 && System.nanoTime() < limite) {
+      try {
+        cotacaoAssincrona.reservarVaga();
+        reservadas++;
+      } catch (TaskRejectedException e) {
+        Thread.sleep(10);
+      }
+    }
+    assertThat(reservadas).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve reagendar pendentes sem frete com as vagas livres, ignorando as em andamento")
+  void deveRecuperarPendentesSemFrete() throws InterruptedException {
+    CountDownLatch iniciada = new CountDownLatch(1);
+    CountDownLatch liberar = new CountDownLatch(1);
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenAnswer(
+            invocacao -> {
+              iniciada.countDown();
+              liberar.await();
+              throw new IllegalStateException("sem rota");
+            });
+    when(encomendaRepository.findPendentesSemFrete(any(), any(), anyInt(), any()))
+        .thenReturn(List.of(encomendaSemFrete()));
+    cotacaoAssincrona.reservarVaga();
+
+    assertThat(cotacaoAssincrona.recuperarPendentes()).isEqualTo(1);
+    assertThat(iniciada.await(5, TimeUnit.SECONDS)).isTrue();
+    verify(encomendaRepository).findPendentesSemFrete(any(), any(), eq(3), eq(Limit.of(1)));
+    verify(freteService).cotarFrete(eq(origem), eq(destino), eq(TipoEntrega.PADRAO), any());
+
+    // Sem vagas livres não há consulta; com a vaga de volta, a encomenda em andamento é ignorada
+    assertThat(cotacaoAssincrona.recuperarPendentes()).isZero();
+    cotacaoAssincrona.liberarVaga();
+    assertThat(cotacaoAssincrona.recuperarPendentes()).isZero();
+    verify(encomendaRepository, times(2)).findPendentesSemFrete(any(), any(), anyInt(), any());
+    liberar.countDown();
+  }
+}
@@ -0,0 +1,149 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * Testes dos dados de referência da criação de encomendas: origem e cliente padrão resolvidos uma
+ * única vez e destinos reaproveitados pela chave normalizada.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DataJpaTest
+@Import(DadosReferenciaService.class)
+@DisplayName("DadosReferenciaService - Origem, cliente padrão e deduplicação de destinos")
+class DadosReferenciaServiceTest {
+
+  @Autowired private DadosReferenciaService dadosReferencia;
+  @Autowired private EntityManager entityManager;
+
+  @MockitoBean private ViaCepCacheService viaCepCache;
+
+  private Endereco novoDestino(String cep, String numero, String complemento) {
+    Endereco destino = new Endereco(cep, "Praça da Sé", numero, "Sé", "São Paulo", UF.SP);
+    destino.setComplemento(complemento);
+    return destino;
+  }
+
+  private long contarEnderecosComCep(String... ceps) {
+    return entityManager
+        .createQuery("SELECT COUNT(e) FROM Endereco e WHERE e.cep IN :ceps", Long.class)
+        .setParameter("ceps", List.of(ceps))
+        .getSingleResult();
+  }
+
+  @Test
+  @DisplayName("Deve cadastrar a origem padrão uma única vez e consultar a ViaCEP só nesse momento")
+  void deveResolverOrigemUmaUnicaVez() {
+    Endereco primeira = dadosReferencia.enderecoOrigem();
+    Endereco segunda = dadosReferencia.enderecoOrigem();
+
+    assertThat(primeira.getId()).isNotNull();
+    assertThat(segunda).isSameAs(primeira);
+    assertThat(contarEnderecosComCep("13801-005", "13801005")).isEqualTo(1);
+    verify(viaCepCache, atMostOnce()).buscarEnderecoPorCep(anyString());
+
+    Endereco referencia = dadosReferencia.referenciaEnderecoOrigem();
+    assertThat(referencia.getId()).isEqualTo(primeira.getId());
+  }
+
+  @Test
+  @DisplayName("Deve resolver o cliente padrão como referência, sem duplicar o cadastro")
+  void deveResolverClientePadraoComoReferencia() {
+    Cliente primeiro = dadosReferencia.referenciaClientePadrao();
+    Cliente segundo = dadosReferencia.referenciaClientePadrao();
+
+    assertThat(segundo.getId()).isEqualTo(primeiro.getId());
+    long clientes =
+        entityManager
+            .createQuery("SELECT COUNT(c) FROM Cliente c WHERE c.cpf = :cpf", Long.class)
+            .setParameter("cpf", DadosReferenciaService.CPF_CLIENTE_PADRAO)
+            .getSingleResult();
+    assertThat(clientes).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve reaproveitar destino com mesmo CEP, número e complemento normalizados")
+  void deveReaproveitarDestinoEquivalente() {
+    Endereco cadastrado = novoDestino("01001-000", "100", "Apto 12");
+    entityManager.persist(cadastrado);
+    entityManager.flush();
+
+    Endereco equivalente =
+        dadosReferencia.deduplicarDestino(novoDestino("01001000", " 100 ", "apto 12"));
+
+    assertThat(equivalente).isSameAs(cadastrado);
+  }
+
+  @Test
+  @DisplayName("Deve tratar complemento vazio como ausente")
+  void deveTratarComplementoVazioComoAusente() {
+    Endereco cadastrado = novoDestino("01001-000", "100", null);
+    entityManager.persist(cadastrado);
+    entityManager.flush();
+
+    assertThat(dadosReferencia.deduplicarDestino(novoDestino("01001-000", "100", "")))
+        .isSameAs(cadastrado);
+  }
+
+  @Test
+  @DisplayName("Deve manter destino inédito quando número ou complemento diferem")
+  void deveManterDestinoInedito() {
+    entityManager.persist(novoDestino("01001-000", "100", "Apto 12"));
+    entityManager.flush();
+
+    Endereco outroComplemento = novoDestino("01001-000", "100", "Apto 13");
+    Endereco outroNumero = novoDestino("01001-000", "101", "Apto 12");
+
+    assertThat(dadosReferencia.deduplicarDestino(outroComplemento)).isSameAs(outroComplemento);
+    assertThat(dadosReferencia.deduplicarDestino(outroNumero)).isSameAs(outroNumero);
+  }
+
+  @Test
+  @DisplayName("Não deve reaproveitar endereço de um cliente")
+  void naoDeveReaproveitarEnderecoDeCliente() {
+    Cliente cliente =
+        new Cliente("Maria Silva", "maria@email.com", "11987654321", "987.654.321-00");
+    entityManager.persist(cliente);
+    Endereco doCliente = novoDestino("01001-000", "100", null);
+    doCliente.setCliente(cliente);
+    entityManager.persist(doCliente);
+    entityManager.flush();
+
+    Endereco destino = novoDestino("01001-000", "100", null);
+
+    assertThat(dadosReferencia.deduplicarDestino(destino)).isSameAs(destino);
+  }
+
+  @Test
+  @DisplayName("Deve deduplicar vários destinos de uma vez, inclusive repetidos entre si")
+  void deveDeduplicarDestinosEmLote() {
+    Endereco cadastrado = novoDestino("01001-000", "100", null);
+    entityManager.persist(cadastrado);
+    entityManager.flush();
+
+    Endereco equivalente = novoDestino("01001000", "100", null);
+    Endereco inedito = novoDestino("20040-020", "5", "Sala 2");
+    Endereco repetido = novoDestino("20040020", "5", "SALA 2");
+
+    List<Endereco> destinos =
+        dadosReferencia.deduplicarDestinos(List.of(equivalente, inedito, repetido));
+
+    assertThat(destinos.get(0)).isSameAs(cadastrado);
+    assertThat(destinos.get(1)).isSameAs(inedito);
+    assertThat(destinos.get(2)).isSameAs(inedito);
+  }
+}
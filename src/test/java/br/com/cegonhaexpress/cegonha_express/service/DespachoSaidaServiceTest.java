@@ -0,0 +1,322 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.MetricasSaidaDTO;
+import br.com.cegonhaexpress.cegonha_express.model.entity.EventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.MensagemSaida;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.repository.EventoEncomendaRepository;
+import br.com.cegonhaexpress.cegonha_express.repository.MensagemSaidaRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Testes da caixa de saída: entrega única com várias instâncias esvaziando a caixa, ordem por
+ * encomenda, entrega fora de transação com o lote reservado, espera exponencial após falhas e
+ * descarte após o máximo de tentativas.
+ *
+ * <p>Cada chamada a {@code despachar()} roda em sua própria transação (o teste não roda dentro da
+ * transação do {@code @DataJpaTest}), como nas instâncias da aplicação.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DataJpaTest(
+    properties = {
+      "encomenda.saida.destino=teste",
+      "encomenda.saida.intervalo=1h",
+      "encomenda.saida.lote=10",
+      "encomenda.saida.reserva=10m",
+      "encomenda.saida.espera-inicial=1h",
+      "encomenda.saida.espera-maxima=2h",
+      "encomenda.saida.tentativas-maximas=2"
+    })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({
+  CaixaSaidaService.class,
+  DespachoSaidaService.class,
+  DespachoSaidaServiceTest.DestinoConfig.class
+})
+@DisplayName("DespachoSaidaService - Entrega das notificações da caixa de saída")
+class DespachoSaidaServiceTest {
+
+  private static final int INSTANCIAS = 4;
+
+  /** Destino que registra as entregas e falha para os eventos marcados. */
+  static class DestinoGravado implements DestinoSaida {
+
+    private final ConcurrentLinkedQueue<MensagemSaida> entregues = new ConcurrentLinkedQueue<>();
+    private final Set<Long> falhar = ConcurrentHashMap.newKeySet();
+
+    /** Executado no início de cada entrega, para observar o estado durante ela. */
+    private volatile Runnable aoEntregar = () -> {};
+
+    @Override
+    public void entregar(MensagemSaida mensagem) throws IOException {
+      aoEntregar.run();
+      if (falhar.contains(mensagem.getEventoId())) {
+        throw new IOException("ERP indisponível");
+      }
+      entregues.add(mensagem);
+    }
+  }
+
+  @TestConfiguration
+  static class DestinoConfig {
+
+    @Bean
+    DestinoGravado destinoGravado() {
+      return new DestinoGravado();
+    }
+  }
+
+  @Autowired private CaixaSaidaService caixaSaida;
+  @Autowired private DespachoSaidaService despacho;
+  @Autowired private DestinoGravado destino;
+  @Autowired private EventoEncomendaRepository eventoRepository;
+  @Autowired private MensagemSaidaRepository mensagemRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(INSTANCIAS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    destino.entregues.clear();
+    destino.falhar.clear();
+    destino.aoEntregar = () -> {};
+    mensagemRepository.deleteAll();
+    eventoRepository.deleteAll();
+  }
+
+  private static EventoEncomenda evento(String codigo, StatusEncomenda anterior) {
+    EventoEncomenda evento = new EventoEncomenda();
+    evento.setEncomendaId(1L);
+    evento.setCodigo(codigo);
+    evento.setTipo(TipoEventoEncomenda.STATUS_ALTERADO);
+    evento.setStatusAnterior(anterior);
+    evento.setStatus(StatusEncomenda.values()[anterior.ordinal() + 1]);
+    evento.setOcorridoEm(LocalDateTime.now().minusSeconds(1));
+    return evento;
+  }
+
+  /** Grava eventos e mensagens em uma transação, como o histórico faz nas alterações. */
+  private List<EventoEncomenda> enfileirar(List<EventoEncomenda> eventos) {
+    return transactionTemplate.execute(
+        status -> {
+          List<EventoEncomenda> gravados = eventoRepository.saveAll(eventos);
+          caixaSaida.enfileirar(gravados);
+          return gravados;
+        });
+  }
+
+  @Test
+  @DisplayName("Deve entregar cada mensagem uma única vez, na ordem de cada encomenda")
+  void deveEntregarUmaVezComVariasInstancias() throws Exception {
+    List<EventoEncomenda> eventos = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      eventos.add(evento("CE" + i, StatusEncomenda.PENDENTE));
+      eventos.add(evento("CE" + i, StatusEncomenda.CONFIRMADA));
+      eventos.add(evento("CE" + i, StatusEncomenda.EM_TRANSITO));
+    }
+    enfileirar(eventos);
+    long entreguesAntes = despacho.getEntregues();
+
+    // Várias instâncias esvaziam a caixa ao mesmo tempo
+    CountDownLatch largada = new CountDownLatch(1);
+    List<Future<?>> instancias = new ArrayList<>();
+    for (int i = 0; i < INSTANCIAS; i++) {
+      instancias.add(
+          executor.submit(
+              () -> {
+                largada.await();
+                long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+                while (mensagemRepository.count() > 0 && System.nanoTime() < limite) {
+                  despacho.despachar();
+                }
+                return null;
+              }));
+    }
+    largada.countDown();
+    for (Future<?> instancia : instancias) {
+      instancia.get(30, TimeUnit.SECONDS);
+    }
+
+    List<Long> entregues = destino.entregues.stream().map(MensagemSaida::getEventoId).toList();
+    assertThat(entregues).hasSize(60).doesNotHaveDuplicates();
+    assertThat(mensagemRepository.count()).isZero();
+    assertThat(despacho.getEntregues() - entreguesAntes).isEqualTo(60);
+
+    // Ordem das notificações de cada encomenda
+    Map<String, List<Long>> porEncomenda =
+        destino.entregues.stream()
+            .collect(
+                Collectors.groupingBy(
+                    MensagemSaida::getCodigo,
+                    Collectors.mapping(MensagemSaida::getEventoId, Collectors.toList())));
+    assertThat(porEncomenda).hasSize(20);
+    assertThat(porEncomenda.values()).allSatisfy(ids -> assertThat(ids).isSorted());
+  }
+
+  @Test
+  @DisplayName("Deve entregar fora de transação, com o lote reservado para as outras instâncias")
+  void deveEntregarForaDeTransacaoComLoteReservado() {
+    enfileirar(
+        List.of(evento("CE1", StatusEncomenda.PENDENTE), evento("CE2", StatusEncomenda.PENDENTE)));
+    List<Boolean> emTransacao = new ArrayList<>();
+    List<Integer> visiveisParaOutraInstancia = new ArrayList<>();
+    destino.aoEntregar =
+        () -> {
+          emTransacao.add(TransactionSynchronizationManager.isActualTransactionActive());
+          visiveisParaOutraInstancia.add(
+              transactionTemplate.execute(
+                  status -> mensagemRepository.travarProntas(LocalDateTime.now(), 10).size()));
+        };
+
+    assertThat(despacho.despachar()).isEqualTo(2);
+
+    assertThat(emTransacao).containsExactly(false, false);
+    assertThat(visiveisParaOutraInstancia).containsExactly(0, 0);
+    assertThat(destino.entregues).hasSize(2);
+    assertThat(mensagemRepository.count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Deve adiar a mensagem que falha e reter as seguintes da mesma encomenda")
+  void deveAdiarMensagemQueFalha() {
+    List<EventoEncomenda> eventos =
+        enfileirar(
+            List.of(
+                evento("CE1", StatusEncomenda.PENDENTE),
+                evento("CE1", StatusEncomenda.CONFIRMADA),
+                evento("CE2", StatusEncomenda.PENDENTE)));
+    destino.falhar.add(eventos.get(0).getId());
+    // Contadores da instância acumulam entre os testes
+    MetricasSaidaDTO antes = despacho.buscarMetricas();
+
+    assertThat(despacho.despachar()).isEqualTo(2);
+    assertThat(destino.entregues)
+        .extracting(MensagemSaida::getEventoId)
+        .containsExactly(eventos.get(2).getId());
+
+    MensagemSaida adiada =
+        mensagemRepository.findAll().stream()
+            .filter(m -> m.getEventoId().equals(eventos.get(0).getId()))
+            .findFirst()
+            .orElseThrow();
+    assertThat(adiada.getTentativas()).isEqualTo(1);
+    assertThat(adiada.getUltimoErro()).isEqualTo("IOException: ERP indisponível");
+    assertThat(adiada.getProximaTentativa()).isAfter(LocalDateTime.now().plusMinutes(59));
+
+    // A adiada ainda não pode ser reenviada, e a seguinte da mesma encomenda espera por ela
+    assertThat(despacho.despachar()).isZero();
+
+    MetricasSaidaDTO metricas = despacho.buscarMetricas();
+    assertThat(metricas.getPendentes()).isEqualTo(2);
+    assertThat(metricas.getAtrasoMs()).isPositive();
+    assertThat(metricas.getEntregues() - antes.getEntregues()).isEqualTo(1);
+    assertThat(metricas.getEntreguesUltimoMinuto() - antes.getEntreguesUltimoMinuto()).isEqualTo(1);
+    assertThat(metricas.getFalhas() - antes.getFalhas()).isEqualTo(1);
+
+    // Com o destino de volta e a espera vencida, as duas saem em ordem
+    destino.falhar.clear();
+    adiada.setProximaTentativa(LocalDateTime.now().minusSeconds(1));
+    mensagemRepository.save(adiada);
+    despacho.despachar();
+    despacho.despachar();
+
+    assertThat(destino.entregues)
+        .extracting(MensagemSaida::getEventoId)
+        .containsExactly(eventos.get(2).getId(), eventos.get(0).getId(), eventos.get(1).getId());
+    assertThat(mensagemRepository.count()).isZero();
+  }
+
+  @Test
+  @DisplayName("Deve descartar a mensagem após o máximo de tentativas e liberar as seguintes")
+  void deveDescartarAposMaximoDeTentativas() {
+    List<EventoEncomenda> eventos =
+        enfileirar(
+            List.of(
+                evento("CE1", StatusEncomenda.PENDENTE),
+                evento("CE1", StatusEncomenda.CONFIRMADA)));
+    destino.falhar.add(eventos.get(0).getId());
+
+    assertThat(despacho.despachar()).isEqualTo(1);
+    MensagemSaida adiada = mensagemRepository.findAll().get(0);
+    adiada.setProximaTentativa(LocalDateTime.now().minusSeconds(1));
+    mensagemRepository.save(adiada);
+    assertThat(despacho.despachar()).isEqualTo(1);
+
+    MensagemSaida descartada =
+        mensagemRepository.findAll().stream()
+            .filter(m -> m.getEventoId().equals(eventos.get(0).getId()))
+            .findFirst()
+            .orElseThrow();
+    assertThat(descartada.isDescartada()).isTrue();
+    assertThat(descartada.getTentativas()).isEqualTo(2);
+
+    // A seguinte da mesma encomenda deixa de esperar pela descartada
+    assertThat(despacho.despachar()).isEqualTo(1);
+    assertThat(destino.entregues)
+        .extracting(MensagemSaida::getEventoId)
+        .containsExactly(eventos.get(1).getId());
+    assertThat(despacho.despachar()).isZero();
+
+    MetricasSaidaDTO metricas = despacho.buscarMetricas();
+    assertThat(metricas.getPendentes()).isZero();
+    assertThat(metricas.getAtrasoMs()).isZero();
+    assertThat(metricas.getDescartadas()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve dobrar a espera a cada falha até a espera máxima")
+  void deveDobrarEsperaAteOMaximo() {
+    MensagemSaida mensagem = new MensagemSaida();
+    List<Long> esperadas = List.of(1L, 2L, 4L, 8L, 10L, 10L);
+    for (long esperada : esperadas) {
+      LocalDateTime antes = LocalDateTime.now();
+      mensagem.registrarFalha(
+          new IOException("falha"), Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+      Duration espera = Duration.between(antes, mensagem.getProximaTentativa());
+      assertThat(espera)
+          .isBetween(Duration.ofSeconds(esperada), Duration.ofSeconds(esperada).plusSeconds(1));
+    }
+    assertThat(mensagem.getTentativas()).isEqualTo(esperadas.size());
+  }
+}
@@ -0,0 +1,227 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Testes unitários do cache de distâncias de rotas.
+ *
+ * <p>Verifica que rotas repetidas não geram nova chamada ao Google Maps, que a chave é normalizada
+ * por CEP + número, que consultas concorrentes da mesma rota são agrupadas e que falhas da API não
+ * são armazenadas.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DistanciaCacheService - Cache de Rotas")
+class DistanciaCacheServiceTest {
+
+  @Mock private GoogleMapsDistanceService distanceService;
+
+  private DistanciaCacheService distanciaCache;
+  private FreteService freteService;
+
+  private Cliente cliente;
+  private Endereco origem;
+
+  @BeforeEach
+  void setUp() {
+    distanciaCache = new DistanciaCacheService(100, Duration.ofHours(1));
+    freteService =
+        new FreteService(
+            new DistanciaLoteService(distanceService, false, Duration.ZERO, false),
+            distanciaCache,
+            new DistanciaOfflineService(
+                DistanciaOfflineService.Modo.DESATIVADO, "distancia/cep-centroides.csv"),
+            new MetricasEncomendaService(new SimpleMeterRegistry()));
+
+    cliente = new Cliente("Maria da Silva", "maria.silva@email.com", "12345678901");
+    origem =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+  }
+
+  private Encomenda encomendaPara(Endereco destino) {
+    return new Encomenda(
+        cliente,
+        origem,
+        destino,
+        TipoEntrega.PADRAO,
+        "Bebê reborn colecionável",
+        new BigDecimal("2.5"),
+        new BigDecimal("45.0"),
+        new BigDecimal("350.00"));
+  }
+
+  private CalculoDeDistanciaResult resultado(String km) {
+    return CalculoDeDistanciaResult.builder()
+        .distanciaKm(new BigDecimal(km))
+        .duracaoMinutos(180L)
+        .enderecoOrigemFormatado("Mogi Mirim - SP")
+        .enderecoDestinoFormatado("São Paulo - SP")
+        .build();
+  }
+
+  @Test
+  @DisplayName("Deve consultar o Google Maps apenas uma vez para rotas repetidas")
+  void deveConsultarApenasUmaVezParaRotasRepetidas() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenReturn(resultado("160.0"));
+
+    Endereco destino = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+
+    Frete primeiro = freteService.calcularFreteComDistanciaReal(encomendaPara(destino));
+    Frete segundo = freteService.calcularFreteComDistanciaReal(encomendaPara(destino));
+
+    assertThat(primeiro.isEquivalente(segundo)).isTrue();
+    verify(distanceService, times(1)).calcularDistancia(anyString(), anyString());
+    assertThat(distanciaCache.getEstatisticas().hitCount()).isEqualTo(1);
+    assertThat(distanciaCache.getEstatisticas().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve normalizar CEP com ou sem hífen e número com espaços")
+  void deveNormalizarChaveDaRota() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenReturn(resultado("160.0"));
+
+    Endereco comHifen = new Endereco("01001-000", "Praça da Sé", "12a", "Sé", "São Paulo", UF.SP);
+    Endereco semHifen = new Endereco("01001000", "Praça da Sé", " 12A ", "Sé", "São Paulo", UF.SP);
+
+    freteService.calcularFreteComDistanciaReal(encomendaPara(comHifen));
+    freteService.calcularFreteComDistanciaReal(encomendaPara(semHifen));
+
+    verify(distanceService, times(1)).calcularDistancia(anyString(), anyString());
+  }
+
+  @Test
+  @DisplayName("Deve diferenciar rotas com números distintos no mesmo CEP")
+  void deveDiferenciarNumerosNoMesmoCep() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenReturn(resultado("160.0"));
+
+    freteService.calcularFreteComDistanciaReal(
+        encomendaPara(new Endereco("01001-000", "Praça da Sé", "10", "Sé", "São Paulo", UF.SP)));
+    freteService.calcularFreteComDistanciaReal(
+        encomendaPara(new Endereco("01001-000", "Praça da Sé", "20", "Sé", "São Paulo", UF.SP)));
+
+    verify(distanceService, times(2)).calcularDistancia(anyString(), anyString());
+    assertThat(distanciaCache.getTamanho()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Não deve armazenar falhas da API no cache")
+  void naoDeveArmazenarFalhas() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenThrow(new GoogleMapsIntegrationException("Falha na comunicação com o Google Maps"))
+        .thenReturn(resultado("160.0"));
+
+    Endereco destino = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+
+    assertThatThrownBy(() -> freteService.calcularFreteComDistanciaReal(encomendaPara(destino)))
+        .isInstanceOf(GoogleMapsIntegrationException.class);
+
+    Frete frete = freteService.calcularFreteComDistanciaReal(encomendaPara(destino));
+
+    assertThat(frete.getDistanciaKm()).isEqualByComparingTo("160.0");
+    verify(distanceService, times(2)).calcularDistancia(anyString(), anyString());
+  }
+
+  @Test
+  @DisplayName("Não deve deixar consulta pendente no cache quando a consulta lança Error")
+  void naoDeveTravarRotaAposError() throws Exception {
+    Endereco destino = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+
+    assertThatThrownBy(
+            () ->
+                distanciaCache.obterOuCalcular(
+                    origem,
+                    destino,
+                    () -> {
+                      throw new StackOverflowError();
+                    }))
+        .isInstanceOf(StackOverflowError.class);
+
+    // Com o future incompleto no cache, a próxima consulta da rota esperaria para sempre
+    CompletableFuture<CalculoDeDistanciaResult> seguinte =
+        CompletableFuture.supplyAsync(
+            () -> distanciaCache.obterOuCalcular(origem, destino, () -> resultado("160.0")));
+
+    assertThat(seguinte.get(5, TimeUnit.SECONDS).getDistanciaKm()).isEqualByComparingTo("160.0");
+  }
+
+  @Test
+  @DisplayName("Deve agrupar consultas concorrentes da mesma rota em uma única chamada")
+  void deveAgruparConsultasConcorrentes() throws Exception {
+    Endereco destino = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+    CountDownLatch consultaIniciada = new CountDownLatch(1);
+    CountDownLatch liberarConsulta = new CountDownLatch(1);
+    AtomicInteger chamadas = new AtomicInteger();
+
+    CompletableFuture<CalculoDeDistanciaResult> primeira =
+        CompletableFuture.supplyAsync(
+            () ->
+                distanciaCache.obterOuCalcular(
+                    origem,
+                    destino,
+                    () -> {
+                      chamadas.incrementAndGet();
+                      consultaIniciada.countDown();
+                      try {
+                        liberarConsulta.await();
+                      } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return resultado("160.0");
+                    }));
+    assertThat(consultaIniciada.await(5, TimeUnit.SECONDS)).isTrue();
+
+    CompletableFuture<CalculoDeDistanciaResult> segunda =
+        CompletableFuture.supplyAsync(
+            () ->
+                distanciaCache.obterOuCalcular(
+                    origem,
+                    destino,
+                    () -> {
+                      chamadas.incrementAndGet();
+                      return resultado("999.0");
+                    }));
+
+    // A consulta em andamento não é lida como resultado nem bloqueia quem só consulta o cache
+    assertThat(distanciaCache.buscar(origem, destino)).isEmpty();
+    liberarConsulta.countDown();
+
+    assertThat(primeira.get(5, TimeUnit.SECONDS).getDistanciaKm()).isEqualByComparingTo("160.0");
+    assertThat(segunda.get(5, TimeUnit.SECONDS).getDistanciaKm()).isEqualByComparingTo("160.0");
+    assertThat(chamadas).hasValue(1);
+    assertThat(distanciaCache.buscar(origem, destino)).isPresent();
+  }
+}
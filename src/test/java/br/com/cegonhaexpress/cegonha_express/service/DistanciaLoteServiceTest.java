@@ -0,0 +1,250 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
+import com.google.maps.model.Distance;
+import com.google.maps.model.DistanceMatrix;
+import com.google.maps.model.DistanceMatrixElement;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import com.google.maps.model.DistanceMatrixRow;
+import com.google.maps.model.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Testes do agrupamento de consultas de distância em matrizes 1xN.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DistanciaLoteService - Agrupamento de Consultas")
+class DistanciaLoteServiceTest {
+
+  private static final String ORIGEM = "Rua Ariovaldo Silveira Franco, 567, Mogi Mirim - SP";
+
+  @Mock private GoogleMapsDistanceService distanceService;
+
+  private DistanciaLoteService distanciaLote;
+
+  @BeforeEach
+  void setUp() {
+    distanciaLote =
+        new DistanciaLoteService(distanceService, true, java.time.Duration.ofMillis(50), false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    distanciaLote.encerrar();
+  }
+
+  /** Monta uma matriz 1xN em que o destino "SEM_ROTA" retorna ZERO_RESULTS. */
+  private static DistanceMatrix matriz(String[] destinos) {
+    DistanceMatrixRow row = new DistanceMatrixRow();
+    row.elements = new DistanceMatrixElement[destinos.length];
+    for (int i = 0; i < destinos.length; i++) {
+      DistanceMatrixElement element = new DistanceMatrixElement();
+      if (destinos[i].startsWith("SEM_ROTA")) {
+        element.status = DistanceMatrixElementStatus.ZERO_RESULTS;
+      } else {
+        element.status = DistanceMatrixElementStatus.OK;
+        element.distance = new Distance();
+        element.distance.inMeters = 1000L * (i + 1);
+        element.duration = new Duration();
+        element.duration.inSeconds = 60L * (i + 1);
+      }
+      row.elements[i] = element;
+    }
+    return new DistanceMatrix(new String[] {ORIGEM}, destinos, new DistanceMatrixRow[] {row});
+  }
+
+  private void responderComMatriz() {
+    when(distanceService.consultarMatriz(anyString(), any(String[].class)))
+        .thenAnswer(
+            invocation -> {
+              Object[] args = invocation.getArguments();
+              String[] destinos = Arrays.copyOfRange(args, 1, args.length, String[].class);
+              return matriz(destinos);
+            });
+  }
+
+  @Test
+  @DisplayName("Deve agrupar pedidos concorrentes da mesma origem em uma única requisição")
+  void deveAgruparPedidosConcorrentes() {
+    responderComMatriz();
+
+    List<CompletableFuture<CalculoDeDistanciaResult>> futuros =
+        IntStream.range(0, 10)
+            .mapToObj(i -> distanciaLote.calcularAsync(ORIGEM, "Destino " + i))
+            .toList();
+
+    List<CalculoDeDistanciaResult> resultados =
+        futuros.stream().map(CompletableFuture::join).toList();
+
+    verify(distanceService, times(1)).consultarMatriz(anyString(), any(String[].class));
+    assertThat(resultados).hasSize(10);
+    for (int i = 0; i < 10; i++) {
+      assertThat(resultados.get(i).getEnderecoDestinoFormatado()).isEqualTo("Destino " + i);
+    }
+    assertThat(distanciaLote.getRequisicoesEnviadas()).isEqualTo(1);
+    assertThat(distanciaLote.getParesAtendidos()).isEqualTo(10);
+  }
+
+  @Test
+  @DisplayName("Deve enviar o lote imediatamente ao atingir 25 destinos")
+  void deveDividirLotesAcimaDoLimite() {
+    responderComMatriz();
+
+    List<CompletableFuture<CalculoDeDistanciaResult>> futuros = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      futuros.add(distanciaLote.calcularAsync(ORIGEM, "Destino " + i));
+    }
+    futuros.forEach(CompletableFuture::join);
+
+    verify(distanceService, times(2)).consultarMatriz(anyString(), any(String[].class));
+  }
+
+  @Test
+  @DisplayName("Deve completar os pedidos do lote quando a consulta lançar um Error")
+  void deveCompletarPedidosQuandoConsultaLancarError() {
+    when(distanceService.consultarMatriz(anyString(), any(String[].class)))
+        .thenThrow(new StackOverflowError("teste"));
+
+    List<CompletableFuture<CalculoDeDistanciaResult>> futuros =
+        IntStream.range(0, 3)
+            .mapToObj(i -> distanciaLote.calcularAsync(ORIGEM, "Destino " + i))
+            .toList();
+
+    assertThat(futuros)
+        .allSatisfy(
+            futuro ->
+                assertThatThrownBy(() -> futuro.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(StackOverflowError.class));
+    assertThatThrownBy(() -> distanciaLote.calcular(ORIGEM, "Destino 9"))
+        .isInstanceOf(StackOverflowError.class);
+  }
+
+  @Test
+  @DisplayName("Deve manter a janela do lote seguinte após um envio por lote cheio")
+  void deveManterJanelaAposLoteCheio() throws InterruptedException {
+    responderComMatriz();
+    distanciaLote.encerrar();
+    distanciaLote =
+        new DistanciaLoteService(distanceService, true, java.time.Duration.ofMillis(300), false);
+    long inicio = System.nanoTime();
+
+    List<CompletableFuture<CalculoDeDistanciaResult>> cheio = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      cheio.add(distanciaLote.calcularAsync(ORIGEM, "Destino " + i));
+    }
+    cheio.forEach(CompletableFuture::join);
+
+    // O próximo lote começa perto do fim da janela do lote cheio
+    Thread.sleep(Math.max(0, 200 - (System.nanoTime() - inicio) / 1_000_000));
+    CompletableFuture<CalculoDeDistanciaResult> seguinte =
+        distanciaLote.calcularAsync(ORIGEM, "Destino seguinte");
+
+    // O agendamento do lote cheio (em ~300ms) não envia o lote seguinte antes da janela dele
+    Thread.sleep(Math.max(0, 380 - (System.nanoTime() - inicio) / 1_000_000));
+    assertThat(seguinte.isDone()).isFalse();
+
+    assertThat(seguinte.join().getEnderecoDestinoFormatado()).isEqualTo("Destino seguinte");
+    verify(distanceService, times(2)).consultarMatriz(anyString(), any(String[].class));
+  }
+
+  @Test
+  @DisplayName("Deve consultar destinos repetidos apenas uma vez no lote")
+  void deveDeduplicarDestinosNoLote() {
+    responderComMatriz();
+
+    CompletableFuture<CalculoDeDistanciaResult> primeiro =
+        distanciaLote.calcularAsync(ORIGEM, "Praça da Sé, 123");
+    CompletableFuture<CalculoDeDistanciaResult> segundo =
+        distanciaLote.calcularAsync(ORIGEM, "Praça da Sé, 123");
+
+    assertThat(primeiro.join()).isSameAs(segundo.join());
+    verify(distanceService).consultarMatriz(ORIGEM, "Praça da Sé, 123");
+  }
+
+  @Test
+  @DisplayName("Deve isolar falhas de um par sem afetar os demais do lote")
+  void deveIsolarFalhasPorPar() {
+    responderComMatriz();
+
+    CompletableFuture<CalculoDeDistanciaResult> valido =
+        distanciaLote.calcularAsync(ORIGEM, "Destino válido");
+    CompletableFuture<CalculoDeDistanciaResult> semRota =
+        distanciaLote.calcularAsync(ORIGEM, "SEM_ROTA");
+
+    assertThat(valido.join().getDistanciaKm()).isEqualByComparingTo("1.0");
+    assertThatThrownBy(() -> distanciaLote.calcular(ORIGEM, "SEM_ROTA"))
+        .isInstanceOf(GoogleMapsIntegrationException.class)
+        .hasMessage("Não há rota disponível entre os endereços");
+    assertThat(semRota).isCompletedExceptionally();
+  }
+
+  @Test
+  @DisplayName("Deve propagar falha da requisição para todos os pedidos do lote")
+  void devePropagarFalhaDaRequisicao() {
+    when(distanceService.consultarMatriz(anyString(), any(String[].class)))
+        .thenThrow(new GoogleMapsIntegrationException("Falha na comunicação com o Google Maps"));
+
+    assertThatThrownBy(() -> distanciaLote.calcular(ORIGEM, "Destino"))
+        .isInstanceOf(GoogleMapsIntegrationException.class)
+        .hasMessage("Falha na comunicação com o Google Maps");
+  }
+
+  @Test
+  @DisplayName("Deve executar os lotes em threads virtuais no modo de threads virtuais")
+  void deveExecutarLotesEmThreadsVirtuais() {
+    DistanciaLoteService virtual =
+        new DistanciaLoteService(distanceService, true, java.time.Duration.ofMillis(5), true);
+    List<Thread> threadsDaConsulta = new CopyOnWriteArrayList<>();
+    when(distanceService.consultarMatriz(anyString(), any(String[].class)))
+        .thenAnswer(
+            invocation -> {
+              threadsDaConsulta.add(Thread.currentThread());
+              Object[] args = invocation.getArguments();
+              return matriz(Arrays.copyOfRange(args, 1, args.length, String[].class));
+            });
+
+    List<CompletableFuture<CalculoDeDistanciaResult>> futuros = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      futuros.add(virtual.calcularAsync(ORIGEM, "Destino " + i));
+    }
+    futuros.forEach(CompletableFuture::join);
+
+    assertThat(threadsDaConsulta).hasSize(2).allMatch(Thread::isVirtual);
+    virtual.encerrar();
+  }
+
+  @Test
+  @DisplayName("Deve repassar diretamente ao Google Maps quando o agrupamento está desabilitado")
+  void deveRepassarDiretamenteQuandoDesabilitado() {
+    DistanciaLoteService direto =
+        new DistanciaLoteService(distanceService, false, java.time.Duration.ZERO, false);
+    CalculoDeDistanciaResult esperado =
+        GoogleMapsDistanceService.processarElemento(matriz(new String[] {"Destino"}), 0, 0);
+    when(distanceService.calcularDistancia(ORIGEM, "Destino")).thenReturn(esperado);
+
+    assertThat(direto.calcular(ORIGEM, "Destino")).isSameAs(esperado);
+    verify(distanceService, never()).consultarMatriz(anyString(), any(String[].class));
+    direto.encerrar();
+  }
+}
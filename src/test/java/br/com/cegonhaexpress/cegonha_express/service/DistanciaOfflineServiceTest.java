@@ -0,0 +1,212 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.result.CalculoDeDistanciaResult;
+import br.com.cegonhaexpress.cegonha_express.exception.GoogleMapsIntegrationException;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import com.google.maps.model.DistanceMatrixElementStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Testes do motor de distância offline por centróides de CEP e dos modos FALLBACK e PRIMARIO.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DistanciaOfflineService - Estimativa por Centróides de CEP")
+class DistanciaOfflineServiceTest {
+
+  private static final String TABELA = "distancia/cep-centroides.csv";
+
+  @Mock private GoogleMapsDistanceService distanceService;
+
+  private SimpleMeterRegistry registry;
+  private Endereco mogiMirim;
+  private Endereco saoPaulo;
+  private Endereco manaus;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    mogiMirim =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+    saoPaulo = new Endereco("01001-000", "Praça da Sé", "123", "Sé", "São Paulo", UF.SP);
+    manaus = new Endereco("69005-070", "Avenida Eduardo Ribeiro", "520", "Centro", "Manaus", UF.AM);
+  }
+
+  private DistanciaOfflineService motor(DistanciaOfflineService.Modo modo) {
+    return new DistanciaOfflineService(modo, TABELA);
+  }
+
+  private FreteService freteService(DistanciaOfflineService.Modo modo) {
+    return new FreteService(
+        new DistanciaLoteService(distanceService, false, Duration.ZERO, false),
+        new DistanciaCacheService(100, Duration.ofHours(1)),
+        motor(modo),
+        new MetricasEncomendaService(registry));
+  }
+
+  private double falhasGoogleMaps(String status) {
+    return registry
+        .get(MetricasEncomendaService.FALHAS_GOOGLE_MAPS)
+        .tag("status", status)
+        .counter()
+        .count();
+  }
+
+  private Encomenda encomenda(Endereco destino) {
+    return new Encomenda(
+        new Cliente("Maria da Silva", "maria.silva@email.com", "12345678901"),
+        mogiMirim,
+        destino,
+        TipoEntrega.PADRAO,
+        "Bebê reborn colecionável",
+        new BigDecimal("2.5"),
+        new BigDecimal("45.0"),
+        new BigDecimal("350.00"));
+  }
+
+  @Test
+  @DisplayName("Deve estimar distância rodoviária plausível entre Mogi Mirim e São Paulo")
+  void deveEstimarDistanciaPlausivel() {
+    CalculoDeDistanciaResult resultado =
+        motor(DistanciaOfflineService.Modo.FALLBACK).estimar(mogiMirim, saoPaulo);
+
+    // Rota real pela SP-340/Bandeirantes tem cerca de 160 km
+    assertThat(resultado.getDistanciaKm()).isBetween(new BigDecimal("130"), new BigDecimal("190"));
+    assertThat(resultado.getDuracaoMinutos()).isPositive();
+  }
+
+  @Test
+  @DisplayName("Deve aplicar distância mínima para CEPs da mesma faixa")
+  void deveAplicarDistanciaMinima() {
+    Endereco vizinho = new Endereco("01002-000", "Rua Direita", "10", "Sé", "São Paulo", UF.SP);
+
+    CalculoDeDistanciaResult resultado =
+        motor(DistanciaOfflineService.Modo.FALLBACK).estimar(saoPaulo, vizinho);
+
+    assertThat(resultado.getDistanciaKm()).isEqualByComparingTo("5.0");
+  }
+
+  @Test
+  @DisplayName("Deve usar o centróide da UF quando o prefixo do CEP não pertence à UF informada")
+  void deveUsarCentroideDaUfParaPrefixoInconsistente() {
+    Endereco inconsistente =
+        new Endereco("01001-000", "Avenida Eduardo Ribeiro", "520", "Centro", "Manaus", UF.AM);
+
+    DistanciaOfflineService motor = motor(DistanciaOfflineService.Modo.FALLBACK);
+
+    assertThat(motor.estimar(mogiMirim, inconsistente).getDistanciaKm())
+        .isEqualByComparingTo(motor.estimar(mogiMirim, manaus).getDistanciaKm());
+  }
+
+  @Test
+  @DisplayName("Deve aplicar fator rodoviário maior em rotas que envolvem a região Norte")
+  void deveAplicarFatorRodoviarioPorParDeUf() {
+    assertThat(DistanciaOfflineService.fatorRodoviario(UF.SP, UF.SP)).isEqualTo(1.20);
+    assertThat(DistanciaOfflineService.fatorRodoviario(UF.SP, UF.RJ)).isEqualTo(1.25);
+    assertThat(DistanciaOfflineService.fatorRodoviario(UF.SP, UF.BA)).isEqualTo(1.35);
+    assertThat(DistanciaOfflineService.fatorRodoviario(UF.SP, UF.AM)).isEqualTo(1.50);
+  }
+
+  @Test
+  @DisplayName("Modo FALLBACK deve calcular o frete com a estimativa quando o Google Maps falha")
+  void modoFallbackDeveUsarEstimativaQuandoGoogleMapsFalha() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenThrow(new GoogleMapsIntegrationException("Falha na comunicação com o Google Maps"));
+
+    Frete frete =
+        freteService(DistanciaOfflineService.Modo.FALLBACK)
+            .calcularFreteComDistanciaReal(encomenda(saoPaulo));
+
+    assertThat(frete.getDistanciaKm()).isBetween(new BigDecimal("130"), new BigDecimal("190"));
+    assertThat(falhasGoogleMaps(MetricasEncomendaService.FALHA_REQUISICAO)).isEqualTo(1);
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DistanceMatrixElementStatus.class,
+      names = {"NOT_FOUND", "ZERO_RESULTS"})
+  @DisplayName("Modo FALLBACK deve rejeitar endereço não encontrado ou rota inexistente")
+  void modoFallbackDevePropagarFalhaDoElemento(DistanceMatrixElementStatus status) {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenThrow(new GoogleMapsIntegrationException("Sem rota", status));
+
+    FreteService freteService = freteService(DistanciaOfflineService.Modo.FALLBACK);
+
+    assertThatThrownBy(() -> freteService.calcularFreteComDistanciaReal(encomenda(saoPaulo)))
+        .isInstanceOf(GoogleMapsIntegrationException.class);
+    assertThat(falhasGoogleMaps(status.name())).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Modo DESATIVADO deve propagar a falha do Google Maps e contá-la pelo status")
+  void modoDesativadoDevePropagarFalha() {
+    when(distanceService.calcularDistancia(anyString(), anyString()))
+        .thenThrow(
+            new GoogleMapsIntegrationException(
+                "Endereço não encontrado", DistanceMatrixElementStatus.NOT_FOUND));
+
+    FreteService freteService = freteService(DistanciaOfflineService.Modo.DESATIVADO);
+
+    assertThatThrownBy(() -> freteService.calcularFreteComDistanciaReal(encomenda(saoPaulo)))
+        .isInstanceOf(GoogleMapsIntegrationException.class);
+    assertThat(falhasGoogleMaps(DistanceMatrixElementStatus.NOT_FOUND.name())).isEqualTo(1);
+    assertThat(falhasGoogleMaps(MetricasEncomendaService.FALHA_REQUISICAO)).isZero();
+  }
+
+  @Test
+  @DisplayName("Modo PRIMARIO deve cotar na hora e reconciliar a rota real no cache")
+  void modoPrimarioDeveCotarNaHoraEReconciliar() {
+    DistanciaCacheService cache = new DistanciaCacheService(100, Duration.ofHours(1));
+    DistanciaLoteService lote = mock(DistanciaLoteService.class);
+    CalculoDeDistanciaResult real =
+        CalculoDeDistanciaResult.builder()
+            .distanciaKm(new BigDecimal("160.0"))
+            .duracaoMinutos(150L)
+            .build();
+    when(lote.calcularAsync(anyString(), anyString()))
+        .thenReturn(CompletableFuture.completedFuture(real));
+
+    FreteService freteService =
+        new FreteService(
+            lote,
+            cache,
+            motor(DistanciaOfflineService.Modo.PRIMARIO),
+            new MetricasEncomendaService(registry));
+
+    Frete estimado = freteService.calcularFreteComDistanciaReal(encomenda(saoPaulo));
+    Frete reconciliado = freteService.calcularFreteComDistanciaReal(encomenda(saoPaulo));
+
+    assertThat(estimado.getDistanciaKm()).isNotEqualByComparingTo("160.0");
+    assertThat(reconciliado.getDistanciaKm()).isEqualByComparingTo("160.0");
+    verify(lote, times(1)).calcularAsync(anyString(), anyString());
+    verify(lote, never()).calcular(anyString(), anyString());
+    assertThat(cache.buscar(mogiMirim, saoPaulo)).contains(real);
+  }
+}
@@ -0,0 +1,205 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.request.EncomendaRequestDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.request.EnderecoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Testes de concorrência das transições de status.
+ *
+ * <p>Várias threads alteram a mesma encomenda ao mesmo tempo, cada uma em sua própria transação (o
+ * teste não roda dentro da transação do {@code @DataJpaTest}). A versão da encomenda impede que uma
+ * transição sobrescreva outra: o estado final precisa ser alcançável pela sequência de transições
+ * efetivamente gravadas.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+  EncomendaService.class,
+  DadosReferenciaService.class,
+  HistoricoEncomendaService.class,
+  ProjecaoEncomendaService.class,
+  MetricasEncomendaService.class,
+  SimpleMeterRegistry.class
+})
+@DisplayName("EncomendaService - Transições de status concorrentes")
+class EncomendaServiceConcorrenciaTest {
+
+  private static final int THREADS = 16;
+  private static final int RODADAS = 10;
+  private static final List<StatusEncomenda> SEQUENCIA =
+      List.of(
+          StatusEncomenda.PENDENTE,
+          StatusEncomenda.CONFIRMADA,
+          StatusEncomenda.EM_TRANSITO,
+          StatusEncomenda.ENTREGUE);
+
+  @Autowired private EncomendaService encomendaService;
+  @Autowired private EncomendaRepository encomendaRepository;
+
+  @MockitoBean private FreteService freteService;
+  @MockitoBean private ViaCepCacheService viaCepCache;
+  @MockitoBean private CotacaoAssincronaService cotacaoAssincrona;
+  @MockitoBean private CaixaSaidaService caixaSaida;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenReturn(
+            new CotacaoFreteResult(
+                TipoEntrega.PADRAO, new BigDecimal("45.50"), new BigDecimal("150.0"), 3));
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    encomendaRepository.deleteAll();
+  }
+
+  private String novaEncomenda() {
+    EnderecoDTO destino = new EnderecoDTO();
+    destino.setCep("01001-000");
+    destino.setLogradouro("Praça da Sé");
+    destino.setNumero("900");
+    destino.setBairro("Sé");
+    destino.setCidade("São Paulo");
+    destino.setUf("SP");
+
+    EncomendaRequestDTO dto = new EncomendaRequestDTO();
+    dto.setEnderecoDestino(destino);
+    dto.setTipoEntrega(TipoEntrega.PADRAO);
+    dto.setDescricaoBebe("Bebê reborn Alice, 50cm");
+    dto.setPesoKg(new BigDecimal("2.5"));
+    dto.setAlturaCm(new BigDecimal("50.0"));
+    dto.setValorDeclarado(new BigDecimal("300.00"));
+    return encomendaService.criaEncomenda(dto).getCodigo();
+  }
+
+  /** Dispara todas as tarefas juntas e retorna o resultado de cada uma (valor ou exceção). */
+  private List<Object> executarJuntas(List<Callable<StatusEncomenda>> tarefas)
+      throws InterruptedException {
+    CountDownLatch largada = new CountDownLatch(1);
+    List<Future<StatusEncomenda>> futuros = new ArrayList<>();
+    for (Callable<StatusEncomenda> tarefa : tarefas) {
+      futuros.add(
+          executor.submit(
+              () -> {
+                largada.await();
+                return tarefa.call();
+              }));
+    }
+    largada.countDown();
+
+    List<Object> resultados = new ArrayList<>();
+    for (Future<StatusEncomenda> futuro : futuros) {
+      try {
+        resultados.add(futuro.get(30, TimeUnit.SECONDS));
+      } catch (ExecutionException e) {
+        resultados.add(e.getCause());
+      } catch (TimeoutException e) {
+        throw new AssertionError("Transição não terminou", e);
+      }
+    }
+    return resultados;
+  }
+
+  private Encomenda recarregar(String codigo) {
+    return encomendaRepository.findByCodigo(codigo).orElseThrow();
+  }
+
+  @Test
+  @DisplayName("Deve avançar uma única vez por status lido, sem pular etapas nem perder transições")
+  void deveAvancarSemTransicoesDuplicadas() throws InterruptedException {
+    for (int rodada = 0; rodada < RODADAS; rodada++) {
+      String codigo = novaEncomenda();
+      long versaoInicial = recarregar(codigo).getVersao();
+
+      List<Callable<StatusEncomenda>> tarefas = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        tarefas.add(() -> encomendaService.avancarStatus(codigo));
+      }
+      List<Object> resultados = executarJuntas(tarefas);
+
+      Encomenda encomenda = recarregar(codigo);
+      int etapas = SEQUENCIA.indexOf(encomenda.getStatus());
+      assertThat(resultados).allSatisfy(r -> assertThat(r).isInstanceOf(StatusEncomenda.class));
+      assertThat(resultados).allSatisfy(r -> assertThat(SEQUENCIA.indexOf(r)).isBetween(1, etapas));
+      // Cada UPDATE gravado é exatamente uma etapa da sequência
+      assertThat(encomenda.getVersao() - versaoInicial).isEqualTo(etapas);
+    }
+  }
+
+  @Test
+  @DisplayName("Não deve sobrescrever um cancelamento com um avanço concorrente")
+  void naoDeveSobrescreverCancelamento() throws InterruptedException {
+    for (int rodada = 0; rodada < RODADAS; rodada++) {
+      String codigo = novaEncomenda();
+      encomendaService.avancarStatus(codigo);
+
+      List<Callable<StatusEncomenda>> tarefas = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        String motivo = "Cancelamento concorrente " + i;
+        tarefas.add(
+            i % 2 == 0
+                ? () -> encomendaService.avancarStatus(codigo)
+                : () -> encomendaService.cancelarEncomendaPorCodigo(codigo, motivo));
+      }
+      List<Object> resultados = executarJuntas(tarefas);
+
+      assertThat(resultados)
+          .allSatisfy(
+              r ->
+                  assertThat(r)
+                      .isInstanceOfAny(
+                          StatusEncomenda.class,
+                          IllegalStateException.class,
+                          OptimisticLockingFailureException.class));
+
+      Encomenda encomenda = recarregar(codigo);
+      if (resultados.contains(StatusEncomenda.CANCELADA)) {
+        // Um cancelamento confirmado não pode ser desfeito por um avanço que leu o status anterior
+        assertThat(encomenda.getStatus()).isEqualTo(StatusEncomenda.CANCELADA);
+        assertThat(encomenda.getObservacoes().split("CANCELAMENTO:", -1)).hasSize(2);
+      } else {
+        assertThat(encomenda.getStatus()).isIn(SEQUENCIA);
+        assertThat(encomenda.getVersao()).isEqualTo(SEQUENCIA.indexOf(encomenda.getStatus()));
+      }
+    }
+  }
+}
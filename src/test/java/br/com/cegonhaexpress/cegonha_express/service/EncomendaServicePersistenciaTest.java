@@ -0,0 +1,442 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.request.EncomendaRequestDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.request.EnderecoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaResponseDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.EventoEncomendaDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.MudancaStatusDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.PainelEncomendasDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoTransicaoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoTransicaoDTO.Situacao;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.ContagemStatus;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Frete;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEventoEncomenda;
+import br.com.cegonhaexpress.cegonha_express.repository.ContagemStatusRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+/**
+ * Testes de persistência da criação de encomendas.
+ *
+ * <p>Conta os comandos SQL preparados por encomenda criada, com cálculo de frete simulado, para
+ * acompanhar o número de idas ao banco do fluxo de criação. Origem e cliente padrão são dados de
+ * referência, cadastrados uma única vez na primeira encomenda.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DataJpaTest
+@RecordApplicationEvents
+@Import({
+  EncomendaService.class,
+  DadosReferenciaService.class,
+  HistoricoEncomendaService.class,
+  ProjecaoEncomendaService.class,
+  MetricasEncomendaService.class,
+  SimpleMeterRegistry.class
+})
+@DisplayName("EncomendaService - Comandos SQL na criação de encomendas")
+class EncomendaServicePersistenciaTest {
+
+  @Autowired private EncomendaService encomendaService;
+  @Autowired private EntityManager entityManager;
+  @Autowired private ContagemStatusRepository contagemRepository;
+  @Autowired private MeterRegistry registry;
+
+  @MockitoBean private FreteService freteService;
+  @MockitoBean private ViaCepCacheService viaCepCache;
+  @MockitoBean private CotacaoAssincronaService cotacaoAssincrona;
+  @MockitoBean private CaixaSaidaService caixaSaida;
+
+  private Statistics estatisticas;
+
+  @BeforeEach
+  void setUp() {
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenReturn(
+            new CotacaoFreteResult(
+                TipoEntrega.PADRAO, new BigDecimal("45.50"), new BigDecimal("150.0"), 3));
+
+    estatisticas =
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+  }
+
+  private EncomendaRequestDTO novaEncomenda() {
+    return novaEncomenda("100");
+  }
+
+  private EncomendaRequestDTO novaEncomenda(String numeroDestino) {
+    EnderecoDTO destino = new EnderecoDTO();
+    destino.setCep("01001-000");
+    destino.setLogradouro("Praça da Sé");
+    destino.setNumero(numeroDestino);
+    destino.setBairro("Sé");
+    destino.setCidade("São Paulo");
+    destino.setUf("SP");
+
+    EncomendaRequestDTO dto = new EncomendaRequestDTO();
+    dto.setEnderecoDestino(destino);
+    dto.setTipoEntrega(TipoEntrega.PADRAO);
+    dto.setDescricaoBebe("Bebê reborn Alice, 50cm");
+    dto.setPesoKg(new BigDecimal("2.5"));
+    dto.setAlturaCm(new BigDecimal("50.0"));
+    dto.setValorDeclarado(new BigDecimal("300.00"));
+    return dto;
+  }
+
+  /** Cria uma encomenda e retorna quantos comandos SQL foram preparados até o flush. */
+  private long comandosParaCriar() {
+    estatisticas.setStatisticsEnabled(true);
+    estatisticas.clear();
+    try {
+      encomendaService.criaEncomenda(novaEncomenda());
+      entityManager.flush();
+      return estatisticas.getPrepareStatementCount();
+    } finally {
+      estatisticas.setStatisticsEnabled(false);
+    }
+  }
+
+  @Test
+  @DisplayName("Deve criar encomenda com número reduzido de comandos SQL")
+  void deveCriarEncomendaComPoucosComandos() {
+    // Primeiras criações cadastram os dados de referência e buscam os blocos de IDs nas sequences
+    long primeira = comandosParaCriar();
+    comandosParaCriar();
+    // Cada sequence busca um novo bloco a cada 50 IDs, em uma criação que depende dos dados já
+    // gravados pelos outros testes; entre cinco criações seguidas ao menos uma não busca bloco
+    long estavel = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      estavel = Math.min(estavel, comandosParaCriar());
+    }
+
+    System.out.println("Comandos SQL - primeira encomenda: " + primeira);
+    System.out.println("Comandos SQL - encomendas seguintes: " + estavel);
+
+    // Com IDENTITY eram 5 por encomenda: cada insert de endereço executado isoladamente.
+    // Com dados de referência e destino reaproveitado: busca do destino + encomenda + frete,
+    // evento de criação, linha de rastreamento e contagem do painel.
+    assertThat(estavel).isLessThanOrEqualTo(6);
+  }
+
+  @Test
+  @DisplayName("Deve gravar encomenda, destino e frete em uma única escrita, sem UPDATE")
+  void deveGravarAgregadoSemUpdate() {
+    // Cadastra os dados de referência com outro destino
+    encomendaService.criaEncomenda(novaEncomenda("1"));
+    entityManager.flush();
+
+    estatisticas.setStatisticsEnabled(true);
+    estatisticas.clear();
+    try {
+      encomendaService.criaEncomenda(novaEncomenda());
+      entityManager.flush();
+
+      // encomenda, destino, frete, evento de criação e rastreamento
+      assertThat(estatisticas.getEntityInsertCount()).isEqualTo(5);
+      assertThat(estatisticas.getEntityUpdateCount()).isZero();
+    } finally {
+      estatisticas.setStatisticsEnabled(false);
+    }
+  }
+
+  /** Quantidade de medições de um timer; os testes compartilham o registro. */
+  private long medicoes(String nome, String tag, String valor) {
+    return registry.get(nome).tag(tag, valor).timer().count();
+  }
+
+  @Test
+  @DisplayName("Deve medir o tempo total e cada etapa da criação")
+  void deveMedirEtapasDaCriacao() {
+    List<String> etapas = List.of("viacep", "enderecos", "gravacao");
+    List<Long> antes =
+        etapas.stream().map(e -> medicoes(MetricasEncomendaService.ETAPA, "etapa", e)).toList();
+    long sucessos = medicoes(MetricasEncomendaService.CRIACAO, "resultado", "sucesso");
+    long erros = medicoes(MetricasEncomendaService.CRIACAO, "resultado", "erro");
+
+    encomendaService.criaEncomenda(novaEncomenda());
+
+    for (int i = 0; i < etapas.size(); i++) {
+      assertThat(medicoes(MetricasEncomendaService.ETAPA, "etapa", etapas.get(i)))
+          .as(etapas.get(i))
+          .isEqualTo(antes.get(i) + 1);
+    }
+    assertThat(medicoes(MetricasEncomendaService.CRIACAO, "resultado", "sucesso"))
+        .isEqualTo(sucessos + 1);
+
+    // Falha na cotação conta como criação com erro
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenThrow(new IllegalStateException("Google Maps indisponível"));
+    assertThatThrownBy(() -> encomendaService.criaEncomenda(novaEncomenda()))
+        .isInstanceOf(IllegalStateException.class);
+    assertThat(medicoes(MetricasEncomendaService.CRIACAO, "resultado", "erro"))
+        .isEqualTo(erros + 1);
+  }
+
+  @Test
+  @DisplayName("Deve gravar encomenda pendente sem frete e agendar a cotação no modo assíncrono")
+  void deveGravarSemFreteEAgendarCotacao() {
+    EncomendaResponseDTO resposta = encomendaService.criaEncomendaAssincrona(novaEncomenda());
+    entityManager.flush();
+
+    assertThat(resposta.getStatus()).isEqualTo("Pendente");
+    assertThat(resposta.getValorFrete()).isNull();
+    Encomenda gravada =
+        entityManager
+            .createQuery("SELECT e FROM Encomenda e WHERE e.codigo = :codigo", Encomenda.class)
+            .setParameter("codigo", resposta.getCodigo())
+            .getSingleResult();
+    assertThat(gravada.getFrete()).isNull();
+
+    verify(cotacaoAssincrona).reservarVaga();
+    verify(cotacaoAssincrona)
+        .agendar(eq(gravada.getId()), any(), any(), eq(TipoEntrega.PADRAO), any());
+    verify(freteService, never()).cotarFrete(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Deve devolver a vaga e responder a encomenda gravada se o agendamento falhar")
+  void deveDevolverVagaSeAgendamentoFalhar() {
+    doThrow(new TaskRejectedException("pool encerrado"))
+        .when(cotacaoAssincrona)
+        .agendar(any(), any(), any(), any(), any());
+
+    EncomendaResponseDTO resposta = encomendaService.criaEncomendaAssincrona(novaEncomenda());
+    entityManager.flush();
+
+    // A encomenda já foi confirmada: fica PENDENTE sem frete para a varredura de recuperação
+    assertThat(resposta.getStatus()).isEqualTo("Pendente");
+    assertThat(encomendaService.buscarPorCodigo(resposta.getCodigo()).getValorFrete()).isNull();
+    verify(cotacaoAssincrona).liberarVaga();
+  }
+
+  @Test
+  @DisplayName("Deve devolver a vaga e recusar a criação se não houver vaga para a cotação")
+  void deveRecusarCriacaoSemVaga() {
+    doThrow(new TaskRejectedException("capacidade esgotada"))
+        .when(cotacaoAssincrona)
+        .reservarVaga();
+    PainelEncomendasDTO antes = encomendaService.buscarPainel();
+
+    assertThatThrownBy(() -> encomendaService.criaEncomendaAssincrona(novaEncomenda()))
+        .isInstanceOf(TaskRejectedException.class);
+    assertThat(encomendaService.buscarPainel().getTotal()).isEqualTo(antes.getTotal());
+    verify(cotacaoAssincrona, never()).agendar(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Deve publicar um evento por transição de status e nenhum quando o status não muda")
+  void devePublicarEventoPorTransicao(@Autowired ApplicationEvents eventos) {
+    String codigo = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+
+    encomendaService.avancarStatus(codigo);
+    encomendaService.cancelarEncomendaPorCodigo(codigo, "Cliente desistiu da compra");
+    encomendaService.cancelarEncomendaPorCodigo(codigo, "Cliente desistiu da compra");
+
+    assertThat(eventos.stream(MudancaStatusDTO.class))
+        .extracting(
+            MudancaStatusDTO::getCodigo,
+            MudancaStatusDTO::getStatusAnterior,
+            MudancaStatusDTO::getStatus)
+        .containsExactly(
+            tuple(codigo, StatusEncomenda.PENDENTE, StatusEncomenda.CONFIRMADA),
+            tuple(codigo, StatusEncomenda.CONFIRMADA, StatusEncomenda.CANCELADA));
+  }
+
+  @Test
+  @DisplayName("Deve registrar o histórico e atualizar rastreamento e painel na mesma transação")
+  void deveRegistrarHistoricoEProjecoes() {
+    PainelEncomendasDTO antes = encomendaService.buscarPainel();
+    String codigo = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+    encomendaService.avancarStatus(codigo);
+    encomendaService.cancelarEncomendaPorCodigo(codigo, "Cliente desistiu da compra");
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(encomendaService.buscarHistorico(codigo))
+        .extracting(
+            EventoEncomendaDTO::getTipo,
+            EventoEncomendaDTO::getStatusAnterior,
+            EventoEncomendaDTO::getStatus)
+        .containsExactly(
+            tuple(TipoEventoEncomenda.CRIADA, null, StatusEncomenda.PENDENTE),
+            tuple(
+                TipoEventoEncomenda.STATUS_ALTERADO,
+                StatusEncomenda.PENDENTE,
+                StatusEncomenda.CONFIRMADA),
+            tuple(
+                TipoEventoEncomenda.STATUS_ALTERADO,
+                StatusEncomenda.CONFIRMADA,
+                StatusEncomenda.CANCELADA));
+    String valorFrete = Frete.formatarValor(new BigDecimal("45.50"));
+    assertThat(encomendaService.buscarHistorico(codigo).get(0).getValorFrete())
+        .isEqualTo(valorFrete);
+    assertThat(encomendaService.buscarHistorico(codigo).get(2).getDetalhe())
+        .isEqualTo("Cliente desistiu da compra");
+
+    EncomendaResponseDTO rastreamento = encomendaService.buscarPorCodigo(codigo);
+    assertThat(rastreamento.getStatus()).isEqualTo("Cancelada");
+    assertThat(rastreamento.getValorFrete()).isEqualTo(valorFrete);
+
+    PainelEncomendasDTO depois = encomendaService.buscarPainel();
+    assertThat(depois.getTotal()).isEqualTo(antes.getTotal() + 1);
+    assertThat(depois.getQuantidadePorStatus().get(StatusEncomenda.CANCELADA))
+        .isEqualTo(antes.getQuantidadePorStatus().get(StatusEncomenda.CANCELADA) + 1);
+    assertThat(depois.getQuantidadePorStatus().get(StatusEncomenda.PENDENTE))
+        .isEqualTo(antes.getQuantidadePorStatus().get(StatusEncomenda.PENDENTE));
+    assertThat(depois.getQuantidadePorStatus().get(StatusEncomenda.CONFIRMADA))
+        .isEqualTo(antes.getQuantidadePorStatus().get(StatusEncomenda.CONFIRMADA));
+  }
+
+  /** Quantidade de PENDENTE em cada fatia do painel. */
+  private Map<Integer, Long> fatiasPendentes() {
+    return contagemRepository.findAll().stream()
+        .filter(linha -> linha.getStatus() == StatusEncomenda.PENDENTE)
+        .collect(Collectors.toMap(ContagemStatus::getFatia, ContagemStatus::getQuantidade));
+  }
+
+  @Test
+  @DisplayName("Deve distribuir as criações entre as fatias do painel e somá-las na leitura")
+  void deveDistribuirCriacoesEntreFatias() {
+    long antes =
+        encomendaService.buscarPainel().getQuantidadePorStatus().get(StatusEncomenda.PENDENTE);
+    Map<Integer, Long> fatiasAntes = fatiasPendentes();
+
+    for (int i = 0; i < 20; i++) {
+      encomendaService.criaEncomenda(novaEncomenda());
+    }
+    entityManager.flush();
+    entityManager.clear();
+
+    Map<Integer, Long> fatiasDepois = fatiasPendentes();
+    assertThat(fatiasDepois).hasSize(16);
+    // 20 criações sorteadas entre 16 fatias não caem todas na mesma
+    assertThat(fatiasDepois.entrySet())
+        .filteredOn(fatia -> fatia.getValue() > fatiasAntes.get(fatia.getKey()))
+        .hasSizeGreaterThan(1);
+    assertThat(
+            encomendaService.buscarPainel().getQuantidadePorStatus().get(StatusEncomenda.PENDENTE))
+        .isEqualTo(antes + 20);
+  }
+
+  @Test
+  @DisplayName("Deve ler rastreamento e ETag em um único SELECT e mudar o ETag a cada evento")
+  void deveDerivarEtagDoRastreamento() throws InterruptedException {
+    String codigo = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+    entityManager.flush();
+    entityManager.clear();
+
+    estatisticas.setStatisticsEnabled(true);
+    estatisticas.clear();
+    EncomendaService.RastreamentoVersionado pendente;
+    try {
+      pendente = encomendaService.buscarRastreamentoVersionado(codigo);
+      assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    } finally {
+      estatisticas.setStatisticsEnabled(false);
+    }
+
+    Thread.sleep(5);
+    encomendaService.avancarStatus(codigo);
+    entityManager.flush();
+    entityManager.clear();
+    EncomendaService.RastreamentoVersionado confirmada =
+        encomendaService.buscarRastreamentoVersionado(codigo);
+
+    assertThat(pendente.etag()).matches("\"[0-9a-f]+\"");
+    assertThat(pendente.encomenda().getStatus()).isEqualTo("Pendente");
+    assertThat(confirmada.encomenda().getStatus()).isEqualTo("Confirmada");
+    assertThat(confirmada.etag()).isNotEqualTo(pendente.etag());
+    assertThat(encomendaService.buscarRastreamentoVersionado(codigo).etag())
+        .isEqualTo(confirmada.etag());
+    assertThatThrownBy(() -> encomendaService.buscarRastreamentoVersionado("CE000"))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  @DisplayName("Deve responder 404 ao histórico de encomenda inexistente")
+  void deveRecusarHistoricoDeEncomendaInexistente() {
+    assertThatThrownBy(() -> encomendaService.buscarHistorico("CE999"))
+        .isInstanceOf(EntityNotFoundException.class);
+  }
+
+  @Test
+  @DisplayName("Deve transicionar lote com uma consulta e atualizações agrupadas")
+  void deveTransicionarLoteComPoucosComandos() {
+    String a = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+    String b = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+    String c = encomendaService.criaEncomenda(novaEncomenda()).getCodigo();
+    encomendaService.transicionarEmLote(List.of(a, b), StatusEncomenda.CONFIRMADA);
+    entityManager.flush();
+    entityManager.clear();
+
+    estatisticas.setStatisticsEnabled(true);
+    estatisticas.clear();
+    List<ResultadoTransicaoDTO> resultados;
+    try {
+      resultados =
+          encomendaService.transicionarEmLote(
+              List.of(a, "CE999", b, c, a), StatusEncomenda.EM_TRANSITO);
+      entityManager.flush();
+
+      // Consultas IN das encomendas e do rastreamento, UPDATE em lote das encomendas, INSERT em
+      // lote dos eventos, uma contagem por status afetado e um UPDATE por linha de rastreamento
+      // (com @DynamicUpdate o Hibernate não agrupa). Conforme as encomendas criadas pelos outros
+      // testes, os eventos podem esgotar o bloco de IDs e buscar o próximo na sequence.
+      assertThat(estatisticas.getPrepareStatementCount()).isBetween(8L, 9L);
+      assertThat(estatisticas.getEntityUpdateCount()).isEqualTo(4);
+    } finally {
+      estatisticas.setStatisticsEnabled(false);
+    }
+
+    assertThat(resultados)
+        .extracting(ResultadoTransicaoDTO::getCodigo, ResultadoTransicaoDTO::getSituacao)
+        .containsExactly(
+            tuple(a, Situacao.ALTERADA),
+            tuple("CE999", Situacao.NAO_ENCONTRADA),
+            tuple(b, Situacao.ALTERADA),
+            tuple(c, Situacao.REJEITADA));
+    assertThat(resultados.get(3).getErro())
+        .isEqualTo("Só é possível iniciar trânsito de encomendas confirmadas");
+    assertThat(
+            encomendaService
+                .transicionarEmLote(List.of(a), StatusEncomenda.EM_TRANSITO)
+                .get(0)
+                .getSituacao())
+        .isEqualTo(Situacao.INALTERADA);
+  }
+
+  @Test
+  @DisplayName("Deve recusar lote com status de destino que não é uma transição de avanço")
+  void deveRecusarLoteParaStatusInvalido() {
+    assertThatThrownBy(
+            () -> encomendaService.transicionarEmLote(List.of("CE1"), StatusEncomenda.CANCELADA))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
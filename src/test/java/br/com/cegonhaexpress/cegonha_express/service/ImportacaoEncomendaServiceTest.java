@@ -0,0 +1,307 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoImportacaoDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ResultadoImportacaoDTO.Situacao;
+import br.com.cegonhaexpress.cegonha_express.dto.result.CotacaoFreteResult;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Cliente;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Encomenda;
+import br.com.cegonhaexpress.cegonha_express.model.entity.Endereco;
+import br.com.cegonhaexpress.cegonha_express.model.enums.TipoEntrega;
+import br.com.cegonhaexpress.cegonha_express.model.enums.UF;
+import br.com.cegonhaexpress.cegonha_express.repository.EncomendaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Testes da importação de encomendas em lote (NDJSON e CSV).
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ImportacaoEncomendaService - Importação de encomendas em lote")
+class ImportacaoEncomendaServiceTest {
+
+  private static final CotacaoFreteResult COTACAO =
+      new CotacaoFreteResult(
+          TipoEntrega.PADRAO, new BigDecimal("45.50"), new BigDecimal("150.0"), 3);
+
+  private static final String CABECALHO_CSV =
+      "cep;logradouro;numero;bairro;cidade;uf;tipoEntrega;descricaoBebe;pesoKg";
+
+  @Mock private FreteService freteService;
+  @Mock private EncomendaRepository encomendaRepository;
+  @Mock private DadosReferenciaService dadosReferencia;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private HistoricoEncomendaService historico;
+
+  private ImportacaoEncomendaService importacao;
+  private final List<List<ResultadoImportacaoDTO>> lotes = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    importacao =
+        new ImportacaoEncomendaService(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            freteService,
+            encomendaRepository,
+            dadosReferencia,
+            transactionTemplate,
+            historico,
+            2,
+            2,
+            false);
+  }
+
+  @AfterEach
+  void tearDown() {
+    importacao.encerrar();
+  }
+
+  /** Simula origem, cliente, deduplicação e transação para que as encomendas sejam gravadas. */
+  @SuppressWarnings("unchecked")
+  private void prepararGravacao() {
+    Endereco origem =
+        new Endereco(
+            "13801-005",
+            "Rua Ariovaldo Silveira Franco",
+            "567",
+            "Jardim 31 de Março",
+            "Mogi Mirim",
+            UF.SP);
+    when(dadosReferencia.enderecoOrigem()).thenReturn(origem);
+    lenient().when(dadosReferencia.referenciaEnderecoOrigem()).thenReturn(origem);
+    lenient()
+        .when(dadosReferencia.referenciaClientePadrao())
+        .thenReturn(
+            new Cliente("Jailson Mendes", "jailsonmmm@gmail.com", "11976543211", "123.123.128-09"));
+    lenient()
+        .when(dadosReferencia.deduplicarDestinos(anyList()))
+        .thenAnswer(invocacao -> invocacao.getArgument(0));
+    lenient()
+        .doAnswer(
+            invocacao -> {
+              invocacao.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(any());
+  }
+
+  private static String ndjson(String numero, String pesoKg) {
+    return """
+           {"enderecoDestino":{"cep":"01001-000","logradouro":"Praça da Sé","numero":"%s",\
+           "bairro":"Sé","cidade":"São Paulo","uf":"SP"},"tipoEntrega":"PADRAO",\
+           "descricaoBebe":"Bebê reborn Alice","pesoKg":%s}
+           """
+        .formatted(numero, pesoKg);
+  }
+
+  private List<ResultadoImportacaoDTO> importar(
+      String conteudo, ImportacaoEncomendaService.Formato formato) throws IOException {
+    importacao.importar(new StringReader(conteudo), formato, lotes::add);
+    return lotes.stream().flatMap(List::stream).toList();
+  }
+
+  @Test
+  @DisplayName("Deve criar linhas válidas e rejeitar as inválidas sem interromper a importação")
+  void deveRejeitarLinhasInvalidasSemInterromper() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+
+    List<ResultadoImportacaoDTO> resultados =
+        importar(
+            ndjson("100", "2.5") + ndjson("101", "20") + "{nao e json\n",
+            ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(resultados).extracting(ResultadoImportacaoDTO::getLinha).containsExactly(1L, 2L, 3L);
+    assertThat(resultados.get(0).getSituacao()).isEqualTo(Situacao.CRIADA);
+    assertThat(resultados.get(0).getEncomenda().getValorFrete()).isNotNull();
+    assertThat(resultados.get(1).getSituacao()).isEqualTo(Situacao.REJEITADA);
+    assertThat(resultados.get(1).getErros())
+        .containsExactly("pesoKg: Peso deve ser menor que 15kg");
+    assertThat(resultados.get(2).getSituacao()).isEqualTo(Situacao.REJEITADA);
+    assertThat(resultados.get(2).getErros().get(0)).startsWith("JSON inválido");
+    verify(freteService, times(1)).cotarFrete(any(), any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("Deve importar CSV com ponto e vírgula, vírgula decimal, aspas e BOM")
+  @SuppressWarnings("unchecked")
+  void deveImportarCsv() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+    String csv =
+        "\uFEFF"
+            + CABECALHO_CSV
+            + "\r\n"
+            + "01001-000;Praça da Sé;100;Sé;São Paulo;SP;PADRAO;\"Alice; 50cm,"
+            + " \"\"loira\"\"\";2,5\r\n";
+
+    List<ResultadoImportacaoDTO> resultados = importar(csv, ImportacaoEncomendaService.Formato.CSV);
+
+    assertThat(resultados).hasSize(1);
+    assertThat(resultados.get(0).getLinha()).isEqualTo(2);
+    assertThat(resultados.get(0).getSituacao()).isEqualTo(Situacao.CRIADA);
+    ArgumentCaptor<List<Encomenda>> gravadas = ArgumentCaptor.forClass(List.class);
+    verify(encomendaRepository).saveAll(gravadas.capture());
+    Encomenda encomenda = gravadas.getValue().get(0);
+    assertThat(encomenda.getPesoKg()).isEqualByComparingTo("2.5");
+    assertThat(encomenda.getDescricaoBebe()).isEqualTo("Alice; 50cm, \"loira\"");
+    assertThat(encomenda.getEnderecoDestino().getCidade()).isEqualTo("São Paulo");
+  }
+
+  @Test
+  @DisplayName("Deve interromper a importação quando o cabeçalho CSV tiver coluna desconhecida")
+  void deveRejeitarCabecalhoDesconhecido() throws IOException {
+    List<ResultadoImportacaoDTO> resultados =
+        importar("cep,peso\n01001-000,2.5\n", ImportacaoEncomendaService.Formato.CSV);
+
+    assertThat(resultados).hasSize(1);
+    assertThat(resultados.get(0).getLinha()).isEqualTo(1);
+    assertThat(resultados.get(0).getErros()).containsExactly("Coluna desconhecida: peso");
+    verifyNoInteractions(freteService, encomendaRepository, transactionTemplate);
+  }
+
+  @Test
+  @DisplayName("Deve gravar e entregar os resultados em lotes de tamanho fixo")
+  void deveProcessarEmLotes() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+    StringBuilder conteudo = new StringBuilder();
+    for (int i = 0; i < 5; i++) {
+      conteudo.append(ndjson(String.valueOf(100 + i), "2.5"));
+    }
+
+    importar(conteudo.toString(), ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(lotes).extracting(List::size).containsExactly(2, 2, 1);
+    verify(transactionTemplate, times(3)).executeWithoutResult(any());
+    verify(dadosReferencia, times(3)).deduplicarDestinos(anyList());
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar apenas a linha cuja cotação de frete falhar")
+  void deveRejeitarLinhaComFalhaNaCotacao() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenAnswer(
+            invocacao -> {
+              Endereco destino = invocacao.getArgument(1);
+              if (destino.getNumero().equals("101")) {
+                throw new IllegalStateException("Rota não encontrada");
+              }
+              return COTACAO;
+            });
+
+    List<ResultadoImportacaoDTO> resultados =
+        importar(
+            ndjson("100", "2.5") + ndjson("101", "2.5"), ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(resultados)
+        .extracting(ResultadoImportacaoDTO::getSituacao)
+        .containsExactly(Situacao.CRIADA, Situacao.REJEITADA);
+    assertThat(resultados.get(1).getErros()).containsExactly("Falha ao cotar o frete");
+  }
+
+  @Test
+  @DisplayName("Deve limitar as cotações simultâneas também com threads virtuais")
+  void deveLimitarCotacoesComThreadsVirtuais() throws IOException {
+    importacao.encerrar();
+    importacao =
+        new ImportacaoEncomendaService(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            freteService,
+            encomendaRepository,
+            dadosReferencia,
+            transactionTemplate,
+            historico,
+            10,
+            2,
+            true);
+    prepararGravacao();
+    AtomicInteger emAndamento = new AtomicInteger();
+    AtomicInteger maximo = new AtomicInteger();
+    when(freteService.cotarFrete(any(), any(), any(), any()))
+        .thenAnswer(
+            invocacao -> {
+              maximo.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              emAndamento.decrementAndGet();
+              return COTACAO;
+            });
+
+    StringBuilder entrada = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      entrada.append(ndjson(String.valueOf(100 + i), "2.5"));
+    }
+    List<ResultadoImportacaoDTO> resultados =
+        importar(entrada.toString(), ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(resultados)
+        .extracting(ResultadoImportacaoDTO::getSituacao)
+        .containsOnly(Situacao.CRIADA);
+    assertThat(maximo.get()).isLessThanOrEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar as linhas do lote quando a gravação falhar")
+  void deveRejeitarLoteQuandoGravacaoFalhar() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+    when(encomendaRepository.saveAll(anyList()))
+        .thenThrow(new DataIntegrityViolationException("violação de chave"));
+
+    List<ResultadoImportacaoDTO> resultados =
+        importar(
+            ndjson("100", "2.5") + ndjson("101", "2.5"), ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(resultados)
+        .allSatisfy(
+            resultado -> {
+              assertThat(resultado.getSituacao()).isEqualTo(Situacao.REJEITADA);
+              assertThat(resultado.getEncomenda()).isNull();
+              assertThat(resultado.getErros()).containsExactly("Falha ao gravar o lote");
+            });
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar linha acima do tamanho máximo sem guardá-la inteira")
+  void deveRejeitarLinhaMuitoLonga() throws IOException {
+    prepararGravacao();
+    when(freteService.cotarFrete(any(), any(), any(), any())).thenReturn(COTACAO);
+    String longa = "x".repeat(ImportacaoEncomendaService.TAMANHO_MAXIMO_LINHA + 10) + "\n";
+
+    List<ResultadoImportacaoDTO> resultados =
+        importar(longa + ndjson("100", "2.5"), ImportacaoEncomendaService.Formato.NDJSON);
+
+    assertThat(resultados.get(0).getErros())
+        .containsExactly(
+            "Linha excede " + ImportacaoEncomendaService.TAMANHO_MAXIMO_LINHA + " caracteres");
+    assertThat(resultados.get(1).getSituacao()).isEqualTo(Situacao.CRIADA);
+  }
+}
@@ -0,0 +1,233 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+
+import br.com.cegonhaexpress.cegonha_express.dto.response.EncomendaResponseDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.MudancaStatusDTO;
+import br.com.cegonhaexpress.cegonha_express.model.enums.StatusEncomenda;
+import jakarta.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Testes do canal de eventos de mudança de status (fan-out, descarte de assinantes lentos e
+ * batimentos).
+ *
+ * @author Gabriel Coelho Soares
+ */
+@DisplayName("NotificacaoStatusService - Canal de eventos de status")
+class NotificacaoStatusServiceTest {
+
+  private NotificacaoStatusService notificacao;
+  private final List<EmissorCapturado> emissores = new CopyOnWriteArrayList<>();
+  private volatile CountDownLatch bloqueioEnvio;
+
+  /** Emissor que guarda o texto SSE de cada envio em vez de escrever em uma resposta. */
+  private final class EmissorCapturado extends SseEmitter {
+
+    private final List<String> enviados = new CopyOnWriteArrayList<>();
+    private volatile boolean encerrado;
+    private volatile boolean livre;
+
+    private EmissorCapturado(long timeout) {
+      super(timeout);
+    }
+
+    @Override
+    public void send(SseEventBuilder evento) throws IOException {
+      CountDownLatch bloqueio = livre ? null : bloqueioEnvio;
+      if (bloqueio != null) {
+        try {
+          bloqueio.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      enviados.add(
+          evento.build().stream()
+              .map(parte -> String.valueOf(parte.getData()))
+              .collect(Collectors.joining()));
+    }
+
+    @Override
+    public void complete() {
+      encerrado = true;
+    }
+
+    private String texto() {
+      return String.join("", enviados);
+    }
+  }
+
+  private NotificacaoStatusService criar(int buffer, Duration heartbeat) {
+    return criar(buffer, heartbeat, Duration.ofMinutes(1));
+  }
+
+  private NotificacaoStatusService criar(int buffer, Duration heartbeat, Duration timeoutEnvio) {
+    notificacao =
+        new NotificacaoStatusService(buffer, heartbeat, Duration.ofMinutes(1), 2, timeoutEnvio) {
+          @Override
+          SseEmitter novoEmissor(long timeoutMillis) {
+            EmissorCapturado emissor = new EmissorCapturado(timeoutMillis);
+            emissores.add(emissor);
+            return emissor;
+          }
+        };
+    return notificacao;
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (bloqueioEnvio != null) {
+      bloqueioEnvio.countDown();
+    }
+    notificacao.encerrar();
+  }
+
+  private static MudancaStatusDTO mudanca(
+      String codigo, StatusEncomenda anterior, StatusEncomenda novo) {
+    return MudancaStatusDTO.builder()
+        .codigo(codigo)
+        .statusAnterior(anterior)
+        .status(novo)
+        .momento(LocalDateTime.of(2025, 1, 15, 14, 30))
+        .build();
+  }
+
+  private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+    long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condicao.getAsBoolean() && System.nanoTime() < limite) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  @DisplayName(
+      "Deve enviar o estado inicial e as transições da encomenda assinada e do canal geral")
+  void deveEnviarTransicoesAosAssinantesInteressados() throws InterruptedException {
+    criar(8, Duration.ofMinutes(1));
+    notificacao.assinar(
+        "CE1", () -> new EncomendaResponseDTO("CE1", "Confirmada", "R$ 45,50", "3 dias úteis"));
+    notificacao.assinar("CE2", () -> new EncomendaResponseDTO("CE2", "Pendente", null, null));
+    notificacao.assinar(null, null);
+    EmissorCapturado encomenda1 = emissores.get(0);
+    EmissorCapturado encomenda2 = emissores.get(1);
+    EmissorCapturado geral = emissores.get(2);
+
+    notificacao.publicar(mudanca("CE1", StatusEncomenda.CONFIRMADA, StatusEncomenda.EM_TRANSITO));
+    aguardar(() -> encomenda1.enviados.size() == 2 && geral.enviados.size() == 1);
+
+    assertThat(encomenda1.enviados.get(0)).startsWith("event:encomenda\n").contains("CE1");
+    assertThat(encomenda1.enviados.get(1)).startsWith("event:status\n");
+    assertThat(encomenda1.enviados.get(1))
+        .contains("statusAnterior=CONFIRMADA, status=EM_TRANSITO");
+    assertThat(geral.enviados).hasSize(1);
+    assertThat(geral.texto()).contains("codigo=CE1");
+    assertThat(encomenda2.enviados).hasSize(1);
+    assertThat(notificacao.getAssinantes()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("Deve desconectar o assinante lento sem atrasar os demais")
+  void deveDesconectarAssinanteLento() throws InterruptedException {
+    criar(2, Duration.ofMinutes(1));
+    notificacao.assinar(null, null);
+    EmissorCapturado lento = emissores.get(0);
+
+    // O envio ao assinante lento fica bloqueado: a fila dele enche
+    bloqueioEnvio = new CountDownLatch(1);
+    notificacao.publicar(mudanca("CE1", StatusEncomenda.PENDENTE, StatusEncomenda.CONFIRMADA));
+    Thread.sleep(100);
+    for (int i = 0; i < 3; i++) {
+      notificacao.publicar(mudanca("CE1", StatusEncomenda.PENDENTE, StatusEncomenda.CONFIRMADA));
+    }
+
+    assertThat(notificacao.getDesconectadosPorLentidao()).isEqualTo(1);
+    assertThat(notificacao.getAssinantes()).isZero();
+    assertThat(lento.encerrado).isFalse();
+
+    // O encerramento acontece na tarefa de envio, quando a escrita bloqueada termina
+    bloqueioEnvio.countDown();
+    bloqueioEnvio = null;
+    aguardar(() -> lento.encerrado);
+    assertThat(lento.encerrado).isTrue();
+    assertThat(lento.enviados).hasSize(1);
+
+    notificacao.assinar(null, null);
+    notificacao.publicar(mudanca("CE1", StatusEncomenda.CONFIRMADA, StatusEncomenda.EM_TRANSITO));
+    aguardar(() -> emissores.get(1).enviados.size() == 1);
+    assertThat(emissores.get(1).enviados).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("Deve desconectar envios travados sem esgotar o pool de envio")
+  void deveDesconectarEnvioTravado() throws InterruptedException {
+    criar(8, Duration.ofMinutes(1), Duration.ofMillis(200));
+    notificacao.assinar(null, null);
+    notificacao.assinar(null, null);
+    EmissorCapturado travado1 = emissores.get(0);
+    EmissorCapturado travado2 = emissores.get(1);
+
+    // Os dois envios bloqueiam as duas threads do pool
+    bloqueioEnvio = new CountDownLatch(1);
+    notificacao.publicar(mudanca("CE1", StatusEncomenda.PENDENTE, StatusEncomenda.CONFIRMADA));
+    aguardar(() -> notificacao.getDesconectadosPorLentidao() == 2);
+
+    assertThat(notificacao.getDesconectadosPorLentidao()).isEqualTo(2);
+    assertThat(notificacao.getAssinantes()).isZero();
+
+    // Um novo assinante recebe eventos enquanto as duas escritas continuam bloqueadas
+    notificacao.assinar(null, null);
+    emissores.get(2).livre = true;
+    notificacao.publicar(mudanca("CE1", StatusEncomenda.CONFIRMADA, StatusEncomenda.EM_TRANSITO));
+    aguardar(() -> emissores.get(2).enviados.size() == 1);
+    assertThat(emissores.get(2).enviados).hasSize(1);
+    assertThat(travado1.encerrado).isFalse();
+
+    bloqueioEnvio.countDown();
+    bloqueioEnvio = null;
+    aguardar(() -> travado1.encerrado && travado2.encerrado);
+    assertThat(travado1.encerrado).isTrue();
+    assertThat(travado2.encerrado).isTrue();
+  }
+
+  @Test
+  @DisplayName("Deve enviar batimentos periódicos como comentário SSE")
+  void deveEnviarBatimentos() throws InterruptedException {
+    criar(8, Duration.ofMillis(20));
+    notificacao.assinar(null, null);
+
+    aguardar(() -> emissores.get(0).enviados.size() >= 2);
+
+    assertThat(emissores.get(0).enviados).hasSizeGreaterThanOrEqualTo(2);
+    assertThat(emissores.get(0).enviados.get(0)).isEqualTo(":batimento\n\n");
+  }
+
+  @Test
+  @DisplayName("Deve cancelar a assinatura quando o estado inicial não puder ser lido")
+  void deveCancelarAssinaturaSemEstadoInicial() {
+    criar(8, Duration.ofMinutes(1));
+
+    assertThatThrownBy(
+            () ->
+                notificacao.assinar(
+                    "CE9",
+                    () -> {
+                      throw new EntityNotFoundException("Não existe uma encomenda com este Código");
+                    }))
+        .isInstanceOf(EntityNotFoundException.class);
+    assertThat(notificacao.getAssinantes()).isZero();
+  }
+}
@@ -0,0 +1,237 @@
+package br.com.cegonhaexpress.cegonha_express.service;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+import br.com.cegonhaexpress.cegonha_express.diagnostico.ConsultaViaCepEvento;
+import br.com.cegonhaexpress.cegonha_express.dto.response.CepCacheEstatisticasDTO;
+import br.com.cegonhaexpress.cegonha_express.dto.response.ViaCepResponseDto;
+import br.com.cegonhaexpress.cegonha_express.model.entity.CepConsultado;
+import br.com.cegonhaexpress.cegonha_express.repository.CepConsultadoRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Testes unitários do cache em dois níveis de consultas de CEP.
+ *
+ * @author Gabriel Coelho Soares
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ViaCepCacheService - Cache de CEPs")
+class ViaCepCacheServiceTest {
+
+  private static final String URL_SE = "https://viacep.com.br/ws/01001000/json/";
+
+  @Mock private RestTemplate restTemplate;
+  @Mock private CepConsultadoRepository cepConsultadoRepository;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  private ViaCepCacheService viaCepCache;
+  private ViaCepResponseDto responseValida;
+
+  @BeforeEach
+  void setUp() {
+    viaCepCache =
+        new ViaCepCacheService(
+            new ViaCepService(restTemplate),
+            cepConsultadoRepository,
+            transactionManager,
+            100,
+            Duration.ofDays(30),
+            Duration.ofMinutes(10));
+
+    responseValida = new ViaCepResponseDto();
+    responseValida.setCep("01001-000");
+    responseValida.setLogradouro("Praça da Sé");
+    responseValida.setBairro("Sé");
+    responseValida.setLocalidade("São Paulo");
+    responseValida.setUf("SP");
+  }
+
+  private ViaCepResponseDto responseComErro() {
+    ViaCepResponseDto response = new ViaCepResponseDto();
+    response.setErro(true);
+    return response;
+  }
+
+  @Test
+  @DisplayName("Deve consultar a ViaCEP apenas uma vez para o mesmo CEP")
+  void deveConsultarApenasUmaVez() {
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class)).thenReturn(responseValida);
+
+    ViaCepResponseDto primeira = viaCepCache.buscarEnderecoPorCep("01001-000");
+    ViaCepResponseDto segunda = viaCepCache.buscarEnderecoPorCep("01001000");
+
+    assertThat(primeira.getLogradouro()).isEqualTo("Praça da Sé");
+    assertThat(segunda).isSameAs(primeira);
+    verify(restTemplate, times(1)).getForObject(anyString(), eq(ViaCepResponseDto.class));
+    verify(cepConsultadoRepository).save(any(CepConsultado.class));
+
+    CepCacheEstatisticasDTO estatisticas = viaCepCache.getEstatisticas();
+    assertThat(estatisticas.getConsultas()).isEqualTo(2);
+    assertThat(estatisticas.getAcertosMemoria()).isEqualTo(1);
+    assertThat(estatisticas.getConsultasApi()).isEqualTo(1);
+    assertThat(estatisticas.getTaxaAcerto()).isEqualTo(0.5);
+  }
+
+  @Test
+  @DisplayName("Deve guardar CEP inexistente como resposta negativa")
+  void deveGuardarRespostaNegativa() {
+    when(restTemplate.getForObject(anyString(), eq(ViaCepResponseDto.class)))
+        .thenReturn(responseComErro());
+
+    assertThat(viaCepCache.buscarEnderecoPorCep("99999-999")).isNull();
+    assertThat(viaCepCache.buscarEnderecoPorCep("99999-999")).isNull();
+
+    verify(restTemplate, times(1)).getForObject(anyString(), eq(ViaCepResponseDto.class));
+    ArgumentCaptor<CepConsultado> captor = ArgumentCaptor.forClass(CepConsultado.class);
+    verify(cepConsultadoRepository).save(captor.capture());
+    assertThat(captor.getValue().isErro()).isTrue();
+    assertThat(captor.getValue().getCep()).isEqualTo("99999999");
+    assertThat(viaCepCache.getEstatisticas().getRespostasNegativas()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Deve atender pelo cache persistente sem chamar a ViaCEP")
+  void deveAtenderPeloCachePersistente() {
+    CepConsultado persistido = new CepConsultado("01001000");
+    persistido.atualizar(responseValida, LocalDateTime.now().minusDays(1));
+    when(cepConsultadoRepository.findByCep("01001000")).thenReturn(Optional.of(persistido));
+
+    ViaCepResponseDto resultado = viaCepCache.buscarEnderecoPorCep("01001-000");
+
+    assertThat(resultado.getCep()).isEqualTo("01001-000");
+    assertThat(resultado.getLocalidade()).isEqualTo("São Paulo");
+    verifyNoInteractions(restTemplate);
+    assertThat(viaCepCache.getEstatisticas().getAcertosPersistente()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve ignorar resposta negativa persistida que já expirou")
+  void deveIgnorarNegativoExpirado() {
+    CepConsultado persistido = new CepConsultado("01001000");
+    persistido.atualizar(responseComErro(), LocalDateTime.now().minusHours(1));
+    when(cepConsultadoRepository.findByCep("01001000")).thenReturn(Optional.of(persistido));
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class)).thenReturn(responseValida);
+
+    assertThat(viaCepCache.buscarEnderecoPorCep("01001-000")).isNotNull();
+    assertThat(persistido.isErro()).isFalse();
+  }
+
+  @Test
+  @DisplayName("Deve usar registro expirado quando a ViaCEP estiver indisponível")
+  void deveUsarRegistroExpiradoQuandoApiIndisponivel() {
+    CepConsultado persistido = new CepConsultado("01001000");
+    persistido.atualizar(responseValida, LocalDateTime.now().minusDays(60));
+    when(cepConsultadoRepository.findByCep("01001000")).thenReturn(Optional.of(persistido));
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class))
+        .thenThrow(new RestClientException("Connection timeout"));
+
+    ViaCepResponseDto resultado = viaCepCache.buscarEnderecoPorCep("01001-000");
+
+    assertThat(resultado.getLogradouro()).isEqualTo("Praça da Sé");
+  }
+
+  @Test
+  @DisplayName("Deve consultar a ViaCEP de novo após usar um registro expirado")
+  void deveConsultarApiDeNovoAposUsarRegistroExpirado() throws InterruptedException {
+    viaCepCache =
+        new ViaCepCacheService(
+            new ViaCepService(restTemplate),
+            cepConsultadoRepository,
+            transactionManager,
+            100,
+            Duration.ofDays(30),
+            Duration.ofMillis(50));
+    CepConsultado persistido = new CepConsultado("01001000");
+    persistido.atualizar(responseValida, LocalDateTime.now().minusDays(60));
+    when(cepConsultadoRepository.findByCep("01001000")).thenReturn(Optional.of(persistido));
+    ViaCepResponseDto atualizada = new ViaCepResponseDto();
+    atualizada.setCep("01001-000");
+    atualizada.setLogradouro("Praça da Sé - lado ímpar");
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class))
+        .thenThrow(new RestClientException("Connection timeout"))
+        .thenReturn(atualizada);
+
+    assertThat(viaCepCache.buscarEnderecoPorCep("01001-000").getLogradouro())
+        .isEqualTo("Praça da Sé");
+
+    // O registro expirado fica em memória só pela validade curta
+    Thread.sleep(100);
+    assertThat(viaCepCache.buscarEnderecoPorCep("01001-000").getLogradouro())
+        .isEqualTo("Praça da Sé - lado ímpar");
+    verify(restTemplate, times(2)).getForObject(URL_SE, ViaCepResponseDto.class);
+  }
+
+  @Test
+  @DisplayName("Deve registrar evento JFR com o nível do cache que respondeu e o status HTTP")
+  void deveRegistrarEventoJfr(@TempDir Path diretorio) throws IOException {
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class))
+        .thenThrow(
+            HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "", null, null, null))
+        .thenReturn(responseValida);
+
+    Path arquivo = diretorio.resolve("viacep.jfr");
+    try (Recording gravacao = new Recording()) {
+      gravacao.enable(ConsultaViaCepEvento.class).withoutThreshold();
+      gravacao.start();
+      viaCepCache.buscarEnderecoPorCep("01001-000");
+      viaCepCache.buscarEnderecoPorCep("01001-000");
+      viaCepCache.buscarEnderecoPorCep("01001-000");
+      gravacao.stop();
+      gravacao.dump(arquivo);
+    }
+
+    assertThat(RecordingFile.readAllEvents(arquivo))
+        .filteredOn(evento -> evento.getEventType().getName().equals("cegonha.ConsultaViaCep"))
+        .extracting(
+            evento -> evento.getString("cep"),
+            evento -> evento.getString("resultado"),
+            evento -> evento.getInt("statusHttp"))
+        .containsExactly(
+            tuple("01001000", ConsultaViaCepEvento.FALHA, 503),
+            tuple("01001000", ConsultaViaCepEvento.API, 200),
+            tuple("01001000", ConsultaViaCepEvento.MEMORIA, 0));
+  }
+
+  @Test
+  @DisplayName("Não deve armazenar falhas de comunicação")
+  void naoDeveArmazenarFalhas() {
+    when(restTemplate.getForObject(URL_SE, ViaCepResponseDto.class))
+        .thenThrow(new RestClientException("Connection timeout"))
+        .thenReturn(responseValida);
+
+    assertThat(viaCepCache.buscarEnderecoPorCep("01001-000")).isNull();
+    assertThat(viaCepCache.buscarEnderecoPorCep("01001-000")).isNotNull();
+
+    verify(restTemplate, times(2)).getForObject(URL_SE, ViaCepResponseDto.class);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar CEP inválido sem consultar cache nem API")
+  void deveRejeitarCepInvalido() {
+    assertThat(viaCepCache.buscarEnderecoPorCep("123")).isNull();
+
+    verifyNoInteractions(restTemplate, cepConsultadoRepository);
+  }
+}